@@ -0,0 +1,151 @@
+package com.sap.ai.assistant.benchmarks;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+
+import com.google.gson.JsonArray;
+import com.google.gson.JsonElement;
+import com.google.gson.JsonObject;
+import com.google.gson.JsonParser;
+import com.sap.ai.assistant.model.ChatConversation;
+import com.sap.ai.assistant.model.ChatMessage;
+import com.sap.ai.assistant.model.ToolCall;
+import com.sap.ai.assistant.model.ToolDefinition;
+import com.sap.ai.assistant.model.ToolResult;
+
+/**
+ * Loads the captured ADT and LLM payloads under {@code /fixtures} and
+ * scales them to the sizes the benchmarks are parameterised with.
+ */
+public final class Fixtures {
+
+    private Fixtures() {
+        // utility class -- no instances
+    }
+
+    /**
+     * Reads a fixture as UTF-8 text.
+     *
+     * @param path path below {@code /fixtures}, e.g. {@code "adt/syntax-check.xml"}
+     * @return the fixture content
+     */
+    public static String load(String path) {
+        String resource = "/fixtures/" + path;
+        try (InputStream in = Fixtures.class.getResourceAsStream(resource)) {
+            if (in == null) {
+                throw new IllegalArgumentException("Fixture not found: " + resource);
+            }
+            return new String(in.readAllBytes(), StandardCharsets.UTF_8);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Cannot read fixture " + resource, e);
+        }
+    }
+
+    /**
+     * Repeats every {@code <qName ...>...</qName>} element of an XML payload
+     * {@code copies} times in place, so a small captured response can stand
+     * in for a large one with the same structure.
+     *
+     * @param xml    the captured payload
+     * @param qName  the qualified name of the repeated element, e.g. {@code "adtcore:objectReference"}
+     * @param copies how often each element appears in the result (at least 1)
+     * @return the scaled payload
+     */
+    public static String replicate(String xml, String qName, int copies) {
+        String open = "<" + qName;
+        String close = "</" + qName + ">";
+        StringBuilder sb = new StringBuilder(xml.length() * Math.max(1, copies));
+        int pos = 0;
+        while (true) {
+            int start = indexOfElement(xml, open, pos);
+            if (start < 0) {
+                break;
+            }
+            int end = elementEnd(xml, start, close);
+            sb.append(xml, pos, start);
+            String element = xml.substring(start, end);
+            for (int i = 0; i < Math.max(1, copies); i++) {
+                sb.append(element);
+            }
+            pos = end;
+        }
+        sb.append(xml, pos, xml.length());
+        return sb.toString();
+    }
+
+    private static int indexOfElement(String xml, String open, int from) {
+        int idx = xml.indexOf(open, from);
+        while (idx >= 0) {
+            char next = idx + open.length() < xml.length() ? xml.charAt(idx + open.length()) : '>';
+            if (next == ' ' || next == '>' || next == '/' || next == '\n' || next == '\t' || next == '\r') {
+                return idx;
+            }
+            idx = xml.indexOf(open, idx + 1);
+        }
+        return -1;
+    }
+
+    private static int elementEnd(String xml, int start, String close) {
+        int tagEnd = xml.indexOf('>', start);
+        if (xml.charAt(tagEnd - 1) == '/') {
+            return tagEnd + 1;
+        }
+        return xml.indexOf(close, tagEnd) + close.length();
+    }
+
+    /**
+     * Returns the plugin's tool definitions as captured in
+     * {@code llm/tool-definitions.json}.
+     */
+    public static List<ToolDefinition> toolDefinitions() {
+        JsonArray array = JsonParser.parseString(load("llm/tool-definitions.json")).getAsJsonArray();
+        List<ToolDefinition> tools = new ArrayList<>(array.size());
+        for (JsonElement element : array) {
+            JsonObject obj = element.getAsJsonObject();
+            tools.add(new ToolDefinition(
+                    obj.get("name").getAsString(),
+                    obj.get("description").getAsString(),
+                    obj.getAsJsonObject("parameters")));
+        }
+        return tools;
+    }
+
+    /**
+     * Builds an agent conversation of {@code rounds} tool rounds. Each round
+     * reads the ABAP fixture and runs a syntax check, so tool results are
+     * realistic in size and content.
+     *
+     * @param rounds number of assistant tool-call rounds
+     * @return a new conversation
+     */
+    public static ChatConversation conversation(int rounds) {
+        String source = load("abap/zcl_flight_booking.abap");
+        String checkResult = load("adt/syntax-check.xml");
+
+        ChatConversation conversation = new ChatConversation("You are an ABAP assistant.");
+        conversation.addUserMessage("Fix the syntax errors in ZCL_FLIGHT_BOOKING and run the unit tests.");
+        for (int round = 0; round < rounds; round++) {
+            JsonObject readArgs = new JsonObject();
+            readArgs.addProperty("objectName", "ZCL_FLIGHT_BOOKING");
+            JsonObject checkArgs = new JsonObject();
+            checkArgs.addProperty("objectUrl", "/sap/bc/adt/oo/classes/zcl_flight_booking");
+
+            List<ToolCall> calls = new ArrayList<>();
+            calls.add(new ToolCall("call_" + round + "_read", "sap_get_source", readArgs));
+            calls.add(new ToolCall("call_" + round + "_check", "sap_syntax_check", checkArgs));
+            conversation.addAssistantMessage(new ChatMessage(ChatMessage.Role.ASSISTANT,
+                    "Reading the class and checking it (round " + (round + 1) + ").", calls, null));
+
+            List<ToolResult> results = new ArrayList<>();
+            results.add(ToolResult.success("call_" + round + "_read", source));
+            results.add(ToolResult.success("call_" + round + "_check", checkResult));
+            conversation.addAssistantMessage(ChatMessage.toolResults(results));
+        }
+        conversation.addAssistantMessage(ChatMessage.assistant(load("chat/assistant-answer.md")));
+        return conversation;
+    }
+}
@@ -0,0 +1,101 @@
+package com.sap.ai.assistant.llm;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.google.gson.JsonObject;
+import com.sap.ai.assistant.benchmarks.Fixtures;
+import com.sap.ai.assistant.model.ChatMessage;
+import com.sap.ai.assistant.model.LlmProviderConfig;
+import com.sap.ai.assistant.model.LlmProviderConfig.Provider;
+import com.sap.ai.assistant.model.ToolDefinition;
+
+/**
+ * Request serialisation and response parsing of the providers, without
+ * the network: a conversation of {@code rounds} tool rounds with the full
+ * tool catalogue, and captured responses with text, tool calls and usage.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class LlmProviderBenchmark {
+
+    @Param({ "1", "10", "30" })
+    public int rounds;
+
+    private AnthropicProvider anthropic;
+    private OpenAiProvider openAi;
+    private GeminiProvider gemini;
+
+    private List<ChatMessage> messages;
+    private String systemPrompt;
+    private List<ToolDefinition> tools;
+
+    private String anthropicResponse;
+    private String openAiResponse;
+    private String geminiResponse;
+
+    @Setup
+    public void setUp() {
+        anthropic = new AnthropicProvider(new LlmProviderConfig(Provider.ANTHROPIC, "benchmark"));
+        openAi = new OpenAiProvider(new LlmProviderConfig(Provider.OPENAI, "benchmark"));
+        gemini = new GeminiProvider(new LlmProviderConfig(Provider.GOOGLE, "benchmark"));
+
+        messages = Fixtures.conversation(rounds).getMessages();
+        systemPrompt = "You are an ABAP development assistant.\n\n"
+                + "## Current Editor Context\n"
+                + "Object: ZCL_FLIGHT_BOOKING (CLAS/OC)\n\n```abap\n"
+                + Fixtures.load("abap/zcl_flight_booking.abap") + "```\n";
+        tools = Fixtures.toolDefinitions();
+
+        anthropicResponse = Fixtures.load("llm/anthropic-response.json");
+        openAiResponse = Fixtures.load("llm/openai-response.json");
+        geminiResponse = Fixtures.load("llm/gemini-response.json");
+    }
+
+    @Benchmark
+    public String anthropicRequest() {
+        return anthropic.buildRequestBody(messages, systemPrompt, tools).toString();
+    }
+
+    @Benchmark
+    public String openAiRequest() {
+        JsonObject body = openAi.buildRequestBody(messages, systemPrompt, tools);
+        return body.toString();
+    }
+
+    @Benchmark
+    public String geminiRequest() {
+        return gemini.buildRequestBody(messages, systemPrompt, tools);
+    }
+
+    @Benchmark
+    public ChatMessage anthropicResponse() throws LlmException {
+        return anthropic.parseResponse(anthropicResponse);
+    }
+
+    @Benchmark
+    public ChatMessage openAiResponse() throws LlmException {
+        return openAi.parseResponse(openAiResponse);
+    }
+
+    @Benchmark
+    public ChatMessage geminiResponse() throws LlmException {
+        return gemini.parseResponse(geminiResponse);
+    }
+}
@@ -0,0 +1,60 @@
+package com.sap.ai.assistant.llm;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import com.sap.ai.assistant.benchmarks.Fixtures;
+import com.sap.ai.assistant.model.ToolDefinition;
+
+/**
+ * Conversion of the full tool catalogue into each provider's format, as
+ * done for every request.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ToolSchemaConverterBenchmark {
+
+    private List<ToolDefinition> tools;
+
+    @Setup
+    public void setUp() {
+        tools = Fixtures.toolDefinitions();
+    }
+
+    @Benchmark
+    public void anthropic(Blackhole bh) {
+        for (ToolDefinition tool : tools) {
+            bh.consume(ToolSchemaConverter.toAnthropicTool(tool));
+        }
+    }
+
+    @Benchmark
+    public void openAi(Blackhole bh) {
+        for (ToolDefinition tool : tools) {
+            bh.consume(ToolSchemaConverter.toOpenAiTool(tool));
+        }
+    }
+
+    @Benchmark
+    public void gemini(Blackhole bh) {
+        for (ToolDefinition tool : tools) {
+            bh.consume(ToolSchemaConverter.toGeminiTool(tool));
+        }
+    }
+}
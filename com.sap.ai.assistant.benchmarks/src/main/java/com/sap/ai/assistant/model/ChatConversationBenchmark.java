@@ -0,0 +1,61 @@
+package com.sap.ai.assistant.model;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.sap.ai.assistant.benchmarks.Fixtures;
+
+/**
+ * Truncation of old tool results, which the agent loop runs before every
+ * round. The first call on a fresh conversation does the copying; repeated
+ * calls on an already truncated one should be cheap.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ChatConversationBenchmark {
+
+    @Param({ "5", "20", "50" })
+    public int rounds;
+
+    private ChatConversation fresh;
+    private ChatConversation truncated;
+
+    @Setup(Level.Invocation)
+    public void freshConversation() {
+        fresh = Fixtures.conversation(rounds);
+    }
+
+    @Setup(Level.Iteration)
+    public void truncatedConversation() {
+        truncated = Fixtures.conversation(rounds);
+        truncated.truncateOldToolResults();
+    }
+
+    @Benchmark
+    public ChatConversation firstTruncation() {
+        fresh.truncateOldToolResults();
+        return fresh;
+    }
+
+    @Benchmark
+    public ChatConversation repeatedTruncation() {
+        truncated.truncateOldToolResults();
+        return truncated;
+    }
+}
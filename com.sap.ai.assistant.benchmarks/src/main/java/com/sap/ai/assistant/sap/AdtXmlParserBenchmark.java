@@ -0,0 +1,88 @@
+package com.sap.ai.assistant.sap;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.google.gson.JsonArray;
+import com.google.gson.JsonObject;
+import com.sap.ai.assistant.benchmarks.Fixtures;
+
+/**
+ * Parsing of captured ADT responses, scaled by repeating their list
+ * elements {@code copies} times.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class AdtXmlParserBenchmark {
+
+    @Param({ "1", "100", "2000" })
+    public int copies;
+
+    private String searchResults;
+    private String syntaxCheck;
+    private String atcWorklist;
+    private String unitTestResults;
+    private String dataPreview;
+    private String usageReferences;
+
+    @Setup
+    public void setUp() {
+        searchResults = Fixtures.replicate(Fixtures.load("adt/search-results.xml"),
+                "adtcore:objectReference", copies);
+        syntaxCheck = Fixtures.replicate(Fixtures.load("adt/syntax-check.xml"),
+                "chkrun:checkMessage", copies);
+        atcWorklist = Fixtures.replicate(Fixtures.load("adt/atc-worklist.xml"),
+                "atcfinding:finding", copies);
+        unitTestResults = Fixtures.replicate(Fixtures.load("adt/unit-test-results.xml"),
+                "testMethod", copies);
+        dataPreview = Fixtures.replicate(Fixtures.load("adt/data-preview.xml"),
+                "dataPreview:data", copies);
+        usageReferences = Fixtures.replicate(Fixtures.load("adt/usage-references.xml"),
+                "usageReferences:referencedObject", copies);
+    }
+
+    @Benchmark
+    public JsonArray searchResults() {
+        return AdtXmlParser.parseSearchResults(searchResults);
+    }
+
+    @Benchmark
+    public JsonArray syntaxCheck() {
+        return AdtXmlParser.parseSyntaxCheckResults(syntaxCheck);
+    }
+
+    @Benchmark
+    public JsonObject atcWorklist() {
+        return AdtXmlParser.parseAtcWorklist(atcWorklist);
+    }
+
+    @Benchmark
+    public JsonObject unitTestResults() {
+        return AdtXmlParser.parseUnitTestResults(unitTestResults);
+    }
+
+    @Benchmark
+    public JsonObject dataPreview() {
+        return AdtXmlParser.parseDataPreview(dataPreview);
+    }
+
+    @Benchmark
+    public JsonObject usageReferences() {
+        return AdtXmlParser.parseUsageReferences(usageReferences, 0, 50);
+    }
+}
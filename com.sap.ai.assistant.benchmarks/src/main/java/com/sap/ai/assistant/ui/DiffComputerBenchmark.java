@@ -0,0 +1,74 @@
+package com.sap.ai.assistant.ui;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.sap.ai.assistant.benchmarks.Fixtures;
+
+/**
+ * Diffs of an ABAP class repeated {@code copies} times: a few scattered
+ * edits (the usual LLM fix) and a complete rewrite (the worst case).
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class DiffComputerBenchmark {
+
+    @Param({ "1", "10", "50" })
+    public int copies;
+
+    private String original;
+    private String scatteredEdits;
+    private String rewrite;
+
+    @Setup
+    public void setUp() {
+        String source = Fixtures.load("abap/zcl_flight_booking.abap");
+        original = source.repeat(copies);
+
+        String[] lines = original.split("\n", -1);
+        StringBuilder edited = new StringBuilder();
+        StringBuilder rewritten = new StringBuilder();
+        for (int i = 0; i < lines.length; i++) {
+            if (i % 40 == 7) {
+                edited.append("    \" changed: ").append(lines[i].trim()).append('\n');
+            } else {
+                edited.append(lines[i]).append('\n');
+            }
+            rewritten.append(lines[i].toLowerCase()).append(" \" ").append(i).append('\n');
+        }
+        scatteredEdits = edited.toString();
+        rewrite = rewritten.toString();
+    }
+
+    @Benchmark
+    public List<DiffComputer.DiffLine> scatteredEdits() {
+        return DiffComputer.computeDiff(original, scatteredEdits, 3);
+    }
+
+    @Benchmark
+    public List<DiffComputer.DiffLine> rewrite() {
+        return DiffComputer.computeDiff(original, rewrite, 3);
+    }
+
+    @Benchmark
+    public String unifiedDiff() {
+        return DiffComputer.formatUnifiedDiff(
+                DiffComputer.computeDiff(original, scatteredEdits, 3), "zcl_flight_booking.abap");
+    }
+}
@@ -0,0 +1,51 @@
+package com.sap.ai.assistant.ui;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.sap.ai.assistant.benchmarks.Fixtures;
+
+/**
+ * The text passes {@link MarkdownRenderer} runs over every assistant
+ * message, on a captured answer repeated {@code copies} times.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class MarkdownScannerBenchmark {
+
+    @Param({ "1", "20", "200" })
+    public int copies;
+
+    private String text;
+
+    @Setup
+    public void setUp() {
+        text = Fixtures.load("chat/assistant-answer.md").repeat(copies);
+    }
+
+    @Benchmark
+    public List<MarkdownScanner.Span> scan() {
+        return MarkdownScanner.scan(text);
+    }
+
+    @Benchmark
+    public List<Integer> bulletLineOffsets() {
+        return MarkdownScanner.bulletLineOffsets(text);
+    }
+}
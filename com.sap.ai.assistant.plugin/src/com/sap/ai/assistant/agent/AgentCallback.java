@@ -22,8 +22,9 @@ public interface AgentCallback {
     /**
      * Called when the LLM produces a text token (or text fragment).
      * <p>
-     * Note: depending on the LLM provider, this may be called once with the full
-     * text or incrementally with streaming tokens if streaming is supported.
+     * The agent loop streams responses, so this is called incrementally with
+     * each text fragment as it arrives from the provider. Providers without
+     * streaming support deliver the full text in a single call.
      * </p>
      *
      * @param token the text token or fragment
@@ -37,6 +38,23 @@ public interface AgentCallback {
      */
     void onToolCallStart(ToolCall toolCall);
 
+    /**
+     * Called while a long-running tool reports progress (currently MCP tools
+     * that send {@code notifications/progress}).
+     * <p>
+     * Unlike the other methods, this may be called from any thread, also
+     * concurrently for tools of the same round that run in parallel.
+     * </p>
+     *
+     * @param toolCall the running tool call
+     * @param progress the progress so far
+     * @param total    the total, or {@code null} if unknown
+     * @param message  a human-readable status, or {@code null}
+     */
+    default void onToolProgress(ToolCall toolCall, double progress, Double total, String message) {
+        // Default no-op so existing implementations don't break
+    }
+
     /**
      * Called when a tool call execution has completed.
      *
@@ -5,6 +5,11 @@ import java.util.Collections;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
 import java.util.regex.Matcher;
 import java.util.regex.Pattern;
 
@@ -12,9 +17,13 @@ import com.google.gson.JsonObject;
 import com.sap.ai.assistant.llm.AbstractLlmProvider;
 import com.sap.ai.assistant.llm.LlmException;
 import com.sap.ai.assistant.llm.LlmProvider;
+import com.sap.ai.assistant.llm.LlmStreamListener;
+import com.sap.ai.assistant.llm.TokenEstimator;
+import com.sap.ai.assistant.mcp.McpToolAdapter;
 import com.sap.ai.assistant.model.ChatConversation;
 import com.sap.ai.assistant.tools.ResearchTool;
 import com.sap.ai.assistant.model.ChatMessage;
+import com.sap.ai.assistant.model.ConversationSnapshot;
 import com.sap.ai.assistant.model.DiffRequest;
 import com.sap.ai.assistant.model.LlmUsage;
 import com.sap.ai.assistant.model.RequestLogEntry;
@@ -30,9 +39,12 @@ import com.sap.ai.assistant.sap.AdtXmlParser;
 import com.sap.ai.assistant.tools.AbstractDdicSourceTool;
 import com.sap.ai.assistant.tools.AbstractSapTool;
 import com.sap.ai.assistant.tools.CreateObjectTool;
+import com.sap.ai.assistant.tools.GetSourceTool;
 import com.sap.ai.assistant.tools.SapTool;
 import com.sap.ai.assistant.tools.SapToolRegistry;
 import com.sap.ai.assistant.tools.SetSourceTool;
+import com.sap.ai.assistant.tools.SyntaxCheckService;
+import com.sap.ai.assistant.tools.SyntaxCheckTool;
 import com.sap.ai.assistant.tools.WriteAndCheckTool;
 
 /**
@@ -64,7 +76,8 @@ public class AgentLoop {
     public static final int DEFAULT_MAX_INPUT_TOKENS = 100_000;
 
     /**
-     * Threshold (as fraction of maxInputTokens) at which aggressive compression triggers.
+     * Threshold (as fraction of maxInputTokens) at which aggressive compression triggers:
+     * from then on each request is packed into half of the context token budget.
      * Following industry patterns (GitHub Copilot CLI uses 95%, we use 80% for safety).
      */
     private static final double COMPRESSION_THRESHOLD = 0.80;
@@ -87,6 +100,33 @@ public class AgentLoop {
      */
     private TransportSelection sessionTransport;
 
+    /**
+     * Maximum number of read-only tool calls of one round that are executed
+     * concurrently. {@code 1} (the default) executes all calls sequentially.
+     */
+    private int maxParallelToolCalls = 1;
+
+    /** Executor for parallel read-only tool calls; created lazily per run. */
+    private ExecutorService toolExecutor;
+
+    /** Target size of each request in input tokens, see {@link ContextBudget}. */
+    private int contextTokenBudget = ContextBudget.DEFAULT_TARGET_TOKENS;
+
+    /** Memo shared across runs, see {@link #setToolResultMemo}; {@code null} for run-scoped. */
+    private ToolResultMemo sharedToolMemo;
+
+    /** Read-only tool results of the current run. */
+    private ToolResultMemo toolMemo = new ToolResultMemo();
+
+    /** Fetches sources referenced by read sources ahead of time; may be {@code null}. */
+    private SourcePrefetcher prefetcher;
+
+    /** Provider of the model that summarizes omitted history; may be {@code null}. */
+    private LlmProvider summaryProvider;
+
+    /** Journals the messages of each request for the dev log. */
+    private final ConversationSnapshot.Recorder snapshotRecorder = new ConversationSnapshot.Recorder();
+
     /**
      * Creates a new agent loop with custom limits.
      *
@@ -149,7 +189,8 @@ public class AgentLoop {
      *   <li>Retrieve the conversation messages, system prompt, and tool definitions.</li>
      *   <li>Send the conversation to the LLM.</li>
      *   <li>If the response contains no tool calls, report completion and return.</li>
-     *   <li>If the response contains tool calls, execute each tool, collect results,
+     *   <li>If the response contains tool calls, execute each tool (read-only tools
+     *       concurrently, see {@link #setMaxParallelToolCalls}), collect results,
      *       add them to the conversation, and loop back to step 2.</li>
      *   <li>If the maximum number of rounds is exceeded, report an error and return.</li>
      * </ol>
@@ -165,6 +206,11 @@ public class AgentLoop {
                     : Collections.emptyList();
 
             int cumulativeInputTokens = 0;
+            int compressionThreshold = (int) (maxInputTokens * COMPRESSION_THRESHOLD);
+            TokenEstimator tokenEstimator = llmProvider.getTokenEstimator();
+            ContextBudget contextBudget = new ContextBudget(tokenEstimator,
+                    summaryProvider != null ? new HistorySummarizer(summaryProvider) : null);
+            toolMemo = sharedToolMemo != null ? sharedToolMemo : new ToolResultMemo();
 
             for (int round = 0; round < maxToolRounds; round++) {
                 // Check for thread interruption (supports Eclipse Job cancellation)
@@ -174,33 +220,43 @@ public class AgentLoop {
                 }
 
                 // After round 0, strip source code blocks from system prompt to save tokens
-                // (the LLM already has the source from the first round's context)
-                if (round == 1) {
-                    String sp = conversation.getSystemPrompt();
-                    if (sp != null) {
-                        // Remove all ### Source Code sections (supports multiple editor contexts)
-                        sp = sp.replaceAll("(?s)\\n### Source Code\\n\\n```abap\\n.*?```\\n", "\n");
-                        conversation.setSystemPrompt(sp);
-                    }
+                // (the LLM already has the source from the first round's context).
+                // With prompt caching the unchanged prompt is cheaper than a cache miss.
+                if (round == 1 && !llmProvider.supportsPromptCaching()) {
+                    conversation.setSystemPrompt(
+                            ContextBuilder.stripSourceCode(conversation.getSystemPrompt()));
                 }
 
-                // Trim conversation to prevent token snowball on long interactions
-                conversation.trimMessages();
+                // Take over the summary of omitted messages finished since the last round
+                conversation.applyOfferedHistorySummary();
 
-                // 1. Send conversation to LLM
+                // Pack the request into the token budget to prevent token snowball
+                // on long interactions; halve the budget when nearing the run limit
+                int targetTokens = cumulativeInputTokens > compressionThreshold
+                        ? contextTokenBudget / 2 : contextTokenBudget;
+                int estimatedTokens = contextBudget.pack(conversation, toolDefinitions, targetTokens);
+
+                // 1. Send conversation to LLM, streaming text to the callback as it arrives
                 ChatMessage response;
                 long requestStartMs = System.currentTimeMillis();
-                int msgCountBefore = conversation.getMessages().size();
+                // Cheap reference to what is sent; rendered only if the dev log shows it
+                ConversationSnapshot requestSnapshot = snapshotRecorder.record(conversation);
                 try {
-                    response = llmProvider.sendMessage(
+                    response = llmProvider.sendMessageStreaming(
                             conversation.getMessages(),
                             conversation.getSystemPrompt(),
-                            toolDefinitions);
+                            toolDefinitions,
+                            new LlmStreamListener() {
+                                @Override
+                                public void onTextDelta(String delta) {
+                                    callback.onTextToken(delta);
+                                }
+                            });
                 } catch (LlmException e) {
                     // Log the failed request
                     long durationMs = System.currentTimeMillis() - requestStartMs;
-                    emitLogEntry(callback, round, msgCountBefore, durationMs,
-                            null, e.getMessage(), null, conversation);
+                    emitLogEntry(callback, round, requestSnapshot, durationMs,
+                            null, e.getMessage(), null, 0);
                     callback.onError(e);
                     return;
                 }
@@ -209,22 +265,19 @@ public class AgentLoop {
                 LlmUsage usage = response.getUsage();
                 if (usage != null) {
                     cumulativeInputTokens += usage.getInputTokens();
+                    tokenEstimator.calibrate(estimatedTokens, usage.getPromptTokens());
                 }
 
                 // 2. If no tool calls, this is the final response
                 if (!response.hasToolCalls()) {
                     // Emit log entry (no tool details for final text response)
-                    emitLogEntry(callback, round, msgCountBefore,
+                    emitLogEntry(callback, round, requestSnapshot,
                             getRequestDurationMs(requestStartMs), response, null,
-                            null, conversation);
+                            null, 0);
 
                     conversation.addAssistantMessage(response);
 
-                    // Notify with the text content if present
-                    if (response.getTextContent() != null && !response.getTextContent().isEmpty()) {
-                        callback.onTextToken(response.getTextContent());
-                    }
-
+                    // Text content was already delivered via onTextToken while streaming
                     callback.onComplete(response);
                     return;
                 }
@@ -232,70 +285,52 @@ public class AgentLoop {
                 // 3. Response has tool calls -- add assistant message to conversation
                 conversation.addAssistantMessage(response);
 
-                // Emit any text the assistant included alongside tool calls
-                if (response.getTextContent() != null && !response.getTextContent().isEmpty()) {
-                    callback.onTextToken(response.getTextContent());
+                // 4. Execute the tool calls (read-only ones in parallel where
+                //    allowed), capturing details for logging. Results keep the
+                //    order of the tool calls in the response.
+                List<ToolCall> toolCalls = response.getToolCalls();
+                int memoHitsBefore = toolMemo.getHits();
+                ToolResult[] roundResults;
+                try {
+                    roundResults = executeToolCalls(toolCalls, callback);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    callback.onError(new InterruptedException("Agent loop was cancelled"));
+                    return;
                 }
 
-                // 4. Execute each tool call, capturing details for logging.
-                //    Deduplicate identical calls: execute once, reuse result.
                 List<ToolResult> results = new ArrayList<>();
                 List<RequestLogEntry.ToolCallDetail> toolDetails = new ArrayList<>();
-                Map<String, ToolResult> toolCallCache = new HashMap<>();
-
-                for (ToolCall toolCall : response.getToolCalls()) {
-                    callback.onToolCallStart(toolCall);
-
-                    String callSignature = toolCall.getName() + "|"
-                            + (toolCall.getArguments() != null ? toolCall.getArguments().toString() : "");
-
-                    ToolResult result;
-                    if (toolCallCache.containsKey(callSignature)) {
-                        // Reuse cached result with this call's ID
-                        ToolResult cached = toolCallCache.get(callSignature);
-                        result = cached.isError()
-                                ? ToolResult.error(toolCall.getId(), cached.getContent())
-                                : ToolResult.success(toolCall.getId(), cached.getContent());
-                    } else {
-                        result = executeTool(toolCall, callback);
-                        // Compact verbose SAP XML error messages before they enter the conversation
-                        if (result.isError()) {
-                            result = compactErrorResult(result);
-                        }
-                        toolCallCache.put(callSignature, result);
-                    }
-
+                for (int i = 0; i < toolCalls.size(); i++) {
+                    ToolCall toolCall = toolCalls.get(i);
+                    ToolResult result = roundResults[i];
                     results.add(result);
 
+                    // Warm the cache for objects the next round is likely to read
+                    if (prefetcher != null && !result.isError()
+                            && GetSourceTool.NAME.equals(toolCall.getName())) {
+                        prefetcher.prefetchReferences(result.getContent());
+                    }
+
                     // Capture tool I/O for the dev log
                     toolDetails.add(new RequestLogEntry.ToolCallDetail(
                             toolCall.getName(),
                             toolCall.getArguments() != null ? toolCall.getArguments().toString() : "",
                             result.getContent(),
                             result.isError()));
-
-                    callback.onToolCallEnd(result);
                 }
 
                 // Emit log entry with tool call details
-                emitLogEntry(callback, round, msgCountBefore,
+                emitLogEntry(callback, round, requestSnapshot,
                         getRequestDurationMs(requestStartMs), response, null,
-                        toolDetails, conversation);
+                        toolDetails, toolMemo.getHits() - memoHitsBefore);
 
                 // 5. Build tool results message and add to conversation
                 ChatMessage toolResultsMessage = ChatMessage.toolResults(results);
                 conversation.addAssistantMessage(toolResultsMessage);
 
-                // 6. Check token budget and apply compression if approaching limit
-                int compressionThreshold = (int) (maxInputTokens * COMPRESSION_THRESHOLD);
-                if (cumulativeInputTokens > compressionThreshold) {
-                    // Approaching limit - apply aggressive compression
-                    System.out.println("AgentLoop: approaching token limit ("
-                            + cumulativeInputTokens + " / " + maxInputTokens
-                            + "), applying aggressive compression.");
-                    conversation.truncateOldToolResults(1000); // More aggressive: 1000 chars
-                }
-
+                // 6. Check token budget (compression kicks in via the halved
+                //    context budget of the next round)
                 if (cumulativeInputTokens > maxInputTokens) {
                     System.err.println("AgentLoop: token budget exceeded ("
                             + cumulativeInputTokens + " > " + maxInputTokens + "), stopping.");
@@ -315,9 +350,178 @@ public class AgentLoop {
 
         } catch (Exception e) {
             callback.onError(e);
+        } finally {
+            if (toolExecutor != null) {
+                toolExecutor.shutdownNow();
+                toolExecutor = null;
+            }
         }
     }
 
+    /**
+     * Executes all tool calls of one round and returns their results in the
+     * order of {@code toolCalls}.
+     * <p>
+     * Identical calls (same name and arguments) are executed once and the
+     * result is reused. Read-only calls already answered in an earlier round
+     * are served from the {@link ToolResultMemo} unless a write in between
+     * touched their object. Runs of consecutive read-only tools are submitted to
+     * a bounded executor; every other tool acts as a barrier and executes on
+     * the calling thread, so lock/write sequences keep their order. Callback
+     * events are always fired from the calling thread.
+     * </p>
+     *
+     * @param toolCalls the tool calls requested by the LLM
+     * @param callback  the callback for progress notifications
+     * @return one result per tool call, in the same order
+     * @throws InterruptedException if the thread is interrupted while waiting
+     */
+    private ToolResult[] executeToolCalls(List<ToolCall> toolCalls, AgentCallback callback)
+            throws InterruptedException {
+        ToolResult[] results = new ToolResult[toolCalls.size()];
+        Map<String, Integer> firstIndexBySignature = new HashMap<>();
+
+        int i = 0;
+        while (i < toolCalls.size()) {
+            int batchEnd = i;
+            while (batchEnd < toolCalls.size() && isParallelizable(toolCalls.get(batchEnd))) {
+                batchEnd++;
+            }
+
+            if (batchEnd - i > 1 && maxParallelToolCalls > 1) {
+                executeParallel(toolCalls, i, batchEnd, results, firstIndexBySignature, callback);
+                i = batchEnd;
+                continue;
+            }
+
+            ToolCall toolCall = toolCalls.get(i);
+            callback.onToolCallStart(toolCall);
+            Integer previous = firstIndexBySignature.putIfAbsent(callSignature(toolCall), i);
+            if (previous != null) {
+                results[i] = reuseResult(toolCall, results[previous]);
+            } else {
+                SapTool tool = toolRegistry != null ? toolRegistry.get(toolCall.getName()) : null;
+                ToolResult memoized = toolMemo.lookup(toolCall, tool);
+                if (memoized != null) {
+                    results[i] = memoized;
+                } else {
+                    results[i] = finishResult(executeTool(toolCall, callback));
+                    toolMemo.record(toolCall, tool, results[i]);
+                }
+            }
+            callback.onToolCallEnd(results[i]);
+            i++;
+        }
+        return results;
+    }
+
+    /**
+     * Executes the read-only tool calls in {@code [from, to)} concurrently.
+     * Start events are fired for all calls up front; end events are fired
+     * in order as the results become available.
+     */
+    private void executeParallel(List<ToolCall> toolCalls, int from, int to, ToolResult[] results,
+                                 Map<String, Integer> firstIndexBySignature, AgentCallback callback)
+            throws InterruptedException {
+        List<Future<ToolResult>> futures = new ArrayList<>();
+        int[] duplicateOf = new int[to - from];
+        ToolResult[] memoized = new ToolResult[to - from];
+
+        ExecutorService executor = getToolExecutor();
+        for (int i = from; i < to; i++) {
+            ToolCall toolCall = toolCalls.get(i);
+            callback.onToolCallStart(toolCall);
+            Integer previous = firstIndexBySignature.putIfAbsent(callSignature(toolCall), i);
+            duplicateOf[i - from] = previous != null ? previous : -1;
+            SapTool tool = toolRegistry.get(toolCall.getName());
+            if (previous == null) {
+                memoized[i - from] = toolMemo.lookup(toolCall, tool);
+            }
+            if (previous == null && memoized[i - from] == null) {
+                futures.add(executor.submit(() -> executeToolDirectly(toolCall, tool, callback)));
+            } else {
+                futures.add(null);
+            }
+        }
+
+        try {
+            for (int i = from; i < to; i++) {
+                ToolCall toolCall = toolCalls.get(i);
+                int original = duplicateOf[i - from];
+                if (original >= 0) {
+                    results[i] = reuseResult(toolCall, results[original]);
+                } else if (memoized[i - from] != null) {
+                    results[i] = memoized[i - from];
+                } else {
+                    results[i] = finishResult(awaitResult(toolCall, futures.get(i - from)));
+                    toolMemo.record(toolCall, toolRegistry.get(toolCall.getName()), results[i]);
+                }
+                callback.onToolCallEnd(results[i]);
+            }
+        } catch (InterruptedException e) {
+            for (Future<ToolResult> future : futures) {
+                if (future != null) {
+                    future.cancel(true);
+                }
+            }
+            throw e;
+        }
+    }
+
+    private ToolResult awaitResult(ToolCall toolCall, Future<ToolResult> future)
+            throws InterruptedException {
+        try {
+            return future.get();
+        } catch (ExecutionException e) {
+            Throwable cause = e.getCause() != null ? e.getCause() : e;
+            return ToolResult.error(toolCall.getId(),
+                    "Tool execution failed: " + cause.getClass().getSimpleName()
+                    + " - " + cause.getMessage());
+        }
+    }
+
+    /**
+     * Returns {@code true} if the call targets a registered read-only tool
+     * and may therefore run concurrently with its neighbours.
+     */
+    private boolean isParallelizable(ToolCall toolCall) {
+        if (toolRegistry == null) {
+            return false;
+        }
+        SapTool tool = toolRegistry.get(toolCall.getName());
+        return tool != null && tool.isReadOnly();
+    }
+
+    private ExecutorService getToolExecutor() {
+        if (toolExecutor == null) {
+            AtomicInteger threadCount = new AtomicInteger();
+            toolExecutor = Executors.newFixedThreadPool(maxParallelToolCalls, runnable -> {
+                Thread thread = new Thread(runnable,
+                        "AgentLoop-tool-" + threadCount.incrementAndGet());
+                thread.setDaemon(true);
+                return thread;
+            });
+        }
+        return toolExecutor;
+    }
+
+    private static String callSignature(ToolCall toolCall) {
+        return toolCall.getName() + "|"
+                + (toolCall.getArguments() != null ? toolCall.getArguments().toString() : "");
+    }
+
+    /** Copies an earlier result of an identical call, using this call's ID. */
+    private static ToolResult reuseResult(ToolCall toolCall, ToolResult cached) {
+        return cached.isError()
+                ? ToolResult.error(toolCall.getId(), cached.getContent())
+                : ToolResult.success(toolCall.getId(), cached.getContent());
+    }
+
+    /** Compacts verbose SAP XML error messages before they enter the conversation. */
+    private ToolResult finishResult(ToolResult result) {
+        return result.isError() ? compactErrorResult(result) : result;
+    }
+
     /**
      * Executes a single tool call by looking up the tool in the registry and
      * invoking it with the provided arguments. Write tools are intercepted
@@ -365,12 +569,16 @@ public class AgentLoop {
             ((ResearchTool) tool).setParentCallback(callback);
         }
 
-        return executeToolDirectly(toolCall, tool);
+        return executeToolDirectly(toolCall, tool, callback);
     }
 
-    private ToolResult executeToolDirectly(ToolCall toolCall, SapTool tool) {
+    private ToolResult executeToolDirectly(ToolCall toolCall, SapTool tool, AgentCallback callback) {
         try {
-            ToolResult result = tool.execute(toolCall.getArguments());
+            ToolResult result = tool instanceof McpToolAdapter
+                    ? ((McpToolAdapter) tool).execute(toolCall.getArguments(),
+                            (progress, total, message) -> callback.onToolProgress(
+                                    toolCall, progress, total, message))
+                    : tool.execute(toolCall.getArguments());
             return ensureToolCallId(toolCall, result);
         } catch (Exception e) {
             return ToolResult.error(toolCall.getId(),
@@ -438,7 +646,7 @@ public class AgentLoop {
                 if (WriteAndCheckTool.NAME.equals(toolCall.getName())) {
                     // Let the tool execute: it creates the object, writes source,
                     // checks syntax, and returns hasErrors:true without activating.
-                    return executeToolDirectly(toolCall, tool);
+                    return executeToolDirectly(toolCall, tool, callback);
                 }
                 return ToolResult.error(toolCall.getId(),
                         "Syntax errors detected in proposed source code. "
@@ -558,8 +766,8 @@ public class AgentLoop {
     }
 
     /**
-     * Validates proposed source code using {@code sap_syntax_check} with the
-     * {@code content} parameter (inline check, no save to repository).
+     * Validates proposed source code with the system's {@link SyntaxCheckService}
+     * (inline check, no save to repository), if {@code sap_syntax_check} is available.
      *
      * @return formatted error string if syntax errors found, or {@code null} if clean
      */
@@ -567,30 +775,18 @@ public class AgentLoop {
         if (toolRegistry == null || source == null || source.isEmpty()) {
             return null;
         }
-        SapTool syntaxTool = toolRegistry.get("sap_syntax_check");
-        if (syntaxTool == null) {
+        if (restClient == null || toolRegistry.get(SyntaxCheckTool.NAME) == null) {
             return null; // Syntax check not available — skip validation
         }
         try {
-            JsonObject checkArgs = new JsonObject();
-            checkArgs.addProperty("url", sourceUrl);
-            checkArgs.addProperty("content", source); // Inline check — no save
-            ToolResult checkResult = syntaxTool.execute(checkArgs);
-            if (checkResult == null || checkResult.isError()) {
-                return null; // Check failed — don't block the write
-            }
-            String content = checkResult.getContent();
-            if (content == null) {
-                return null;
-            }
-            JsonObject json = com.google.gson.JsonParser.parseString(content).getAsJsonObject();
-            if (!json.has("hasErrors") || !json.get("hasErrors").getAsBoolean()) {
+            // Inline check — no save. The service caches results by content,
+            // so the same source is not sent again when the agent retries.
+            SyntaxCheckService.Result result = SyntaxCheckService.forSystem(restClient)
+                    .check(sourceUrl, source, null, null, null);
+            if (!result.hasErrors()) {
                 return null; // No errors
             }
-            if (json.has("messages")) {
-                return formatSyntaxMessages(json.getAsJsonArray("messages"));
-            }
-            return "Syntax errors detected (no details available).";
+            return formatSyntaxMessages(result.getMessages());
         } catch (Exception e) {
             // If syntax check fails for any reason, don't block the write
             System.err.println("AgentLoop: pre-write syntax validation failed: " + e.getMessage());
@@ -815,10 +1011,9 @@ public class AgentLoop {
         return System.currentTimeMillis() - fallbackStartMs;
     }
 
-    private void emitLogEntry(AgentCallback callback, int round, int msgCount,
+    private void emitLogEntry(AgentCallback callback, int round, ConversationSnapshot snapshot,
                               long durationMs, ChatMessage response, String error,
-                              List<RequestLogEntry.ToolCallDetail> toolDetails,
-                              ChatConversation conversation) {
+                              List<RequestLogEntry.ToolCallDetail> toolDetails, int toolMemoHits) {
         String[] toolNames = null;
         int toolCallCount = 0;
         if (response != null && response.hasToolCalls()) {
@@ -827,16 +1022,11 @@ public class AgentLoop {
                     .map(ToolCall::getName).toArray(String[]::new);
         }
         String llmText = (response != null) ? response.getTextContent() : null;
-        String sysPrompt = (conversation != null) ? conversation.getSystemPrompt() : null;
-        String convSnapshot = (conversation != null)
-                ? formatConversationSnapshot(conversation.getMessages())
-                : null;
 
         RequestLogEntry entry = new RequestLogEntry(
                 round + 1,
                 llmProvider.getProviderId(),
                 config != null ? config.getModel() : "unknown",
-                msgCount,
                 durationMs,
                 response != null ? response.getUsage() : null,
                 toolCallCount,
@@ -844,63 +1034,12 @@ public class AgentLoop {
                 error,
                 llmText,
                 toolDetails,
-                sysPrompt,
-                convSnapshot);
-        callback.onRequestComplete(entry);
-    }
-
-    /**
-     * Formats conversation messages into a readable snapshot for the dev log.
-     * Tool call arguments and results are truncated to keep the snapshot
-     * navigable; full details are available in the per-round tool details section.
-     */
-    private String formatConversationSnapshot(List<ChatMessage> messages) {
-        if (messages == null || messages.isEmpty()) return "";
-        StringBuilder sb = new StringBuilder();
-        for (int i = 0; i < messages.size(); i++) {
-            ChatMessage msg = messages.get(i);
-            sb.append("[").append(i + 1).append("] ").append(msg.getRole().name()).append(": ");
-
-            // Text content
-            if (msg.getTextContent() != null && !msg.getTextContent().isEmpty()) {
-                sb.append(msg.getTextContent());
-            }
-
-            // Tool calls (assistant requesting tools)
-            if (msg.hasToolCalls()) {
-                if (msg.getTextContent() != null && !msg.getTextContent().isEmpty()) {
-                    sb.append("\n    ");
-                }
-                sb.append("-> tool_calls: ");
-                for (int j = 0; j < msg.getToolCalls().size(); j++) {
-                    if (j > 0) sb.append(", ");
-                    ToolCall tc = msg.getToolCalls().get(j);
-                    sb.append(tc.getName());
-                    if (tc.getArguments() != null) {
-                        String args = tc.getArguments().toString();
-                        sb.append("(").append(truncate(args, 200)).append(")");
-                    }
-                }
-            }
-
-            // Tool results
-            if (!msg.getToolResults().isEmpty()) {
-                for (ToolResult tr : msg.getToolResults()) {
-                    sb.append("\n    ");
-                    if (tr.isError()) sb.append("[ERROR] ");
-                    sb.append(truncate(tr.getContent(), 300));
-                }
-            }
-
-            sb.append("\n");
+                snapshot);
+        if (restClient != null) {
+            entry.setSourceCacheStats(restClient.getSourceCache().getStatsSummary());
         }
-        return sb.toString();
-    }
-
-    private static String truncate(String s, int maxLen) {
-        if (s == null) return "";
-        if (s.length() <= maxLen) return s;
-        return s.substring(0, maxLen) + "...(" + s.length() + " chars)";
+        entry.setToolMemoHits(toolMemoHits);
+        callback.onRequestComplete(entry);
     }
 
     /**
@@ -930,6 +1069,61 @@ public class AgentLoop {
         this.sessionTransport = transport;
     }
 
+    /**
+     * Sets how many read-only tool calls of one round may run concurrently.
+     * Values below {@code 1} are treated as {@code 1} (sequential execution).
+     *
+     * @param maxParallelToolCalls the degree of parallelism, usually taken
+     *                             from the selected SAP system
+     */
+    public void setMaxParallelToolCalls(int maxParallelToolCalls) {
+        this.maxParallelToolCalls = Math.max(1, maxParallelToolCalls);
+    }
+
+    /**
+     * Keeps read-only tool results in the given memo instead of a new one
+     * per run, e.g. to reuse them across the messages of a conversation.
+     * The memo only sees changes made through this agent's tools.
+     *
+     * @param memo the memo to use, or {@code null} for a new memo per run
+     */
+    public void setToolResultMemo(ToolResultMemo memo) {
+        this.sharedToolMemo = memo;
+    }
+
+    /**
+     * Sets the prefetcher that is given every source read through
+     * {@code sap_get_source}, so the objects it references are fetched
+     * while the next response is generated.
+     *
+     * @param prefetcher the prefetcher of the current run, or {@code null}
+     */
+    public void setPrefetcher(SourcePrefetcher prefetcher) {
+        this.prefetcher = prefetcher;
+    }
+
+    /**
+     * Sets the target size of each request in input tokens. Older tool
+     * results and exchanges are dropped before sending until the request
+     * fits (see {@link ContextBudget}).
+     *
+     * @param contextTokenBudget the token window per request
+     */
+    public void setContextTokenBudget(int contextTokenBudget) {
+        this.contextTokenBudget = Math.max(1, contextTokenBudget);
+    }
+
+    /**
+     * Sets the provider used to summarize the exchanges that are omitted
+     * to fit the token budget (see {@link HistorySummarizer}). Without one,
+     * the conversation only notes how many messages were omitted.
+     *
+     * @param summaryProvider the provider of a cheaper model, or {@code null}
+     */
+    public void setHistorySummaryProvider(LlmProvider summaryProvider) {
+        this.summaryProvider = summaryProvider;
+    }
+
     /**
      * Returns the session-level transport selection (possibly updated
      * during this loop run). The view should persist this for the next
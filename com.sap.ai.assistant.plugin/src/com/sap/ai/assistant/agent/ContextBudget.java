@@ -0,0 +1,173 @@
+package com.sap.ai.assistant.agent;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import com.sap.ai.assistant.llm.TokenEstimator;
+import com.sap.ai.assistant.model.ChatConversation;
+import com.sap.ai.assistant.model.ChatMessage;
+import com.sap.ai.assistant.model.ToolDefinition;
+
+/**
+ * Fits a conversation into a token window before it is sent to the LLM.
+ * <p>
+ * The request size (system prompt, tool definitions, editor context and
+ * history) is estimated with the provider's {@link TokenEstimator}. While
+ * the estimate exceeds the target, content is removed in order of
+ * increasing value:
+ * </p>
+ * <ol>
+ *   <li>older tool results are truncated, in steps, down to a short excerpt;</li>
+ *   <li>the oldest exchanges after the original request are omitted, keeping
+ *       assistant tool calls together with their results; with a
+ *       {@link HistorySummarizer}, they are merged into the conversation's
+ *       history summary in the background;</li>
+ *   <li>the most recent tool results are truncated;</li>
+ *   <li>the editor source code is removed from the system prompt (the LLM
+ *       can read it again with a tool).</li>
+ * </ol>
+ * <p>
+ * The system prompt instructions, tool definitions, the original request
+ * and the last {@link #MIN_RECENT_MESSAGES} messages are always kept.
+ * </p>
+ */
+public class ContextBudget {
+
+    /** Default target size of a single request in input tokens. */
+    public static final int DEFAULT_TARGET_TOKENS = 24_000;
+
+    /** Number of most recent messages that are never omitted. */
+    public static final int MIN_RECENT_MESSAGES = 4;
+
+    /** Successive length limits for older tool results. */
+    private static final int[] OLD_TOOL_RESULT_LIMITS = {
+            ChatConversation.DEFAULT_TOOL_RESULT_MAX_LEN, 1000, 300 };
+
+    /** Length limit for the latest tool results when nothing else helps. */
+    private static final int LATEST_TOOL_RESULT_LIMIT = 4000;
+
+    /** Estimated size of the omission note inserted by the conversation. */
+    private static final int OMISSION_NOTE_TOKENS = 40;
+
+    private final TokenEstimator estimator;
+    private final HistorySummarizer summarizer;
+
+    /**
+     * Creates a budget manager using the given estimator.
+     *
+     * @param estimator the provider's token estimator
+     */
+    public ContextBudget(TokenEstimator estimator) {
+        this(estimator, null);
+    }
+
+    /**
+     * Creates a budget manager that has omitted exchanges summarized.
+     *
+     * @param estimator  the provider's token estimator
+     * @param summarizer summarizes omitted messages, or {@code null} to only
+     *                   count them in the omission note
+     */
+    public ContextBudget(TokenEstimator estimator, HistorySummarizer summarizer) {
+        this.estimator = estimator;
+        this.summarizer = summarizer;
+    }
+
+    /**
+     * Shrinks the conversation (in place) until the estimated request fits
+     * {@code targetTokens}, or nothing more can be removed.
+     *
+     * @param conversation the conversation to pack (modified in place)
+     * @param tools        the tool definitions sent with the request
+     * @param targetTokens the token window to fit into
+     * @return the estimated input tokens of the packed request
+     */
+    public int pack(ChatConversation conversation, List<ToolDefinition> tools, int targetTokens) {
+        int toolTokens = estimator.estimateTools(tools);
+        int total = 0;
+
+        // 1. Older tool results, from the default limit down to a short excerpt
+        for (int limit : OLD_TOOL_RESULT_LIMITS) {
+            conversation.truncateOldToolResults(limit);
+            total = estimate(conversation, toolTokens);
+            if (total <= targetTokens) {
+                return total;
+            }
+        }
+
+        // 2. Oldest exchanges
+        int omitted = omitOldestExchanges(conversation, total - targetTokens);
+        total = estimate(conversation, toolTokens);
+        if (omitted > 0) {
+            System.out.println("ContextBudget: omitted " + omitted + " older messages (~"
+                    + total + " / " + targetTokens + " tokens)");
+        }
+        if (total <= targetTokens) {
+            return total;
+        }
+
+        // 3. Latest tool results
+        conversation.truncateLatestToolResults(LATEST_TOOL_RESULT_LIMIT);
+        total = estimate(conversation, toolTokens);
+        if (total <= targetTokens) {
+            return total;
+        }
+
+        // 4. Editor source code in the system prompt
+        String systemPrompt = conversation.getSystemPrompt();
+        String stripped = ContextBuilder.stripSourceCode(systemPrompt);
+        if (stripped != null && !stripped.equals(systemPrompt)) {
+            conversation.setSystemPrompt(stripped);
+            total = estimate(conversation, toolTokens);
+            System.out.println("ContextBudget: removed editor source from system prompt (~"
+                    + total + " / " + targetTokens + " tokens)");
+        }
+        return total;
+    }
+
+    /**
+     * Omits whole exchanges from the start of the history until at least
+     * {@code excessTokens} are saved or only protected messages remain.
+     *
+     * @return the number of omitted messages
+     */
+    private int omitOldestExchanges(ChatConversation conversation, int excessTokens) {
+        List<ChatMessage> messages = conversation.getMessages();
+        int from = conversation.getFirstRemovableIndex();
+        int protectedFrom = messages.size() - MIN_RECENT_MESSAGES;
+        // Never start the kept tail with tool results separated from their call
+        while (protectedFrom > from && messages.get(protectedFrom).getRole() == ChatMessage.Role.TOOL) {
+            protectedFrom--;
+        }
+
+        int saved = conversation.getOmittedMessageCount() > 0 ? 0 : -OMISSION_NOTE_TOKENS;
+        int to = from;
+        while (saved < excessTokens && to < protectedFrom) {
+            int unitEnd = to + 1;
+            while (unitEnd < protectedFrom && messages.get(unitEnd).getRole() == ChatMessage.Role.TOOL) {
+                unitEnd++;
+            }
+            for (int i = to; i < unitEnd; i++) {
+                saved += estimator.estimate(messages.get(i));
+            }
+            to = unitEnd;
+        }
+
+        if (to <= from) {
+            return 0;
+        }
+        // Copy before omitting; the list is a view of the conversation
+        List<ChatMessage> dropped = summarizer != null ? new ArrayList<>(messages.subList(from, to)) : null;
+        int omitted = conversation.omitMessages(from, to);
+        if (dropped != null && omitted > 0) {
+            summarizer.summarize(conversation, dropped);
+        }
+        return omitted;
+    }
+
+    private int estimate(ChatConversation conversation, int toolTokens) {
+        return estimator.estimate(conversation.getSystemPrompt())
+                + estimator.estimateMessages(conversation.getMessages())
+                + toolTokens;
+    }
+}
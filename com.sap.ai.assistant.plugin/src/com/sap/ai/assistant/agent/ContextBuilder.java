@@ -2,6 +2,7 @@ package com.sap.ai.assistant.agent;
 
 import java.util.Collections;
 import java.util.List;
+import java.util.regex.Pattern;
 
 import com.sap.ai.assistant.model.AdtContext;
 import com.sap.ai.assistant.model.ToolDefinition;
@@ -15,6 +16,10 @@ import com.sap.ai.assistant.tools.SapToolRegistry;
  */
 public class ContextBuilder {
 
+    /** Matches one "### Source Code" section of an editor context. */
+    private static final Pattern SOURCE_CODE_SECTION =
+            Pattern.compile("(?s)\\n### Source Code\\n\\n```abap\\n.*?```\\n");
+
     private ContextBuilder() {
         // static utility class
     }
@@ -109,7 +114,17 @@ public class ContextBuilder {
     public static String buildSystemPrompt(List<AdtContext> contexts, SapToolRegistry registry,
                                               boolean hasResearchTool) {
         StringBuilder sb = new StringBuilder();
+        appendInstructions(sb, hasResearchTool);
+        appendEditorContexts(sb, contexts);
+        return sb.toString();
+    }
 
+    /**
+     * Appends the fixed instructions of the agent prompt. They must only
+     * depend on {@code hasResearchTool}: providers cache the prompt prefix,
+     * and any per-request detail here would invalidate that cache.
+     */
+    private static void appendInstructions(StringBuilder sb, boolean hasResearchTool) {
         // -- Base identity --
         sb.append("You are an expert SAP ABAP assistant with full read/write access ")
           .append("to a live SAP system via ADT REST APIs.\n\n");
@@ -192,8 +207,13 @@ public class ContextBuilder {
             sb.append("- `mcp_sap_community_search` — search SAP Community for blog posts and solutions\n\n");
             sb.append("**Workflow**: Search first, then fetch full content for relevant results.\n\n");
         }
+    }
 
-        // -- ADT contexts --
+    /**
+     * Appends the editor context sections. They change with every chat turn
+     * and therefore always come last in the system prompt.
+     */
+    private static void appendEditorContexts(StringBuilder sb, List<AdtContext> contexts) {
         if (contexts != null && !contexts.isEmpty()) {
             if (contexts.size() == 1) {
                 sb.append("## Current Editor Context\n\n");
@@ -213,8 +233,6 @@ public class ContextBuilder {
                 }
             }
         }
-
-        return sb.toString();
     }
 
     /**
@@ -226,12 +244,23 @@ public class ContextBuilder {
 
     /**
      * Builds the full system prompt including transport session info.
+     * <p>
+     * The transport section is placed before the editor contexts: it stays
+     * the same for the whole session, so together with the instructions it
+     * forms a prefix that the LLM provider can serve from its prompt cache.
+     * </p>
      */
     public static String buildSystemPrompt(List<AdtContext> contexts, SapToolRegistry registry,
                                               boolean hasResearchTool,
                                               TransportSelection transport) {
-        String base = buildSystemPrompt(contexts, registry, hasResearchTool);
-        return base + buildTransportSection(transport);
+        StringBuilder sb = new StringBuilder();
+        appendInstructions(sb, hasResearchTool);
+        sb.append(buildTransportSection(transport));
+        if (transport != null) {
+            sb.append("\n");
+        }
+        appendEditorContexts(sb, contexts);
+        return sb.toString();
     }
 
     /**
@@ -325,6 +354,20 @@ public class ContextBuilder {
     // Public helpers
     // ------------------------------------------------------------------
 
+    /**
+     * Removes all "### Source Code" sections (one per editor context) from a
+     * system prompt, keeping the rest of the context description.
+     *
+     * @param systemPrompt the system prompt (may be {@code null})
+     * @return the prompt without source code, or {@code null}
+     */
+    public static String stripSourceCode(String systemPrompt) {
+        if (systemPrompt == null) {
+            return null;
+        }
+        return SOURCE_CODE_SECTION.matcher(systemPrompt).replaceAll("\n");
+    }
+
     /**
      * Builds just the editor context portion of a system prompt.
      * Used by non-main agents (e.g. Research) that have their own base prompt
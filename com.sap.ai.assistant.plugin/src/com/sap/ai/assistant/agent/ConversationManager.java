@@ -14,28 +14,93 @@ import com.sap.ai.assistant.model.ChatConversation;
  * All methods are safe for concurrent access from multiple threads (e.g. the UI
  * thread and background Jobs).
  * </p>
+ * <p>
+ * With a {@link ConversationStore}, conversations are persisted as they
+ * change. A stored conversation, e.g. from before an IDE restart, is only
+ * picked up again by an explicit {@link #resume}; {@link #getOrCreate}
+ * starts a new conversation instead, which replaces the stored one.
+ * </p>
  */
 public class ConversationManager {
 
     private final ConcurrentHashMap<String, ChatConversation> conversations;
+    private final ConversationStore store;
 
     /**
      * Creates a new conversation manager with no active conversations.
      */
     public ConversationManager() {
+        this(null);
+    }
+
+    /**
+     * Creates a conversation manager that persists its conversations.
+     *
+     * @param store the store, or {@code null} to keep conversations in memory only
+     */
+    public ConversationManager(ConversationStore store) {
         this.conversations = new ConcurrentHashMap<>();
+        this.store = store;
     }
 
     /**
      * Returns the existing conversation for the given system name, or creates a new
-     * one with the specified system prompt if none exists.
+     * one with the specified system prompt if none exists. A new conversation
+     * replaces the stored one of the system, if any.
      *
      * @param systemName   the SAP system project name (used as the key)
      * @param systemPrompt the system prompt to use if a new conversation is created
      * @return the existing or newly created conversation
      */
     public ChatConversation getOrCreate(String systemName, String systemPrompt) {
-        return conversations.computeIfAbsent(systemName, key -> new ChatConversation(systemPrompt));
+        return conversations.computeIfAbsent(systemName, key -> {
+            ChatConversation created = new ChatConversation(systemPrompt);
+            if (store != null) {
+                store.attach(key, created);
+            }
+            return created;
+        });
+    }
+
+    /**
+     * Returns {@code true} if a stored conversation can be {@linkplain #resume
+     * resumed} for the given system name, i.e. one is stored and none is
+     * active.
+     *
+     * @param systemName the SAP system project name
+     * @return whether a stored conversation is waiting to be resumed
+     */
+    public boolean hasStored(String systemName) {
+        return store != null && !conversations.containsKey(systemName) && store.has(systemName);
+    }
+
+    /**
+     * Returns the number of messages of the stored conversation, or {@code 0}.
+     *
+     * @param systemName the SAP system project name
+     * @return the stored message count
+     */
+    public int getStoredMessageCount(String systemName) {
+        return store != null ? store.getMessageCount(systemName) : 0;
+    }
+
+    /**
+     * Makes the stored conversation of the system the active one. If a
+     * conversation is already active, it is returned instead.
+     *
+     * @param systemName the SAP system project name
+     * @return the conversation, or {@code null} if none is active or stored
+     */
+    public ChatConversation resume(String systemName) {
+        if (store == null) {
+            return conversations.get(systemName);
+        }
+        ChatConversation[] resumed = new ChatConversation[1];
+        conversations.compute(systemName, (key, active) -> {
+            resumed[0] = active != null ? active : store.load(key);
+            return resumed[0];
+        });
+        return resumed[0];
     }
 
     /**
@@ -61,28 +126,49 @@ public class ConversationManager {
     public void clear(String systemName) {
         ChatConversation conversation = conversations.remove(systemName);
         if (conversation != null) {
+            conversation.setListener(null);
             conversation.clear();
         }
+        if (store != null) {
+            store.delete(systemName);
+        }
     }
 
     /**
-     * Clears and removes all conversations across all systems.
+     * Removes all conversations from the manager without clearing them.
+     * Their stored copies stay available to {@link #resume}.
+     */
+    public void releaseAll() {
+        for (ChatConversation conversation : conversations.values()) {
+            conversation.setListener(null);
+        }
+        conversations.clear();
+    }
+
+    /**
+     * Clears and removes all conversations across all systems, including
+     * the stored ones that were not resumed yet.
      */
     public void clearAll() {
         for (ChatConversation conversation : conversations.values()) {
+            conversation.setListener(null);
             conversation.clear();
         }
         conversations.clear();
+        if (store != null) {
+            store.deleteAll();
+        }
     }
 
     /**
-     * Returns {@code true} if a conversation exists for the given system name.
+     * Returns {@code true} if a conversation exists for the given system name,
+     * in memory or in the store.
      *
      * @param systemName the SAP system project name
      * @return whether a conversation exists
      */
     public boolean has(String systemName) {
-        return conversations.containsKey(systemName);
+        return conversations.containsKey(systemName) || (store != null && store.has(systemName));
     }
 
     /**
@@ -0,0 +1,601 @@
+package com.sap.ai.assistant.agent;
+
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
+
+import com.google.gson.Gson;
+import com.google.gson.JsonArray;
+import com.google.gson.JsonElement;
+import com.google.gson.JsonObject;
+import com.google.gson.JsonParser;
+import com.google.gson.reflect.TypeToken;
+import com.sap.ai.assistant.model.ChatConversation;
+import com.sap.ai.assistant.model.ChatMessage;
+import com.sap.ai.assistant.model.ToolCall;
+import com.sap.ai.assistant.model.ToolResult;
+import com.sap.ai.assistant.util.Hashes;
+
+/**
+ * Persists conversations as append-only journals so they survive an IDE
+ * restart.
+ * <p>
+ * Each conversation key (SAP system and agent mode) has one JSONL file
+ * under {@code ~/.sap-ai-assistant/conversations/}. Every change reported
+ * by {@link ChatConversation.Listener} becomes one line: an added or
+ * replaced message, an omission, a new system prompt or history summary, or
+ * a clear. Tool
+ * results are part of the messages, so a resumed conversation does not
+ * need to read anything from SAP again. A small {@code index.json} records
+ * the message and record count of every journal.
+ * </p>
+ * <p>
+ * Journals are only read when a conversation is resumed
+ * ({@link #load}). Replaced messages (truncated tool results) make a
+ * journal grow faster than its conversation, so once it holds more than
+ * twice as many records as messages it is rewritten with one record per
+ * current message. Writes happen on a background thread in the order of
+ * the changes. All methods are thread-safe.
+ * </p>
+ */
+public class ConversationStore {
+
+    /** Default directory of the journals. */
+    public static final Path DEFAULT_DIRECTORY =
+            Path.of(System.getProperty("user.home"), ".sap-ai-assistant", "conversations");
+
+    /** Records beyond twice the message count (plus this slack) trigger a compaction. */
+    private static final int COMPACTION_SLACK = 32;
+
+    private static final String INDEX_FILE = "index.json";
+    private static final Gson GSON = new Gson();
+
+    /** Journal state per conversation key, only touched on the writer thread. */
+    private static final class Journal {
+        final Path file;
+        /** Mirror of the persisted conversation, for compaction. */
+        final ChatConversation mirror = new ChatConversation();
+        int records;
+
+        Journal(Path file) {
+            this.file = file;
+        }
+    }
+
+    /** Index entry of one journal, stored in {@code index.json}. */
+    private static final class IndexEntry {
+        String file;
+        int messages;
+        int records;
+        long updated;
+    }
+
+    private final Path directory;
+    private final ExecutorService writer = Executors.newSingleThreadExecutor(r -> {
+        Thread t = new Thread(r, "ConversationStore");
+        t.setDaemon(true);
+        return t;
+    });
+    private final Map<String, Journal> journals = new HashMap<>();
+    private final Map<String, IndexEntry> index;
+    private boolean indexDirty;
+    /** Only touched on the writer thread. */
+    private boolean indexWriteQueued;
+
+    /**
+     * Creates a store in the {@link #DEFAULT_DIRECTORY}.
+     */
+    public ConversationStore() {
+        this(DEFAULT_DIRECTORY);
+    }
+
+    /**
+     * Creates a store in the given directory.
+     *
+     * @param directory the directory of the journals
+     */
+    public ConversationStore(Path directory) {
+        this.directory = directory;
+        this.index = readIndex();
+    }
+
+    /**
+     * Returns {@code true} if a non-empty conversation is stored for the key.
+     *
+     * @param key the conversation key
+     */
+    public boolean has(String key) {
+        synchronized (index) {
+            IndexEntry entry = index.get(key);
+            return entry != null && entry.messages > 0;
+        }
+    }
+
+    /**
+     * Returns the number of messages of the stored conversation for the
+     * key, or {@code 0} if none is stored.
+     *
+     * @param key the conversation key
+     */
+    public int getMessageCount(String key) {
+        synchronized (index) {
+            IndexEntry entry = index.get(key);
+            return entry != null ? entry.messages : 0;
+        }
+    }
+
+    /**
+     * Reads the stored conversation for the key and starts persisting its
+     * changes. Returns {@code null} if nothing is stored; use
+     * {@link #attach} for new conversations.
+     *
+     * @param key the conversation key
+     * @return the restored conversation, or {@code null}
+     */
+    public ChatConversation load(String key) {
+        Path file = journalFile(key);
+        if (!Files.isRegularFile(file)) {
+            return null;
+        }
+        long start = System.nanoTime();
+        ChatConversation conversation = new ChatConversation();
+        int records = 0;
+        boolean torn = false;
+        try (BufferedReader reader = Files.newBufferedReader(file, StandardCharsets.UTF_8)) {
+            String line;
+            while ((line = reader.readLine()) != null) {
+                if (line.isBlank()) {
+                    continue;
+                }
+                try {
+                    apply(conversation, JsonParser.parseString(line).getAsJsonObject());
+                    records++;
+                } catch (RuntimeException e) {
+                    // A torn last line after a crash; everything before it is intact
+                    System.err.println("ConversationStore: ignoring rest of " + file + " after record "
+                            + records + ": " + e.getMessage());
+                    torn = true;
+                    break;
+                }
+            }
+        } catch (IOException e) {
+            System.err.println("ConversationStore: failed to read " + file + ": " + e.getMessage());
+            return null;
+        }
+        if (conversation.size() == 0) {
+            return null;
+        }
+        System.out.println("ConversationStore: resumed " + key + " (" + conversation.size() + " messages, "
+                + records + " records) in " + TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start) + "ms");
+
+        // The mirror shares the (immutable) message objects
+        List<ChatMessage> messages = new ArrayList<>(conversation.getMessages());
+        String prompt = conversation.getSystemPrompt();
+        int omitted = conversation.getOmittedMessageCount();
+        String summary = conversation.getHistorySummary();
+        int loadedRecords = records;
+        boolean rewrite = torn;
+        writer.execute(() -> {
+            Journal journal = new Journal(file);
+            journal.mirror.setSystemPrompt(prompt);
+            for (ChatMessage message : messages) {
+                journal.mirror.addAssistantMessage(message);
+            }
+            journal.mirror.restoreOmittedMessageCount(omitted);
+            journal.mirror.setHistorySummary(summary);
+            journal.records = loadedRecords;
+            journals.put(key, journal);
+            if (rewrite) {
+                // Appending after a torn line would corrupt the next record
+                rewrite(key, journal);
+            } else {
+                compactIfNeeded(key, journal);
+            }
+        });
+        attachListener(key, conversation);
+        return conversation;
+    }
+
+    /**
+     * Starts persisting a new conversation, replacing anything stored for
+     * the key. Its current messages and system prompt are written first.
+     *
+     * @param key          the conversation key
+     * @param conversation the conversation
+     */
+    public void attach(String key, ChatConversation conversation) {
+        List<ChatMessage> messages = new ArrayList<>(conversation.getMessages());
+        String prompt = conversation.getSystemPrompt();
+        int omitted = conversation.getOmittedMessageCount();
+        String summary = conversation.getHistorySummary();
+        writer.execute(() -> {
+            Journal journal = new Journal(journalFile(key));
+            journal.mirror.setSystemPrompt(prompt);
+            for (ChatMessage message : messages) {
+                journal.mirror.addAssistantMessage(message);
+            }
+            journal.mirror.restoreOmittedMessageCount(omitted);
+            journal.mirror.setHistorySummary(summary);
+            journals.put(key, journal);
+            rewrite(key, journal);
+        });
+        attachListener(key, conversation);
+    }
+
+    /**
+     * Deletes the stored conversation for the key.
+     *
+     * @param key the conversation key
+     */
+    public void delete(String key) {
+        writer.execute(() -> {
+            Journal journal = journals.remove(key);
+            deleteFile(journal != null ? journal.file : journalFile(key));
+            synchronized (index) {
+                index.remove(key);
+                indexDirty = true;
+            }
+            writeIndex();
+        });
+    }
+
+    /**
+     * Deletes all stored conversations.
+     */
+    public void deleteAll() {
+        writer.execute(() -> {
+            journals.clear();
+            List<String> files;
+            synchronized (index) {
+                files = new ArrayList<>();
+                for (IndexEntry entry : index.values()) {
+                    files.add(entry.file);
+                }
+                index.clear();
+                indexDirty = true;
+            }
+            for (String name : files) {
+                deleteFile(directory.resolve(name));
+            }
+            writeIndex();
+        });
+    }
+
+    /**
+     * Waits until all changes so far are written, e.g. before shutdown.
+     *
+     * @param timeoutMs the maximum time to wait
+     */
+    public void flush(long timeoutMs) {
+        Future<?> done = writer.submit(() -> { });
+        try {
+            done.get(timeoutMs, TimeUnit.MILLISECONDS);
+        } catch (Exception e) {
+            System.err.println("ConversationStore: flush did not complete: " + e.getMessage());
+        }
+    }
+
+    // -- Recording --------------------------------------------------------------
+
+    private void attachListener(String key, ChatConversation conversation) {
+        conversation.setListener(new ChatConversation.Listener() {
+            @Override
+            public void messageAdded(ChatMessage message) {
+                JsonObject record = record("add");
+                record.add("msg", toJson(message));
+                append(key, record, mirror -> mirror.addAssistantMessage(message));
+            }
+
+            @Override
+            public void messageReplaced(int index, ChatMessage message) {
+                JsonObject record = record("set");
+                record.addProperty("index", index);
+                record.add("msg", toJson(message));
+                append(key, record, mirror -> mirror.replaceMessage(index, message));
+            }
+
+            @Override
+            public void messagesOmitted(int fromIndex, int toIndex) {
+                JsonObject record = record("omit");
+                record.addProperty("from", fromIndex);
+                record.addProperty("to", toIndex);
+                append(key, record, mirror -> mirror.omitMessages(fromIndex, toIndex));
+            }
+
+            @Override
+            public void cleared() {
+                append(key, record("clear"), ChatConversation::clear);
+            }
+
+            @Override
+            public void systemPromptChanged(String systemPrompt) {
+                JsonObject record = record("prompt");
+                record.addProperty("text", systemPrompt);
+                append(key, record, mirror -> mirror.setSystemPrompt(systemPrompt));
+            }
+
+            @Override
+            public void historySummaryChanged(String summary) {
+                JsonObject record = record("summary");
+                record.addProperty("text", summary);
+                append(key, record, mirror -> mirror.setHistorySummary(summary));
+            }
+        });
+    }
+
+    /**
+     * Appends a record on the writer thread. The record is built by the
+     * caller from copies of the message data (tool arguments may still be
+     * changed by the agent afterwards); only writing it is left to the
+     * writer thread.
+     */
+    private void append(String key, JsonObject record, Consumer<ChatConversation> mirrorOp) {
+        writer.execute(() -> {
+            Journal journal = journals.get(key);
+            if (journal == null) {
+                // Deleted in the meantime
+                return;
+            }
+            try {
+                mirrorOp.accept(journal.mirror);
+                try {
+                    Files.createDirectories(directory);
+                    Files.writeString(journal.file, GSON.toJson(record) + "\n", StandardCharsets.UTF_8,
+                            StandardOpenOption.CREATE, StandardOpenOption.APPEND);
+                    journal.records++;
+                } catch (IOException e) {
+                    System.err.println("ConversationStore: failed to append to " + journal.file + ": "
+                            + e.getMessage());
+                }
+                if (journal.records > 2 * journal.mirror.size() + COMPACTION_SLACK) {
+                    rewrite(key, journal);
+                } else {
+                    updateIndex(key, journal);
+                    scheduleIndexWrite();
+                }
+            } catch (RuntimeException e) {
+                System.err.println("ConversationStore: failed to record a change of " + key + ": " + e);
+            }
+        });
+    }
+
+    private static JsonObject record(String op) {
+        JsonObject record = new JsonObject();
+        record.addProperty("op", op);
+        return record;
+    }
+
+    // -- Writer thread ----------------------------------------------------------
+
+    private void compactIfNeeded(String key, Journal journal) {
+        if (journal.records > 2 * journal.mirror.size() + COMPACTION_SLACK) {
+            rewrite(key, journal);
+        }
+    }
+
+    /** Writes the index once the changes queued so far are written. */
+    private void scheduleIndexWrite() {
+        if (indexWriteQueued) {
+            return;
+        }
+        indexWriteQueued = true;
+        writer.execute(() -> {
+            indexWriteQueued = false;
+            writeIndex();
+        });
+    }
+
+    /**
+     * Replaces the journal with one record per current message.
+     */
+    private void rewrite(String key, Journal journal) {
+        List<JsonObject> records = new ArrayList<>();
+        if (journal.mirror.getSystemPrompt() != null) {
+            JsonObject prompt = new JsonObject();
+            prompt.addProperty("op", "prompt");
+            prompt.addProperty("text", journal.mirror.getSystemPrompt());
+            records.add(prompt);
+        }
+        for (ChatMessage message : journal.mirror.getMessages()) {
+            JsonObject add = new JsonObject();
+            add.addProperty("op", "add");
+            add.add("msg", toJson(message));
+            records.add(add);
+        }
+        if (journal.mirror.getOmittedMessageCount() > 0) {
+            JsonObject omitted = new JsonObject();
+            omitted.addProperty("op", "omitted");
+            omitted.addProperty("count", journal.mirror.getOmittedMessageCount());
+            records.add(omitted);
+        }
+        if (journal.mirror.getHistorySummary() != null) {
+            JsonObject summary = new JsonObject();
+            summary.addProperty("op", "summary");
+            summary.addProperty("text", journal.mirror.getHistorySummary());
+            records.add(summary);
+        }
+        try {
+            Files.createDirectories(directory);
+            Path tmp = journal.file.resolveSibling(journal.file.getFileName() + ".tmp");
+            try (BufferedWriter out = Files.newBufferedWriter(tmp, StandardCharsets.UTF_8)) {
+                for (JsonObject record : records) {
+                    out.write(GSON.toJson(record));
+                    out.write('\n');
+                }
+            }
+            Files.move(tmp, journal.file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+            journal.records = records.size();
+        } catch (IOException e) {
+            System.err.println("ConversationStore: failed to write " + journal.file + ": " + e.getMessage());
+        }
+        updateIndex(key, journal);
+        writeIndex();
+    }
+
+    private void updateIndex(String key, Journal journal) {
+        synchronized (index) {
+            IndexEntry entry = index.computeIfAbsent(key, k -> new IndexEntry());
+            entry.file = journal.file.getFileName().toString();
+            entry.messages = journal.mirror.size();
+            entry.records = journal.records;
+            entry.updated = System.currentTimeMillis();
+            indexDirty = true;
+        }
+    }
+
+    private Map<String, IndexEntry> readIndex() {
+        Path file = directory.resolve(INDEX_FILE);
+        if (Files.isRegularFile(file)) {
+            try {
+                Map<String, IndexEntry> read = GSON.fromJson(Files.readString(file, StandardCharsets.UTF_8),
+                        new TypeToken<LinkedHashMap<String, IndexEntry>>() { }.getType());
+                if (read != null) {
+                    return read;
+                }
+            } catch (IOException | RuntimeException e) {
+                System.err.println("ConversationStore: ignoring unreadable " + file + ": " + e.getMessage());
+            }
+        }
+        return new LinkedHashMap<>();
+    }
+
+    private void writeIndex() {
+        String json;
+        synchronized (index) {
+            if (!indexDirty) {
+                return;
+            }
+            json = GSON.toJson(index);
+            indexDirty = false;
+        }
+        try {
+            Files.createDirectories(directory);
+            Files.writeString(directory.resolve(INDEX_FILE), json, StandardCharsets.UTF_8);
+        } catch (IOException e) {
+            System.err.println("ConversationStore: failed to write index: " + e.getMessage());
+        }
+    }
+
+    private static void deleteFile(Path file) {
+        try {
+            Files.deleteIfExists(file);
+        } catch (IOException e) {
+            System.err.println("ConversationStore: failed to delete " + file + ": " + e.getMessage());
+        }
+    }
+
+    // -- Serialization ----------------------------------------------------------
+
+    /** Applies one journal record to a conversation without a listener. */
+    private static void apply(ChatConversation conversation, JsonObject record) {
+        String op = record.get("op").getAsString();
+        switch (op) {
+            case "add":
+                conversation.addAssistantMessage(fromJson(record.getAsJsonObject("msg")));
+                break;
+            case "set":
+                conversation.replaceMessage(record.get("index").getAsInt(),
+                        fromJson(record.getAsJsonObject("msg")));
+                break;
+            case "omit":
+                conversation.omitMessages(record.get("from").getAsInt(), record.get("to").getAsInt());
+                break;
+            case "omitted":
+                conversation.restoreOmittedMessageCount(record.get("count").getAsInt());
+                break;
+            case "clear":
+                conversation.clear();
+                break;
+            case "prompt":
+                conversation.setSystemPrompt(stringOrNull(record, "text"));
+                break;
+            case "summary":
+                conversation.setHistorySummary(stringOrNull(record, "text"));
+                break;
+            default:
+                throw new IllegalArgumentException("unknown record " + op);
+        }
+    }
+
+    private static JsonObject toJson(ChatMessage message) {
+        JsonObject json = new JsonObject();
+        json.addProperty("role", message.getRole().name());
+        if (message.getTextContent() != null) {
+            json.addProperty("text", message.getTextContent());
+        }
+        if (message.hasToolCalls()) {
+            JsonArray calls = new JsonArray();
+            for (ToolCall call : message.getToolCalls()) {
+                JsonObject c = new JsonObject();
+                c.addProperty("id", call.getId());
+                c.addProperty("name", call.getName());
+                if (call.getArguments() != null) {
+                    c.add("args", call.getArguments().deepCopy());
+                }
+                calls.add(c);
+            }
+            json.add("calls", calls);
+        }
+        if (!message.getToolResults().isEmpty()) {
+            JsonArray results = new JsonArray();
+            for (ToolResult result : message.getToolResults()) {
+                JsonObject r = new JsonObject();
+                r.addProperty("id", result.getToolCallId());
+                r.addProperty("content", result.getContent());
+                if (result.isError()) {
+                    r.addProperty("error", true);
+                }
+                results.add(r);
+            }
+            json.add("results", results);
+        }
+        return json;
+    }
+
+    private static ChatMessage fromJson(JsonObject json) {
+        ChatMessage.Role role = ChatMessage.Role.valueOf(json.get("role").getAsString());
+        String text = stringOrNull(json, "text");
+        List<ToolCall> calls = new ArrayList<>();
+        if (json.has("calls")) {
+            for (JsonElement e : json.getAsJsonArray("calls")) {
+                JsonObject c = e.getAsJsonObject();
+                calls.add(new ToolCall(stringOrNull(c, "id"), stringOrNull(c, "name"),
+                        c.has("args") ? c.getAsJsonObject("args") : null));
+            }
+        }
+        List<ToolResult> results = new ArrayList<>();
+        if (json.has("results")) {
+            for (JsonElement e : json.getAsJsonArray("results")) {
+                JsonObject r = e.getAsJsonObject();
+                results.add(new ToolResult(stringOrNull(r, "id"), stringOrNull(r, "content"),
+                        r.has("error") && r.get("error").getAsBoolean()));
+            }
+        }
+        return new ChatMessage(role, text, calls, results);
+    }
+
+    private static String stringOrNull(JsonObject json, String name) {
+        JsonElement e = json.get(name);
+        return e == null || e.isJsonNull() ? null : e.getAsString();
+    }
+
+    private Path journalFile(String key) {
+        String safe = key.replaceAll("[^A-Za-z0-9_-]", "_");
+        return directory.resolve(safe + "-" + Hashes.shortHash(key).substring(0, 8) + ".jsonl");
+    }
+}
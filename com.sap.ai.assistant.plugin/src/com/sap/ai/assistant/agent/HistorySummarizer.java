@@ -0,0 +1,161 @@
+package com.sap.ai.assistant.agent;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+import com.sap.ai.assistant.llm.LlmException;
+import com.sap.ai.assistant.llm.LlmProvider;
+import com.sap.ai.assistant.model.ChatConversation;
+import com.sap.ai.assistant.model.ChatMessage;
+import com.sap.ai.assistant.model.ToolCall;
+import com.sap.ai.assistant.model.ToolResult;
+
+/**
+ * Folds the messages omitted by {@link ContextBudget} into a rolling
+ * summary of the conversation, so the agent keeps what it learned instead
+ * of reading the same sources again.
+ * <p>
+ * The summary lists the objects touched, the decisions made, the errors
+ * seen and the open work. Each batch of omitted messages is merged into
+ * the latest summary by a (typically cheaper) model on a background
+ * thread, while the agent continues with its next round. The result is
+ * {@linkplain ChatConversation#offerHistorySummary offered} to the
+ * conversation and shows up in its omission note once the agent applies
+ * it between rounds; until then the note only counts the omitted
+ * messages. If summarizing fails, the batch is left out of the summary.
+ * </p>
+ * <p>
+ * All summarizers share one daemon thread, so the batches of a
+ * conversation are merged in order even across agent runs.
+ * </p>
+ */
+public class HistorySummarizer {
+
+    /** Upper bound for the length of a summary. */
+    public static final int MAX_SUMMARY_CHARS = 4000;
+
+    /** Upper bound for the transcript of omitted messages sent in one request. */
+    private static final int MAX_TRANSCRIPT_CHARS = 24_000;
+
+    private static final int MAX_TEXT_CHARS = 1500;
+    private static final int MAX_ARGUMENTS_CHARS = 300;
+    private static final int MAX_RESULT_CHARS = 800;
+
+    static final String SYSTEM_PROMPT =
+            "You maintain the working memory of an SAP ABAP development agent. Older messages of "
+            + "its conversation are being removed to save context space. Merge the removed messages "
+            + "into the existing summary so the agent can continue without reading the same objects "
+            + "again or repeating work.\n\n"
+            + "Answer with the updated summary only, using exactly these sections:\n"
+            + "## Objects touched\n"
+            + "- type and exact name, whether it was read, created or changed, and the facts still "
+            + "needed (signatures, fields, relevant lines)\n"
+            + "## Decisions\n"
+            + "- what was decided or done, and why\n"
+            + "## Errors\n"
+            + "- tool, object and message of errors seen, and whether they were resolved\n"
+            + "## Open work\n"
+            + "- steps that were still pending\n\n"
+            + "Keep it under 400 words. Drop details that no longer matter; never invent facts.";
+
+    private static final ExecutorService EXECUTOR = Executors.newSingleThreadExecutor(r -> {
+        Thread t = new Thread(r, "HistorySummarizer");
+        t.setDaemon(true);
+        return t;
+    });
+
+    private final LlmProvider provider;
+
+    /**
+     * Creates a summarizer.
+     *
+     * @param provider the provider of the model that writes the summaries
+     */
+    public HistorySummarizer(LlmProvider provider) {
+        this.provider = provider;
+    }
+
+    /**
+     * Merges the given messages into the conversation's summary in the
+     * background. Returns immediately.
+     *
+     * @param conversation the conversation the messages were omitted from
+     * @param omitted      the omitted messages, oldest first
+     */
+    public void summarize(ChatConversation conversation, List<ChatMessage> omitted) {
+        if (omitted.isEmpty()) {
+            return;
+        }
+        List<ChatMessage> batch = new ArrayList<>(omitted);
+        int generation = conversation.getHistoryGeneration();
+        EXECUTOR.execute(() -> {
+            if (conversation.getHistoryGeneration() != generation) {
+                // Cleared in the meantime
+                return;
+            }
+            String previous = conversation.getLatestHistorySummary();
+            String request = "Existing summary:\n" + (previous != null ? previous : "(none)")
+                    + "\n\nRemoved messages:\n" + formatTranscript(batch);
+            long start = System.currentTimeMillis();
+            try {
+                ChatMessage response = provider.sendMessage(
+                        List.of(ChatMessage.user(request)), SYSTEM_PROMPT, null);
+                String summary = response.getTextContent() != null ? response.getTextContent().trim() : "";
+                if (summary.isEmpty()) {
+                    System.err.println("HistorySummarizer: empty summary, keeping the previous one");
+                    return;
+                }
+                if (summary.length() > MAX_SUMMARY_CHARS) {
+                    summary = summary.substring(0, MAX_SUMMARY_CHARS) + "\n...(summary truncated)";
+                }
+                conversation.offerHistorySummary(summary, generation);
+                System.out.println("HistorySummarizer: merged " + batch.size() + " messages into a "
+                        + summary.length() + " char summary in "
+                        + (System.currentTimeMillis() - start) + "ms");
+            } catch (LlmException | RuntimeException e) {
+                System.err.println("HistorySummarizer: failed to summarize " + batch.size()
+                        + " messages: " + e.getMessage());
+            }
+        });
+    }
+
+    // -- Transcript -------------------------------------------------------------
+
+    /**
+     * Formats the messages compactly; tool arguments and results are cut
+     * to excerpts, which keep names and error messages.
+     */
+    static String formatTranscript(List<ChatMessage> messages) {
+        StringBuilder sb = new StringBuilder();
+        for (ChatMessage msg : messages) {
+            if (sb.length() >= MAX_TRANSCRIPT_CHARS) {
+                sb.append("...(further messages not shown)\n");
+                break;
+            }
+            sb.append(msg.getRole().name()).append(": ");
+            if (msg.getTextContent() != null && !msg.getTextContent().isEmpty()) {
+                sb.append(truncate(msg.getTextContent(), MAX_TEXT_CHARS));
+            }
+            for (ToolCall call : msg.getToolCalls()) {
+                sb.append("\n  call ").append(call.getName());
+                if (call.getArguments() != null) {
+                    sb.append(truncate(call.getArguments().toString(), MAX_ARGUMENTS_CHARS));
+                }
+            }
+            for (ToolResult result : msg.getToolResults()) {
+                sb.append("\n  ").append(result.isError() ? "error: " : "result: ")
+                        .append(truncate(result.getContent(), MAX_RESULT_CHARS));
+            }
+            sb.append("\n");
+        }
+        return sb.toString();
+    }
+
+    private static String truncate(String s, int maxLen) {
+        if (s == null) return "";
+        if (s.length() <= maxLen) return s;
+        return s.substring(0, maxLen) + "...(" + s.length() + " chars)";
+    }
+}
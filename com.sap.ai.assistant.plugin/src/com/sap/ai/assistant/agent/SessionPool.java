@@ -0,0 +1,484 @@
+package com.sap.ai.assistant.agent;
+
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import com.google.gson.JsonObject;
+import com.sap.ai.assistant.mcp.McpClient;
+import com.sap.ai.assistant.mcp.McpException;
+import com.sap.ai.assistant.mcp.McpToolCatalog;
+import com.sap.ai.assistant.mcp.McpToolDefinitionParser;
+import com.sap.ai.assistant.model.SapSystemConnection;
+import com.sap.ai.assistant.model.ToolDefinition;
+import com.sap.ai.assistant.sap.AdtRestClient;
+
+/**
+ * Long-lived pool of authenticated ADT clients and MCP sessions that is
+ * shared by all chat turns of a view.
+ * <p>
+ * Creating an {@link AdtRestClient} costs a login/CSRF discovery round trip,
+ * and connecting an {@link McpClient} costs an {@code initialize} handshake
+ * plus {@code tools/list}. The pool keeps both alive between messages:
+ * </p>
+ * <ul>
+ *   <li>ADT clients are keyed by base URL, client and user.</li>
+ *   <li>MCP sessions are keyed by server URL and keep the parsed tool
+ *       definitions of the server. They keep the server's event stream open
+ *       and fetch the tool list again after it announces a change.</li>
+ *   <li>A session that has been idle longer than {@link #HEALTH_CHECK_AFTER_MS}
+ *       is health-checked before reuse and recreated if the check fails.</li>
+ *   <li>Sessions idle longer than the idle timeout are closed and evicted.</li>
+ *   <li>MCP sessions are prepared on background threads, one server
+ *       independent of the others. A server that fails is skipped for a
+ *       growing back-off (circuit breaker), and the tool lists are stored in
+ *       an {@link McpToolCatalog} so callers can offer them before the
+ *       session is ready.</li>
+ * </ul>
+ * <p>
+ * All methods are thread-safe.
+ * </p>
+ */
+public class SessionPool {
+
+    /** Default time after which an unused session is closed. */
+    public static final long DEFAULT_IDLE_TIMEOUT_MS = 15 * 60_000L;
+
+    /** Idle time after which a session is health-checked before it is reused. */
+    public static final long HEALTH_CHECK_AFTER_MS = 2 * 60_000L;
+
+    /** First back-off after an MCP server failed; doubles with each further failure. */
+    private static final long MCP_BREAKER_BASE_MS = 30_000L;
+
+    /** Longest back-off for an MCP server that keeps failing. */
+    private static final long MCP_BREAKER_MAX_MS = 10 * 60_000L;
+
+    /**
+     * Creates and logs in a new ADT client when the pool has no usable one.
+     */
+    @FunctionalInterface
+    public interface AdtClientFactory {
+        AdtRestClient create() throws Exception;
+    }
+
+    /**
+     * A connected MCP session together with the tools the server offers.
+     */
+    public static class McpSession {
+        private final McpClient client;
+        private final List<JsonObject> rawTools;
+        private final List<ToolDefinition> definitions;
+
+        McpSession(McpClient client, List<JsonObject> rawTools, List<ToolDefinition> definitions) {
+            this.client = client;
+            this.rawTools = Collections.unmodifiableList(rawTools);
+            this.definitions = Collections.unmodifiableList(definitions);
+        }
+
+        public McpClient getClient() { return client; }
+        public List<JsonObject> getRawTools() { return rawTools; }
+        public List<ToolDefinition> getDefinitions() { return definitions; }
+    }
+
+    /** Circuit breaker state of one MCP server. */
+    private static class Breaker {
+        int failures;
+        long openUntil;
+        String lastError;
+    }
+
+    private static class Pooled<T> {
+        final T value;
+        long lastUsed;
+
+        Pooled(T value) {
+            this.value = value;
+            this.lastUsed = System.currentTimeMillis();
+        }
+    }
+
+    private final long idleTimeoutMs;
+    private final Map<String, Pooled<AdtRestClient>> adtClients = new HashMap<>();
+    private final Map<String, Pooled<McpSession>> mcpSessions = new HashMap<>();
+
+    /** Running MCP acquisitions, so parallel callers share one handshake. */
+    private final Map<String, CompletableFuture<McpSession>> mcpConnecting = new HashMap<>();
+
+    /** Failure state of MCP servers that could not be reached. */
+    private final Map<String, Breaker> mcpBreakers = new HashMap<>();
+
+    private final McpToolCatalog toolCatalog;
+    private ExecutorService mcpExecutor;
+
+    /** Servers whose tool list changed since it was last fetched (set from HTTP threads). */
+    private final Set<String> toolListChanged = ConcurrentHashMap.newKeySet();
+
+    /**
+     * Creates a pool with the {@link #DEFAULT_IDLE_TIMEOUT_MS default idle timeout}.
+     */
+    public SessionPool() {
+        this(DEFAULT_IDLE_TIMEOUT_MS);
+    }
+
+    /**
+     * Creates a pool with a custom idle timeout.
+     *
+     * @param idleTimeoutMs time in milliseconds after which unused sessions are closed
+     */
+    public SessionPool(long idleTimeoutMs) {
+        this(idleTimeoutMs, McpToolCatalog.shared());
+    }
+
+    /**
+     * Creates a pool with a custom idle timeout and tool catalogue.
+     *
+     * @param idleTimeoutMs time in milliseconds after which unused sessions are closed
+     * @param toolCatalog   where the tool lists of MCP servers are stored
+     */
+    public SessionPool(long idleTimeoutMs, McpToolCatalog toolCatalog) {
+        this.idleTimeoutMs = idleTimeoutMs;
+        this.toolCatalog = toolCatalog;
+    }
+
+    // -- ADT ------------------------------------------------------------------
+
+    /**
+     * Returns a logged-in ADT client for the system, reusing a pooled one
+     * when it is still healthy.
+     *
+     * @param system  the SAP system
+     * @param factory creates and logs in a new client if needed
+     * @return a logged-in client
+     * @throws Exception if a new client cannot be created or logged in
+     */
+    public AdtRestClient acquireAdtClient(SapSystemConnection system,
+                                          AdtClientFactory factory) throws Exception {
+        String key = adtKey(system);
+        Pooled<AdtRestClient> pooled;
+        synchronized (this) {
+            evictIdle();
+            pooled = adtClients.get(key);
+            if (pooled != null && isFresh(pooled)) {
+                pooled.lastUsed = System.currentTimeMillis();
+                return pooled.value;
+            }
+        }
+
+        // The health check and the login are round trips to the system; they
+        // run outside the lock so a slow system does not block the others.
+        if (pooled != null) {
+            boolean healthy = pooled.value.checkSession();
+            synchronized (this) {
+                if (adtClients.get(key) == pooled) {
+                    if (healthy) {
+                        pooled.lastUsed = System.currentTimeMillis();
+                        return pooled.value;
+                    }
+                    System.out.println("SessionPool: ADT session for " + key + " expired, reconnecting");
+                    adtClients.remove(key);
+                    pooled.value.logout();
+                }
+            }
+        }
+
+        AdtRestClient client = factory.create();
+        synchronized (this) {
+            Pooled<AdtRestClient> current = adtClients.get(key);
+            if (current != null) {
+                // Another caller logged in meanwhile; keep its session
+                client.logout();
+                current.lastUsed = System.currentTimeMillis();
+                return current.value;
+            }
+            adtClients.put(key, new Pooled<>(client));
+            return client;
+        }
+    }
+
+    /**
+     * Closes and removes the pooled client of the system, e.g. after an
+     * authentication error.
+     */
+    public synchronized void invalidateAdtClient(SapSystemConnection system) {
+        Pooled<AdtRestClient> pooled = adtClients.remove(adtKey(system));
+        if (pooled != null) {
+            pooled.value.logout();
+        }
+    }
+
+    /**
+     * Returns whether a client for the system is currently pooled. The view
+     * uses this to skip credential lookup for systems that are still logged in.
+     */
+    public synchronized boolean hasAdtClient(SapSystemConnection system) {
+        return adtClients.containsKey(adtKey(system));
+    }
+
+    // -- MCP ------------------------------------------------------------------
+
+    /**
+     * Returns a connected MCP session for the server, reusing a pooled one
+     * (including its tool list) when it is still healthy. Blocks until the
+     * session is ready; see {@link #acquireMcpSessionAsync}.
+     *
+     * @param serverUrl the MCP server URL
+     * @return the connected session
+     * @throws McpException if connecting or listing tools fails, or the
+     *         server failed recently and is skipped
+     */
+    public McpSession acquireMcpSession(String serverUrl) throws McpException {
+        try {
+            return acquireMcpSessionAsync(serverUrl).get();
+        } catch (ExecutionException e) {
+            Throwable cause = e.getCause();
+            if (cause instanceof McpException) {
+                throw (McpException) cause;
+            }
+            throw new McpException("MCP session for " + serverUrl + " failed: "
+                    + (cause != null ? cause.getMessage() : e.getMessage()), cause);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new McpException("Waiting for MCP server " + serverUrl + " was interrupted", e);
+        }
+    }
+
+    /**
+     * Returns a future for a connected MCP session of the server.
+     * <p>
+     * A pooled session that was used recently is returned at once. Otherwise
+     * the health check, reconnect or tool re-listing runs on a background
+     * thread, so several servers can be prepared in parallel; concurrent
+     * callers for the same server share one attempt. A server that failed
+     * recently is not contacted again until its back-off has passed (the
+     * future fails immediately), so a server that is down does not delay
+     * every run.
+     * </p>
+     *
+     * @param serverUrl the MCP server URL
+     * @return the session future; fails with an {@link McpException}
+     */
+    public synchronized CompletableFuture<McpSession> acquireMcpSessionAsync(String serverUrl) {
+        evictIdle();
+        CompletableFuture<McpSession> running = mcpConnecting.get(serverUrl);
+        if (running != null) {
+            return running;
+        }
+
+        Pooled<McpSession> pooled = mcpSessions.get(serverUrl);
+        if (pooled != null && isFresh(pooled) && !toolListChanged.contains(serverUrl)) {
+            pooled.lastUsed = System.currentTimeMillis();
+            return CompletableFuture.completedFuture(pooled.value);
+        }
+
+        Breaker breaker = mcpBreakers.get(serverUrl);
+        long now = System.currentTimeMillis();
+        if (pooled == null && breaker != null && breaker.openUntil > now) {
+            return CompletableFuture.failedFuture(new McpException("MCP server " + serverUrl
+                    + " failed recently (" + breaker.lastError + "); retrying in "
+                    + ((breaker.openUntil - now) / 1000 + 1) + "s"));
+        }
+
+        CompletableFuture<McpSession> future = new CompletableFuture<>();
+        mcpConnecting.put(serverUrl, future);
+        McpSession current = pooled != null ? pooled.value : null;
+        getMcpExecutor().execute(() -> {
+            try {
+                McpSession session = prepareMcpSession(serverUrl, current);
+                finishMcpAcquisition(serverUrl, future, session, null);
+                future.complete(session);
+            } catch (Exception e) {
+                finishMcpAcquisition(serverUrl, future, null, e);
+                future.completeExceptionally(e);
+            }
+        });
+        return future;
+    }
+
+    /**
+     * Checks, refreshes or (re)creates the session of a server. Runs on the
+     * MCP executor without holding the pool lock.
+     */
+    private McpSession prepareMcpSession(String serverUrl, McpSession current) throws McpException {
+        if (current != null) {
+            if (ping(current.getClient())) {
+                if (!toolListChanged.remove(serverUrl)) {
+                    return current;
+                }
+                // Same session, the server announced a new tool list
+                List<JsonObject> rawTools = current.getClient().listTools();
+                toolCatalog.put(serverUrl, rawTools);
+                return new McpSession(current.getClient(), rawTools,
+                        McpToolDefinitionParser.parse(rawTools));
+            }
+            System.out.println("SessionPool: MCP session for " + serverUrl + " expired, reconnecting");
+            current.getClient().disconnect();
+        }
+
+        McpClient client = new McpClient(serverUrl);
+        try {
+            client.connect();
+            toolListChanged.remove(serverUrl);
+            client.setNotificationListener(notification -> {
+                if ("notifications/tools/list_changed".equals(notification.get("method").getAsString())) {
+                    toolListChanged.add(serverUrl);
+                }
+            });
+            client.openEventStream();
+            List<JsonObject> rawTools = client.listTools();
+            toolCatalog.put(serverUrl, rawTools);
+            return new McpSession(client, rawTools, McpToolDefinitionParser.parse(rawTools));
+        } catch (McpException | RuntimeException e) {
+            // Stop the event stream, it would otherwise keep reconnecting
+            client.disconnect();
+            throw e;
+        }
+    }
+
+    /**
+     * Pools the result of an acquisition and updates the circuit breaker
+     * of the server.
+     */
+    private synchronized void finishMcpAcquisition(String serverUrl, CompletableFuture<McpSession> future,
+                                                   McpSession session, Exception error) {
+        mcpConnecting.remove(serverUrl, future);
+        if (session != null) {
+            mcpBreakers.remove(serverUrl);
+            Pooled<McpSession> pooled = mcpSessions.get(serverUrl);
+            if (pooled != null && pooled.value == session) {
+                pooled.lastUsed = System.currentTimeMillis();
+            } else {
+                mcpSessions.put(serverUrl, new Pooled<>(session));
+            }
+            return;
+        }
+
+        Pooled<McpSession> stale = mcpSessions.remove(serverUrl);
+        if (stale != null) {
+            stale.value.getClient().disconnect();
+        }
+        Breaker breaker = mcpBreakers.computeIfAbsent(serverUrl, url -> new Breaker());
+        breaker.failures++;
+        long backoff = Math.min(MCP_BREAKER_MAX_MS,
+                MCP_BREAKER_BASE_MS << Math.min(breaker.failures - 1, 10));
+        breaker.openUntil = System.currentTimeMillis() + backoff;
+        breaker.lastError = error.getMessage();
+        System.err.println("SessionPool: MCP server " + serverUrl + " failed ("
+                + breaker.failures + "x), skipping it for " + backoff / 1000 + "s: " + error.getMessage());
+    }
+
+    /**
+     * Returns the catalogue in which the pool stores the tool lists of the
+     * servers it connects to.
+     */
+    public McpToolCatalog getToolCatalog() {
+        return toolCatalog;
+    }
+
+    /**
+     * Returns whether the server is currently skipped because it failed
+     * recently.
+     */
+    public synchronized boolean isMcpServerSuspended(String serverUrl) {
+        Breaker breaker = mcpBreakers.get(serverUrl);
+        return breaker != null && breaker.openUntil > System.currentTimeMillis()
+                && !mcpSessions.containsKey(serverUrl);
+    }
+
+    /**
+     * Disconnects and removes the pooled session of the server.
+     */
+    public synchronized void invalidateMcpSession(String serverUrl) {
+        Pooled<McpSession> pooled = mcpSessions.remove(serverUrl);
+        if (pooled != null) {
+            pooled.value.getClient().disconnect();
+        }
+    }
+
+    // -- Lifecycle ------------------------------------------------------------
+
+    /**
+     * Closes all sessions that have not been used within the idle timeout.
+     */
+    public synchronized void evictIdle() {
+        long cutoff = System.currentTimeMillis() - idleTimeoutMs;
+
+        Iterator<Map.Entry<String, Pooled<AdtRestClient>>> adtIt = adtClients.entrySet().iterator();
+        while (adtIt.hasNext()) {
+            Map.Entry<String, Pooled<AdtRestClient>> e = adtIt.next();
+            if (e.getValue().lastUsed < cutoff) {
+                System.out.println("SessionPool: closing idle ADT session " + e.getKey());
+                e.getValue().value.logout();
+                adtIt.remove();
+            }
+        }
+
+        Iterator<Map.Entry<String, Pooled<McpSession>>> mcpIt = mcpSessions.entrySet().iterator();
+        while (mcpIt.hasNext()) {
+            Map.Entry<String, Pooled<McpSession>> e = mcpIt.next();
+            if (e.getValue().lastUsed < cutoff) {
+                e.getValue().value.getClient().disconnect();
+                mcpIt.remove();
+            }
+        }
+    }
+
+    /**
+     * Closes every pooled session. Called when the owning view is disposed.
+     */
+    public synchronized void closeAll() {
+        for (Pooled<AdtRestClient> pooled : adtClients.values()) {
+            pooled.value.logout();
+        }
+        adtClients.clear();
+        for (Pooled<McpSession> pooled : mcpSessions.values()) {
+            pooled.value.getClient().disconnect();
+        }
+        mcpSessions.clear();
+        mcpBreakers.clear();
+        if (mcpExecutor != null) {
+            mcpExecutor.shutdownNow();
+            mcpExecutor = null;
+        }
+    }
+
+    // -- Helpers --------------------------------------------------------------
+
+    private static String adtKey(SapSystemConnection system) {
+        return system.getBaseUrl() + "|" + system.getClient() + "|" + system.getUser();
+    }
+
+    private static boolean isFresh(Pooled<?> pooled) {
+        return System.currentTimeMillis() - pooled.lastUsed < HEALTH_CHECK_AFTER_MS;
+    }
+
+    private ExecutorService getMcpExecutor() {
+        if (mcpExecutor == null) {
+            AtomicInteger threadCount = new AtomicInteger();
+            mcpExecutor = Executors.newCachedThreadPool(runnable -> {
+                Thread thread = new Thread(runnable,
+                        "SessionPool-mcp-" + threadCount.incrementAndGet());
+                thread.setDaemon(true);
+                return thread;
+            });
+        }
+        return mcpExecutor;
+    }
+
+    private static boolean ping(McpClient client) {
+        try {
+            client.ping();
+            return true;
+        } catch (McpException e) {
+            return false;
+        }
+    }
+}
@@ -0,0 +1,278 @@
+package com.sap.ai.assistant.agent;
+
+import java.util.HashSet;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Set;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+import com.sap.ai.assistant.model.AdtContext;
+import com.sap.ai.assistant.sap.AdtObjectIndex;
+import com.sap.ai.assistant.sap.AdtRestClient;
+import com.sap.ai.assistant.tools.AdtUrlResolver;
+
+/**
+ * Fetches the sources of objects referenced by the code the agent is
+ * looking at, while the LLM is still working on its next response.
+ * <p>
+ * References are taken from the editor contexts of a message and from
+ * every source the agent reads: classes and interfaces used in type
+ * declarations, {@code NEW}, {@code CAST}, static calls, {@code INTERFACES}
+ * and {@code INHERITING FROM}; tables, structures and CDS views used in
+ * {@code TYPE}, {@code FROM}, {@code JOIN} and associations. Only customer
+ * objects ({@code Z*}, {@code Y*} and {@code /namespace/}) are considered,
+ * since those are the ones the agent tends to open next.
+ * </p>
+ * <p>
+ * Names are resolved to source URLs with the {@link AdtObjectIndex}, or by
+ * their {@code ZCL_}/{@code ZIF_} naming if the index does not know them.
+ * Names are resolved on a background thread and the sources fetched with
+ * {@link AdtRestClient#prefetchAsync}, at most {@link #DEFAULT_BUDGET} per
+ * run, so a later {@code sap_get_source} of the same object only waits for
+ * a conditional request instead of the download.
+ * </p>
+ * <p>
+ * Create one instance per agent run and {@link #close} it when the run
+ * ends. All methods are thread-safe.
+ * </p>
+ */
+public class SourcePrefetcher {
+
+    /** Default number of sources fetched per run. */
+    public static final int DEFAULT_BUDGET = 12;
+
+    /** Upper bound for the references taken from one source. */
+    private static final int MAX_REFERENCES_PER_SOURCE = 40;
+
+    private static final String NAME = "(/[A-Z0-9_]+/[A-Z0-9_]+|[ZY][A-Z0-9_]*)";
+
+    /** Patterns whose first group is a referenced object name. */
+    private static final Pattern[] REFERENCE_PATTERNS = {
+            compile("\\bTYPE\\s+REF\\s+TO\\s+" + NAME),
+            compile("\\bNEW\\s+" + NAME + "\\s*\\("),
+            compile("\\bCAST\\s+" + NAME + "\\s*\\("),
+            compile("(?<![\\w/])" + NAME + "=>"),
+            compile("\\bINTERFACES\\s+" + NAME),
+            compile("\\bINHERITING\\s+FROM\\s+" + NAME),
+            compile("\\b(?:TYPE|LIKE)\\s+(?:(?:STANDARD|SORTED|HASHED)\\s+)?"
+                    + "(?:(?:TABLE|LINE|RANGE)\\s+OF\\s+)?" + NAME + "\\b"),
+            compile("\\b(?:FROM|JOIN)\\s+" + NAME + "\\b"),
+            compile("\\b(?:ASSOCIATION|COMPOSITION)\\b[^;{]*?\\b(?:TO|OF)\\s+(?:PARENT\\s+)?" + NAME + "\\b"),
+    };
+
+    /** Object types that have a source to prefetch, by index type prefix. */
+    private static final Set<String> SOURCE_TYPES = Set.of("CLAS", "INTF", "PROG", "TABL", "DDLS",
+            "SRVD", "DDLX", "BDEF");
+
+    /** One daemon thread shared by all prefetchers, for resolving names. */
+    private static final ExecutorService EXECUTOR = Executors.newSingleThreadExecutor(r -> {
+        Thread t = new Thread(r, "SourcePrefetcher");
+        t.setDaemon(true);
+        return t;
+    });
+
+    private final AdtRestClient client;
+    private final AdtObjectIndex index;
+    private final int budget;
+
+    /** Upper-case names already queued or known to the agent. */
+    private final Set<String> seen = new HashSet<>();
+    private int queued;
+    private final AtomicInteger fetched = new AtomicInteger();
+    /** Fetches that have not completed yet. */
+    private final Set<CompletableFuture<Boolean>> pending = ConcurrentHashMap.newKeySet();
+    private volatile boolean closed;
+
+    /**
+     * Creates a prefetcher with the {@link #DEFAULT_BUDGET}.
+     *
+     * @param client the client of the SAP system
+     */
+    public SourcePrefetcher(AdtRestClient client) {
+        this(client, DEFAULT_BUDGET);
+    }
+
+    /**
+     * Creates a prefetcher.
+     *
+     * @param client the client of the SAP system
+     * @param budget the maximum number of sources fetched by this instance
+     */
+    public SourcePrefetcher(AdtRestClient client, int budget) {
+        this.client = client;
+        this.index = client.getObjectIndex();
+        this.budget = budget;
+    }
+
+    /**
+     * Prefetches the objects referenced by the sources of the editor
+     * contexts. The objects of the contexts themselves are not fetched.
+     *
+     * @param contexts the editor contexts of the message (may be {@code null})
+     */
+    public void prefetchContexts(List<AdtContext> contexts) {
+        if (contexts == null) {
+            return;
+        }
+        synchronized (this) {
+            for (AdtContext ctx : contexts) {
+                if (ctx.getObjectName() != null) {
+                    seen.add(ctx.getObjectName().toUpperCase(Locale.ROOT));
+                }
+            }
+        }
+        for (AdtContext ctx : contexts) {
+            prefetchReferences(ctx.getSourceCode());
+        }
+    }
+
+    /**
+     * Prefetches the objects referenced by the given ABAP or CDS source,
+     * as long as the budget allows.
+     *
+     * @param source the source text (may be {@code null})
+     */
+    public void prefetchReferences(String source) {
+        if (source == null || source.isEmpty() || closed) {
+            return;
+        }
+        for (String name : extractReferences(source)) {
+            synchronized (this) {
+                if (queued >= budget) {
+                    return;
+                }
+                if (!seen.add(name)) {
+                    continue;
+                }
+                queued++;
+            }
+            EXECUTOR.execute(() -> fetch(name));
+        }
+    }
+
+    /**
+     * Stops prefetching and cancels the fetches still in flight.
+     */
+    public void close() {
+        closed = true;
+        for (CompletableFuture<Boolean> fetch : pending) {
+            fetch.cancel(true);
+        }
+    }
+
+    /**
+     * Returns the number of sources fetched so far.
+     */
+    public int getFetchedCount() {
+        return fetched.get();
+    }
+
+    // -- Internal helpers -----------------------------------------------------
+
+    /**
+     * Returns the upper-case customer object names referenced by the source,
+     * in order of first occurrence.
+     */
+    static Set<String> extractReferences(String source) {
+        Set<String> names = new LinkedHashSet<>();
+        for (String line : source.split("\n")) {
+            String code = stripComment(line);
+            if (code.isBlank()) {
+                continue;
+            }
+            for (Pattern pattern : REFERENCE_PATTERNS) {
+                Matcher m = pattern.matcher(code);
+                while (m.find()) {
+                    names.add(m.group(1).toUpperCase(Locale.ROOT));
+                    if (names.size() >= MAX_REFERENCES_PER_SOURCE) {
+                        return names;
+                    }
+                }
+            }
+        }
+        return names;
+    }
+
+    private void fetch(String name) {
+        if (closed) {
+            return;
+        }
+        String path = resolveSourceUrl(name);
+        if (path == null) {
+            return;
+        }
+        CompletableFuture<Boolean> fetch = client.prefetchAsync(path, "text/plain");
+        pending.add(fetch);
+        fetch.whenComplete((ok, error) -> {
+            pending.remove(fetch);
+            if (Boolean.TRUE.equals(ok)) {
+                fetched.incrementAndGet();
+            } else if (error != null && !(error instanceof CancellationException)) {
+                Throwable cause = error instanceof CompletionException && error.getCause() != null
+                        ? error.getCause() : error;
+                // Prefetching is opportunistic; the agent fetches the source itself if needed
+                System.err.println("SourcePrefetcher: failed to prefetch " + path + ": " + cause.getMessage());
+            }
+        });
+        if (closed) {
+            fetch.cancel(true);
+        }
+    }
+
+    /**
+     * Returns the source URL of the named object, or {@code null} if its
+     * type is not known or it has no source.
+     */
+    private String resolveSourceUrl(String name) {
+        for (AdtObjectIndex.Entry entry : index.search(name, null, 5)) {
+            String type = entry.getType() != null ? entry.getType().toUpperCase(Locale.ROOT) : "";
+            int slash = type.indexOf('/');
+            String mainType = slash > 0 ? type.substring(0, slash) : type;
+            if (!SOURCE_TYPES.contains(mainType)) {
+                continue;
+            }
+            if ("TABL/DS".equals(type)) {
+                mainType = "STRU";
+            }
+            return AdtUrlResolver.resolveSourceUrl(mainType, name);
+        }
+        String bare = name.startsWith("/") ? name.substring(name.indexOf('/', 1) + 1) : name.substring(1);
+        if (bare.startsWith("CL_") || bare.startsWith("CX_")) {
+            return AdtUrlResolver.resolveSourceUrl("CLAS", name);
+        }
+        if (bare.startsWith("IF_")) {
+            return AdtUrlResolver.resolveSourceUrl("INTF", name);
+        }
+        return null;
+    }
+
+    private static String stripComment(String line) {
+        if (line.startsWith("*")) {
+            return "";
+        }
+        // ABAP end-of-line comments start with ", CDS comments with //
+        int end = line.length();
+        int quote = line.indexOf('"');
+        if (quote >= 0) {
+            end = quote;
+        }
+        int slashes = line.indexOf("//");
+        if (slashes >= 0 && slashes < end) {
+            end = slashes;
+        }
+        return line.substring(0, end);
+    }
+
+    private static Pattern compile(String regex) {
+        return Pattern.compile(regex, Pattern.CASE_INSENSITIVE);
+    }
+}
@@ -0,0 +1,197 @@
+package com.sap.ai.assistant.agent;
+
+import java.net.URLDecoder;
+import java.nio.charset.StandardCharsets;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+
+import com.google.gson.JsonElement;
+import com.google.gson.JsonObject;
+import com.sap.ai.assistant.model.ToolCall;
+import com.sap.ai.assistant.model.ToolResult;
+import com.sap.ai.assistant.sap.AdtSourceCache;
+import com.sap.ai.assistant.tools.SapTool;
+
+/**
+ * Remembers the results of read-only tool calls across the rounds of an
+ * agent run, so reading the same source or type info again does not cost
+ * another SAP round trip.
+ * <p>
+ * Each result is stored with the names of the objects its arguments refer
+ * to (taken from ADT URLs and name arguments). A call of a tool that is not
+ * read-only drops the results of the objects it names; results that do not
+ * name an object (searches, SQL queries, where-used lists) are dropped by
+ * every such call, as is everything when a write names no object.
+ * </p>
+ * <p>
+ * {@link AgentLoop} uses a new memo per run unless one is set with
+ * {@link AgentLoop#setToolResultMemo}, which keeps results for a whole
+ * conversation. Changes made outside the agent (e.g. in the editor) are not
+ * seen by the memo. All methods are thread-safe.
+ * </p>
+ */
+public class ToolResultMemo {
+
+    /** Upper bound for the number of remembered results. */
+    private static final int MAX_ENTRIES = 200;
+
+    /** Argument names that carry an object name rather than a URL. */
+    private static final String[] NAME_ARGUMENTS = { "objectName", "name", "parentName" };
+
+    private static final class Memo {
+        final String content;
+        final Set<String> objects;
+
+        Memo(String content, Set<String> objects) {
+            this.content = content;
+            this.objects = objects;
+        }
+    }
+
+    private final Map<String, Memo> memos = new HashMap<>();
+    private int hits;
+
+    /**
+     * Returns the remembered result of an identical earlier call, re-issued
+     * with this call's ID, or {@code null}.
+     *
+     * @param toolCall the call about to be executed
+     * @param tool     the tool it targets (may be {@code null})
+     * @return the remembered result, or {@code null}
+     */
+    public synchronized ToolResult lookup(ToolCall toolCall, SapTool tool) {
+        if (tool == null || !tool.isReadOnly()) {
+            return null;
+        }
+        Memo memo = memos.get(signature(toolCall));
+        if (memo == null) {
+            return null;
+        }
+        hits++;
+        return ToolResult.success(toolCall.getId(), memo.content);
+    }
+
+    /**
+     * Records an executed call: successful results of read-only tools are
+     * remembered, calls of any other tool invalidate what they may have
+     * changed (regardless of their result).
+     *
+     * @param toolCall the executed call
+     * @param tool     the tool it targeted (may be {@code null})
+     * @param result   the result of the call
+     */
+    public synchronized void record(ToolCall toolCall, SapTool tool, ToolResult result) {
+        if (tool == null) {
+            return;
+        }
+        if (!tool.isReadOnly()) {
+            invalidate(objectsOf(toolCall.getArguments()));
+            return;
+        }
+        if (result.isError() || result.getContent() == null) {
+            return;
+        }
+        if (memos.size() >= MAX_ENTRIES) {
+            // Cheap bound: results of a long run are rarely needed again
+            memos.clear();
+        }
+        memos.put(signature(toolCall), new Memo(result.getContent(), objectsOf(toolCall.getArguments())));
+    }
+
+    /** Forgets all remembered results. */
+    public synchronized void clear() {
+        memos.clear();
+    }
+
+    /**
+     * Returns the number of calls answered from the memo so far.
+     */
+    public synchronized int getHits() {
+        return hits;
+    }
+
+    /**
+     * Returns the number of remembered results.
+     */
+    public synchronized int size() {
+        return memos.size();
+    }
+
+    // -- Internal helpers -----------------------------------------------------
+
+    private void invalidate(Set<String> changed) {
+        if (changed.isEmpty()) {
+            memos.clear();
+            return;
+        }
+        Iterator<Memo> it = memos.values().iterator();
+        while (it.hasNext()) {
+            Set<String> objects = it.next().objects;
+            if (objects.isEmpty() || !Collections.disjoint(objects, changed)) {
+                it.remove();
+            }
+        }
+    }
+
+    private static String signature(ToolCall toolCall) {
+        return toolCall.getName() + "|"
+                + (toolCall.getArguments() != null ? toolCall.getArguments().toString() : "");
+    }
+
+    /**
+     * Returns the lower-case names of the objects the arguments refer to:
+     * the last segment of every ADT object path (plus the function group of
+     * function module paths) and the values of name arguments.
+     */
+    static Set<String> objectsOf(JsonObject arguments) {
+        Set<String> objects = new HashSet<>();
+        if (arguments == null) {
+            return objects;
+        }
+        for (Map.Entry<String, JsonElement> e : arguments.entrySet()) {
+            JsonElement value = e.getValue();
+            if (value == null || !value.isJsonPrimitive() || !value.getAsJsonPrimitive().isString()) {
+                continue;
+            }
+            String text = value.getAsString().trim();
+            int adt = text.indexOf("/sap/bc/adt/");
+            if (adt >= 0) {
+                addPathObjects(text.substring(adt), objects);
+            }
+        }
+        for (String name : NAME_ARGUMENTS) {
+            JsonElement value = arguments.get(name);
+            if (value != null && value.isJsonPrimitive() && !value.getAsString().isBlank()) {
+                objects.add(value.getAsString().trim().toLowerCase(Locale.ROOT));
+            }
+        }
+        return objects;
+    }
+
+    private static void addPathObjects(String path, Set<String> objects) {
+        String objectPath = AdtSourceCache.objectPathOf(path);
+        String[] segments = objectPath.split("/");
+        if (segments.length == 0) {
+            return;
+        }
+        objects.add(decode(segments[segments.length - 1]));
+        for (int i = 0; i < segments.length - 1; i++) {
+            if ("groups".equals(segments[i]) && i > 0 && "functions".equals(segments[i - 1])) {
+                objects.add(decode(segments[i + 1]));
+            }
+        }
+    }
+
+    private static String decode(String segment) {
+        try {
+            return URLDecoder.decode(segment, StandardCharsets.UTF_8);
+        } catch (IllegalArgumentException e) {
+            return segment;
+        }
+    }
+}
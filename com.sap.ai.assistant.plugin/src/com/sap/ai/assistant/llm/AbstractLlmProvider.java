@@ -1,6 +1,7 @@
 package com.sap.ai.assistant.llm;
 
 import java.io.IOException;
+import java.io.UncheckedIOException;
 import java.net.InetSocketAddress;
 import java.net.ProxySelector;
 import java.net.URI;
@@ -8,6 +9,9 @@ import java.net.http.HttpClient;
 import java.net.http.HttpRequest;
 import java.net.http.HttpResponse;
 import java.time.Duration;
+import java.util.Iterator;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
 
 import com.sap.ai.assistant.model.LlmProviderConfig;
 
@@ -73,51 +77,148 @@ public abstract class AbstractLlmProvider implements LlmProvider {
 
     protected HttpResponse<String> sendRequest(String url, String body) throws LlmException {
         try {
-            HttpRequest.Builder builder = HttpRequest.newBuilder()
-                    .uri(URI.create(url))
-                    .timeout(REQUEST_TIMEOUT)
-                    .header("Content-Type", "application/json")
-                    .POST(HttpRequest.BodyPublishers.ofString(body));
-
-            addAuthHeaders(builder);
-
-            HttpRequest request = builder.build();
+            HttpRequest request = buildPostRequest(url, body);
             long startTime = System.currentTimeMillis();
             HttpResponse<String> response = httpClient.send(request, HttpResponse.BodyHandlers.ofString());
             lastRequestDurationMs = System.currentTimeMillis() - startTime;
 
             if (response.statusCode() < 200 || response.statusCode() >= 300) {
-                String errorMsg = parseErrorMessage(response.body());
-                throw new LlmException(
-                        getProviderId() + " API error (" + response.statusCode() + "): " + errorMsg,
-                        response.statusCode(),
-                        response.body());
+                throw apiError(response.statusCode(), response.body());
             }
 
             return response;
         } catch (LlmException e) {
             throw e;
-        } catch (java.net.ConnectException e) {
-            throw new LlmException(
+        } catch (IOException e) {
+            throw networkError(url, e);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new LlmException("Request to " + getProviderId() + " API was interrupted", e);
+        }
+    }
+
+    /**
+     * Sends a streaming POST request and dispatches each Server-Sent Event
+     * to the given handler as soon as it has been received. Lines are read
+     * incrementally, so the handler sees the first event long before the
+     * provider has finished generating the response.
+     * <p>
+     * Non-2xx responses are read completely and reported as an
+     * {@link LlmException}, exactly like {@link #sendRequest}.
+     * </p>
+     *
+     * @param url     the endpoint URL
+     * @param body    the JSON request body (must request streaming)
+     * @param handler receives every event in order
+     * @throws LlmException on network errors, provider errors, or handler failures
+     */
+    protected void sendStreamingRequest(String url, String body, SseEventHandler handler)
+            throws LlmException {
+        try {
+            HttpRequest request = buildPostRequest(url, body);
+            long startTime = System.currentTimeMillis();
+            HttpResponse<Stream<String>> response = httpClient.send(request, HttpResponse.BodyHandlers.ofLines());
+
+            try (Stream<String> lines = response.body()) {
+                if (response.statusCode() < 200 || response.statusCode() >= 300) {
+                    String errorBody = lines.collect(Collectors.joining("\n"));
+                    throw apiError(response.statusCode(), errorBody);
+                }
+
+                String eventName = null;
+                StringBuilder data = new StringBuilder();
+                Iterator<String> it = lines.iterator();
+                while (it.hasNext()) {
+                    if (Thread.currentThread().isInterrupted()) {
+                        throw new InterruptedException();
+                    }
+                    String line = it.next();
+                    if (line.isEmpty()) {
+                        // Blank line terminates the current event
+                        if (data.length() > 0) {
+                            handler.onEvent(eventName, data.toString());
+                        }
+                        eventName = null;
+                        data.setLength(0);
+                    } else if (line.startsWith("event:")) {
+                        eventName = line.substring(6).trim();
+                    } else if (line.startsWith("data:")) {
+                        if (data.length() > 0) {
+                            data.append('\n');
+                        }
+                        data.append(line.substring(5).trim());
+                    }
+                    // Comments (":") and other fields (id:, retry:) are ignored
+                }
+                if (data.length() > 0) {
+                    handler.onEvent(eventName, data.toString());
+                }
+            } catch (UncheckedIOException e) {
+                throw e.getCause();
+            }
+            lastRequestDurationMs = System.currentTimeMillis() - startTime;
+        } catch (LlmException e) {
+            throw e;
+        } catch (IOException e) {
+            throw networkError(url, e);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new LlmException("Request to " + getProviderId() + " API was interrupted", e);
+        }
+    }
+
+    /**
+     * Receives Server-Sent Events from {@link #sendStreamingRequest}.
+     */
+    @FunctionalInterface
+    protected interface SseEventHandler {
+
+        /**
+         * @param event the {@code event:} field, or {@code null} if the event had none
+         * @param data  the (joined) {@code data:} lines of the event
+         * @throws LlmException to abort the stream
+         */
+        void onEvent(String event, String data) throws LlmException;
+    }
+
+    private HttpRequest buildPostRequest(String url, String body) {
+        HttpRequest.Builder builder = HttpRequest.newBuilder()
+                .uri(URI.create(url))
+                .timeout(REQUEST_TIMEOUT)
+                .header("Content-Type", "application/json")
+                .POST(HttpRequest.BodyPublishers.ofString(body));
+
+        addAuthHeaders(builder);
+        return builder.build();
+    }
+
+    private LlmException apiError(int statusCode, String responseBody) {
+        String errorMsg = parseErrorMessage(responseBody);
+        return new LlmException(
+                getProviderId() + " API error (" + statusCode + "): " + errorMsg,
+                statusCode,
+                responseBody);
+    }
+
+    private LlmException networkError(String url, IOException e) {
+        if (e instanceof java.net.ConnectException) {
+            return new LlmException(
                     "Cannot connect to " + getProviderId() + " API at " + url
                     + ". Check your network connection and proxy settings. "
                     + "(Eclipse: Window > Preferences > General > Network Connections)",
                     e);
-        } catch (javax.net.ssl.SSLException e) {
-            throw new LlmException(
+        }
+        if (e instanceof javax.net.ssl.SSLException) {
+            return new LlmException(
                     "SSL error connecting to " + getProviderId() + " API at " + url
                     + ". If behind a corporate proxy, configure Eclipse proxy settings. "
                     + "Error: " + e.getMessage(),
                     e);
-        } catch (IOException e) {
-            throw new LlmException(
-                    "Network error calling " + getProviderId() + " API at " + url
-                    + ": " + e.getMessage(),
-                    e);
-        } catch (InterruptedException e) {
-            Thread.currentThread().interrupt();
-            throw new LlmException("Request to " + getProviderId() + " API was interrupted", e);
         }
+        return new LlmException(
+                "Network error calling " + getProviderId() + " API at " + url
+                + ": " + e.getMessage(),
+                e);
     }
 
     protected void addAuthHeaders(HttpRequest.Builder builder) {
@@ -37,16 +37,35 @@ public class AnthropicProvider extends AbstractLlmProvider {
         return "anthropic";
     }
 
+    @Override
+    public boolean supportsPromptCaching() {
+        return true;
+    }
+
     @Override
     public ChatMessage sendMessage(List<ChatMessage> messages, String systemPrompt, List<ToolDefinition> tools)
             throws LlmException {
 
         String url = config.getBaseUrl() + "/v1/messages";
-        String requestBody = buildRequestBody(messages, systemPrompt, tools);
+        String requestBody = buildRequestBody(messages, systemPrompt, tools).toString();
         HttpResponse<String> response = sendRequest(url, requestBody);
         return parseResponse(response.body());
     }
 
+    @Override
+    public ChatMessage sendMessageStreaming(List<ChatMessage> messages, String systemPrompt,
+            List<ToolDefinition> tools, LlmStreamListener listener) throws LlmException {
+
+        String url = config.getBaseUrl() + "/v1/messages";
+        JsonObject body = buildRequestBody(messages, systemPrompt, tools);
+        body.addProperty("stream", true);
+
+        StreamAccumulator acc = new StreamAccumulator(listener);
+        JsonObject usage = new JsonObject();
+        sendStreamingRequest(url, body.toString(), (event, data) -> handleStreamEvent(data, acc, usage));
+        return acc.toMessage();
+    }
+
     // -- Auth headers -------------------------------------------------------
 
     @Override
@@ -68,43 +87,59 @@ public class AnthropicProvider extends AbstractLlmProvider {
 
     // -- Request building ---------------------------------------------------
 
-    private String buildRequestBody(List<ChatMessage> messages, String systemPrompt, List<ToolDefinition> tools) {
+    /** Package-private so the request layout can be benchmarked without a network call. */
+    JsonObject buildRequestBody(List<ChatMessage> messages, String systemPrompt, List<ToolDefinition> tools) {
         JsonObject body = new JsonObject();
         body.addProperty("model", config.getModel());
         body.addProperty("max_tokens", config.getMaxTokens() > 0 ? config.getMaxTokens() : 8192);
 
-        // System prompt (with cache_control for Anthropic prompt caching)
-        if (systemPrompt != null && !systemPrompt.isEmpty()) {
-            JsonArray systemArr = new JsonArray();
-            JsonObject systemBlock = new JsonObject();
-            systemBlock.addProperty("type", "text");
-            systemBlock.addProperty("text", systemPrompt);
-            JsonObject cacheControl = new JsonObject();
-            cacheControl.addProperty("type", "ephemeral");
-            systemBlock.add("cache_control", cacheControl);
-            systemArr.add(systemBlock);
-            body.add("system", systemArr);
-        }
+        // Prompt caching: the prefix tools -> static instructions -> editor
+        // context -> history is cached at three breakpoints (max. four allowed):
+        // the last tool, the end of the static system text, and the last block
+        // of the conversation, so each round only pays for what it appended.
 
-        // Tools (with cache_control on last tool for prompt caching)
+        // Tools (breakpoint on the last tool)
         if (tools != null && !tools.isEmpty()) {
             JsonArray toolsArr = new JsonArray();
             for (int i = 0; i < tools.size(); i++) {
                 JsonObject tool = ToolSchemaConverter.toAnthropicTool(tools.get(i));
                 if (i == tools.size() - 1) {
-                    JsonObject cc = new JsonObject();
-                    cc.addProperty("type", "ephemeral");
-                    tool.add("cache_control", cc);
+                    tool.add("cache_control", PromptCache.ephemeral());
                 }
                 toolsArr.add(tool);
             }
             body.add("tools", toolsArr);
         }
 
-        // Messages
-        body.add("messages", buildMessages(messages));
+        // System prompt, split into the static instructions (breakpoint) and
+        // the editor context, which may change between chat turns
+        if (systemPrompt != null && !systemPrompt.isEmpty()) {
+            JsonArray systemArr = new JsonArray();
+            int stableLength = PromptCache.stablePrefixLength(systemPrompt);
+            if (stableLength > 0) {
+                JsonObject staticBlock = textBlock(systemPrompt.substring(0, stableLength));
+                staticBlock.add("cache_control", PromptCache.ephemeral());
+                systemArr.add(staticBlock);
+            }
+            if (stableLength < systemPrompt.length()) {
+                systemArr.add(textBlock(systemPrompt.substring(stableLength)));
+            }
+            body.add("system", systemArr);
+        }
+
+        // Messages (breakpoint on the conversation tail)
+        JsonArray messagesArr = buildMessages(messages);
+        PromptCache.markConversationTail(messagesArr);
+        body.add("messages", messagesArr);
 
-        return body.toString();
+        return body;
+    }
+
+    private static JsonObject textBlock(String text) {
+        JsonObject block = new JsonObject();
+        block.addProperty("type", "text");
+        block.addProperty("text", text);
+        return block;
     }
 
     /**
@@ -203,7 +238,8 @@ public class AnthropicProvider extends AbstractLlmProvider {
 
     // -- Response parsing ---------------------------------------------------
 
-    private ChatMessage parseResponse(String responseBody) throws LlmException {
+    /** Package-private so response parsing can be benchmarked without a network call. */
+    ChatMessage parseResponse(String responseBody) throws LlmException {
         try {
             JsonObject json = JsonParser.parseString(responseBody).getAsJsonObject();
 
@@ -246,4 +282,92 @@ public class AnthropicProvider extends AbstractLlmProvider {
             throw new LlmException("Failed to parse Anthropic response: " + e.getMessage(), e);
         }
     }
+
+    // -- Stream parsing -----------------------------------------------------
+
+    /**
+     * Handles one event of the Messages streaming API.
+     *
+     * <ul>
+     *   <li>{@code message_start} carries the input token usage</li>
+     *   <li>{@code content_block_start} opens a text or tool_use block</li>
+     *   <li>{@code content_block_delta} carries {@code text_delta} or
+     *       {@code input_json_delta} fragments</li>
+     *   <li>{@code message_delta} carries the output token usage</li>
+     *   <li>{@code error} aborts the stream</li>
+     * </ul>
+     *
+     * Usage fields from {@code message_start} and {@code message_delta} are
+     * merged into {@code usage} so the final numbers match a non-streaming call.
+     */
+    private void handleStreamEvent(String data, StreamAccumulator acc, JsonObject usage)
+            throws LlmException {
+        JsonObject json;
+        try {
+            json = JsonParser.parseString(data).getAsJsonObject();
+        } catch (Exception e) {
+            throw new LlmException("Failed to parse Anthropic stream event: " + e.getMessage(), e);
+        }
+        String type = json.has("type") ? json.get("type").getAsString() : "";
+
+        switch (type) {
+            case "message_start": {
+                JsonObject message = json.getAsJsonObject("message");
+                if (message != null && message.has("usage") && message.get("usage").isJsonObject()) {
+                    mergeUsage(usage, message.getAsJsonObject("usage"), acc);
+                }
+                break;
+            }
+            case "content_block_start": {
+                int index = json.get("index").getAsInt();
+                JsonObject block = json.getAsJsonObject("content_block");
+                String blockType = block.get("type").getAsString();
+                if ("text".equals(blockType)) {
+                    acc.beginTextBlock();
+                    if (block.has("text")) {
+                        acc.appendText(block.get("text").getAsString());
+                    }
+                } else if ("tool_use".equals(blockType)) {
+                    acc.appendToolCall(index, block.get("id").getAsString(),
+                            block.get("name").getAsString(), null);
+                }
+                break;
+            }
+            case "content_block_delta": {
+                int index = json.get("index").getAsInt();
+                JsonObject delta = json.getAsJsonObject("delta");
+                String deltaType = delta.get("type").getAsString();
+                if ("text_delta".equals(deltaType)) {
+                    acc.appendText(delta.get("text").getAsString());
+                } else if ("input_json_delta".equals(deltaType)) {
+                    acc.appendToolCall(index, null, null, delta.get("partial_json").getAsString());
+                }
+                break;
+            }
+            case "message_delta": {
+                if (json.has("usage") && json.get("usage").isJsonObject()) {
+                    mergeUsage(usage, json.getAsJsonObject("usage"), acc);
+                }
+                break;
+            }
+            case "error": {
+                JsonObject error = json.getAsJsonObject("error");
+                String message = error != null && error.has("message")
+                        ? error.get("message").getAsString() : data;
+                throw new LlmException("anthropic API error (stream): " + message, -1, data);
+            }
+            default:
+                // ping, content_block_stop, message_stop
+                break;
+        }
+    }
+
+    private static void mergeUsage(JsonObject target, JsonObject source, StreamAccumulator acc) {
+        for (String key : source.keySet()) {
+            if (!source.get(key).isJsonNull()) {
+                target.add(key, source.get(key));
+            }
+        }
+        acc.setUsage(LlmUsage.fromAnthropicJson(target));
+    }
 }
@@ -51,6 +51,25 @@ public class GeminiProvider extends AbstractLlmProvider {
         return parseResponse(response.body());
     }
 
+    /**
+     * Streams the reply via {@code :streamGenerateContent?alt=sse}. Every SSE
+     * event carries a complete {@code GenerateContentResponse} holding only
+     * the newly generated parts; function calls are never split across events.
+     */
+    @Override
+    public ChatMessage sendMessageStreaming(List<ChatMessage> messages, String systemPrompt,
+            List<ToolDefinition> tools, LlmStreamListener listener) throws LlmException {
+
+        String url = config.getBaseUrl() + "/v1beta/models/" + config.getModel()
+                + ":streamGenerateContent?alt=sse&key=" + config.getApiKey();
+        String requestBody = buildRequestBody(messages, systemPrompt, tools);
+
+        StreamAccumulator acc = new StreamAccumulator(listener);
+        int[] toolCallCount = {0};
+        sendStreamingRequest(url, requestBody, (event, data) -> handleStreamChunk(data, acc, toolCallCount));
+        return acc.toMessage();
+    }
+
     // -- Auth ---------------------------------------------------------------
 
     /** Gemini uses an API key in the URL, so no auth header is needed. */
@@ -71,7 +90,8 @@ public class GeminiProvider extends AbstractLlmProvider {
 
     // -- Request building ---------------------------------------------------
 
-    private String buildRequestBody(List<ChatMessage> messages, String systemPrompt, List<ToolDefinition> tools) {
+    /** Package-private so the request layout can be benchmarked without a network call. */
+    String buildRequestBody(List<ChatMessage> messages, String systemPrompt, List<ToolDefinition> tools) {
         JsonObject body = new JsonObject();
 
         // System instruction
@@ -215,7 +235,8 @@ public class GeminiProvider extends AbstractLlmProvider {
 
     // -- Response parsing ---------------------------------------------------
 
-    private ChatMessage parseResponse(String responseBody) throws LlmException {
+    /** Package-private so response parsing can be benchmarked without a network call. */
+    ChatMessage parseResponse(String responseBody) throws LlmException {
         try {
             JsonObject json = JsonParser.parseString(responseBody).getAsJsonObject();
 
@@ -278,4 +299,56 @@ public class GeminiProvider extends AbstractLlmProvider {
             throw new LlmException("Failed to parse Gemini response: " + e.getMessage(), e);
         }
     }
+
+    // -- Stream parsing -----------------------------------------------------
+
+    private void handleStreamChunk(String data, StreamAccumulator acc, int[] toolCallCount)
+            throws LlmException {
+        JsonObject json;
+        try {
+            json = JsonParser.parseString(data).getAsJsonObject();
+        } catch (Exception e) {
+            throw new LlmException("Failed to parse Gemini stream chunk: " + e.getMessage(), e);
+        }
+
+        if (json.has("error")) {
+            JsonObject error = json.getAsJsonObject("error");
+            String errorMsg = error.has("message") ? error.get("message").getAsString() : "Unknown error";
+            throw new LlmException("Gemini API error: " + errorMsg);
+        }
+
+        if (json.has("usageMetadata") && json.get("usageMetadata").isJsonObject()) {
+            acc.setUsage(LlmUsage.fromGeminiJson(json.getAsJsonObject("usageMetadata")));
+        }
+
+        JsonArray candidates = json.getAsJsonArray("candidates");
+        if (candidates == null || candidates.size() == 0) {
+            return;
+        }
+        JsonObject candidate = candidates.get(0).getAsJsonObject();
+        if (!candidate.has("content") || !candidate.get("content").isJsonObject()) {
+            return;
+        }
+        JsonArray parts = candidate.getAsJsonObject("content").getAsJsonArray("parts");
+        if (parts == null) {
+            return;
+        }
+
+        for (JsonElement partEl : parts) {
+            JsonObject part = partEl.getAsJsonObject();
+            if (part.has("text")) {
+                acc.appendText(part.get("text").getAsString());
+            }
+            if (part.has("functionCall")) {
+                JsonObject fc = part.getAsJsonObject("functionCall");
+                String name = fc.get("name").getAsString();
+                JsonObject args = fc.has("args") && fc.get("args").isJsonObject()
+                        ? fc.getAsJsonObject("args")
+                        : new JsonObject();
+                // Gemini doesn't provide tool call IDs, so we generate one
+                String id = "gemini_call_" + name + "_" + System.nanoTime();
+                acc.appendToolCall(toolCallCount[0]++, id, name, args.toString());
+            }
+        }
+    }
 }
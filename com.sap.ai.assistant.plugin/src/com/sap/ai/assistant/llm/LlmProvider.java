@@ -25,6 +25,58 @@ public interface LlmProvider {
     ChatMessage sendMessage(List<ChatMessage> messages, String systemPrompt, List<ToolDefinition> tools)
             throws LlmException;
 
+    /**
+     * Sends the conversation to the LLM and streams the reply as it is
+     * generated. Text fragments, tool-call fragments and usage numbers are
+     * delivered to the {@code listener} while the response is still arriving;
+     * the fully assembled message is returned at the end.
+     * <p>
+     * The default implementation falls back to {@link #sendMessage} and
+     * reports the complete text as a single delta, so providers without
+     * streaming support still work with streaming callers.
+     * </p>
+     *
+     * @param messages     the conversation history
+     * @param systemPrompt the system-level instruction (may be {@code null})
+     * @param tools        tool definitions the model may invoke (may be {@code null} or empty)
+     * @param listener     receives incremental events (must not be {@code null})
+     * @return the assembled assistant response
+     * @throws LlmException if a network or provider error occurs
+     */
+    default ChatMessage sendMessageStreaming(List<ChatMessage> messages, String systemPrompt,
+            List<ToolDefinition> tools, LlmStreamListener listener) throws LlmException {
+        ChatMessage response = sendMessage(messages, systemPrompt, tools);
+        if (response.getTextContent() != null && !response.getTextContent().isEmpty()) {
+            listener.onTextDelta(response.getTextContent());
+        }
+        if (response.getUsage() != null) {
+            listener.onUsage(response.getUsage());
+        }
+        return response;
+    }
+
+    /**
+     * Returns the estimator used to size requests for this provider before
+     * they are sent. The default is the shared, self-calibrating estimator
+     * for {@link #getProviderId()}.
+     *
+     * @return the token estimator
+     */
+    default TokenEstimator getTokenEstimator() {
+        return TokenEstimator.forProvider(getProviderId());
+    }
+
+    /**
+     * Returns whether the provider caches repeated prompt prefixes. Callers
+     * should then keep the system prompt unchanged across the rounds of a
+     * run: rewriting it to save tokens would cost more than a cache hit.
+     *
+     * @return {@code true} if unchanged prompt prefixes are served from a cache
+     */
+    default boolean supportsPromptCaching() {
+        return false;
+    }
+
     /**
      * Returns a human-readable identifier for this provider (e.g. "anthropic", "openai").
      *
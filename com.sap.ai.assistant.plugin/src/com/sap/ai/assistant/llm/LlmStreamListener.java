@@ -0,0 +1,55 @@
+package com.sap.ai.assistant.llm;
+
+import com.sap.ai.assistant.model.LlmUsage;
+
+/**
+ * Receives incremental events while an LLM response is being streamed.
+ * <p>
+ * All methods are invoked on the thread that called
+ * {@link LlmProvider#sendMessageStreaming}, in the order the provider
+ * delivered the corresponding events. Every method has a no-op default so
+ * that listeners only need to implement what they care about.
+ * </p>
+ */
+public interface LlmStreamListener {
+
+    /** Listener that ignores every event. */
+    LlmStreamListener NONE = new LlmStreamListener() { };
+
+    /**
+     * Called for every fragment of assistant text as soon as it arrives.
+     *
+     * @param delta the text fragment (never {@code null} or empty)
+     */
+    default void onTextDelta(String delta) {
+        // no-op
+    }
+
+    /**
+     * Called when the provider delivers (part of) a tool call.
+     * <p>
+     * The first event for a given {@code index} usually carries the tool call
+     * id and name; later events for the same index carry further fragments of
+     * the JSON-encoded arguments. Providers that deliver complete tool calls
+     * in one piece (e.g. Gemini) call this once per tool call.
+     * </p>
+     *
+     * @param index          zero-based position of the tool call in the response
+     * @param id             the tool call id, or {@code null} if not part of this event
+     * @param name           the tool name, or {@code null} if not part of this event
+     * @param argumentsDelta a fragment of the arguments JSON (may be empty)
+     */
+    default void onToolCallDelta(int index, String id, String name, String argumentsDelta) {
+        // no-op
+    }
+
+    /**
+     * Called when the provider reports token usage for the response.
+     * May be called more than once; the last call carries the final numbers.
+     *
+     * @param usage the token usage reported so far
+     */
+    default void onUsage(LlmUsage usage) {
+        // no-op
+    }
+}
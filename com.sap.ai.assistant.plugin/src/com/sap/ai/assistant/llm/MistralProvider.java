@@ -29,13 +29,28 @@ public class MistralProvider extends OpenAiProvider {
         return "mistral";
     }
 
+    /** Mistral's chat completions API has no prompt cache. */
+    @Override
+    public boolean supportsPromptCaching() {
+        return false;
+    }
+
     @Override
     public ChatMessage sendMessage(List<ChatMessage> messages, String systemPrompt, List<ToolDefinition> tools)
             throws LlmException {
 
         String url = buildEndpointUrl();
-        String requestBody = buildRequestBody(messages, systemPrompt, tools);
+        String requestBody = buildRequestBody(messages, systemPrompt, tools).toString();
         var response = sendRequest(url, requestBody);
         return parseResponse(response.body());
     }
+
+    /**
+     * Mistral does not accept OpenAI's {@code stream_options}; it reports
+     * usage in the last streamed chunk on its own.
+     */
+    @Override
+    protected boolean requestsStreamUsage() {
+        return false;
+    }
 }
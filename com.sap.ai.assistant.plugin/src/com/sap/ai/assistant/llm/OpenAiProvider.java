@@ -34,16 +34,43 @@ public class OpenAiProvider extends AbstractLlmProvider {
         return "openai";
     }
 
+    /**
+     * OpenAI caches prompt prefixes automatically; {@link #buildRequestBody}
+     * keeps tools and the system message in front of the history for that.
+     */
+    @Override
+    public boolean supportsPromptCaching() {
+        return true;
+    }
+
     @Override
     public ChatMessage sendMessage(List<ChatMessage> messages, String systemPrompt, List<ToolDefinition> tools)
             throws LlmException {
 
         String url = buildEndpointUrl();
-        String requestBody = buildRequestBody(messages, systemPrompt, tools);
+        String requestBody = buildRequestBody(messages, systemPrompt, tools).toString();
         HttpResponse<String> response = sendRequest(url, requestBody);
         return parseResponse(response.body());
     }
 
+    @Override
+    public ChatMessage sendMessageStreaming(List<ChatMessage> messages, String systemPrompt,
+            List<ToolDefinition> tools, LlmStreamListener listener) throws LlmException {
+
+        String url = buildEndpointUrl();
+        JsonObject body = buildRequestBody(messages, systemPrompt, tools);
+        body.addProperty("stream", true);
+        if (requestsStreamUsage()) {
+            JsonObject streamOptions = new JsonObject();
+            streamOptions.addProperty("include_usage", true);
+            body.add("stream_options", streamOptions);
+        }
+
+        StreamAccumulator acc = new StreamAccumulator(listener);
+        sendStreamingRequest(url, body.toString(), (event, data) -> handleStreamChunk(data, acc));
+        return acc.toMessage();
+    }
+
     // -- Auth ---------------------------------------------------------------
 
     @Override
@@ -73,7 +100,7 @@ public class OpenAiProvider extends AbstractLlmProvider {
      * Builds the JSON request body. This method is {@code protected} so that
      * subclasses sharing the same wire format (e.g. Mistral) can reuse it.
      */
-    protected String buildRequestBody(List<ChatMessage> messages, String systemPrompt, List<ToolDefinition> tools) {
+    protected JsonObject buildRequestBody(List<ChatMessage> messages, String systemPrompt, List<ToolDefinition> tools) {
         JsonObject body = new JsonObject();
         body.addProperty("model", config.getModel());
         body.addProperty("max_tokens", config.getMaxTokens() > 0 ? config.getMaxTokens() : 8192);
@@ -90,7 +117,7 @@ public class OpenAiProvider extends AbstractLlmProvider {
         // Messages
         body.add("messages", buildMessages(messages, systemPrompt));
 
-        return body.toString();
+        return body;
     }
 
     /**
@@ -245,4 +272,80 @@ public class OpenAiProvider extends AbstractLlmProvider {
             throw new LlmException("Failed to parse " + getProviderId() + " response: " + e.getMessage(), e);
         }
     }
+
+    // -- Stream parsing -----------------------------------------------------
+
+    /**
+     * Whether streaming requests should ask for a final usage chunk via
+     * {@code stream_options.include_usage}. Subclasses whose API rejects
+     * that option (or always sends usage) return {@code false}.
+     */
+    protected boolean requestsStreamUsage() {
+        return true;
+    }
+
+    /**
+     * Handles one {@code chat.completion.chunk} of a streamed response.
+     * Text arrives in {@code choices[0].delta.content}; tool calls arrive in
+     * {@code choices[0].delta.tool_calls[]}, keyed by {@code index}, with the
+     * id and name in the first fragment and the arguments split across the
+     * following ones. The stream ends with a {@code [DONE]} sentinel.
+     */
+    protected void handleStreamChunk(String data, StreamAccumulator acc) throws LlmException {
+        if ("[DONE]".equals(data)) {
+            return;
+        }
+        JsonObject json;
+        try {
+            json = JsonParser.parseString(data).getAsJsonObject();
+        } catch (Exception e) {
+            throw new LlmException("Failed to parse " + getProviderId() + " stream chunk: " + e.getMessage(), e);
+        }
+
+        if (json.has("error")) {
+            throw new LlmException(getProviderId() + " API error (stream): "
+                    + parseErrorMessage(data), -1, data);
+        }
+
+        if (json.has("usage") && json.get("usage").isJsonObject()) {
+            acc.setUsage(LlmUsage.fromOpenAiJson(json.getAsJsonObject("usage")));
+        }
+
+        JsonArray choices = json.has("choices") && json.get("choices").isJsonArray()
+                ? json.getAsJsonArray("choices") : null;
+        if (choices == null || choices.size() == 0) {
+            return;
+        }
+        JsonObject choice = choices.get(0).getAsJsonObject();
+        if (!choice.has("delta") || !choice.get("delta").isJsonObject()) {
+            return;
+        }
+        JsonObject delta = choice.getAsJsonObject("delta");
+
+        if (delta.has("content") && !delta.get("content").isJsonNull()) {
+            acc.appendText(delta.get("content").getAsString());
+        }
+
+        if (delta.has("tool_calls") && delta.get("tool_calls").isJsonArray()) {
+            JsonArray tcArr = delta.getAsJsonArray("tool_calls");
+            for (int i = 0; i < tcArr.size(); i++) {
+                JsonObject tcObj = tcArr.get(i).getAsJsonObject();
+                int index = tcObj.has("index") ? tcObj.get("index").getAsInt() : i;
+                String id = tcObj.has("id") && !tcObj.get("id").isJsonNull()
+                        ? tcObj.get("id").getAsString() : null;
+                String name = null;
+                String args = null;
+                if (tcObj.has("function") && tcObj.get("function").isJsonObject()) {
+                    JsonObject fnObj = tcObj.getAsJsonObject("function");
+                    if (fnObj.has("name") && !fnObj.get("name").isJsonNull()) {
+                        name = fnObj.get("name").getAsString();
+                    }
+                    if (fnObj.has("arguments") && !fnObj.get("arguments").isJsonNull()) {
+                        args = fnObj.get("arguments").getAsString();
+                    }
+                }
+                acc.appendToolCall(index, id, name, args);
+            }
+        }
+    }
 }
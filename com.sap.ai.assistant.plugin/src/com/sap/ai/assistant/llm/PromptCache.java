@@ -0,0 +1,69 @@
+package com.sap.ai.assistant.llm;
+
+import com.google.gson.JsonArray;
+import com.google.gson.JsonElement;
+import com.google.gson.JsonObject;
+
+/**
+ * Helpers for laying out requests so providers can serve the unchanged
+ * prefix from their prompt cache.
+ * <p>
+ * A request is cached as a prefix: tools, then the system prompt, then the
+ * messages. The agent system prompt starts with fixed instructions and
+ * ends with the editor context, which changes from one chat turn to the
+ * next. {@link #stablePrefixLength} finds that boundary so the fixed part
+ * can be cached on its own.
+ * </p>
+ */
+final class PromptCache {
+
+    /** Headings that open the per-turn editor context of the agent system prompt. */
+    private static final String[] VOLATILE_SECTION_HEADINGS = {
+            "## Current Editor Context\n", "## Editor Contexts\n" };
+
+    private PromptCache() {
+        // utility class -- no instances
+    }
+
+    /**
+     * Returns the length of the part of the system prompt that does not
+     * change between chat turns, i.e. the offset of the first editor context
+     * heading, or the full length if there is none.
+     */
+    static int stablePrefixLength(String systemPrompt) {
+        int end = systemPrompt.length();
+        for (String heading : VOLATILE_SECTION_HEADINGS) {
+            int idx = systemPrompt.startsWith(heading) ? 0 : systemPrompt.indexOf("\n" + heading);
+            if (idx >= 0) {
+                // Keep the line break with the stable part
+                end = Math.min(end, idx == 0 ? 0 : idx + 1);
+            }
+        }
+        return end;
+    }
+
+    /** Returns a new {@code {"type":"ephemeral"}} cache control object. */
+    static JsonObject ephemeral() {
+        JsonObject cacheControl = new JsonObject();
+        cacheControl.addProperty("type", "ephemeral");
+        return cacheControl;
+    }
+
+    /**
+     * Marks the last content block of the last message as a cache breakpoint,
+     * so the whole conversation so far is cached for the next round.
+     *
+     * @param messages Anthropic-style messages with content block arrays
+     */
+    static void markConversationTail(JsonArray messages) {
+        if (messages.size() == 0) {
+            return;
+        }
+        JsonElement content = messages.get(messages.size() - 1).getAsJsonObject().get("content");
+        if (content == null || !content.isJsonArray() || content.getAsJsonArray().size() == 0) {
+            return;
+        }
+        JsonArray blocks = content.getAsJsonArray();
+        blocks.get(blocks.size() - 1).getAsJsonObject().add("cache_control", ephemeral());
+    }
+}
@@ -0,0 +1,125 @@
+package com.sap.ai.assistant.llm;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+
+import com.google.gson.JsonObject;
+import com.google.gson.JsonParser;
+import com.sap.ai.assistant.model.ChatMessage;
+import com.sap.ai.assistant.model.LlmUsage;
+import com.sap.ai.assistant.model.ToolCall;
+
+/**
+ * Collects the fragments of a streamed LLM response, forwards each fragment
+ * to an {@link LlmStreamListener}, and assembles the final
+ * {@link ChatMessage} once the stream has ended.
+ * <p>
+ * Used by the provider implementations; not thread-safe.
+ * </p>
+ */
+class StreamAccumulator {
+
+    private final LlmStreamListener listener;
+    private final StringBuilder text = new StringBuilder();
+    private final Map<Integer, PendingToolCall> toolCalls = new TreeMap<>();
+    private LlmUsage usage;
+
+    StreamAccumulator(LlmStreamListener listener) {
+        this.listener = listener != null ? listener : LlmStreamListener.NONE;
+    }
+
+    /** Appends a text fragment and forwards it to the listener. */
+    void appendText(String delta) {
+        if (delta == null || delta.isEmpty()) {
+            return;
+        }
+        text.append(delta);
+        listener.onTextDelta(delta);
+    }
+
+    /**
+     * Starts a new text block. Separate blocks are joined with a newline,
+     * matching the non-streaming response parsers.
+     */
+    void beginTextBlock() {
+        if (text.length() > 0) {
+            appendText("\n");
+        }
+    }
+
+    /** Returns {@code true} if any text has been received so far. */
+    boolean hasText() {
+        return text.length() > 0;
+    }
+
+    /**
+     * Records (part of) a tool call and forwards it to the listener.
+     *
+     * @param index          position of the tool call in the response
+     * @param id             tool call id, or {@code null} if not part of this fragment
+     * @param name           tool name, or {@code null} if not part of this fragment
+     * @param argumentsDelta fragment of the arguments JSON (may be {@code null})
+     */
+    void appendToolCall(int index, String id, String name, String argumentsDelta) {
+        PendingToolCall pending = toolCalls.computeIfAbsent(index, k -> new PendingToolCall());
+        if (id != null && !id.isEmpty()) {
+            pending.id = id;
+        }
+        if (name != null && !name.isEmpty()) {
+            pending.name = name;
+        }
+        if (argumentsDelta != null) {
+            pending.arguments.append(argumentsDelta);
+        }
+        listener.onToolCallDelta(index, id, name, argumentsDelta != null ? argumentsDelta : "");
+    }
+
+    /** Records the latest usage numbers and forwards them to the listener. */
+    void setUsage(LlmUsage usage) {
+        if (usage == null) {
+            return;
+        }
+        this.usage = usage;
+        listener.onUsage(usage);
+    }
+
+    /**
+     * Builds the assistant message from everything received so far.
+     * Tool-call arguments that cannot be parsed are wrapped in a
+     * {@code _raw} property, like the non-streaming OpenAI parser does.
+     */
+    ChatMessage toMessage() {
+        List<ToolCall> calls = new ArrayList<>();
+        for (PendingToolCall pending : toolCalls.values()) {
+            if (pending.name == null) {
+                continue;
+            }
+            calls.add(new ToolCall(pending.id, pending.name, parseArguments(pending.arguments.toString())));
+        }
+        String content = text.length() > 0 ? text.toString() : null;
+        ChatMessage msg = new ChatMessage(ChatMessage.Role.ASSISTANT, content, calls, null);
+        msg.setUsage(usage);
+        return msg;
+    }
+
+    private static JsonObject parseArguments(String json) {
+        if (json == null || json.isBlank()) {
+            return new JsonObject();
+        }
+        try {
+            return JsonParser.parseString(json).getAsJsonObject();
+        } catch (Exception e) {
+            JsonObject raw = new JsonObject();
+            raw.addProperty("_raw", json);
+            return raw;
+        }
+    }
+
+    private static class PendingToolCall {
+        String id;
+        String name;
+        final StringBuilder arguments = new StringBuilder();
+    }
+}
@@ -0,0 +1,173 @@
+package com.sap.ai.assistant.llm;
+
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+import com.sap.ai.assistant.model.ChatMessage;
+import com.sap.ai.assistant.model.ToolCall;
+import com.sap.ai.assistant.model.ToolDefinition;
+import com.sap.ai.assistant.model.ToolResult;
+
+/**
+ * Estimates how many input tokens a request will cost before it is sent.
+ * <p>
+ * No provider tokenizer is available offline, so the estimate is based on
+ * a characters-per-token ratio. Each provider starts with a typical ratio
+ * for its tokenizer; after every response the ratio is corrected with the
+ * real prompt token count ({@link #calibrate}), so the estimate converges
+ * to the mix of ABAP, JSON and prose this plugin actually sends.
+ * </p>
+ * <p>
+ * Instances are shared per provider id (see {@link #forProvider}) so the
+ * calibration survives across chat turns. Providers with a more precise
+ * way of counting can override {@link LlmProvider#getTokenEstimator()}.
+ * </p>
+ */
+public class TokenEstimator {
+
+    /** Ratio used for unknown providers (roughly right for BPE tokenizers). */
+    public static final double DEFAULT_CHARS_PER_TOKEN = 4.0;
+
+    /** Fixed per-message overhead (role markers, separators). */
+    private static final int MESSAGE_OVERHEAD_TOKENS = 4;
+
+    /** Fixed per-tool overhead (wrapping of name, description and schema). */
+    private static final int TOOL_OVERHEAD_TOKENS = 8;
+
+    private static final double MIN_CHARS_PER_TOKEN = 1.5;
+    private static final double MAX_CHARS_PER_TOKEN = 8.0;
+
+    /** Weight of a new observation in the moving average of the ratio. */
+    private static final double CALIBRATION_WEIGHT = 0.3;
+
+    private static final Map<String, TokenEstimator> SHARED = new ConcurrentHashMap<>();
+
+    private volatile double charsPerToken;
+
+    /**
+     * Creates an estimator with a fixed starting ratio.
+     *
+     * @param charsPerToken average number of characters per token
+     */
+    public TokenEstimator(double charsPerToken) {
+        this.charsPerToken = clamp(charsPerToken);
+    }
+
+    /**
+     * Returns the shared estimator for a provider, creating it with the
+     * typical ratio of that provider's tokenizer on first use.
+     *
+     * @param providerId the provider identifier (e.g. "anthropic")
+     * @return the shared estimator
+     */
+    public static TokenEstimator forProvider(String providerId) {
+        String key = providerId != null ? providerId : "";
+        return SHARED.computeIfAbsent(key, id -> new TokenEstimator(initialRatio(id)));
+    }
+
+    private static double initialRatio(String providerId) {
+        switch (providerId) {
+            case "anthropic": return 3.5;
+            case "mistral":   return 3.5;
+            case "openai":    return 4.0;
+            case "gemini":    return 4.0;
+            default:          return DEFAULT_CHARS_PER_TOKEN;
+        }
+    }
+
+    // -- Estimation ------------------------------------------------------------
+
+    /**
+     * Estimates the tokens of a plain text.
+     */
+    public int estimate(String text) {
+        if (text == null || text.isEmpty()) {
+            return 0;
+        }
+        return (int) Math.ceil(text.length() / charsPerToken);
+    }
+
+    /**
+     * Estimates the tokens of one message, including tool calls and results.
+     */
+    public int estimate(ChatMessage message) {
+        int tokens = MESSAGE_OVERHEAD_TOKENS + estimate(message.getTextContent());
+        for (ToolCall call : message.getToolCalls()) {
+            tokens += MESSAGE_OVERHEAD_TOKENS + estimate(call.getName())
+                    + (call.getArguments() != null ? estimate(call.getArguments().toString()) : 0);
+        }
+        for (ToolResult result : message.getToolResults()) {
+            tokens += MESSAGE_OVERHEAD_TOKENS + estimate(result.getContent());
+        }
+        return tokens;
+    }
+
+    /**
+     * Estimates the tokens of a list of messages.
+     */
+    public int estimateMessages(List<ChatMessage> messages) {
+        int tokens = 0;
+        for (ChatMessage message : messages) {
+            tokens += estimate(message);
+        }
+        return tokens;
+    }
+
+    /**
+     * Estimates the tokens of the tool definitions sent with every request.
+     */
+    public int estimateTools(List<ToolDefinition> tools) {
+        if (tools == null) {
+            return 0;
+        }
+        int tokens = 0;
+        for (ToolDefinition tool : tools) {
+            tokens += TOOL_OVERHEAD_TOKENS + estimate(tool.getName()) + estimate(tool.getDescription())
+                    + (tool.getParametersSchema() != null
+                            ? estimate(tool.getParametersSchema().toString()) : 0);
+        }
+        return tokens;
+    }
+
+    /**
+     * Estimates the input tokens of a complete request.
+     */
+    public int estimateRequest(String systemPrompt, List<ChatMessage> messages,
+                               List<ToolDefinition> tools) {
+        return estimate(systemPrompt) + estimateMessages(messages) + estimateTools(tools);
+    }
+
+    // -- Calibration -----------------------------------------------------------
+
+    /**
+     * Corrects the characters-per-token ratio with the real size of a
+     * request whose estimate is known.
+     *
+     * @param estimatedTokens the estimate made before sending the request
+     * @param actualTokens    the prompt tokens reported by the provider
+     */
+    public void calibrate(int estimatedTokens, int actualTokens) {
+        if (estimatedTokens <= 0 || actualTokens <= 0) {
+            return;
+        }
+        double observed = charsPerToken * estimatedTokens / actualTokens;
+        charsPerToken = clamp(charsPerToken + CALIBRATION_WEIGHT * (observed - charsPerToken));
+    }
+
+    /**
+     * Returns the current characters-per-token ratio.
+     */
+    public double getCharsPerToken() {
+        return charsPerToken;
+    }
+
+    private static double clamp(double ratio) {
+        return Math.max(MIN_CHARS_PER_TOKEN, Math.min(MAX_CHARS_PER_TOKEN, ratio));
+    }
+
+    @Override
+    public String toString() {
+        return String.format("TokenEstimator{%.2f chars/token}", charsPerToken);
+    }
+}
@@ -5,12 +5,24 @@ import java.net.InetSocketAddress;
 import java.net.ProxySelector;
 import java.net.URI;
 import java.net.http.HttpClient;
+import java.net.http.HttpHeaders;
 import java.net.http.HttpRequest;
 import java.net.http.HttpResponse;
+import java.net.http.HttpResponse.BodySubscriber;
+import java.net.http.HttpResponse.BodySubscribers;
+import java.nio.charset.StandardCharsets;
 import java.time.Duration;
 import java.util.ArrayList;
 import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
 import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Consumer;
 
 import com.google.gson.JsonArray;
 import com.google.gson.JsonElement;
@@ -21,8 +33,18 @@ import com.google.gson.JsonParser;
  * MCP (Model Context Protocol) client using the Streamable HTTP transport.
  * <p>
  * Communicates with an MCP server via JSON-RPC over HTTP POST. The server
- * returns responses as Server-Sent Events (SSE). Session state is maintained
- * via the {@code mcp-session-id} header.
+ * answers either with a plain JSON body or with a Server-Sent Events
+ * stream; streams are parsed incrementally and every message is dispatched
+ * as soon as it arrives, responses by their JSON-RPC {@code id}. Several
+ * requests can therefore be in flight on one session at the same time,
+ * and {@code notifications/progress} of a running tool call reach its
+ * {@link McpProgressListener} and keep the call from timing out.
+ * </p>
+ * <p>
+ * {@link #openEventStream()} additionally keeps a GET stream open for
+ * messages the server sends on its own (notifications, {@code ping}
+ * requests, responses to requests whose POST stream was closed). Session
+ * state is maintained via the {@code mcp-session-id} header.
  * </p>
  */
 public class McpClient {
@@ -32,14 +54,32 @@ public class McpClient {
     private static final String CLIENT_VERSION = "1.0.0";
 
     private static final Duration CONNECT_TIMEOUT = Duration.ofSeconds(30);
+
+    /** Maximum time a tool call may go without a response or progress notification. */
     private static final Duration CALL_TIMEOUT = Duration.ofSeconds(120);
 
+    /** Reconnect attempts of the GET stream before giving up. */
+    private static final int MAX_EVENT_STREAM_RETRIES = 5;
+    private static final long MAX_EVENT_STREAM_RETRY_DELAY_SECONDS = 30;
+
     private final HttpClient httpClient;
     private final String serverUrl;
 
-    private String sessionId;
+    private volatile String sessionId;
     private final AtomicInteger requestIdCounter = new AtomicInteger(1);
 
+    /** Requests awaiting their response, by JSON-RPC id (also used as progress token). */
+    private final Map<Integer, PendingRequest> pending = new ConcurrentHashMap<>();
+
+    private volatile Consumer<JsonObject> notificationListener;
+
+    private volatile boolean eventStreamWanted;
+    private volatile boolean eventStreamOpen;
+    private volatile CompletableFuture<HttpResponse<Void>> eventStream;
+    private volatile SseEventReader eventStreamReader;
+    private volatile String lastEventId;
+    private int eventStreamRetries;
+
     /**
      * Creates an MCP client for the given server URL.
      *
@@ -58,7 +98,7 @@ public class McpClient {
      * @throws McpException if connection fails
      */
     public void connect() throws McpException {
-        // Step 1: Initialize
+        // Step 1: Initialize (the session ID is taken from the response headers)
         JsonObject params = new JsonObject();
         params.addProperty("protocolVersion", MCP_PROTOCOL_VERSION);
         params.add("capabilities", new JsonObject());
@@ -68,21 +108,7 @@ public class McpClient {
         clientInfo.addProperty("version", CLIENT_VERSION);
         params.add("clientInfo", clientInfo);
 
-        HttpResponse<String> response = sendRpc("initialize", params, CONNECT_TIMEOUT, true);
-
-        // Extract session ID from response headers
-        sessionId = response.headers()
-                .firstValue("mcp-session-id")
-                .orElse(null);
-
-        if (sessionId == null) {
-            // Try case-insensitive lookup
-            sessionId = response.headers().map().entrySet().stream()
-                    .filter(e -> e.getKey().equalsIgnoreCase("mcp-session-id"))
-                    .flatMap(e -> e.getValue().stream())
-                    .findFirst()
-                    .orElse(null);
-        }
+        sendRpc("initialize", params, CONNECT_TIMEOUT, null);
 
         // Step 2: Send initialized notification (no response expected)
         JsonObject notifBody = new JsonObject();
@@ -91,15 +117,9 @@ public class McpClient {
         notifBody.add("params", new JsonObject());
 
         try {
-            HttpRequest request = HttpRequest.newBuilder()
-                    .uri(URI.create(serverUrl))
-                    .timeout(CONNECT_TIMEOUT)
-                    .header("Content-Type", "application/json")
-                    .header("Accept", "application/json, text/event-stream")
-                    .header("mcp-session-id", sessionId != null ? sessionId : "")
-                    .POST(HttpRequest.BodyPublishers.ofString(notifBody.toString()))
-                    .build();
-            httpClient.send(request, HttpResponse.BodyHandlers.ofString());
+            postMessage(notifBody).get(CONNECT_TIMEOUT.toMillis(), TimeUnit.MILLISECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
         } catch (Exception e) {
             // Notification failures are non-fatal
             System.err.println("MCP: initialized notification failed: " + e.getMessage());
@@ -109,6 +129,32 @@ public class McpClient {
                 + " (session=" + (sessionId != null ? sessionId : "none") + ")");
     }
 
+    /**
+     * Opens the GET stream on which the server can send messages outside
+     * of a request. Servers that do not offer the stream answer with HTTP
+     * 405, which is accepted silently. A stream that drops is reopened with
+     * backoff, resuming after the last received event.
+     */
+    public void openEventStream() {
+        if (eventStreamWanted) {
+            return;
+        }
+        eventStreamWanted = true;
+        eventStreamRetries = 0;
+        startEventStream();
+    }
+
+    /**
+     * Sets the listener for notifications the server sends outside of a
+     * request's progress (e.g. {@code notifications/tools/list_changed}).
+     * Called on an HTTP client thread.
+     *
+     * @param listener receives the full JSON-RPC notification, or {@code null}
+     */
+    public void setNotificationListener(Consumer<JsonObject> listener) {
+        this.notificationListener = listener;
+    }
+
     /**
      * Lists all tools available on the MCP server.
      *
@@ -116,8 +162,7 @@ public class McpClient {
      * @throws McpException if the request fails
      */
     public List<JsonObject> listTools() throws McpException {
-        HttpResponse<String> response = sendRpc("tools/list", new JsonObject(), CONNECT_TIMEOUT, false);
-        JsonObject result = parseResult(response.body());
+        JsonObject result = sendRpc("tools/list", new JsonObject(), CONNECT_TIMEOUT, null);
 
         List<JsonObject> tools = new ArrayList<>();
         if (result.has("tools") && result.get("tools").isJsonArray()) {
@@ -140,12 +185,27 @@ public class McpClient {
      * @throws McpException if the call fails
      */
     public String callTool(String toolName, JsonObject arguments) throws McpException {
+        return callTool(toolName, arguments, null);
+    }
+
+    /**
+     * Calls a tool on the MCP server and reports its progress notifications.
+     * The call times out when the server sends neither the result nor a
+     * progress notification for {@link #CALL_TIMEOUT}.
+     *
+     * @param toolName  the tool name (as returned by listTools)
+     * @param arguments the tool arguments
+     * @param listener  receives progress notifications (may be {@code null})
+     * @return the tool result content as a string
+     * @throws McpException if the call fails or the tool reports an error
+     */
+    public String callTool(String toolName, JsonObject arguments, McpProgressListener listener)
+            throws McpException {
         JsonObject params = new JsonObject();
         params.addProperty("name", toolName);
         params.add("arguments", arguments);
 
-        HttpResponse<String> response = sendRpc("tools/call", params, CALL_TIMEOUT, false);
-        JsonObject result = parseResult(response.body());
+        JsonObject result = sendRpc("tools/call", params, CALL_TIMEOUT, listener);
 
         // Extract text content from result
         if (result.has("content") && result.get("content").isJsonArray()) {
@@ -160,6 +220,10 @@ public class McpClient {
                     }
                 }
             }
+            if (result.has("isError") && result.get("isError").getAsBoolean()) {
+                // Tool-level failure, reported as content by the server
+                throw new McpException(sb.length() > 0 ? sb.toString() : toolName + " failed");
+            }
             return sb.toString();
         }
 
@@ -167,9 +231,31 @@ public class McpClient {
     }
 
     /**
-     * Disconnects from the MCP server (cleans up session state).
+     * Sends a JSON-RPC {@code ping} to check that the session is still alive.
+     *
+     * @throws McpException if the server does not answer or rejects the session
+     */
+    public void ping() throws McpException {
+        sendRpc("ping", new JsonObject(), CONNECT_TIMEOUT, null);
+    }
+
+    /**
+     * Disconnects from the MCP server (cleans up session state). Requests
+     * still in flight fail with an {@link McpException}.
      */
     public void disconnect() {
+        eventStreamWanted = false;
+        CompletableFuture<HttpResponse<Void>> stream = eventStream;
+        if (stream != null) {
+            stream.cancel(true);
+        }
+        SseEventReader reader = eventStreamReader;
+        if (reader != null) {
+            reader.cancel();
+        }
+        for (PendingRequest call : pending.values()) {
+            call.result.completeExceptionally(new McpException("MCP session was closed"));
+        }
         sessionId = null;
         System.out.println("MCP: Disconnected from " + serverUrl);
     }
@@ -188,105 +274,364 @@ public class McpClient {
         return sessionId != null;
     }
 
-    // -- Internal helpers -----------------------------------------------------
+    // -- Requests -------------------------------------------------------------
+
+    /** A request awaiting its response. */
+    private static final class PendingRequest {
+        final CompletableFuture<JsonObject> result = new CompletableFuture<>();
+        final McpProgressListener listener;
+        volatile long lastActivity = System.currentTimeMillis();
+
+        PendingRequest(McpProgressListener listener) {
+            this.listener = listener;
+        }
+    }
 
     /**
-     * Sends a JSON-RPC request to the MCP server.
+     * Sends a JSON-RPC request to the MCP server and waits for its result.
+     * The response may arrive on the request's own stream or on the GET
+     * stream; {@code timeout} is the longest time without any sign of life.
      */
-    private HttpResponse<String> sendRpc(String method, JsonObject params,
-            Duration timeout, boolean captureHeaders) throws McpException {
+    private JsonObject sendRpc(String method, JsonObject params, Duration timeout,
+            McpProgressListener listener) throws McpException {
         int id = requestIdCounter.getAndIncrement();
 
+        if (listener != null) {
+            JsonObject meta = new JsonObject();
+            meta.addProperty("progressToken", id);
+            params.add("_meta", meta);
+        }
+
         JsonObject body = new JsonObject();
         body.addProperty("jsonrpc", "2.0");
         body.addProperty("id", id);
         body.addProperty("method", method);
         body.add("params", params);
 
+        PendingRequest call = new PendingRequest(listener);
+        pending.put(id, call);
+        CompletableFuture<HttpResponse<Void>> exchange = null;
         try {
-            HttpRequest.Builder builder = HttpRequest.newBuilder()
-                    .uri(URI.create(serverUrl))
-                    .timeout(timeout)
+            // The request timeout only covers the response headers; the body
+            // is bounded by the inactivity timeout below
+            HttpRequest request = newRequest(CONNECT_TIMEOUT)
                     .header("Content-Type", "application/json")
                     .header("Accept", "application/json, text/event-stream")
-                    .POST(HttpRequest.BodyPublishers.ofString(body.toString()));
-
-            if (sessionId != null) {
-                builder.header("mcp-session-id", sessionId);
-            }
-
-            HttpRequest request = builder.build();
-            HttpResponse<String> response = httpClient.send(request,
-                    HttpResponse.BodyHandlers.ofString());
+                    .POST(HttpRequest.BodyPublishers.ofString(body.toString()))
+                    .build();
 
-            if (response.statusCode() < 200 || response.statusCode() >= 300) {
-                throw new McpException("MCP server returned HTTP " + response.statusCode()
-                        + " for " + method + ": " + response.body());
-            }
+            exchange = httpClient.sendAsync(request,
+                    info -> responseSubscriber(info, method, call));
+            exchange.whenComplete((response, error) -> {
+                if (call.result.isDone()) {
+                    return;
+                }
+                if (error != null) {
+                    call.result.completeExceptionally(transportError(error));
+                } else if (!eventStreamOpen) {
+                    call.result.completeExceptionally(new McpException(
+                            "MCP server closed the response to " + method + " without a result"));
+                }
+                // Otherwise the response is still expected on the GET stream
+            });
 
-            return response;
+            return await(call, method, timeout);
 
-        } catch (McpException e) {
-            throw e;
-        } catch (java.net.ConnectException e) {
-            throw new McpException(
-                    "Cannot connect to MCP server at " + serverUrl
-                    + ". Check your network connection and proxy settings.", e);
-        } catch (IOException e) {
-            throw new McpException(
-                    "Network error calling MCP server at " + serverUrl
-                    + ": " + e.getMessage(), e);
         } catch (InterruptedException e) {
             Thread.currentThread().interrupt();
             throw new McpException("MCP request was interrupted", e);
+        } finally {
+            pending.remove(id);
+            if (exchange != null && !exchange.isDone()) {
+                exchange.cancel(true);
+            }
         }
     }
 
     /**
-     * Parses the JSON-RPC result from an SSE or plain JSON response.
-     * The MCP Streamable HTTP transport returns SSE with {@code data:} lines.
+     * Waits for the result of a request. The deadline moves with every
+     * progress notification, so long-running calls that report progress
+     * do not time out.
      */
-    private JsonObject parseResult(String responseBody) throws McpException {
-        if (responseBody == null || responseBody.isEmpty()) {
-            throw new McpException("Empty response from MCP server");
-        }
-
-        // Try to extract data from SSE format (lines starting with "data:")
-        String jsonPayload = null;
-        String[] lines = responseBody.split("\n");
-        for (String line : lines) {
-            String trimmed = line.trim();
-            if (trimmed.startsWith("data:")) {
-                jsonPayload = trimmed.substring(5).trim();
+    private JsonObject await(PendingRequest call, String method, Duration timeout)
+            throws McpException, InterruptedException {
+        while (true) {
+            long remaining = call.lastActivity + timeout.toMillis() - System.currentTimeMillis();
+            if (remaining <= 0) {
+                throw new McpException("MCP request " + method + " timed out after "
+                        + timeout.getSeconds() + "s without a response");
+            }
+            try {
+                return call.result.get(remaining, TimeUnit.MILLISECONDS);
+            } catch (TimeoutException e) {
+                // Re-check: a progress notification may have moved the deadline
+            } catch (ExecutionException e) {
+                Throwable cause = e.getCause();
+                if (cause instanceof McpException) {
+                    throw (McpException) cause;
+                }
+                throw new McpException("MCP request " + method + " failed: "
+                        + (cause != null ? cause.getMessage() : e.getMessage()), cause);
             }
         }
+    }
+
+    /**
+     * Chooses how to read the response of a POST: event streams are parsed
+     * incrementally, JSON bodies and errors are read whole.
+     */
+    private BodySubscriber<Void> responseSubscriber(HttpResponse.ResponseInfo info,
+            String method, PendingRequest call) {
+        int status = info.statusCode();
+        if (status < 200 || status >= 300) {
+            return BodySubscribers.mapping(BodySubscribers.ofString(StandardCharsets.UTF_8), body -> {
+                call.result.completeExceptionally(new McpException("MCP server returned HTTP "
+                        + status + " for " + method + ": " + body));
+                return null;
+            });
+        }
+
+        if ("initialize".equals(method)) {
+            sessionId = header(info.headers(), "mcp-session-id");
+        }
 
-        // Fall back to treating entire body as JSON
-        if (jsonPayload == null) {
-            jsonPayload = responseBody.trim();
+        if (isEventStream(info.headers())) {
+            return BodySubscribers.fromLineSubscriber(new SseEventReader(this::dispatch, () -> { }));
         }
+        return BodySubscribers.mapping(BodySubscribers.ofString(StandardCharsets.UTF_8), body -> {
+            if (!body.isBlank()) {
+                dispatch(body);
+            }
+            return null;
+        });
+    }
 
+    // -- Incoming messages ----------------------------------------------------
+
+    /**
+     * Dispatches one JSON-RPC message (or batch) received from the server.
+     */
+    private void dispatch(String payload) {
+        JsonElement parsed;
         try {
-            JsonObject rpcResponse = JsonParser.parseString(jsonPayload).getAsJsonObject();
+            parsed = JsonParser.parseString(payload);
+        } catch (Exception e) {
+            System.err.println("MCP: ignoring malformed message from " + serverUrl
+                    + ": " + e.getMessage());
+            return;
+        }
+        if (parsed.isJsonArray()) {
+            for (JsonElement el : parsed.getAsJsonArray()) {
+                if (el.isJsonObject()) {
+                    handleMessage(el.getAsJsonObject());
+                }
+            }
+        } else if (parsed.isJsonObject()) {
+            handleMessage(parsed.getAsJsonObject());
+        }
+    }
 
-            // Check for JSON-RPC error
-            if (rpcResponse.has("error")) {
-                JsonObject error = rpcResponse.getAsJsonObject("error");
-                String message = error.has("message") ? error.get("message").getAsString() : "Unknown MCP error";
-                throw new McpException("MCP error: " + message);
+    private void handleMessage(JsonObject message) {
+        if (message.has("method")) {
+            String method = message.get("method").getAsString();
+            if (message.has("id")) {
+                answerServerRequest(message.get("id"), method);
+            } else if ("notifications/progress".equals(method)) {
+                handleProgress(message.getAsJsonObject("params"));
+            } else {
+                Consumer<JsonObject> listener = notificationListener;
+                if (listener != null) {
+                    listener.accept(message);
+                } else {
+                    System.out.println("MCP: notification " + method + " from " + serverUrl);
+                }
             }
+            return;
+        }
+
+        PendingRequest call = pendingFor(message.get("id"));
+        if (call == null) {
+            return; // Late response of a request that timed out or was cancelled
+        }
+        if (message.has("error")) {
+            JsonObject error = message.getAsJsonObject("error");
+            String text = error.has("message") ? error.get("message").getAsString() : "Unknown MCP error";
+            call.result.completeExceptionally(new McpException("MCP error: " + text));
+        } else if (message.has("result") && message.get("result").isJsonObject()) {
+            call.result.complete(message.getAsJsonObject("result"));
+        } else {
+            call.result.completeExceptionally(new McpException(
+                    "MCP response missing 'result' field: " + message));
+        }
+    }
+
+    private void handleProgress(JsonObject params) {
+        if (params == null) {
+            return;
+        }
+        PendingRequest call = pendingFor(params.get("progressToken"));
+        if (call == null) {
+            return;
+        }
+        call.lastActivity = System.currentTimeMillis();
+        if (call.listener == null || !params.has("progress")) {
+            return;
+        }
+        try {
+            Double total = params.has("total") && !params.get("total").isJsonNull()
+                    ? params.get("total").getAsDouble() : null;
+            String text = params.has("message") && !params.get("message").isJsonNull()
+                    ? params.get("message").getAsString() : null;
+            call.listener.onProgress(params.get("progress").getAsDouble(), total, text);
+        } catch (RuntimeException e) {
+            System.err.println("MCP: progress listener failed: " + e.getMessage());
+        }
+    }
+
+    /**
+     * Answers a request sent by the server. Only {@code ping} is supported;
+     * the client declares no other capabilities.
+     */
+    private void answerServerRequest(JsonElement id, String method) {
+        JsonObject response = new JsonObject();
+        response.addProperty("jsonrpc", "2.0");
+        response.add("id", id);
+        if ("ping".equals(method)) {
+            response.add("result", new JsonObject());
+        } else {
+            JsonObject error = new JsonObject();
+            error.addProperty("code", -32601);
+            error.addProperty("message", "Method not supported by client: " + method);
+            response.add("error", error);
+        }
+        postMessage(response).exceptionally(e -> {
+            System.err.println("MCP: failed to answer " + method + ": " + e.getMessage());
+            return null;
+        });
+    }
 
-            if (rpcResponse.has("result")) {
-                return rpcResponse.getAsJsonObject("result");
+    private PendingRequest pendingFor(JsonElement id) {
+        if (id == null || !id.isJsonPrimitive()) {
+            return null;
+        }
+        try {
+            return pending.get(id.getAsInt());
+        } catch (NumberFormatException e) {
+            return null;
+        }
+    }
+
+    // -- GET stream -----------------------------------------------------------
+
+    private void startEventStream() {
+        if (!eventStreamWanted || sessionId == null) {
+            eventStreamWanted = false;
+            return;
+        }
+        HttpRequest.Builder builder = newRequest(CONNECT_TIMEOUT)
+                .header("Accept", "text/event-stream")
+                .GET();
+        if (lastEventId != null) {
+            builder.header("Last-Event-ID", lastEventId);
+        }
+
+        SseEventReader reader = new SseEventReader(this::dispatch, () -> eventStreamOpen = false);
+        eventStreamReader = reader;
+        eventStream = httpClient.sendAsync(builder.build(), info -> {
+            if (info.statusCode() == 200 && isEventStream(info.headers())) {
+                eventStreamOpen = true;
+                eventStreamRetries = 0;
+                return BodySubscribers.fromLineSubscriber(reader);
             }
+            return BodySubscribers.discarding();
+        });
+        eventStream.whenComplete((response, error) -> {
+            eventStreamOpen = false;
+            if (reader.getLastEventId() != null) {
+                lastEventId = reader.getLastEventId();
+            }
+            if (!eventStreamWanted) {
+                return;
+            }
+            if (response != null && response.statusCode() != 200) {
+                // 405: the server has no GET stream, everything comes with the POSTs
+                eventStreamWanted = false;
+                if (response.statusCode() != 405) {
+                    System.err.println("MCP: GET stream of " + serverUrl
+                            + " refused with HTTP " + response.statusCode());
+                }
+                return;
+            }
+            if (++eventStreamRetries > MAX_EVENT_STREAM_RETRIES) {
+                eventStreamWanted = false;
+                System.err.println("MCP: giving up on GET stream of " + serverUrl
+                        + (error != null ? ": " + error.getMessage() : ""));
+                return;
+            }
+            long delay = Math.min(MAX_EVENT_STREAM_RETRY_DELAY_SECONDS, 1L << eventStreamRetries);
+            CompletableFuture.runAsync(this::startEventStream,
+                    CompletableFuture.delayedExecutor(delay, TimeUnit.SECONDS));
+        });
+    }
 
-            throw new McpException("MCP response missing 'result' field: " + jsonPayload);
+    // -- Internal helpers -----------------------------------------------------
 
-        } catch (McpException e) {
-            throw e;
-        } catch (Exception e) {
-            throw new McpException("Failed to parse MCP response: " + e.getMessage(), e);
+    /**
+     * Posts a notification or a response to a server request; the server
+     * answers with 202 and no content.
+     */
+    private CompletableFuture<HttpResponse<Void>> postMessage(JsonObject message) {
+        HttpRequest request = newRequest(CONNECT_TIMEOUT)
+                .header("Content-Type", "application/json")
+                .header("Accept", "application/json, text/event-stream")
+                .POST(HttpRequest.BodyPublishers.ofString(message.toString()))
+                .build();
+        return httpClient.sendAsync(request, HttpResponse.BodyHandlers.discarding());
+    }
+
+    private HttpRequest.Builder newRequest(Duration timeout) {
+        HttpRequest.Builder builder = HttpRequest.newBuilder()
+                .uri(URI.create(serverUrl))
+                .timeout(timeout);
+        String session = sessionId;
+        if (session != null) {
+            builder.header("mcp-session-id", session);
+        }
+        return builder;
+    }
+
+    private static boolean isEventStream(HttpHeaders headers) {
+        String contentType = header(headers, "content-type");
+        return contentType != null && contentType.toLowerCase().startsWith("text/event-stream");
+    }
+
+    /** Case-insensitive header lookup. */
+    private static String header(HttpHeaders headers, String name) {
+        return headers.map().entrySet().stream()
+                .filter(e -> e.getKey().equalsIgnoreCase(name))
+                .flatMap(e -> e.getValue().stream())
+                .findFirst()
+                .orElse(null);
+    }
+
+    /** Maps a failed HTTP exchange to an {@link McpException} with a helpful message. */
+    private McpException transportError(Throwable error) {
+        Throwable cause = error instanceof CompletionException && error.getCause() != null
+                ? error.getCause() : error;
+        if (cause instanceof McpException) {
+            return (McpException) cause;
+        }
+        if (cause instanceof java.net.ConnectException) {
+            return new McpException(
+                    "Cannot connect to MCP server at " + serverUrl
+                    + ". Check your network connection and proxy settings.", cause);
+        }
+        if (cause instanceof IOException) {
+            return new McpException(
+                    "Network error calling MCP server at " + serverUrl
+                    + ": " + cause.getMessage(), cause);
         }
+        return new McpException("MCP request failed: " + cause.getMessage(), cause);
     }
 
     /**
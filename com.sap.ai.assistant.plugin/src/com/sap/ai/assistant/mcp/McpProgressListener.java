@@ -0,0 +1,20 @@
+package com.sap.ai.assistant.mcp;
+
+/**
+ * Receives {@code notifications/progress} messages for a running MCP request.
+ * <p>
+ * Called on an HTTP client thread while the request is still in flight.
+ * </p>
+ */
+@FunctionalInterface
+public interface McpProgressListener {
+
+    /**
+     * Called for each progress notification of the request.
+     *
+     * @param progress the progress so far (increases with every notification)
+     * @param total    the total, or {@code null} if the server does not know it
+     * @param message  a human-readable status, or {@code null}
+     */
+    void onProgress(double progress, Double total, String message);
+}
@@ -0,0 +1,375 @@
+package com.sap.ai.assistant.mcp;
+
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.stream.Stream;
+
+import com.google.gson.Gson;
+import com.google.gson.JsonArray;
+import com.google.gson.JsonElement;
+import com.google.gson.JsonObject;
+import com.google.gson.JsonPrimitive;
+import com.sap.ai.assistant.util.Hashes;
+
+/**
+ * Cache for the results of the idempotent MCP documentation tools
+ * {@code sap_help_search}, {@code sap_help_get} and
+ * {@code sap_community_search}.
+ * <p>
+ * Entries are keyed by server URL, tool name and the canonical form of the
+ * arguments (sorted keys, trimmed strings, normalised numbers), so the same
+ * lookup phrased with a different key order is still a hit. Each entry
+ * expires after the TTL of its tool (see {@link #ttlFor}); tools without a
+ * TTL are never cached, and neither are error results.
+ * </p>
+ * <p>
+ * Entries are kept in a size-bounded in-memory LRU and mirrored to
+ * {@code ~/.sap-ai-assistant/cache/mcp-results/}, which is trimmed to
+ * {@link #MAX_DISK_BYTES} by removing the oldest files. All methods are
+ * thread-safe.
+ * </p>
+ */
+public class McpResultCache {
+
+    private static final Path DEFAULT_ROOT =
+            Path.of(System.getProperty("user.home"), ".sap-ai-assistant", "cache", "mcp-results");
+
+    /** Upper bound for the characters held in memory. */
+    private static final long MAX_MEMORY_CHARS = 4L * 1024 * 1024;
+
+    /** Upper bound for the size of the cache directory. */
+    static final long MAX_DISK_BYTES = 32L * 1024 * 1024;
+
+    /** Number of writes between two checks of the directory size. */
+    private static final int PRUNE_INTERVAL = 50;
+
+    private static final long HOUR_MS = 60 * 60_000L;
+
+    /** TTL of fetched documents, which hardly ever change; also the longest TTL. */
+    private static final long DOCUMENT_TTL_MS = 7 * 24 * HOUR_MS;
+
+    /** TTL of search results. */
+    private static final long SEARCH_TTL_MS = 24 * HOUR_MS;
+
+    /** TTL of community content, which changes fastest. */
+    private static final long COMMUNITY_TTL_MS = 6 * HOUR_MS;
+
+    /** The cached documentation tools and their TTLs; no other tool is cached. */
+    private static final Map<String, Long> TOOL_TTLS = Map.of(
+            "sap_help_search", SEARCH_TTL_MS,
+            "sap_help_get", DOCUMENT_TTL_MS,
+            "sap_community_search", COMMUNITY_TTL_MS);
+
+    private static final Gson GSON = new Gson();
+
+    private static final McpResultCache SHARED = new McpResultCache(DEFAULT_ROOT);
+
+    private final Path directory;
+    private final LinkedHashMap<String, Entry> memory = new LinkedHashMap<>(64, 0.75f, true);
+    private long memoryChars;
+    private int writesSincePrune;
+
+    private int hits;
+    private int misses;
+
+    /** A cached tool result. Serialised as JSON to disk. */
+    static final class Entry {
+        String key;
+        long expiresAt;
+        String result;
+    }
+
+    /**
+     * Creates a cache stored in the given directory.
+     *
+     * @param directory the directory holding one file per entry
+     */
+    public McpResultCache(Path directory) {
+        this.directory = directory;
+    }
+
+    /**
+     * Returns the cache in the user's cache directory.
+     */
+    public static McpResultCache shared() {
+        return SHARED;
+    }
+
+    // -- Lookup / store -------------------------------------------------------
+
+    /**
+     * Returns how long results of the tool may be reused, or {@code 0} if
+     * the tool is not one of the known documentation lookups. Tools are
+     * matched by their exact name, so a third-party tool is never answered
+     * from the cache just because its name looks like a lookup.
+     *
+     * @param toolName the tool name on the MCP server (without {@code mcp_} prefix)
+     * @return the TTL in milliseconds
+     */
+    public static long ttlFor(String toolName) {
+        if (toolName == null) {
+            return 0;
+        }
+        return TOOL_TTLS.getOrDefault(toolName, 0L);
+    }
+
+    /**
+     * Builds the cache key of a call.
+     */
+    static String keyOf(String serverUrl, String toolName, JsonObject arguments) {
+        JsonElement args = arguments != null ? canonicalize(arguments) : new JsonObject();
+        return serverUrl + "|" + toolName + "|" + args;
+    }
+
+    /**
+     * Returns the cached result of the call, or {@code null} if there is
+     * none or it has expired.
+     *
+     * @param serverUrl the MCP server URL
+     * @param toolName  the tool name on the server
+     * @param arguments the call arguments
+     * @return the cached result text, or {@code null}
+     */
+    public synchronized String get(String serverUrl, String toolName, JsonObject arguments) {
+        if (ttlFor(toolName) <= 0) {
+            return null;
+        }
+        String key = keyOf(serverUrl, toolName, arguments);
+        Entry entry = memory.get(key);
+        if (entry == null) {
+            entry = readFromDisk(key);
+            if (entry != null) {
+                putInMemory(entry);
+            }
+        }
+        if (entry != null && entry.expiresAt <= System.currentTimeMillis()) {
+            remove(entry);
+            entry = null;
+        }
+        if (entry == null) {
+            misses++;
+            return null;
+        }
+        hits++;
+        return entry.result;
+    }
+
+    /**
+     * Stores the result of a successful call, if the tool has a TTL.
+     *
+     * @param serverUrl the MCP server URL
+     * @param toolName  the tool name on the server
+     * @param arguments the call arguments
+     * @param result    the result text returned by the server
+     */
+    public synchronized void put(String serverUrl, String toolName, JsonObject arguments, String result) {
+        long ttl = ttlFor(toolName);
+        if (ttl <= 0 || result == null) {
+            return;
+        }
+        Entry entry = new Entry();
+        entry.key = keyOf(serverUrl, toolName, arguments);
+        entry.expiresAt = System.currentTimeMillis() + ttl;
+        entry.result = result;
+
+        Entry previous = memory.remove(entry.key);
+        if (previous != null) {
+            memoryChars -= length(previous);
+        }
+        putInMemory(entry);
+        writeToDisk(entry);
+        if (++writesSincePrune >= PRUNE_INTERVAL) {
+            writesSincePrune = 0;
+            pruneDisk();
+        }
+    }
+
+    /** Drops every cached result, in memory and on disk. */
+    public synchronized void clear() {
+        memory.clear();
+        memoryChars = 0;
+        for (Path file : listFiles()) {
+            try {
+                Files.deleteIfExists(file);
+            } catch (IOException ignored) {
+                // best effort
+            }
+        }
+    }
+
+    // -- Statistics -----------------------------------------------------------
+
+    public synchronized int getHits() {
+        return hits;
+    }
+
+    public synchronized int getMisses() {
+        return misses;
+    }
+
+    // -- Internal helpers -----------------------------------------------------
+
+    /**
+     * Returns a copy of the element with object keys sorted, strings trimmed
+     * and numbers in a normal form ({@code 10} and {@code 10.0} are equal).
+     */
+    static JsonElement canonicalize(JsonElement element) {
+        if (element == null || element.isJsonNull()) {
+            return element;
+        }
+        if (element.isJsonObject()) {
+            Map<String, JsonElement> sorted = new TreeMap<>();
+            for (Map.Entry<String, JsonElement> e : element.getAsJsonObject().entrySet()) {
+                if (!e.getValue().isJsonNull()) {
+                    sorted.put(e.getKey(), canonicalize(e.getValue()));
+                }
+            }
+            JsonObject result = new JsonObject();
+            sorted.forEach(result::add);
+            return result;
+        }
+        if (element.isJsonArray()) {
+            JsonArray result = new JsonArray();
+            for (JsonElement el : element.getAsJsonArray()) {
+                result.add(canonicalize(el));
+            }
+            return result;
+        }
+        JsonPrimitive primitive = element.getAsJsonPrimitive();
+        if (primitive.isString()) {
+            return new JsonPrimitive(primitive.getAsString().trim());
+        }
+        if (primitive.isNumber()) {
+            try {
+                return new JsonPrimitive(new BigDecimal(primitive.getAsString()).stripTrailingZeros());
+            } catch (NumberFormatException e) {
+                return primitive;
+            }
+        }
+        return primitive;
+    }
+
+    private void putInMemory(Entry entry) {
+        memory.put(entry.key, entry);
+        memoryChars += length(entry);
+        Iterator<Entry> it = memory.values().iterator();
+        while (memoryChars > MAX_MEMORY_CHARS && it.hasNext()) {
+            Entry eldest = it.next();
+            if (eldest == entry) {
+                break;
+            }
+            memoryChars -= length(eldest);
+            it.remove();
+        }
+    }
+
+    private void remove(Entry entry) {
+        if (memory.remove(entry.key) != null) {
+            memoryChars -= length(entry);
+        }
+        try {
+            Files.deleteIfExists(fileOf(entry.key));
+        } catch (IOException ignored) {
+            // best effort
+        }
+    }
+
+    private static long length(Entry entry) {
+        return entry.result != null ? entry.result.length() : 0;
+    }
+
+    private Path fileOf(String key) {
+        return directory.resolve(Hashes.shortHash(key) + ".json");
+    }
+
+    private Entry readFromDisk(String key) {
+        Path file = fileOf(key);
+        if (!Files.isRegularFile(file)) {
+            return null;
+        }
+        try {
+            Entry entry = GSON.fromJson(Files.readString(file, StandardCharsets.UTF_8), Entry.class);
+            if (entry == null || !key.equals(entry.key)) {
+                return null;
+            }
+            return entry;
+        } catch (Exception e) {
+            System.err.println("McpResultCache: failed to read " + file + ": " + e.getMessage());
+            return null;
+        }
+    }
+
+    private void writeToDisk(Entry entry) {
+        Path file = fileOf(entry.key);
+        try {
+            Files.createDirectories(directory);
+            Files.writeString(file, GSON.toJson(entry), StandardCharsets.UTF_8);
+        } catch (IOException e) {
+            System.err.println("McpResultCache: failed to write " + file + ": " + e.getMessage());
+        }
+    }
+
+    /**
+     * Keeps the directory below {@link #MAX_DISK_BYTES}, removing expired
+     * entries first and then the least recently written ones.
+     */
+    private void pruneDisk() {
+        List<Path> files = listFiles();
+        Map<Path, Long> modified = new LinkedHashMap<>();
+        long total = 0;
+        for (Path file : files) {
+            try {
+                modified.put(file, Files.getLastModifiedTime(file).toMillis());
+                total += Files.size(file);
+            } catch (IOException e) {
+                modified.put(file, 0L);
+            }
+        }
+
+        long now = System.currentTimeMillis();
+        files.sort(Comparator.comparing(modified::get));
+        for (Path file : files) {
+            long size;
+            boolean expired;
+            try {
+                size = Files.size(file);
+                // Files older than the longest TTL cannot hold a live entry
+                expired = now - modified.get(file) > DOCUMENT_TTL_MS;
+            } catch (IOException e) {
+                continue;
+            }
+            if (!expired && total <= MAX_DISK_BYTES) {
+                continue;
+            }
+            try {
+                Files.deleteIfExists(file);
+                total -= size;
+            } catch (IOException ignored) {
+                // best effort
+            }
+        }
+    }
+
+    private List<Path> listFiles() {
+        List<Path> files = new ArrayList<>();
+        if (!Files.isDirectory(directory)) {
+            return files;
+        }
+        try (Stream<Path> stream = Files.list(directory)) {
+            stream.filter(p -> p.getFileName().toString().endsWith(".json")).forEach(files::add);
+        } catch (IOException e) {
+            System.err.println("McpResultCache: failed to list " + directory + ": " + e.getMessage());
+        }
+        return files;
+    }
+}
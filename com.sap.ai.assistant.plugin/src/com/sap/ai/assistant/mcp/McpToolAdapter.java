@@ -20,9 +20,20 @@ public class McpToolAdapter implements SapTool {
 
     private static final String PREFIX = "mcp_";
 
-    private final McpClient client;
+    /**
+     * Supplies the client a call is sent with. Lets an adapter be created
+     * from a cached tool list before its session is connected.
+     */
+    @FunctionalInterface
+    public interface ClientSource {
+        McpClient get() throws McpException;
+    }
+
+    private final String serverUrl;
+    private final ClientSource clientSource;
     private final String mcpToolName;
     private final ToolDefinition definition;
+    private final McpResultCache resultCache = McpResultCache.shared();
 
     /**
      * Creates an adapter for a single MCP tool.
@@ -32,7 +43,22 @@ public class McpToolAdapter implements SapTool {
      * @param definition  the converted tool definition (with prefixed name)
      */
     public McpToolAdapter(McpClient client, String mcpToolName, ToolDefinition definition) {
-        this.client = client;
+        this(client.getServerUrl(), () -> client, mcpToolName, definition);
+    }
+
+    /**
+     * Creates an adapter whose client is obtained on the first call, e.g.
+     * waiting for a session that is still being connected.
+     *
+     * @param serverUrl    the URL of the MCP server
+     * @param clientSource supplies the connected client
+     * @param mcpToolName  the original tool name on the MCP server
+     * @param definition   the converted tool definition (with prefixed name)
+     */
+    public McpToolAdapter(String serverUrl, ClientSource clientSource, String mcpToolName,
+                          ToolDefinition definition) {
+        this.serverUrl = serverUrl;
+        this.clientSource = clientSource;
         this.mcpToolName = mcpToolName;
         this.definition = definition;
     }
@@ -42,6 +68,16 @@ public class McpToolAdapter implements SapTool {
         return definition.getName();
     }
 
+    /**
+     * Only the documentation lookups known to {@link McpResultCache#ttlFor}
+     * are read-only; any other MCP tool may change something, so it is
+     * neither run in parallel nor memoized.
+     */
+    @Override
+    public boolean isReadOnly() {
+        return McpResultCache.ttlFor(mcpToolName) > 0;
+    }
+
     @Override
     public ToolDefinition getDefinition() {
         return definition;
@@ -52,8 +88,25 @@ public class McpToolAdapter implements SapTool {
 
     @Override
     public ToolResult execute(JsonObject arguments) throws Exception {
+        return execute(arguments, null);
+    }
+
+    /**
+     * Executes the tool and reports the server's progress notifications
+     * while it runs. Results of documentation lookups are served from the
+     * {@link McpResultCache} when the same call was made before.
+     *
+     * @param arguments the tool arguments
+     * @param listener  receives progress notifications (may be {@code null})
+     * @return the tool result
+     */
+    public ToolResult execute(JsonObject arguments, McpProgressListener listener) throws Exception {
         try {
-            String result = client.callTool(mcpToolName, arguments);
+            String result = resultCache.get(serverUrl, mcpToolName, arguments);
+            if (result == null) {
+                result = clientSource.get().callTool(mcpToolName, arguments, listener);
+                resultCache.put(serverUrl, mcpToolName, arguments, result);
+            }
             // Truncate search results to reduce token usage
             result = truncateSearchResults(result);
             return ToolResult.success(null, result);
@@ -0,0 +1,169 @@
+package com.sap.ai.assistant.mcp;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+import com.google.gson.Gson;
+import com.google.gson.JsonArray;
+import com.google.gson.JsonElement;
+import com.google.gson.JsonObject;
+import com.sap.ai.assistant.util.Hashes;
+
+/**
+ * Persistent catalogue of the tools offered by each MCP server.
+ * <p>
+ * The raw {@code tools/list} result of a server is stored in
+ * {@code ~/.sap-ai-assistant/cache/mcp-tools/<server>.json} whenever a
+ * session lists its tools. As long as the entry is younger than
+ * {@link #TTL_MS}, the agent can offer the server's tools right away and
+ * connect in the background, instead of waiting for the handshake before
+ * every run.
+ * </p>
+ * <p>
+ * All methods are thread-safe.
+ * </p>
+ */
+public class McpToolCatalog {
+
+    /** Age after which a catalogue entry is no longer used. */
+    public static final long TTL_MS = 24 * 60 * 60_000L;
+
+    private static final Path DEFAULT_ROOT =
+            Path.of(System.getProperty("user.home"), ".sap-ai-assistant", "cache", "mcp-tools");
+
+    private static final Gson GSON = new Gson();
+
+    private static final McpToolCatalog SHARED = new McpToolCatalog(DEFAULT_ROOT);
+
+    private final Path directory;
+    private final Map<String, Entry> memory = new ConcurrentHashMap<>();
+
+    /** The tool list of one server at a point in time. Serialised as JSON to disk. */
+    public static final class Entry {
+        private String serverUrl;
+        private long fetchedAt;
+        private JsonArray tools;
+
+        Entry(String serverUrl, long fetchedAt, JsonArray tools) {
+            this.serverUrl = serverUrl;
+            this.fetchedAt = fetchedAt;
+            this.tools = tools;
+        }
+
+        public long getFetchedAt() { return fetchedAt; }
+
+        /** Returns the raw tool objects as returned by {@code tools/list}. */
+        public List<JsonObject> getTools() {
+            List<JsonObject> list = new ArrayList<>();
+            for (JsonElement el : tools) {
+                if (el.isJsonObject()) {
+                    list.add(el.getAsJsonObject().deepCopy());
+                }
+            }
+            return Collections.unmodifiableList(list);
+        }
+
+        boolean isExpired(long now) {
+            return now - fetchedAt > TTL_MS;
+        }
+    }
+
+    /**
+     * Creates a catalogue stored in the given directory.
+     *
+     * @param directory the directory holding one file per server
+     */
+    public McpToolCatalog(Path directory) {
+        this.directory = directory;
+    }
+
+    /**
+     * Returns the catalogue in the user's cache directory.
+     */
+    public static McpToolCatalog shared() {
+        return SHARED;
+    }
+
+    /**
+     * Returns the stored tool list of the server, or {@code null} if there
+     * is none or it is older than {@link #TTL_MS}.
+     *
+     * @param serverUrl the MCP server URL
+     * @return the catalogue entry, or {@code null}
+     */
+    public Entry get(String serverUrl) {
+        Entry entry = memory.computeIfAbsent(serverUrl, this::readFromDisk);
+        if (entry == null || entry.isExpired(System.currentTimeMillis())) {
+            return null;
+        }
+        return entry;
+    }
+
+    /**
+     * Stores the tool list of the server, replacing the previous one.
+     *
+     * @param serverUrl the MCP server URL
+     * @param tools     the raw tool objects from {@code tools/list}
+     */
+    public void put(String serverUrl, List<JsonObject> tools) {
+        JsonArray array = new JsonArray();
+        for (JsonObject tool : tools) {
+            array.add(tool.deepCopy());
+        }
+        Entry entry = new Entry(serverUrl, System.currentTimeMillis(), array);
+        memory.put(serverUrl, entry);
+
+        Path file = fileOf(serverUrl);
+        try {
+            Files.createDirectories(directory);
+            Files.writeString(file, GSON.toJson(entry), StandardCharsets.UTF_8);
+        } catch (IOException e) {
+            System.err.println("McpToolCatalog: failed to write " + file + ": " + e.getMessage());
+        }
+    }
+
+    /**
+     * Forgets the stored tool list of the server.
+     *
+     * @param serverUrl the MCP server URL
+     */
+    public void invalidate(String serverUrl) {
+        memory.remove(serverUrl);
+        try {
+            Files.deleteIfExists(fileOf(serverUrl));
+        } catch (IOException e) {
+            System.err.println("McpToolCatalog: failed to delete entry of " + serverUrl
+                    + ": " + e.getMessage());
+        }
+    }
+
+    // -- Internal helpers -----------------------------------------------------
+
+    private Entry readFromDisk(String serverUrl) {
+        Path file = fileOf(serverUrl);
+        if (!Files.isRegularFile(file)) {
+            return null;
+        }
+        try {
+            Entry entry = GSON.fromJson(Files.readString(file, StandardCharsets.UTF_8), Entry.class);
+            if (entry == null || entry.tools == null || !serverUrl.equals(entry.serverUrl)) {
+                return null;
+            }
+            return entry;
+        } catch (Exception e) {
+            System.err.println("McpToolCatalog: failed to read " + file + ": " + e.getMessage());
+            return null;
+        }
+    }
+
+    private Path fileOf(String serverUrl) {
+        return directory.resolve(Hashes.shortHash(serverUrl) + ".json");
+    }
+}
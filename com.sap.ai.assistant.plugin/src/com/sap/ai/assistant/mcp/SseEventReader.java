@@ -0,0 +1,117 @@
+package com.sap.ai.assistant.mcp;
+
+import java.util.concurrent.Flow;
+import java.util.function.Consumer;
+
+/**
+ * Incremental Server-Sent Events parser.
+ * <p>
+ * Receives the response body line by line (as delivered by
+ * {@link java.net.http.HttpResponse.BodySubscribers#fromLineSubscriber})
+ * and hands the {@code data} of every complete event to a consumer as soon
+ * as its terminating blank line arrives, so a long-running stream can be
+ * processed while it is still open.
+ * </p>
+ */
+class SseEventReader implements Flow.Subscriber<String> {
+
+    private final Consumer<String> onData;
+    private final Runnable onEnd;
+
+    private final StringBuilder data = new StringBuilder();
+    private boolean hasData;
+    private volatile String lastEventId;
+    private Flow.Subscription subscription;
+
+    /**
+     * @param onData receives the payload of each event (multi-line data joined with {@code \n})
+     * @param onEnd  called once when the stream ends, normally or with an error
+     */
+    SseEventReader(Consumer<String> onData, Runnable onEnd) {
+        this.onData = onData;
+        this.onEnd = onEnd;
+    }
+
+    /**
+     * Returns the {@code id} of the last event received, for resuming a
+     * stream with {@code Last-Event-ID}, or {@code null}.
+     */
+    String getLastEventId() {
+        return lastEventId;
+    }
+
+    // -- Flow.Subscriber ------------------------------------------------------
+
+    @Override
+    public void onSubscribe(Flow.Subscription subscription) {
+        this.subscription = subscription;
+        subscription.request(Long.MAX_VALUE);
+    }
+
+    @Override
+    public void onNext(String line) {
+        if (line.isEmpty()) {
+            dispatch();
+            return;
+        }
+        if (line.startsWith(":")) {
+            return; // comment / keep-alive
+        }
+
+        int colon = line.indexOf(':');
+        String field = colon >= 0 ? line.substring(0, colon) : line;
+        String value = colon >= 0 ? line.substring(colon + 1) : "";
+        if (value.startsWith(" ")) {
+            value = value.substring(1);
+        }
+
+        switch (field) {
+            case "data":
+                if (hasData) {
+                    data.append('\n');
+                }
+                data.append(value);
+                hasData = true;
+                break;
+            case "id":
+                lastEventId = value;
+                break;
+            default:
+                // "event" and "retry" carry nothing the client needs
+                break;
+        }
+    }
+
+    @Override
+    public void onError(Throwable throwable) {
+        onEnd.run();
+    }
+
+    @Override
+    public void onComplete() {
+        // A final event without a trailing blank line is still delivered
+        dispatch();
+        onEnd.run();
+    }
+
+    /** Stops reading; the underlying connection is released. */
+    void cancel() {
+        if (subscription != null) {
+            subscription.cancel();
+        }
+    }
+
+    private void dispatch() {
+        if (!hasData) {
+            return;
+        }
+        String payload = data.toString();
+        data.setLength(0);
+        hasData = false;
+        try {
+            onData.accept(payload);
+        } catch (RuntimeException e) {
+            System.err.println("MCP: failed to handle event: " + e.getMessage());
+        }
+    }
+}
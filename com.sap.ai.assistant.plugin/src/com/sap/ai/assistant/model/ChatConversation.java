@@ -3,28 +3,85 @@ package com.sap.ai.assistant.model;
 import java.util.ArrayList;
 import java.util.Collections;
 import java.util.List;
+import java.util.Objects;
 
 /**
  * Maintains the state of a chat conversation, including the ordered list of
  * messages and an optional system prompt.
  * <p>
- * Includes a sliding-window mechanism ({@link #trimMessages(int)}) to keep
- * token usage manageable during multi-round agentic interactions. When the
- * number of messages exceeds the limit, older middle messages are dropped
- * while preserving the first user message (original intent) and the most
- * recent messages (immediate context).
+ * Provides the primitives used to keep token usage manageable during
+ * multi-round agentic interactions: truncating older tool results
+ * ({@link #truncateOldToolResults(int)}) and omitting older middle messages
+ * ({@link #omitMessages(int, int)}) while preserving the first user message
+ * (original intent) and the most recent messages (immediate context). The
+ * agent decides what to drop based on its token budget.
+ * </p>
+ * <p>
+ * Omitted messages can be replaced by a rolling {@linkplain #getHistorySummary()
+ * summary}, which is shown in the omission note. Summaries are produced in
+ * the background and handed over with {@link #offerHistorySummary}; the
+ * agent applies them between rounds with {@link #applyOfferedHistorySummary()}.
+ * Apart from that handover the conversation is not thread-safe.
+ * </p>
+ * <p>
+ * Every change is reported to an optional {@link Listener}, which is how
+ * conversations are persisted (see
+ * {@link com.sap.ai.assistant.agent.ConversationStore}).
  * </p>
  */
 public class ChatConversation {
 
+    private final List<ChatMessage> messages;
+    private String systemPrompt;
+
+    /** Number of messages removed by {@link #omitMessages(int, int)} so far. */
+    private int omittedMessageCount;
+
+    /** Summary of the omitted messages shown in the omission note, or {@code null}. */
+    private volatile String historySummary;
+
+    /** Summary offered by another thread and not applied yet. */
+    private volatile OfferedSummary offeredSummary;
+
+    /** Incremented by {@link #clear()}, so summaries of cleared messages are discarded. */
+    private volatile int generation;
+
+    private static final class OfferedSummary {
+        final String text;
+        final int generation;
+
+        OfferedSummary(String text, int generation) {
+            this.text = text;
+            this.generation = generation;
+        }
+    }
+
+    private Listener listener;
+
     /**
-     * Default maximum number of messages to retain in the conversation.
-     * This keeps roughly the last 5 user/assistant/tool exchanges.
+     * Receives every change of a conversation, in order, on the thread that
+     * made it. Replaying the changes on an empty conversation restores it.
      */
-    public static final int DEFAULT_MAX_MESSAGES = 8;
+    public interface Listener {
 
-    private final List<ChatMessage> messages;
-    private String systemPrompt;
+        /** A message was appended. */
+        void messageAdded(ChatMessage message);
+
+        /** The message at {@code index} was replaced, e.g. by a truncated copy. */
+        void messageReplaced(int index, ChatMessage message);
+
+        /** {@link #omitMessages(int, int)} removed the messages in {@code [fromIndex, toIndex)}. */
+        void messagesOmitted(int fromIndex, int toIndex);
+
+        /** All messages were removed. */
+        void cleared();
+
+        /** The system prompt was set to a different value. */
+        void systemPromptChanged(String systemPrompt);
+
+        /** {@link #setHistorySummary(String)} changed the summary (and the omission note). */
+        void historySummaryChanged(String summary);
+    }
 
     /**
      * Creates a new empty conversation with no system prompt.
@@ -52,7 +109,7 @@ public class ChatConversation {
      * @param text the user's message text
      */
     public void addUserMessage(String text) {
-        messages.add(ChatMessage.user(text));
+        addAssistantMessage(ChatMessage.user(text));
     }
 
     /**
@@ -64,6 +121,22 @@ public class ChatConversation {
     public void addAssistantMessage(ChatMessage message) {
         if (message != null) {
             messages.add(message);
+            if (listener != null) {
+                listener.messageAdded(message);
+            }
+        }
+    }
+
+    /**
+     * Replaces the message at the given index.
+     *
+     * @param index   the index of the message to replace
+     * @param message the new message
+     */
+    public void replaceMessage(int index, ChatMessage message) {
+        messages.set(index, message);
+        if (listener != null) {
+            listener.messageReplaced(index, message);
         }
     }
 
@@ -72,60 +145,159 @@ public class ChatConversation {
      */
     public void clear() {
         messages.clear();
+        omittedMessageCount = 0;
+        historySummary = null;
+        offeredSummary = null;
+        generation++;
+        if (listener != null) {
+            listener.cleared();
+        }
     }
 
     /**
-     * Trims the conversation to at most {@code maxMessages} entries by removing
-     * older messages from the middle, preserving the first user message and
-     * the most recent messages.
+     * Removes the messages in {@code [fromIndex, toIndex)} from the middle of
+     * the conversation.
      * <p>
-     * This implements a sliding window that keeps the original user intent
-     * (first message) visible to the LLM while retaining the most recent
-     * context for the current tool-call round.
-     * </p>
-     * <p>
-     * When messages are dropped, a synthetic user message is inserted after
-     * the first message indicating that earlier exchanges were omitted.
+     * The first message (the original request) is never removed. A single
+     * synthetic user message directly after it tells the LLM how many
+     * earlier messages were omitted, followed by the
+     * {@linkplain #getHistorySummary() history summary} if there is one; it
+     * is inserted on the first call and updated on later calls. Callers must not split an assistant message
+     * with tool calls from the tool results that follow it.
      * </p>
      *
-     * @param maxMessages the maximum number of messages to retain (minimum 4)
+     * @param fromIndex first message to remove (at least 1, or 2 once a note exists)
+     * @param toIndex   index after the last message to remove
+     * @return the number of removed messages
      */
-    public void trimMessages(int maxMessages) {
-        if (maxMessages < 4) {
-            maxMessages = 4;
+    public int omitMessages(int fromIndex, int toIndex) {
+        int firstRemovable = omittedMessageCount > 0 ? 2 : 1;
+        fromIndex = Math.max(fromIndex, firstRemovable);
+        toIndex = Math.min(toIndex, messages.size());
+        if (fromIndex >= toIndex) {
+            return 0;
+        }
+
+        int removed = toIndex - fromIndex;
+        messages.subList(fromIndex, toIndex).clear();
+        omittedMessageCount += removed;
+
+        ChatMessage note = omissionNote();
+        if (firstRemovable == 2) {
+            messages.set(1, note);
+        } else {
+            messages.add(1, note);
+        }
+        if (listener != null) {
+            listener.messagesOmitted(fromIndex, toIndex);
         }
-        if (messages.size() <= maxMessages) {
+        return removed;
+    }
+
+    /**
+     * Returns the summary of the omitted messages, or {@code null} if there
+     * is none.
+     *
+     * @return the summary applied to the omission note
+     */
+    public String getHistorySummary() {
+        return historySummary;
+    }
+
+    /**
+     * Sets the summary of the omitted messages and updates the omission
+     * note, if there is one, to include it.
+     *
+     * @param summary the summary, or {@code null} to remove it
+     */
+    public void setHistorySummary(String summary) {
+        if (Objects.equals(historySummary, summary)) {
             return;
         }
+        historySummary = summary;
+        if (omittedMessageCount > 0 && messages.size() > 1) {
+            messages.set(1, omissionNote());
+        }
+        if (listener != null) {
+            listener.historySummaryChanged(summary);
+        }
+    }
 
-        // Keep: [0] = first user message, then the last (maxMessages - 2) messages,
-        // plus a synthetic "trimmed" marker at position [1].
-        ChatMessage firstMessage = messages.get(0);
+    /**
+     * Hands over a summary computed on another thread. It replaces any
+     * summary offered before and takes effect with
+     * {@link #applyOfferedHistorySummary()}. May be called from any thread.
+     *
+     * @param summary          the new summary
+     * @param sourceGeneration the value of {@link #getHistoryGeneration()} when
+     *                         the summarized messages were taken; the summary
+     *                         is dropped if the conversation was cleared since
+     */
+    public void offerHistorySummary(String summary, int sourceGeneration) {
+        offeredSummary = new OfferedSummary(summary, sourceGeneration);
+    }
 
-        // How many recent messages to keep (leaving room for first + marker)
-        int keepRecent = maxMessages - 2;
-        int startOfRecent = messages.size() - keepRecent;
+    /**
+     * Returns the latest summary: the offered one if it was not applied
+     * yet, otherwise {@link #getHistorySummary()}. May be called from any
+     * thread.
+     *
+     * @return the latest summary, or {@code null}
+     */
+    public String getLatestHistorySummary() {
+        OfferedSummary offered = offeredSummary;
+        if (offered != null && offered.generation == generation) {
+            return offered.text;
+        }
+        return historySummary;
+    }
 
-        List<ChatMessage> recent = new ArrayList<>(messages.subList(startOfRecent, messages.size()));
+    /**
+     * Returns a counter that changes whenever the conversation is cleared.
+     * May be called from any thread.
+     *
+     * @return the current generation
+     */
+    public int getHistoryGeneration() {
+        return generation;
+    }
 
-        int droppedCount = startOfRecent - 1; // messages between first and the kept tail
+    /**
+     * Applies the summary passed to {@link #offerHistorySummary}, if any.
+     *
+     * @return {@code true} if the summary was changed
+     */
+    public boolean applyOfferedHistorySummary() {
+        OfferedSummary offered = offeredSummary;
+        if (offered == null) {
+            return false;
+        }
+        offeredSummary = null;
+        if (offered.generation != generation || Objects.equals(offered.text, historySummary)) {
+            return false;
+        }
+        setHistorySummary(offered.text);
+        return true;
+    }
 
-        messages.clear();
-        messages.add(firstMessage);
-        messages.add(ChatMessage.user(
-                "[System note: " + droppedCount + " earlier messages were omitted to save context space. "
-                + "The original request and recent messages are preserved.]"));
-        messages.addAll(recent);
+    /**
+     * Returns the index of the first message that may be removed by
+     * {@link #omitMessages(int, int)}: the message after the original
+     * request and, once messages were omitted, after the omission note.
+     *
+     * @return the first removable index
+     */
+    public int getFirstRemovableIndex() {
+        return omittedMessageCount > 0 ? 2 : 1;
     }
 
     /**
-     * Trims the conversation using the default maximum message count.
+     * Returns how many messages were omitted from this conversation so far.
      *
-     * @see #trimMessages(int)
+     * @return omitted message count
      */
-    public void trimMessages() {
-        trimMessages(DEFAULT_MAX_MESSAGES);
-        truncateOldToolResults();
+    public int getOmittedMessageCount() {
+        return omittedMessageCount;
     }
 
     /**
@@ -160,12 +332,32 @@ public class ChatConversation {
             if (msg.getRole() == ChatMessage.Role.TOOL && i != lastToolIndex) {
                 ChatMessage truncated = msg.withTruncatedToolResults(maxLen);
                 if (truncated != msg) {
-                    messages.set(i, truncated);
+                    replaceMessage(i, truncated);
                 }
             }
         }
     }
 
+    /**
+     * Truncates the tool results of the most recent tool results message,
+     * which {@link #truncateOldToolResults(int)} leaves untouched. Used only
+     * when a request does not fit its token budget otherwise.
+     *
+     * @param maxLen maximum length for each tool result content
+     */
+    public void truncateLatestToolResults(int maxLen) {
+        for (int i = messages.size() - 1; i >= 0; i--) {
+            ChatMessage msg = messages.get(i);
+            if (msg.getRole() == ChatMessage.Role.TOOL) {
+                ChatMessage truncated = msg.withTruncatedToolResults(maxLen);
+                if (truncated != msg) {
+                    replaceMessage(i, truncated);
+                }
+                return;
+            }
+        }
+    }
+
     /**
      * Truncates old tool results using the default maximum length.
      *
@@ -191,7 +383,47 @@ public class ChatConversation {
     }
 
     public void setSystemPrompt(String systemPrompt) {
+        if (Objects.equals(this.systemPrompt, systemPrompt)) {
+            return;
+        }
         this.systemPrompt = systemPrompt;
+        if (listener != null) {
+            listener.systemPromptChanged(systemPrompt);
+        }
+    }
+
+    /**
+     * Sets the listener notified of every change, replacing any previous
+     * one.
+     *
+     * @param listener the listener, or {@code null} to remove it
+     */
+    public void setListener(Listener listener) {
+        this.listener = listener;
+    }
+
+    /**
+     * Sets the number of omitted messages when a persisted conversation is
+     * restored. Not reported to the listener.
+     *
+     * @param count the omitted message count recorded with the messages
+     */
+    public void restoreOmittedMessageCount(int count) {
+        this.omittedMessageCount = count;
+    }
+
+    private ChatMessage omissionNote() {
+        StringBuilder note = new StringBuilder();
+        note.append("[System note: ").append(omittedMessageCount)
+                .append(" earlier messages were omitted to save context space. ")
+                .append("The original request and recent messages are preserved.");
+        if (historySummary != null && !historySummary.isEmpty()) {
+            note.append(" Summary of the work in the omitted messages (do not redo it):]\n")
+                    .append(historySummary);
+        } else {
+            note.append("]");
+        }
+        return ChatMessage.user(note.toString());
     }
 
     /**
@@ -0,0 +1,193 @@
+package com.sap.ai.assistant.model;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+
+import com.sap.ai.assistant.util.Hashes;
+
+/**
+ * The messages and system prompt sent with one LLM request, kept for the
+ * developer log without copying them.
+ * <p>
+ * A {@link Recorder} appends every message it sees once to a journal shared
+ * by all snapshots of an agent run; a snapshot only stores index ranges
+ * into that journal and the hash of the system prompt, whose text the
+ * recorder keeps once per distinct prompt. Messages replaced in the
+ * conversation (e.g. by truncated tool results) are journaled as new
+ * entries, so each snapshot still shows what was actually sent.
+ * </p>
+ * <p>
+ * The readable text is only built by {@link #format()}, typically when the
+ * entry is displayed. This relies on messages not being changed after they
+ * were added to a conversation.
+ * </p>
+ */
+public final class ConversationSnapshot {
+
+    /**
+     * Records the snapshots of one agent run. Recording is thread-safe and
+     * costs one identity lookup per message plus the new messages.
+     */
+    public static final class Recorder {
+
+        private final List<ChatMessage> journal = new ArrayList<>();
+        private final Map<ChatMessage, Integer> journalIndex = new IdentityHashMap<>();
+        private final Map<String, String> promptsByHash = new HashMap<>();
+        private String lastPrompt;
+        private String lastPromptHash;
+
+        /**
+         * Returns a snapshot of the conversation as it is now.
+         *
+         * @param conversation the conversation about to be (or just) sent
+         * @return the snapshot
+         */
+        public synchronized ConversationSnapshot record(ChatConversation conversation) {
+            List<ChatMessage> messages = conversation.getMessages();
+            List<int[]> ranges = new ArrayList<>();
+            int[] current = null;
+            for (ChatMessage message : messages) {
+                Integer index = journalIndex.get(message);
+                if (index == null) {
+                    index = journal.size();
+                    journal.add(message);
+                    journalIndex.put(message, index);
+                }
+                if (current != null && current[1] == index) {
+                    current[1]++;
+                } else {
+                    current = new int[] { index, index + 1 };
+                    ranges.add(current);
+                }
+            }
+            int[] flat = new int[ranges.size() * 2];
+            for (int i = 0; i < ranges.size(); i++) {
+                flat[2 * i] = ranges.get(i)[0];
+                flat[2 * i + 1] = ranges.get(i)[1];
+            }
+            return new ConversationSnapshot(this, flat, messages.size(),
+                    internPrompt(conversation.getSystemPrompt()));
+        }
+
+        private String internPrompt(String prompt) {
+            if (prompt == null) {
+                return null;
+            }
+            // The prompt is usually the same string object in every round
+            if (prompt != lastPrompt) {
+                lastPrompt = prompt;
+                lastPromptHash = Hashes.shortHash(prompt);
+                promptsByHash.putIfAbsent(lastPromptHash, prompt);
+            }
+            return lastPromptHash;
+        }
+
+        private synchronized List<ChatMessage> resolve(int[] ranges, int count) {
+            List<ChatMessage> messages = new ArrayList<>(count);
+            for (int i = 0; i < ranges.length; i += 2) {
+                messages.addAll(journal.subList(ranges[i], ranges[i + 1]));
+            }
+            return messages;
+        }
+
+        private synchronized String prompt(String hash) {
+            return promptsByHash.get(hash);
+        }
+    }
+
+    private final Recorder recorder;
+    /** Pairs of journal start (inclusive) and end (exclusive) indexes. */
+    private final int[] ranges;
+    private final int messageCount;
+    private final String systemPromptHash;
+
+    private ConversationSnapshot(Recorder recorder, int[] ranges, int messageCount, String systemPromptHash) {
+        this.recorder = recorder;
+        this.ranges = ranges;
+        this.messageCount = messageCount;
+        this.systemPromptHash = systemPromptHash;
+    }
+
+    public int getMessageCount() { return messageCount; }
+
+    /**
+     * Returns a short hash identifying the system prompt, or {@code null}
+     * if the request had none.
+     */
+    public String getSystemPromptHash() { return systemPromptHash; }
+
+    /**
+     * Returns the system prompt sent with the request, or {@code null}.
+     */
+    public String getSystemPrompt() {
+        return systemPromptHash != null ? recorder.prompt(systemPromptHash) : null;
+    }
+
+    /**
+     * Returns the messages sent with the request.
+     */
+    public List<ChatMessage> getMessages() {
+        return Collections.unmodifiableList(recorder.resolve(ranges, messageCount));
+    }
+
+    /**
+     * Formats the messages into a readable listing. Tool call arguments and
+     * results are truncated to keep it navigable; full details are in the
+     * tool details of each round.
+     *
+     * @return the listing, empty if there are no messages
+     */
+    public String format() {
+        List<ChatMessage> messages = getMessages();
+        if (messages.isEmpty()) return "";
+        StringBuilder sb = new StringBuilder();
+        for (int i = 0; i < messages.size(); i++) {
+            ChatMessage msg = messages.get(i);
+            sb.append("[").append(i + 1).append("] ").append(msg.getRole().name()).append(": ");
+
+            // Text content
+            if (msg.getTextContent() != null && !msg.getTextContent().isEmpty()) {
+                sb.append(msg.getTextContent());
+            }
+
+            // Tool calls (assistant requesting tools)
+            if (msg.hasToolCalls()) {
+                if (msg.getTextContent() != null && !msg.getTextContent().isEmpty()) {
+                    sb.append("\n    ");
+                }
+                sb.append("-> tool_calls: ");
+                for (int j = 0; j < msg.getToolCalls().size(); j++) {
+                    if (j > 0) sb.append(", ");
+                    ToolCall tc = msg.getToolCalls().get(j);
+                    sb.append(tc.getName());
+                    if (tc.getArguments() != null) {
+                        String args = tc.getArguments().toString();
+                        sb.append("(").append(truncate(args, 200)).append(")");
+                    }
+                }
+            }
+
+            // Tool results
+            if (!msg.getToolResults().isEmpty()) {
+                for (ToolResult tr : msg.getToolResults()) {
+                    sb.append("\n    ");
+                    if (tr.isError()) sb.append("[ERROR] ");
+                    sb.append(truncate(tr.getContent(), 300));
+                }
+            }
+
+            sb.append("\n");
+        }
+        return sb.toString();
+    }
+
+    private static String truncate(String s, int maxLen) {
+        if (s == null) return "";
+        if (s.length() <= maxLen) return s;
+        return s.substring(0, maxLen) + "...(" + s.length() + " chars)";
+    }
+}
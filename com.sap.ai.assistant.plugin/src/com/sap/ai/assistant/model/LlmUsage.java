@@ -4,6 +4,14 @@ import com.google.gson.JsonObject;
 
 /**
  * Token usage data returned by LLM API responses.
+ * <p>
+ * {@code inputTokens} counts only the prompt tokens that were processed
+ * without the prompt cache. Tokens written to the cache and tokens served
+ * from it are reported separately, for every provider that exposes them
+ * (Anthropic reports all three; OpenAI and Gemini include cached tokens in
+ * their prompt count, which is split up here). The full prompt size is
+ * {@link #getPromptTokens()}.
+ * </p>
  */
 public class LlmUsage {
 
@@ -40,24 +48,37 @@ public class LlmUsage {
 
     /**
      * Parse usage from an OpenAI API response JSON.
-     * Expects: {@code {"prompt_tokens":N, "completion_tokens":N, ...}}
+     * Expects: {@code {"prompt_tokens":N, "completion_tokens":N,
+     * "prompt_tokens_details":{"cached_tokens":N}, ...}}
      */
     public static LlmUsage fromOpenAiJson(JsonObject usage) {
         if (usage == null) return null;
-        int input = usage.has("prompt_tokens") ? usage.get("prompt_tokens").getAsInt() : 0;
+        int prompt = usage.has("prompt_tokens") ? usage.get("prompt_tokens").getAsInt() : 0;
         int output = usage.has("completion_tokens") ? usage.get("completion_tokens").getAsInt() : 0;
-        return new LlmUsage(input, output);
+        int cacheRead = 0;
+        if (usage.has("prompt_tokens_details") && usage.get("prompt_tokens_details").isJsonObject()) {
+            JsonObject details = usage.getAsJsonObject("prompt_tokens_details");
+            if (details.has("cached_tokens") && !details.get("cached_tokens").isJsonNull()) {
+                cacheRead = details.get("cached_tokens").getAsInt();
+            }
+        }
+        // prompt_tokens includes the cached part
+        return new LlmUsage(Math.max(0, prompt - cacheRead), output, 0, cacheRead);
     }
 
     /**
      * Parse usage from a Google Gemini API response JSON.
-     * Expects: {@code {"promptTokenCount":N, "candidatesTokenCount":N, ...}}
+     * Expects: {@code {"promptTokenCount":N, "candidatesTokenCount":N,
+     * "cachedContentTokenCount":N, ...}}
      */
     public static LlmUsage fromGeminiJson(JsonObject usageMetadata) {
         if (usageMetadata == null) return null;
-        int input = usageMetadata.has("promptTokenCount") ? usageMetadata.get("promptTokenCount").getAsInt() : 0;
+        int prompt = usageMetadata.has("promptTokenCount") ? usageMetadata.get("promptTokenCount").getAsInt() : 0;
         int output = usageMetadata.has("candidatesTokenCount") ? usageMetadata.get("candidatesTokenCount").getAsInt() : 0;
-        return new LlmUsage(input, output);
+        int cacheRead = usageMetadata.has("cachedContentTokenCount")
+                ? usageMetadata.get("cachedContentTokenCount").getAsInt() : 0;
+        // promptTokenCount includes the cached part
+        return new LlmUsage(Math.max(0, prompt - cacheRead), output, 0, cacheRead);
     }
 
     public int getInputTokens() { return inputTokens; }
@@ -66,8 +87,25 @@ public class LlmUsage {
     public int getCacheReadTokens() { return cacheReadTokens; }
     public int getTotalTokens() { return inputTokens + outputTokens; }
 
+    /**
+     * Returns the full prompt size: uncached input plus tokens written to
+     * and read from the prompt cache.
+     */
+    public int getPromptTokens() {
+        return inputTokens + cacheCreationTokens + cacheReadTokens;
+    }
+
+    /** Returns whether any part of the prompt was written to or read from the cache. */
+    public boolean hasCacheActivity() {
+        return cacheCreationTokens > 0 || cacheReadTokens > 0;
+    }
+
     @Override
     public String toString() {
-        return inputTokens + " in / " + outputTokens + " out";
+        String s = inputTokens + " in / " + outputTokens + " out";
+        if (hasCacheActivity()) {
+            s += " (cache: " + cacheReadTokens + " read / " + cacheCreationTokens + " write)";
+        }
+        return s;
     }
 }
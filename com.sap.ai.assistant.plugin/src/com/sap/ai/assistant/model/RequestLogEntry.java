@@ -8,6 +8,11 @@ import java.util.List;
 /**
  * Represents a single LLM API request/response for developer logging.
  * Includes system prompt, conversation context, tool call I/O, and LLM text content.
+ * <p>
+ * Entries created by the agent hold a {@link ConversationSnapshot} instead
+ * of the prompt and conversation text, which are only rendered when the
+ * entry is displayed.
+ * </p>
  */
 public class RequestLogEntry {
 
@@ -25,6 +30,13 @@ public class RequestLogEntry {
     private final List<ToolCallDetail> toolCallDetails;
     private final String systemPrompt;
     private final String conversationSnapshot;
+    private final ConversationSnapshot snapshot;
+
+    /** ADT source cache statistics at the time of the request (optional). */
+    private String sourceCacheStats;
+
+    /** Tool calls of this round answered from results of earlier rounds. */
+    private int toolMemoHits;
 
     /**
      * A single tool call with its input arguments and output result.
@@ -89,6 +101,30 @@ public class RequestLogEntry {
         this.toolCallDetails = toolCallDetails;
         this.systemPrompt = systemPrompt;
         this.conversationSnapshot = conversationSnapshot;
+        this.snapshot = null;
+    }
+
+    /** Constructor with a lazily rendered snapshot of the prompt and conversation. */
+    public RequestLogEntry(int roundNumber, String provider, String model,
+                           long durationMs, LlmUsage usage, int toolCallCount, String[] toolNames,
+                           String error, String llmTextContent,
+                           List<ToolCallDetail> toolCallDetails,
+                           ConversationSnapshot snapshot) {
+        this.timestamp = System.currentTimeMillis();
+        this.roundNumber = roundNumber;
+        this.provider = provider;
+        this.model = model;
+        this.conversationMessageCount = snapshot != null ? snapshot.getMessageCount() : 0;
+        this.durationMs = durationMs;
+        this.usage = usage;
+        this.toolCallCount = toolCallCount;
+        this.toolNames = toolNames;
+        this.error = error;
+        this.llmTextContent = llmTextContent;
+        this.toolCallDetails = toolCallDetails;
+        this.systemPrompt = null;
+        this.conversationSnapshot = null;
+        this.snapshot = snapshot;
     }
 
     public long getTimestamp() { return timestamp; }
@@ -106,8 +142,23 @@ public class RequestLogEntry {
     public List<ToolCallDetail> getToolCallDetails() {
         return toolCallDetails != null ? Collections.unmodifiableList(toolCallDetails) : Collections.emptyList();
     }
-    public String getSystemPrompt() { return systemPrompt; }
-    public String getConversationSnapshot() { return conversationSnapshot; }
+    public String getSystemPrompt() {
+        return snapshot != null ? snapshot.getSystemPrompt() : systemPrompt;
+    }
+    /** Returns a hash identifying the system prompt, or {@code null} if unknown. */
+    public String getSystemPromptHash() {
+        return snapshot != null ? snapshot.getSystemPromptHash() : null;
+    }
+    /** Renders the conversation sent with the request; not cached. */
+    public String getConversationSnapshot() {
+        return snapshot != null ? snapshot.format() : conversationSnapshot;
+    }
+    public String getSourceCacheStats() { return sourceCacheStats; }
+    public int getCacheReadTokens() { return usage != null ? usage.getCacheReadTokens() : 0; }
+    public int getCacheWriteTokens() { return usage != null ? usage.getCacheCreationTokens() : 0; }
+    public void setSourceCacheStats(String sourceCacheStats) { this.sourceCacheStats = sourceCacheStats; }
+    public int getToolMemoHits() { return toolMemoHits; }
+    public void setToolMemoHits(int toolMemoHits) { this.toolMemoHits = toolMemoHits; }
 
     public String getFormattedTime() {
         return new SimpleDateFormat("HH:mm:ss").format(new Date(timestamp));
@@ -136,10 +187,18 @@ public class RequestLogEntry {
         sb.append(conversationMessageCount).append(" msgs | ");
         if (usage != null) {
             sb.append(usage.getInputTokens()).append(" in / ");
-            sb.append(usage.getOutputTokens()).append(" out | ");
+            sb.append(usage.getOutputTokens()).append(" out");
+            if (usage.hasCacheActivity()) {
+                sb.append(" (").append(usage.getCacheReadTokens()).append(" cached)");
+            }
+            sb.append(" | ");
         }
         if (toolCallCount > 0) {
-            sb.append(toolCallCount).append(" tools: ").append(getToolNamesString()).append(" | ");
+            sb.append(toolCallCount).append(" tools: ").append(getToolNamesString());
+            if (toolMemoHits > 0) {
+                sb.append(" (").append(toolMemoHits).append(" memoized)");
+            }
+            sb.append(" | ");
         }
         if (error != null) {
             sb.append("ERROR: ").append(error);
@@ -152,6 +211,15 @@ public class RequestLogEntry {
      * tool I/O, and LLM text. Used for the detail pane and clipboard copy.
      */
     public String toDetailString() {
+        return toDetailString(true);
+    }
+
+    /**
+     * Multi-line detailed format; the system prompt text is left out if
+     * {@code withSystemPrompt} is {@code false}, e.g. because an earlier
+     * entry of the same log already shows it.
+     */
+    public String toDetailString(boolean withSystemPrompt) {
         StringBuilder sb = new StringBuilder();
         sb.append("=== Round ").append(roundNumber).append(" ===  [");
         sb.append(getFormattedTime()).append("]  ");
@@ -161,24 +229,40 @@ public class RequestLogEntry {
         if (usage != null) {
             sb.append("Tokens: ").append(usage.getInputTokens()).append(" in / ");
             sb.append(usage.getOutputTokens()).append(" out");
-            if (usage.getCacheCreationTokens() > 0 || usage.getCacheReadTokens() > 0) {
-                sb.append(" (cache: ").append(usage.getCacheCreationTokens()).append(" created, ");
-                sb.append(usage.getCacheReadTokens()).append(" read)");
+            if (usage.hasCacheActivity()) {
+                sb.append(" (prompt cache: ").append(usage.getCacheReadTokens()).append(" read, ");
+                sb.append(usage.getCacheCreationTokens()).append(" written, ");
+                sb.append(usage.getPromptTokens()).append(" prompt total)");
             }
             sb.append("\n");
         }
         sb.append("Context: ").append(conversationMessageCount).append(" messages\n");
+        if (sourceCacheStats != null) {
+            sb.append("Source cache: ").append(sourceCacheStats).append("\n");
+        }
+        if (toolMemoHits > 0) {
+            sb.append("Tool memo: ").append(toolMemoHits).append(" of ").append(toolCallCount)
+                    .append(" tool calls answered from earlier rounds\n");
+        }
 
         // System prompt
-        if (systemPrompt != null && !systemPrompt.isEmpty()) {
-            sb.append("\n--- System Prompt (").append(systemPrompt.length()).append(" chars) ---\n");
-            sb.append(systemPrompt).append("\n");
+        String prompt = getSystemPrompt();
+        if (prompt != null && !prompt.isEmpty()) {
+            String hash = getSystemPromptHash();
+            sb.append("\n--- System Prompt (").append(prompt.length()).append(" chars")
+                    .append(hash != null ? ", " + hash : "").append(") ---\n");
+            if (withSystemPrompt) {
+                sb.append(prompt).append("\n");
+            } else {
+                sb.append("(same as above)\n");
+            }
         }
 
         // Conversation messages sent to LLM
-        if (conversationSnapshot != null && !conversationSnapshot.isEmpty()) {
+        String conversation = getConversationSnapshot();
+        if (conversation != null && !conversation.isEmpty()) {
             sb.append("\n--- Conversation Sent to LLM ---\n");
-            sb.append(conversationSnapshot);
+            sb.append(conversation);
         }
 
         // LLM response text
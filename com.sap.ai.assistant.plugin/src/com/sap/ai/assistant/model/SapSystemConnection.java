@@ -6,6 +6,9 @@ package com.sap.ai.assistant.model;
  */
 public class SapSystemConnection {
 
+    /** Default number of read-only tool calls that may run against the system at once. */
+    public static final int DEFAULT_MAX_PARALLEL_REQUESTS = 4;
+
     private String projectName;
     private String host;
     private int port;
@@ -14,6 +17,9 @@ public class SapSystemConnection {
     private String password;
     private boolean useSsl;
 
+    /** Maximum number of concurrent read-only ADT requests issued by the agent. */
+    private int maxParallelRequests = DEFAULT_MAX_PARALLEL_REQUESTS;
+
     /** ADT destination ID (used for credential lookup in Eclipse Secure Storage). */
     private String destinationId;
 
@@ -125,6 +131,14 @@ public class SapSystemConnection {
         this.useSsl = useSsl;
     }
 
+    public int getMaxParallelRequests() {
+        return maxParallelRequests;
+    }
+
+    public void setMaxParallelRequests(int maxParallelRequests) {
+        this.maxParallelRequests = maxParallelRequests;
+    }
+
     public String getDestinationId() {
         return destinationId;
     }
@@ -157,6 +171,7 @@ public class SapSystemConnection {
                 + ", client='" + client + "'"
                 + ", user='" + user + "'"
                 + ", useSsl=" + useSsl
+                + ", maxParallelRequests=" + maxParallelRequests
                 + "}";
     }
 }
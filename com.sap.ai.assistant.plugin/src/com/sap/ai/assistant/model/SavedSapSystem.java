@@ -20,6 +20,7 @@ public class SavedSapSystem {
     private String client;
     private String user;
     private boolean useSsl;
+    private int maxParallelRequests = SapSystemConnection.DEFAULT_MAX_PARALLEL_REQUESTS;
 
     public SavedSapSystem() {
     }
@@ -44,16 +45,21 @@ public class SavedSapSystem {
      * empty password (the caller must prompt for it).
      */
     public SapSystemConnection toConnection() {
-        return new SapSystemConnection(getDisplayName(), host, port, client, user, "", useSsl);
+        SapSystemConnection conn = new SapSystemConnection(
+                getDisplayName(), host, port, client, user, "", useSsl);
+        conn.setMaxParallelRequests(maxParallelRequests);
+        return conn;
     }
 
     /**
      * Creates a {@code SavedSapSystem} from a live connection, discarding the password.
      */
     public static SavedSapSystem fromConnection(SapSystemConnection conn) {
-        return new SavedSapSystem(
+        SavedSapSystem saved = new SavedSapSystem(
                 conn.getHost(), conn.getPort(), conn.getClient(),
                 conn.getUser(), conn.isUseSsl());
+        saved.setMaxParallelRequests(conn.getMaxParallelRequests());
+        return saved;
     }
 
     // -- Getters / Setters ---------------------------------------------------
@@ -121,6 +127,14 @@ public class SavedSapSystem {
         this.useSsl = useSsl;
     }
 
+    public int getMaxParallelRequests() {
+        return maxParallelRequests;
+    }
+
+    public void setMaxParallelRequests(int maxParallelRequests) {
+        this.maxParallelRequests = maxParallelRequests;
+    }
+
     // -- JSON serialization --------------------------------------------------
 
     private static final Gson GSON = new Gson();
@@ -137,6 +151,9 @@ public class SavedSapSystem {
             for (SavedSapSystem sys : list) {
                 sys.host = sanitizeHost(sys.host);
                 sys.useSsl = inferSsl(sys.port);
+                if (sys.maxParallelRequests <= 0) {
+                    sys.maxParallelRequests = SapSystemConnection.DEFAULT_MAX_PARALLEL_REQUESTS;
+                }
             }
             return list;
         } catch (Exception e) {
@@ -165,6 +182,7 @@ public class SavedSapSystem {
     public String toString() {
         return "SavedSapSystem{host='" + host + "', port=" + port
                 + ", client='" + client + "', user='" + user
-                + "', useSsl=" + useSsl + "}";
+                + "', useSsl=" + useSsl
+                + ", maxParallelRequests=" + maxParallelRequests + "}";
     }
 }
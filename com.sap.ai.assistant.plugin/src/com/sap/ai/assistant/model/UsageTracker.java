@@ -1,40 +1,136 @@
 package com.sap.ai.assistant.model;
 
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.text.SimpleDateFormat;
+import java.util.ArrayDeque;
 import java.util.ArrayList;
 import java.util.Collections;
+import java.util.Comparator;
+import java.util.Date;
+import java.util.HashSet;
 import java.util.List;
+import java.util.Set;
+import java.util.stream.Stream;
 
 /**
  * Accumulates {@link RequestLogEntry} objects for a session and provides
  * running totals for token usage.
+ * <p>
+ * Only the most recent entries are kept in memory, in a ring buffer of
+ * {@link #DEFAULT_CAPACITY} entries. If spilling is enabled with
+ * {@link #enableSpill()}, entries leaving the buffer are appended as text
+ * to a file under {@code ~/.sap-ai-assistant/logs/}, and {@link #toText()}
+ * includes them; otherwise they are dropped. Totals always cover all
+ * entries.
+ * </p>
  */
 public class UsageTracker {
 
-    private final List<RequestLogEntry> entries = new ArrayList<>();
+    /** Default number of entries kept in memory. */
+    public static final int DEFAULT_CAPACITY = 200;
+
+    /** Directory of the spill files. */
+    private static final Path SPILL_DIR =
+            Path.of(System.getProperty("user.home"), ".sap-ai-assistant", "logs");
+
+    /** Number of spill files kept from earlier sessions. */
+    private static final int MAX_SPILL_FILES = 10;
+
+    private final int capacity;
+    private final ArrayDeque<RequestLogEntry> entries;
+    private int requestCount;
     private int totalInputTokens;
     private int totalOutputTokens;
+    private int totalCacheReadTokens;
+    private int totalCacheWriteTokens;
+
+    private Path spillFile;
+    private int spilledCount;
+    /** Hashes of the system prompts already written to the spill file. */
+    private final Set<String> spilledPrompts = new HashSet<>();
+
+    public UsageTracker() {
+        this(DEFAULT_CAPACITY);
+    }
+
+    /**
+     * @param capacity number of entries kept in memory (at least 1)
+     */
+    public UsageTracker(int capacity) {
+        this.capacity = Math.max(1, capacity);
+        this.entries = new ArrayDeque<>(Math.min(this.capacity, 64));
+    }
+
+    /**
+     * Spill entries leaving the in-memory buffer to a new file for this
+     * session. Spill files of older sessions beyond the most recent few
+     * are deleted.
+     */
+    public synchronized void enableSpill() {
+        if (spillFile != null) {
+            return;
+        }
+        try {
+            Files.createDirectories(SPILL_DIR);
+            pruneSpillFiles();
+            String name = "requests-" + new SimpleDateFormat("yyyyMMdd-HHmmss").format(new Date())
+                    + "-" + Integer.toHexString(System.identityHashCode(this)) + ".log";
+            spillFile = SPILL_DIR.resolve(name);
+        } catch (IOException e) {
+            System.err.println("UsageTracker: cannot create log directory: " + e.getMessage());
+        }
+    }
 
     public synchronized void addEntry(RequestLogEntry entry) {
-        entries.add(entry);
+        entries.addLast(entry);
+        requestCount++;
         if (entry.getUsage() != null) {
             totalInputTokens += entry.getUsage().getInputTokens();
             totalOutputTokens += entry.getUsage().getOutputTokens();
+            totalCacheReadTokens += entry.getCacheReadTokens();
+            totalCacheWriteTokens += entry.getCacheWriteTokens();
+        }
+        while (entries.size() > capacity) {
+            spill(entries.removeFirst());
         }
     }
 
+    /**
+     * Returns the entries held in memory, oldest first.
+     */
     public synchronized List<RequestLogEntry> getEntries() {
         return Collections.unmodifiableList(new ArrayList<>(entries));
     }
 
+    public int getCapacity() { return capacity; }
     public synchronized int getTotalInputTokens() { return totalInputTokens; }
     public synchronized int getTotalOutputTokens() { return totalOutputTokens; }
+    public synchronized int getTotalCacheReadTokens() { return totalCacheReadTokens; }
+    public synchronized int getTotalCacheWriteTokens() { return totalCacheWriteTokens; }
     public synchronized int getTotalTokens() { return totalInputTokens + totalOutputTokens; }
-    public synchronized int getRequestCount() { return entries.size(); }
+    /** Returns the number of requests since the last clear, including evicted ones. */
+    public synchronized int getRequestCount() { return requestCount; }
 
     public synchronized void clear() {
         entries.clear();
+        requestCount = 0;
         totalInputTokens = 0;
         totalOutputTokens = 0;
+        totalCacheReadTokens = 0;
+        totalCacheWriteTokens = 0;
+        if (spillFile != null) {
+            try {
+                Files.deleteIfExists(spillFile);
+            } catch (IOException e) {
+                System.err.println("UsageTracker: failed to delete " + spillFile + ": " + e.getMessage());
+            }
+        }
+        spilledCount = 0;
+        spilledPrompts.clear();
     }
 
     /**
@@ -44,13 +140,62 @@ public class UsageTracker {
         StringBuilder sb = new StringBuilder();
         sb.append("SAP AI Assistant - Request Log\n");
         sb.append("========================================\n\n");
+        int dropped = requestCount - entries.size() - spilledCount;
+        if (spilledCount > 0) {
+            try {
+                sb.append(Files.readString(spillFile, StandardCharsets.UTF_8));
+            } catch (IOException e) {
+                sb.append("(").append(spilledCount).append(" earlier requests could not be read from ")
+                        .append(spillFile).append(")\n\n");
+            }
+        }
+        if (dropped > 0) {
+            sb.append("(").append(dropped).append(" earlier requests not kept)\n\n");
+        }
         for (RequestLogEntry entry : entries) {
             sb.append(entry.toDetailString()).append("\n");
         }
         sb.append("========================================\n");
-        sb.append("Total: ").append(entries.size()).append(" requests, ");
+        sb.append("Total: ").append(requestCount).append(" requests, ");
         sb.append(totalInputTokens).append(" input tokens, ");
-        sb.append(totalOutputTokens).append(" output tokens\n");
+        sb.append(totalOutputTokens).append(" output tokens");
+        if (totalCacheReadTokens > 0 || totalCacheWriteTokens > 0) {
+            sb.append(", ").append(totalCacheReadTokens).append(" cache read, ");
+            sb.append(totalCacheWriteTokens).append(" cache write tokens");
+        }
+        sb.append("\n");
         return sb.toString();
     }
+
+    // -- Internal helpers -----------------------------------------------------
+
+    private void spill(RequestLogEntry entry) {
+        if (spillFile == null) {
+            return;
+        }
+        // Each distinct system prompt is written once
+        String promptHash = entry.getSystemPromptHash();
+        boolean withPrompt = promptHash == null || spilledPrompts.add(promptHash);
+        try {
+            Files.writeString(spillFile, entry.toDetailString(withPrompt) + "\n", StandardCharsets.UTF_8,
+                    StandardOpenOption.CREATE, StandardOpenOption.APPEND);
+            spilledCount++;
+        } catch (IOException e) {
+            System.err.println("UsageTracker: failed to write " + spillFile + ": " + e.getMessage());
+        }
+    }
+
+    private static void pruneSpillFiles() {
+        try (Stream<Path> files = Files.list(SPILL_DIR)) {
+            List<Path> spills = files
+                    .filter(p -> p.getFileName().toString().startsWith("requests-"))
+                    .sorted(Comparator.comparing((Path p) -> p.getFileName().toString()).reversed())
+                    .toList();
+            for (int i = MAX_SPILL_FILES - 1; i < spills.size(); i++) {
+                Files.deleteIfExists(spills.get(i));
+            }
+        } catch (IOException e) {
+            System.err.println("UsageTracker: failed to prune " + SPILL_DIR + ": " + e.getMessage());
+        }
+    }
 }
@@ -31,6 +31,7 @@ import com.sap.ai.assistant.llm.LlmException;
 import com.sap.ai.assistant.mcp.McpClient;
 import com.sap.ai.assistant.mcp.McpServerConfig;
 import com.sap.ai.assistant.model.LlmProviderConfig;
+import com.sap.ai.assistant.model.SapSystemConnection;
 import com.sap.ai.assistant.model.SavedSapSystem;
 
 /**
@@ -51,6 +52,7 @@ public class AiAssistantPreferencePage extends PreferencePage
     private Combo researchModelCombo;
     private Spinner maxTokensSpinner;
     private Spinner maxInputTokensSpinner;
+    private Spinner contextTokensSpinner;
     private Button includeContextCheck;
     private Table sapSystemsTable;
     private List<SavedSapSystem> savedSapSystems = new ArrayList<>();
@@ -144,6 +146,17 @@ public class AiAssistantPreferencePage extends PreferencePage
         maxInputTokensSpinner.setLayoutData(new GridData(SWT.FILL, SWT.CENTER, true, false));
         maxInputTokensSpinner.setToolTipText("Maximum cumulative input tokens per agent run (budget limit)");
 
+        // Context tokens (per request)
+        new Label(llmGroup, SWT.NONE).setText("Context Window:");
+        contextTokensSpinner = new Spinner(llmGroup, SWT.BORDER);
+        contextTokensSpinner.setMinimum(4000);
+        contextTokensSpinner.setMaximum(1000000);
+        contextTokensSpinner.setIncrement(4000);
+        contextTokensSpinner.setPageIncrement(16000);
+        contextTokensSpinner.setLayoutData(new GridData(SWT.FILL, SWT.CENTER, true, false));
+        contextTokensSpinner.setToolTipText("Input tokens per LLM request; older tool results and "
+                + "messages are left out to stay within it");
+
         // -- Behaviour group --
         Group behaviourGroup = new Group(container, SWT.NONE);
         behaviourGroup.setText("Behaviour");
@@ -187,6 +200,11 @@ public class AiAssistantPreferencePage extends PreferencePage
         sslCol.setText("SSL");
         sslCol.setWidth(40);
 
+        TableColumn parallelCol = new TableColumn(sapSystemsTable, SWT.NONE);
+        parallelCol.setText("Parallel");
+        parallelCol.setWidth(60);
+        parallelCol.setToolTipText("Maximum read-only requests the agent runs concurrently");
+
         Composite sapButtons = new Composite(sapGroup, SWT.NONE);
         sapButtons.setLayout(new GridLayout(1, true));
         sapButtons.setLayoutData(new GridData(SWT.CENTER, SWT.TOP, false, false));
@@ -468,6 +486,10 @@ public class AiAssistantPreferencePage extends PreferencePage
         int maxInputTokens = store.getInt(PreferenceConstants.LLM_MAX_INPUT_TOKENS);
         maxInputTokensSpinner.setSelection(maxInputTokens > 0 ? maxInputTokens : 100000);
 
+        // Context tokens (per request)
+        int contextTokens = store.getInt(PreferenceConstants.LLM_CONTEXT_TOKENS);
+        contextTokensSpinner.setSelection(contextTokens > 0 ? contextTokens : 24000);
+
         // Include context
         includeContextCheck.setSelection(store.getBoolean(PreferenceConstants.INCLUDE_CONTEXT));
 
@@ -496,6 +518,7 @@ public class AiAssistantPreferencePage extends PreferencePage
             item.setText(2, sys.getClient());
             item.setText(3, sys.getUser() != null ? sys.getUser() : "");
             item.setText(4, sys.isUseSsl() ? "Yes" : "No");
+            item.setText(5, String.valueOf(sys.getMaxParallelRequests()));
         }
     }
 
@@ -524,6 +547,7 @@ public class AiAssistantPreferencePage extends PreferencePage
         store.setValue(PreferenceConstants.LLM_BASE_URL, baseUrlText.getText());
         store.setValue(PreferenceConstants.LLM_MAX_TOKENS, maxTokensSpinner.getSelection());
         store.setValue(PreferenceConstants.LLM_MAX_INPUT_TOKENS, maxInputTokensSpinner.getSelection());
+        store.setValue(PreferenceConstants.LLM_CONTEXT_TOKENS, contextTokensSpinner.getSelection());
         store.setValue(PreferenceConstants.INCLUDE_CONTEXT, includeContextCheck.getSelection());
 
         // Sync enabled state from table checkboxes
@@ -546,6 +570,7 @@ public class AiAssistantPreferencePage extends PreferencePage
         baseUrlText.setText("");
         maxTokensSpinner.setSelection(8192);
         maxInputTokensSpinner.setSelection(100000);
+        contextTokensSpinner.setSelection(24000);
         includeContextCheck.setSelection(true);
 
         // Reset saved SAP systems
@@ -582,6 +607,7 @@ public class AiAssistantPreferencePage extends PreferencePage
         private Text urlText;
         private Text clientText;
         private Text userText;
+        private Spinner parallelSpinner;
 
         private SavedSapSystem result;
 
@@ -632,6 +658,16 @@ public class AiAssistantPreferencePage extends PreferencePage
             userText = new Text(container, SWT.BORDER);
             userText.setLayoutData(new GridData(SWT.FILL, SWT.CENTER, true, false));
 
+            // Parallel read requests
+            Label parallelLabel = new Label(container, SWT.NONE);
+            parallelLabel.setText("Parallel requests:");
+            parallelSpinner = new Spinner(container, SWT.BORDER);
+            parallelSpinner.setMinimum(1);
+            parallelSpinner.setMaximum(16);
+            parallelSpinner.setSelection(SapSystemConnection.DEFAULT_MAX_PARALLEL_REQUESTS);
+            parallelSpinner.setToolTipText(
+                    "Maximum read-only tool calls the agent sends to this system at once (1 = sequential)");
+
             return area;
         }
 
@@ -698,6 +734,7 @@ public class AiAssistantPreferencePage extends PreferencePage
             }
 
             result = new SavedSapSystem(host, port, client, user, useSsl);
+            result.setMaxParallelRequests(parallelSpinner.getSelection());
             super.okPressed();
         }
 
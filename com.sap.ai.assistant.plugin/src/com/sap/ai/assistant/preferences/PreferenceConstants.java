@@ -27,6 +27,9 @@ public final class PreferenceConstants {
     /** Maximum cumulative input tokens per agent run (token budget). */
     public static final String LLM_MAX_INPUT_TOKENS = "com.sap.ai.assistant.llm.maxInputTokens";
 
+    /** Target size of a single LLM request in input tokens (context window used per request). */
+    public static final String LLM_CONTEXT_TOKENS = "com.sap.ai.assistant.llm.contextTokens";
+
     /** Whether to include the current editor context in prompts. */
     public static final String INCLUDE_CONTEXT = "com.sap.ai.assistant.includeContext";
 
@@ -23,6 +23,7 @@ public class PreferenceInitializer extends AbstractPreferenceInitializer {
         store.setDefault(PreferenceConstants.LLM_BASE_URL, "");
         store.setDefault(PreferenceConstants.LLM_MAX_TOKENS, 8192);
         store.setDefault(PreferenceConstants.LLM_MAX_INPUT_TOKENS, 100000);
+        store.setDefault(PreferenceConstants.LLM_CONTEXT_TOKENS, 24000);
         store.setDefault(PreferenceConstants.INCLUDE_CONTEXT, true);
         store.setDefault(PreferenceConstants.MCP_SERVERS,
                 "[{\"name\":\"SAP Docs\",\"url\":\"https://mcp-sap-docs.marianzeis.de/mcp\",\"enabled\":true}]");
@@ -0,0 +1,743 @@
+package com.sap.ai.assistant.sap;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.net.URLEncoder;
+import java.net.http.HttpResponse;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.regex.Pattern;
+import java.util.stream.Stream;
+
+import com.google.gson.Gson;
+import com.google.gson.JsonArray;
+import com.google.gson.JsonElement;
+import com.google.gson.JsonObject;
+import com.google.gson.reflect.TypeToken;
+import com.sap.ai.assistant.util.Hashes;
+
+/**
+ * Per-system index of ABAP repository object names (name, type, package,
+ * URI and description) used to answer object lookups without a server
+ * round trip.
+ * <p>
+ * The index only knows objects it has seen: it is filled from the results
+ * of {@code sap_search_object} and from a background crawl of the packages
+ * those results belong to (see {@link #crawlInBackground}). Lookups are
+ * served from a sorted in-memory map, so prefix completion costs a map
+ * range scan and fuzzy completion one pass over the names.
+ * </p>
+ * <p>
+ * Entries are journaled to
+ * {@code ~/.sap-ai-assistant/cache/index/<system>/objects.jsonl} (one JSON
+ * line per added or removed object, later lines win) so the index survives
+ * Eclipse restarts. The journal is rewritten when it grows well beyond the
+ * live entries. Objects deleted through {@link AdtRestClient#delete} are
+ * removed. Changes are applied in memory at once and written by a
+ * background thread, so lookups never wait for the disk.
+ * </p>
+ * <p>
+ * One instance exists per SAP system and client; obtain it with
+ * {@link #forSystem(String, String)}. All methods are thread-safe.
+ * </p>
+ */
+public class AdtObjectIndex {
+
+    /** Base directory for all persisted indexes. */
+    private static final Path INDEX_ROOT =
+            Path.of(System.getProperty("user.home"), ".sap-ai-assistant", "cache", "index");
+
+    /** Upper bound for the objects held per system. */
+    private static final int MAX_ENTRIES = 200_000;
+
+    /** Packages crawled per {@link #crawlInBackground} call, including subpackages. */
+    private static final int MAX_PACKAGES_PER_CRAWL = 50;
+
+    /** A package is not crawled again within this interval. */
+    private static final long RECRAWL_INTERVAL_MS = 24L * 60 * 60 * 1000;
+
+    private static final Gson GSON = new Gson();
+
+    private static final Map<String, AdtObjectIndex> INSTANCES = new ConcurrentHashMap<>();
+
+    /** One daemon thread for loading and crawling all indexes. */
+    private static final ExecutorService WORKER = Executors.newSingleThreadExecutor(r -> {
+        Thread t = new Thread(r, "AdtObjectIndex-worker");
+        t.setDaemon(true);
+        return t;
+    });
+
+    /** One daemon thread that writes the files of all indexes, in order. */
+    private static final ExecutorService WRITER = Executors.newSingleThreadExecutor(r -> {
+        Thread t = new Thread(r, "AdtObjectIndex-writer");
+        t.setDaemon(true);
+        return t;
+    });
+
+    private final Path directory;
+    private final Path journal;
+    private final Path packagesFile;
+
+    /** Entries by normalised URI. */
+    private final Map<String, Entry> byUri = new HashMap<>();
+    /** Entries by upper-case name, sorted for prefix lookups. */
+    private final TreeMap<String, List<Entry>> byName = new TreeMap<>();
+    /** Last crawl time per package name. */
+    private final Map<String, Long> crawledPackages = new HashMap<>();
+    /** Packages queued for a crawl that has not run yet. */
+    private final Set<String> pendingPackages = new HashSet<>();
+
+    private int journalLines;
+    private volatile boolean loaded;
+
+    /**
+     * An indexed repository object.
+     */
+    public static class Entry {
+        private final String name;
+        private final String type;
+        private final String packageName;
+        private final String uri;
+        private final String description;
+
+        public Entry(String name, String type, String packageName, String uri, String description) {
+            this.name = name.toUpperCase(Locale.ROOT);
+            this.type = type != null ? type : "";
+            this.packageName = packageName != null ? packageName.toUpperCase(Locale.ROOT) : "";
+            this.uri = uri;
+            this.description = description != null ? description : "";
+        }
+
+        public String getName() { return name; }
+        public String getType() { return type; }
+        public String getPackageName() { return packageName; }
+        public String getUri() { return uri; }
+        public String getDescription() { return description; }
+
+        /**
+         * Returns the entry in the shape of {@link AdtXmlParser#parseSearchResults}.
+         */
+        public JsonObject toJson() {
+            JsonObject obj = new JsonObject();
+            obj.addProperty("name", name);
+            obj.addProperty("type", type);
+            obj.addProperty("uri", uri);
+            obj.addProperty("description", description);
+            obj.addProperty("packageName", packageName);
+            return obj;
+        }
+
+        @Override
+        public String toString() {
+            return name + " (" + type + ")";
+        }
+    }
+
+    AdtObjectIndex(Path directory) {
+        this.directory = directory;
+        this.journal = directory.resolve("objects.jsonl");
+        this.packagesFile = directory.resolve("packages.json");
+    }
+
+    /**
+     * Returns the shared index for the given system. The persisted entries
+     * are loaded in the background; until then lookups see an empty index.
+     *
+     * @param baseUrl   the system base URL, e.g. {@code https://host:44300}
+     * @param sapClient the SAP client number
+     * @return the index instance (never {@code null})
+     */
+    public static AdtObjectIndex forSystem(String baseUrl, String sapClient) {
+        String base = baseUrl.endsWith("/") ? baseUrl.substring(0, baseUrl.length() - 1) : baseUrl;
+        String systemId = base.toLowerCase(Locale.ROOT) + "|" + sapClient;
+        return INSTANCES.computeIfAbsent(systemId, id -> {
+            AdtObjectIndex index = new AdtObjectIndex(INDEX_ROOT.resolve(Hashes.shortHash(id)));
+            WORKER.execute(index::load);
+            return index;
+        });
+    }
+
+    // ---------------------------------------------------------------
+    // Updates
+    // ---------------------------------------------------------------
+
+    /**
+     * Adds or updates objects from a JSON array shaped like the result of
+     * {@link AdtXmlParser#parseSearchResults} (name, type, uri, description,
+     * packageName). Elements without name or URI are ignored.
+     *
+     * @param results the objects to index
+     * @return the number of new or changed entries
+     */
+    public int addAll(JsonArray results) {
+        List<Entry> entries = new ArrayList<>();
+        for (JsonElement el : results) {
+            if (!el.isJsonObject()) {
+                continue;
+            }
+            JsonObject obj = el.getAsJsonObject();
+            String name = string(obj, "name");
+            String uri = string(obj, "uri");
+            if (name.isEmpty() || uri.isEmpty()) {
+                continue;
+            }
+            entries.add(new Entry(name, string(obj, "type"), string(obj, "packageName"), uri,
+                    string(obj, "description")));
+        }
+        return addEntries(entries);
+    }
+
+    /**
+     * Adds or updates the given entries and journals the changes.
+     *
+     * @return the number of new or changed entries
+     */
+    public synchronized int addEntries(Collection<Entry> entries) {
+        List<Entry> changed = new ArrayList<>();
+        for (Entry entry : entries) {
+            Entry previous = byUri.get(uriKey(entry.uri));
+            // Keep a known package when the new source does not carry one
+            if (previous != null && entry.packageName.isEmpty() && !previous.packageName.isEmpty()) {
+                entry = new Entry(entry.name, entry.type, previous.packageName, entry.uri,
+                        entry.description.isEmpty() ? previous.description : entry.description);
+            }
+            if (previous != null && sameAs(previous, entry)) {
+                continue;
+            }
+            if (previous == null && byUri.size() >= MAX_ENTRIES) {
+                break;
+            }
+            put(entry);
+            changed.add(entry);
+        }
+        if (!changed.isEmpty()) {
+            appendToJournal(changed, null);
+        }
+        return changed.size();
+    }
+
+    /**
+     * Removes the object addressed by {@code path}. Any ADT URL of the object
+     * may be given (object URL or source URL, with or without query string).
+     *
+     * @param path an ADT path of the deleted object
+     */
+    public synchronized void remove(String path) {
+        if (path == null) {
+            return;
+        }
+        Entry entry = byUri.remove(uriKey(path));
+        if (entry == null) {
+            return;
+        }
+        unlinkName(entry);
+        appendToJournal(Collections.emptyList(), entry.uri);
+    }
+
+    /** Drops every indexed object of this system, in memory and on disk. */
+    public synchronized void clear() {
+        byUri.clear();
+        byName.clear();
+        crawledPackages.clear();
+        journalLines = 0;
+        WRITER.execute(() -> {
+            try {
+                Files.deleteIfExists(journal);
+                Files.deleteIfExists(packagesFile);
+            } catch (IOException e) {
+                System.err.println("AdtObjectIndex: failed to clear " + directory + ": " + e.getMessage());
+            }
+        });
+    }
+
+    // ---------------------------------------------------------------
+    // Lookup
+    // ---------------------------------------------------------------
+
+    /**
+     * Looks up objects with the semantics of the ADT quick search: without
+     * wildcards the query is an exact name, {@code *} matches any sequence
+     * and {@code ?} a single character.
+     *
+     * @param query   the name pattern (case-insensitive)
+     * @param objType optional type filter, e.g. {@code CLAS/OC} or {@code CLAS}
+     * @param max     maximum number of results
+     * @return the matching entries, sorted by name
+     */
+    public synchronized List<Entry> search(String query, String objType, int max) {
+        List<Entry> result = new ArrayList<>();
+        String q = query.trim().toUpperCase(Locale.ROOT);
+        int wildcard = firstWildcard(q);
+        if (wildcard < 0) {
+            for (Entry entry : byName.getOrDefault(q, Collections.emptyList())) {
+                if (matchesType(entry, objType) && result.size() < max) {
+                    result.add(entry);
+                }
+            }
+            return result;
+        }
+
+        String prefix = q.substring(0, wildcard);
+        Pattern pattern = wildcardPattern(q);
+        for (Map.Entry<String, List<Entry>> e : namesWithPrefix(prefix).entrySet()) {
+            if (!pattern.matcher(e.getKey()).matches()) {
+                continue;
+            }
+            for (Entry entry : e.getValue()) {
+                if (matchesType(entry, objType)) {
+                    result.add(entry);
+                    if (result.size() >= max) {
+                        return result;
+                    }
+                }
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Returns completion candidates for typed text: names starting with the
+     * text first (shortest first), then names containing it, then names
+     * containing its characters in order.
+     *
+     * @param text the typed text (case-insensitive)
+     * @param max  maximum number of results
+     * @return the best matches, best first
+     */
+    public synchronized List<Entry> complete(String text, int max) {
+        String q = text.trim().toUpperCase(Locale.ROOT);
+        List<Entry> result = new ArrayList<>();
+        if (q.isEmpty() || max <= 0) {
+            return result;
+        }
+
+        List<String> prefixed = new ArrayList<>(namesWithPrefix(q).keySet());
+        prefixed.sort((a, b) -> a.length() != b.length()
+                ? Integer.compare(a.length(), b.length()) : a.compareTo(b));
+        for (String name : prefixed) {
+            for (Entry entry : byName.get(name)) {
+                result.add(entry);
+                if (result.size() >= max) {
+                    return result;
+                }
+            }
+        }
+
+        // Fuzzy tier: one pass over all names, ranked by match quality
+        Map<String, Integer> scores = new HashMap<>();
+        for (String name : byName.keySet()) {
+            if (name.startsWith(q)) {
+                continue;
+            }
+            int score = fuzzyScore(name, q);
+            if (score >= 0) {
+                scores.put(name, score);
+            }
+        }
+        List<String> fuzzy = new ArrayList<>(scores.keySet());
+        fuzzy.sort((a, b) -> {
+            int cmp = Integer.compare(scores.get(a), scores.get(b));
+            return cmp != 0 ? cmp : a.compareTo(b);
+        });
+        for (String name : fuzzy) {
+            for (Entry entry : byName.get(name)) {
+                result.add(entry);
+                if (result.size() >= max) {
+                    return result;
+                }
+            }
+        }
+        return result;
+    }
+
+    /** Returns the number of indexed objects. */
+    public synchronized int size() {
+        return byUri.size();
+    }
+
+    /** Returns whether the persisted entries have been loaded. */
+    public boolean isLoaded() {
+        return loaded;
+    }
+
+    // ---------------------------------------------------------------
+    // Package crawl
+    // ---------------------------------------------------------------
+
+    /**
+     * Indexes the contents of the given packages and their subpackages in
+     * the background, using the ADT node structure service. Packages
+     * crawled within the last day are skipped; at most
+     * {@link #MAX_PACKAGES_PER_CRAWL} packages are read per call.
+     *
+     * @param client   the client to read the packages with
+     * @param packages package names (blank names are ignored)
+     */
+    public void crawlInBackground(AdtRestClient client, Collection<String> packages) {
+        List<String> queued = new ArrayList<>();
+        synchronized (this) {
+            long now = System.currentTimeMillis();
+            for (String pkg : packages) {
+                if (pkg == null || pkg.isBlank()) {
+                    continue;
+                }
+                String name = pkg.toUpperCase(Locale.ROOT);
+                Long last = crawledPackages.get(name);
+                if ((last == null || now - last > RECRAWL_INTERVAL_MS) && pendingPackages.add(name)) {
+                    queued.add(name);
+                }
+            }
+        }
+        if (!queued.isEmpty()) {
+            WORKER.execute(() -> crawl(client, queued));
+        }
+    }
+
+    private void crawl(AdtRestClient client, List<String> roots) {
+        Deque<String> queue = new ArrayDeque<>(roots);
+        Set<String> seen = new LinkedHashSet<>(roots);
+        int crawled = 0;
+        int indexed = 0;
+        while (!queue.isEmpty() && crawled < MAX_PACKAGES_PER_CRAWL) {
+            String pkg = queue.poll();
+            try {
+                List<Entry> entries = new ArrayList<>();
+                for (JsonElement el : readPackage(client, pkg)) {
+                    JsonObject node = el.getAsJsonObject();
+                    String name = string(node, "name");
+                    String type = string(node, "type");
+                    String uri = string(node, "uri");
+                    if (name.isEmpty() || uri.isEmpty()) {
+                        continue;
+                    }
+                    if (type.startsWith("DEVC")) {
+                        String sub = name.toUpperCase(Locale.ROOT);
+                        if (seen.add(sub) && !crawledRecently(sub)) {
+                            queue.add(sub);
+                        }
+                    }
+                    entries.add(new Entry(name, type, pkg, uri, string(node, "description")));
+                }
+                indexed += addEntries(entries);
+                markCrawled(pkg);
+                crawled++;
+            } catch (Exception e) {
+                System.err.println("AdtObjectIndex: crawl of package " + pkg + " failed: " + e.getMessage());
+            }
+        }
+        synchronized (this) {
+            pendingPackages.removeAll(roots);
+            savePackages();
+        }
+        System.out.println("AdtObjectIndex: crawled " + crawled + " packages, "
+                + indexed + " new or changed objects (" + size() + " indexed)");
+    }
+
+    private JsonArray readPackage(AdtRestClient client, String pkg) throws Exception {
+        String path = "/sap/bc/adt/repository/nodestructure?parent_type=DEVC%2FK&parent_name="
+                + URLEncoder.encode(pkg, StandardCharsets.UTF_8) + "&withShortDescriptions=true";
+        HttpResponse<String> response = client.post(path, "", "application/*", "application/*");
+        return AdtXmlParser.parseNodeContents(response.body()).getAsJsonArray("nodes");
+    }
+
+    private synchronized boolean crawledRecently(String pkg) {
+        Long last = crawledPackages.get(pkg);
+        return last != null && System.currentTimeMillis() - last <= RECRAWL_INTERVAL_MS;
+    }
+
+    private synchronized void markCrawled(String pkg) {
+        crawledPackages.put(pkg, System.currentTimeMillis());
+    }
+
+    // ---------------------------------------------------------------
+    // Persistence
+    // ---------------------------------------------------------------
+
+    private void load() {
+        try {
+            Map<String, Long> packages = null;
+            if (Files.isRegularFile(packagesFile)) {
+                packages = GSON.fromJson(Files.readString(packagesFile, StandardCharsets.UTF_8),
+                        new TypeToken<Map<String, Long>>() { }.getType());
+            }
+            // Parse outside the lock so lookups are not blocked by the disk read
+            List<JournalLine> lines = new ArrayList<>();
+            if (Files.isRegularFile(journal)) {
+                try (Stream<String> stream = Files.lines(journal, StandardCharsets.UTF_8)) {
+                    stream.forEach(line -> lines.add(parseLine(line)));
+                }
+            }
+            synchronized (this) {
+                if (packages != null) {
+                    packages.forEach(crawledPackages::putIfAbsent);
+                }
+                // Objects indexed while the journal was being read are newer
+                Set<String> live = new HashSet<>(byUri.keySet());
+                for (JournalLine line : lines) {
+                    replay(line, live);
+                }
+                // Rewrite the journal once superseded lines dominate it
+                if (journalLines > 2 * byUri.size() + 1000) {
+                    rewriteJournal();
+                }
+            }
+            if (!lines.isEmpty()) {
+                System.out.println("AdtObjectIndex: loaded " + size() + " objects from " + journal);
+            }
+        } catch (Exception e) {
+            System.err.println("AdtObjectIndex: failed to load " + directory + ": " + e.getMessage());
+        } finally {
+            loaded = true;
+        }
+    }
+
+    private static JournalLine parseLine(String line) {
+        if (line.isBlank()) {
+            return null;
+        }
+        try {
+            return GSON.fromJson(line, JournalLine.class);
+        } catch (Exception e) {
+            // A torn last line after a crash: skip it
+            return null;
+        }
+    }
+
+    /** Applies one journal line unless its object is in {@code live}. */
+    private void replay(JournalLine j, Set<String> live) {
+        journalLines++;
+        if (j == null || j.uri == null || live.contains(uriKey(j.uri))) {
+            return;
+        }
+        String key = uriKey(j.uri);
+        if (j.removed) {
+            Entry entry = byUri.remove(key);
+            if (entry != null) {
+                unlinkName(entry);
+            }
+        } else if (j.name != null && byUri.size() < MAX_ENTRIES) {
+            put(new Entry(j.name, j.type, j.packageName, j.uri, j.description));
+        }
+    }
+
+    /**
+     * Queues journal lines for the changed entries. Called with the lock
+     * held, so the lines are written in the order of the changes.
+     */
+    private void appendToJournal(List<Entry> entries, String removedUri) {
+        List<String> lines = new ArrayList<>();
+        for (Entry entry : entries) {
+            lines.add(GSON.toJson(JournalLine.of(entry)));
+        }
+        if (removedUri != null) {
+            JournalLine removed = new JournalLine();
+            removed.uri = removedUri;
+            removed.removed = true;
+            lines.add(GSON.toJson(removed));
+        }
+        WRITER.execute(() -> {
+            try {
+                Files.createDirectories(directory);
+                try (BufferedWriter writer = Files.newBufferedWriter(journal, StandardCharsets.UTF_8,
+                        StandardOpenOption.CREATE, StandardOpenOption.APPEND)) {
+                    for (String line : lines) {
+                        writer.write(line);
+                        writer.newLine();
+                    }
+                }
+                synchronized (this) {
+                    journalLines += lines.size();
+                }
+            } catch (IOException e) {
+                System.err.println("AdtObjectIndex: failed to write " + journal + ": " + e.getMessage());
+            }
+        });
+    }
+
+    /** Queues a rewrite of the journal with one line per live entry. Called with the lock held. */
+    private void rewriteJournal() {
+        List<String> lines = new ArrayList<>(byUri.size());
+        for (Entry entry : byUri.values()) {
+            lines.add(GSON.toJson(JournalLine.of(entry)));
+        }
+        WRITER.execute(() -> {
+            Path tmp = directory.resolve("objects.jsonl.tmp");
+            try (BufferedWriter writer = Files.newBufferedWriter(tmp, StandardCharsets.UTF_8)) {
+                for (String line : lines) {
+                    writer.write(line);
+                    writer.newLine();
+                }
+            } catch (IOException e) {
+                System.err.println("AdtObjectIndex: failed to compact " + journal + ": " + e.getMessage());
+                return;
+            }
+            try {
+                Files.move(tmp, journal, StandardCopyOption.REPLACE_EXISTING);
+                synchronized (this) {
+                    journalLines = lines.size();
+                }
+            } catch (IOException e) {
+                System.err.println("AdtObjectIndex: failed to compact " + journal + ": " + e.getMessage());
+            }
+        });
+    }
+
+    /** Queues a write of the crawl times. Called with the lock held. */
+    private void savePackages() {
+        String json = GSON.toJson(crawledPackages);
+        WRITER.execute(() -> {
+            try {
+                Files.createDirectories(directory);
+                Files.writeString(packagesFile, json, StandardCharsets.UTF_8);
+            } catch (IOException e) {
+                System.err.println("AdtObjectIndex: failed to write " + packagesFile + ": " + e.getMessage());
+            }
+        });
+    }
+
+    /** One journal line: an entry, or a removal marker. */
+    private static class JournalLine {
+        String name;
+        String type;
+        String packageName;
+        String uri;
+        String description;
+        boolean removed;
+
+        static JournalLine of(Entry entry) {
+            JournalLine j = new JournalLine();
+            j.name = entry.name;
+            j.type = entry.type;
+            j.packageName = entry.packageName;
+            j.uri = entry.uri;
+            j.description = entry.description;
+            return j;
+        }
+    }
+
+    // ---------------------------------------------------------------
+    // Private helpers
+    // ---------------------------------------------------------------
+
+    private void put(Entry entry) {
+        Entry previous = byUri.put(uriKey(entry.uri), entry);
+        if (previous != null) {
+            unlinkName(previous);
+        }
+        byName.computeIfAbsent(entry.name, k -> new ArrayList<>(1)).add(entry);
+    }
+
+    private void unlinkName(Entry entry) {
+        List<Entry> sameName = byName.get(entry.name);
+        if (sameName != null) {
+            sameName.remove(entry);
+            if (sameName.isEmpty()) {
+                byName.remove(entry.name);
+            }
+        }
+    }
+
+    private Map<String, List<Entry>> namesWithPrefix(String prefix) {
+        if (prefix.isEmpty()) {
+            return byName;
+        }
+        return byName.subMap(prefix, true, prefix + Character.MAX_VALUE, false);
+    }
+
+    private static boolean sameAs(Entry a, Entry b) {
+        return a.name.equals(b.name) && a.type.equals(b.type) && a.packageName.equals(b.packageName)
+                && a.uri.equals(b.uri) && a.description.equals(b.description);
+    }
+
+    private static boolean matchesType(Entry entry, String objType) {
+        if (objType == null || objType.isEmpty()) {
+            return true;
+        }
+        String type = entry.type.toUpperCase(Locale.ROOT);
+        String wanted = objType.toUpperCase(Locale.ROOT);
+        return type.equals(wanted) || type.startsWith(wanted + "/");
+    }
+
+    /**
+     * Scores how well {@code name} matches {@code q}: lower is better, -1
+     * means no match. Substring matches rank before in-order character
+     * matches; earlier and tighter matches rank first.
+     */
+    static int fuzzyScore(String name, String q) {
+        int idx = name.indexOf(q);
+        if (idx >= 0) {
+            return idx;
+        }
+        int gaps = 0;
+        int pos = 0;
+        int last = -1;
+        for (int i = 0; i < q.length(); i++) {
+            pos = name.indexOf(q.charAt(i), pos);
+            if (pos < 0) {
+                return -1;
+            }
+            if (last >= 0) {
+                gaps += pos - last - 1;
+            }
+            last = pos++;
+        }
+        return 1000 + gaps;
+    }
+
+    private static int firstWildcard(String q) {
+        for (int i = 0; i < q.length(); i++) {
+            char c = q.charAt(i);
+            if (c == '*' || c == '?') {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    private static Pattern wildcardPattern(String q) {
+        StringBuilder regex = new StringBuilder();
+        int start = 0;
+        for (int i = 0; i < q.length(); i++) {
+            char c = q.charAt(i);
+            if (c == '*' || c == '?') {
+                if (i > start) {
+                    regex.append(Pattern.quote(q.substring(start, i)));
+                }
+                regex.append(c == '*' ? ".*" : ".");
+                start = i + 1;
+            }
+        }
+        if (start < q.length()) {
+            regex.append(Pattern.quote(q.substring(start)));
+        }
+        return Pattern.compile(regex.toString());
+    }
+
+    private static String uriKey(String path) {
+        return AdtSourceCache.objectPathOf(path);
+    }
+
+    private static String string(JsonObject obj, String key) {
+        JsonElement el = obj.get(key);
+        return el != null && el.isJsonPrimitive() ? el.getAsString() : "";
+    }
+}
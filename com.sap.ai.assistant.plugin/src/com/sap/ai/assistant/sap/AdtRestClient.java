@@ -15,6 +15,13 @@ import java.security.cert.X509Certificate;
 import java.time.Duration;
 import java.util.Base64;
 import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.UnaryOperator;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
 
 import javax.net.ssl.SSLContext;
 import javax.net.ssl.TrustManager;
@@ -24,7 +31,18 @@ import javax.net.ssl.X509TrustManager;
  * Core HTTP client for SAP ADT (ABAP Development Tools) REST APIs.
  * <p>
  * Handles CSRF token management, session cookies, Basic authentication,
- * and automatic retry on 403 (stale CSRF token).
+ * and automatic retry on 403 (stale CSRF token). Source code reads go
+ * through the per-system {@link AdtSourceCache} and are revalidated with
+ * conditional requests. Objects found on the system are remembered in the
+ * per-system {@link AdtObjectIndex}.
+ * </p>
+ * <p>
+ * All requests are sent with {@link HttpClient#sendAsync}. The
+ * {@code *Async} methods return the pending response, so several requests
+ * can be in flight without a thread waiting for each; cancelling the
+ * returned future aborts the exchange. The blocking methods wait for their
+ * async counterpart and cancel it when the waiting thread is interrupted,
+ * e.g. when the agent job is cancelled.
  * </p>
  * <p>
  * Usage:
@@ -44,6 +62,8 @@ public class AdtRestClient {
     public static final String SESSION_TYPE_HEADER = "X-sap-adt-sessiontype";
     private static final String DISCOVERY_PATH = "/sap/bc/adt/core/discovery";
     private static final Duration REQUEST_TIMEOUT = Duration.ofSeconds(60);
+    private static final String ACTIVATION_PATH = "/sap/bc/adt/activation";
+    private static final Pattern ADTCORE_URI_PATTERN = Pattern.compile("adtcore:uri=\"([^\"]+)\"");
 
     private final String baseUrl;
     private final String username;
@@ -52,8 +72,10 @@ public class AdtRestClient {
     private final String language;
     private final HttpClient httpClient;
     private final CookieManager cookieManager;
+    private final AdtSourceCache sourceCache;
+    private final AdtObjectIndex objectIndex;
 
-    private String csrfToken;
+    private volatile String csrfToken;
     private boolean loggedIn;
 
     /** When true, login() was pre-authenticated and should only fetch CSRF token if needed. */
@@ -97,6 +119,8 @@ public class AdtRestClient {
         }
 
         this.httpClient = builder.build();
+        this.sourceCache = AdtSourceCache.forSystem(this.baseUrl, sapClient);
+        this.objectIndex = AdtObjectIndex.forSystem(this.baseUrl, sapClient);
     }
 
     /**
@@ -157,6 +181,8 @@ public class AdtRestClient {
         }
 
         this.httpClient = builder.build();
+        this.sourceCache = AdtSourceCache.forSystem(this.baseUrl, sapClient);
+        this.objectIndex = AdtObjectIndex.forSystem(this.baseUrl, sapClient);
     }
 
     // ---------------------------------------------------------------
@@ -230,8 +256,18 @@ public class AdtRestClient {
         loggedIn = true;
     }
 
+    // ---------------------------------------------------------------
+    // Requests
+    // ---------------------------------------------------------------
+
     /**
      * Perform a GET request.
+     * <p>
+     * Plain-text source reads are served from the {@link AdtSourceCache}
+     * when the server confirms with {@code 304 Not Modified} that the cached
+     * copy is still current; the caller always receives a {@code 200}
+     * response with the full body.
+     * </p>
      *
      * @param path   ADT path, e.g. "/sap/bc/adt/programs/programs/ztest"
      * @param accept MIME type for the Accept header
@@ -239,6 +275,19 @@ public class AdtRestClient {
      * @throws Exception on network or HTTP errors
      */
     public HttpResponse<String> get(String path, String accept) throws Exception {
+        return await(getAsync(path, accept, null));
+    }
+
+    /**
+     * Perform a GET request without blocking. Source reads use the
+     * {@link AdtSourceCache} like {@link #get}.
+     *
+     * @param path    ADT path
+     * @param accept  MIME type for the Accept header
+     * @param timeout time to wait for the response, or {@code null} for the default
+     * @return the pending response; fails with an {@link IOException} on HTTP errors
+     */
+    public CompletableFuture<HttpResponse<String>> getAsync(String path, String accept, Duration timeout) {
         String url = buildUrl(path);
 
         HttpRequest.Builder builder = HttpRequest.newBuilder()
@@ -246,44 +295,110 @@ public class AdtRestClient {
                 .header("Authorization", basicAuthHeader())
                 .header("Accept", accept)
                 .header("Accept-Language", language)
-                .timeout(REQUEST_TIMEOUT)
+                .timeout(timeout != null ? timeout : REQUEST_TIMEOUT)
                 .GET();
 
         if (csrfToken != null) {
             builder.header(CSRF_TOKEN_HEADER, csrfToken);
         }
 
-        return executeWithCsrfRetry(builder);
+        if (!AdtSourceCache.isCacheable(path, accept)) {
+            return sendAsync(builder, HttpResponse.BodyHandlers.ofString(), false, null);
+        }
+
+        String key = AdtSourceCache.keyOf(url, accept);
+        boolean prefetched = sourceCache.takePrefetched(key);
+        String objectPath = AdtSourceCache.objectPathOf(normalizeAdtPath(path));
+        AdtSourceCache.Entry cached = sourceCache.lookup(key, objectPath);
+        if (cached != null) {
+            AdtSourceCache.addValidators(builder, cached);
+        }
+
+        return sendAsync(builder, HttpResponse.BodyHandlers.ofString(), cached != null, response -> {
+            if (response.statusCode() == 304) {
+                return sourceCache.hit(cached, response, prefetched);
+            }
+            sourceCache.miss();
+            sourceCache.store(key, objectPath, response);
+            return response;
+        });
     }
 
     /**
-     * Perform a POST request.
+     * Perform a GET request without blocking and hand the body to the given
+     * handler as it arrives, e.g. {@code BodyHandlers.ofLines()} or
+     * {@code ofInputStream()} for large results. Responses are not cached.
      *
-     * @param path        ADT path
-     * @param body        request body (may be empty string for body-less POSTs)
-     * @param contentType Content-Type header value
-     * @param accept      Accept header value
-     * @return the HTTP response
-     * @throws Exception on network or HTTP errors
+     * @param path    ADT path
+     * @param accept  MIME type for the Accept header
+     * @param handler the body handler
+     * @param timeout time to wait for the response headers, or {@code null} for the default
+     * @return the pending response; fails with an {@link IOException} on HTTP errors
      */
-    public HttpResponse<String> post(String path, String body,
-                                     String contentType, String accept) throws Exception {
-        String url = buildUrl(path);
-
+    public <T> CompletableFuture<HttpResponse<T>> getAsync(String path, String accept,
+                                                           HttpResponse.BodyHandler<T> handler,
+                                                           Duration timeout) {
         HttpRequest.Builder builder = HttpRequest.newBuilder()
-                .uri(URI.create(url))
+                .uri(URI.create(buildUrl(path)))
                 .header("Authorization", basicAuthHeader())
-                .header("Content-Type", contentType)
                 .header("Accept", accept)
                 .header("Accept-Language", language)
-                .timeout(REQUEST_TIMEOUT)
-                .POST(HttpRequest.BodyPublishers.ofString(body));
+                .timeout(timeout != null ? timeout : REQUEST_TIMEOUT)
+                .GET();
 
         if (csrfToken != null) {
             builder.header(CSRF_TOKEN_HEADER, csrfToken);
         }
 
-        return executeWithCsrfRetry(builder);
+        return sendAsync(builder, handler, false, null);
+    }
+
+    /**
+     * Fetches a cacheable resource ahead of time into the
+     * {@link AdtSourceCache}, so the next {@link #get} of the same path only
+     * needs a conditional request instead of a download. Resources that are
+     * already waiting to be used are not fetched again. A fetch that
+     * overlaps a write of the object is discarded.
+     *
+     * @param path   ADT path
+     * @param accept Accept header value
+     * @return completes with {@code true} if the resource was fetched and
+     *         cached; fails on network or HTTP errors
+     */
+    public CompletableFuture<Boolean> prefetchAsync(String path, String accept) {
+        if (!AdtSourceCache.isCacheable(path, accept)) {
+            return CompletableFuture.completedFuture(false);
+        }
+        String key = AdtSourceCache.keyOf(buildUrl(path), accept);
+        if (sourceCache.hasPrefetched(key)) {
+            return CompletableFuture.completedFuture(true);
+        }
+        String objectPath = AdtSourceCache.objectPathOf(normalizeAdtPath(path));
+        long generation = sourceCache.getInvalidationCount();
+        CompletableFuture<HttpResponse<String>> pending = getAsync(path, accept, null);
+        CompletableFuture<Boolean> result = pending.thenApply(response ->
+                response.statusCode() == 200 && sourceCache.putPrefetched(key, objectPath, generation));
+        result.whenComplete((ok, error) -> {
+            if (result.isCancelled()) {
+                pending.cancel(true);
+            }
+        });
+        return result;
+    }
+
+    /**
+     * Perform a POST request.
+     *
+     * @param path        ADT path
+     * @param body        request body (may be empty string for body-less POSTs)
+     * @param contentType Content-Type header value
+     * @param accept      Accept header value
+     * @return the HTTP response
+     * @throws Exception on network or HTTP errors
+     */
+    public HttpResponse<String> post(String path, String body,
+                                     String contentType, String accept) throws Exception {
+        return await(postAsync(path, body, contentType, accept, null, null));
     }
 
     /**
@@ -302,6 +417,24 @@ public class AdtRestClient {
     public HttpResponse<String> postWithHeaders(String path, String body,
                                                 String contentType, String accept,
                                                 Map<String, String> extraHeaders) throws Exception {
+        return await(postAsync(path, body, contentType, accept, extraHeaders, null));
+    }
+
+    /**
+     * Perform a POST request without blocking.
+     *
+     * @param path         ADT path
+     * @param body         request body (may be empty string)
+     * @param contentType  Content-Type header value
+     * @param accept       Accept header value
+     * @param extraHeaders additional headers as key-value pairs (may be {@code null})
+     * @param timeout      time to wait for the response, or {@code null} for the default
+     * @return the pending response; fails with an {@link IOException} on HTTP errors
+     */
+    public CompletableFuture<HttpResponse<String>> postAsync(String path, String body,
+                                                             String contentType, String accept,
+                                                             Map<String, String> extraHeaders,
+                                                             Duration timeout) {
         String url = buildUrl(path);
 
         HttpRequest.Builder builder = HttpRequest.newBuilder()
@@ -310,20 +443,20 @@ public class AdtRestClient {
                 .header("Content-Type", contentType)
                 .header("Accept", accept)
                 .header("Accept-Language", language)
-                .timeout(REQUEST_TIMEOUT)
+                .timeout(timeout != null ? timeout : REQUEST_TIMEOUT)
                 .POST(HttpRequest.BodyPublishers.ofString(body));
 
         if (csrfToken != null) {
             builder.header(CSRF_TOKEN_HEADER, csrfToken);
         }
+        addHeaders(builder, extraHeaders);
 
-        if (extraHeaders != null) {
-            for (Map.Entry<String, String> entry : extraHeaders.entrySet()) {
-                builder.header(entry.getKey(), entry.getValue());
+        return sendAsync(builder, HttpResponse.BodyHandlers.ofString(), false, response -> {
+            if (path.startsWith(ACTIVATION_PATH)) {
+                invalidateActivatedObjects(body);
             }
-        }
-
-        return executeWithCsrfRetry(builder);
+            return response;
+        });
     }
 
     /**
@@ -337,22 +470,7 @@ public class AdtRestClient {
      */
     public HttpResponse<String> put(String path, String body,
                                     String contentType) throws Exception {
-        String url = buildUrl(path);
-
-        HttpRequest.Builder builder = HttpRequest.newBuilder()
-                .uri(URI.create(url))
-                .header("Authorization", basicAuthHeader())
-                .header("Content-Type", contentType)
-                .header("Accept", "text/plain, application/*")
-                .header("Accept-Language", language)
-                .timeout(REQUEST_TIMEOUT)
-                .PUT(HttpRequest.BodyPublishers.ofString(body));
-
-        if (csrfToken != null) {
-            builder.header(CSRF_TOKEN_HEADER, csrfToken);
-        }
-
-        return executeWithCsrfRetry(builder);
+        return await(putAsync(path, body, contentType, null, null));
     }
 
     /**
@@ -369,6 +487,23 @@ public class AdtRestClient {
     public HttpResponse<String> putWithHeaders(String path, String body,
                                                String contentType,
                                                Map<String, String> extraHeaders) throws Exception {
+        return await(putAsync(path, body, contentType, extraHeaders, null));
+    }
+
+    /**
+     * Perform a PUT request without blocking.
+     *
+     * @param path         ADT path
+     * @param body         request body
+     * @param contentType  Content-Type header value
+     * @param extraHeaders additional headers as key-value pairs (may be {@code null})
+     * @param timeout      time to wait for the response, or {@code null} for the default
+     * @return the pending response; fails with an {@link IOException} on HTTP errors
+     */
+    public CompletableFuture<HttpResponse<String>> putAsync(String path, String body,
+                                                            String contentType,
+                                                            Map<String, String> extraHeaders,
+                                                            Duration timeout) {
         String url = buildUrl(path);
 
         HttpRequest.Builder builder = HttpRequest.newBuilder()
@@ -377,20 +512,16 @@ public class AdtRestClient {
                 .header("Content-Type", contentType)
                 .header("Accept", "text/plain, application/*")
                 .header("Accept-Language", language)
-                .timeout(REQUEST_TIMEOUT)
+                .timeout(timeout != null ? timeout : REQUEST_TIMEOUT)
                 .PUT(HttpRequest.BodyPublishers.ofString(body));
 
         if (csrfToken != null) {
             builder.header(CSRF_TOKEN_HEADER, csrfToken);
         }
+        addHeaders(builder, extraHeaders);
 
-        if (extraHeaders != null) {
-            for (Map.Entry<String, String> entry : extraHeaders.entrySet()) {
-                builder.header(entry.getKey(), entry.getValue());
-            }
-        }
-
-        return executeWithCsrfRetry(builder);
+        return sendAsync(builder, HttpResponse.BodyHandlers.ofString(), false,
+                response -> forgetWrittenObject(path, response));
     }
 
     /**
@@ -401,20 +532,57 @@ public class AdtRestClient {
      * @throws Exception on network or HTTP errors
      */
     public HttpResponse<String> delete(String path) throws Exception {
+        return await(deleteAsync(path, null));
+    }
+
+    /**
+     * Perform a DELETE request without blocking.
+     *
+     * @param path    ADT path
+     * @param timeout time to wait for the response, or {@code null} for the default
+     * @return the pending response; fails with an {@link IOException} on HTTP errors
+     */
+    public CompletableFuture<HttpResponse<String>> deleteAsync(String path, Duration timeout) {
         String url = buildUrl(path);
 
         HttpRequest.Builder builder = HttpRequest.newBuilder()
                 .uri(URI.create(url))
                 .header("Authorization", basicAuthHeader())
                 .header("Accept-Language", language)
-                .timeout(REQUEST_TIMEOUT)
+                .timeout(timeout != null ? timeout : REQUEST_TIMEOUT)
                 .DELETE();
 
         if (csrfToken != null) {
             builder.header(CSRF_TOKEN_HEADER, csrfToken);
         }
 
-        return executeWithCsrfRetry(builder);
+        return sendAsync(builder, HttpResponse.BodyHandlers.ofString(), false,
+                response -> forgetDeletedObject(path, response));
+    }
+
+    /**
+     * Waits for a pending request of this client. If the waiting thread is
+     * interrupted, the request is cancelled.
+     *
+     * @param pending a future returned by one of the {@code *Async} methods
+     * @return the response
+     * @throws InterruptedException if the thread was interrupted while waiting
+     * @throws Exception            the failure of the request, e.g. an
+     *                              {@link IOException} for HTTP errors
+     */
+    public static <T> T await(CompletableFuture<T> pending) throws Exception {
+        try {
+            return pending.get();
+        } catch (InterruptedException e) {
+            pending.cancel(true);
+            throw e;
+        } catch (ExecutionException e) {
+            Throwable cause = e.getCause();
+            if (cause instanceof Exception) {
+                throw (Exception) cause;
+            }
+            throw e;
+        }
     }
 
     /**
@@ -436,6 +604,79 @@ public class AdtRestClient {
         return loggedIn;
     }
 
+    /**
+     * Check whether the session is still usable by fetching a fresh CSRF
+     * token from the discovery endpoint. Used to validate pooled clients
+     * that have been idle for a while.
+     *
+     * @return {@code true} if the server accepted the session
+     */
+    public boolean checkSession() {
+        if (!loggedIn) {
+            return false;
+        }
+        try {
+            HttpRequest request = HttpRequest.newBuilder()
+                    .uri(URI.create(buildUrl(DISCOVERY_PATH)))
+                    .header("Authorization", basicAuthHeader())
+                    .header(CSRF_TOKEN_HEADER, "Fetch")
+                    .header("Accept", "application/atomsvc+xml")
+                    .header("Accept-Language", language)
+                    .timeout(REQUEST_TIMEOUT)
+                    .GET()
+                    .build();
+            HttpResponse<String> response = httpClient.send(request, HttpResponse.BodyHandlers.ofString());
+            if (response.statusCode() < 200 || response.statusCode() >= 300) {
+                return false;
+            }
+            response.headers().firstValue(CSRF_TOKEN_HEADER)
+                    .filter(t -> !t.isEmpty())
+                    .ifPresent(t -> csrfToken = t);
+            return true;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return false;
+        } catch (Exception e) {
+            return false;
+        }
+    }
+
+    /**
+     * Returns the source cache shared by all clients of this system.
+     *
+     * @return the source cache
+     */
+    public AdtSourceCache getSourceCache() {
+        return sourceCache;
+    }
+
+    /**
+     * Returns the object name index shared by all clients of this system.
+     *
+     * @return the object index
+     */
+    public AdtObjectIndex getObjectIndex() {
+        return objectIndex;
+    }
+
+    /**
+     * Returns the base URL of the SAP system.
+     *
+     * @return the base URL, without trailing slash
+     */
+    public String getBaseUrl() {
+        return baseUrl;
+    }
+
+    /**
+     * Returns the SAP client number.
+     *
+     * @return the client number
+     */
+    public String getSapClient() {
+        return sapClient;
+    }
+
     /**
      * Returns the SAP username used by this client.
      *
@@ -531,43 +772,135 @@ public class AdtRestClient {
     }
 
     /**
-     * Execute the request built by the given builder. If the server responds
-     * with HTTP 403 (typically due to a stale CSRF token), re-fetch the
-     * CSRF token and retry the request once.
+     * Send the request built by the given builder without blocking. If the
+     * server responds with HTTP 403 (typically due to a stale CSRF token),
+     * the CSRF token is re-fetched and the request retried once.
+     * <p>
+     * The returned future fails with an {@link IOException} for responses
+     * outside 2xx (and {@code 304} unless {@code allowNotModified}); otherwise
+     * it completes with the response passed through {@code onSuccess}.
+     * Cancelling it cancels the exchange in flight.
+     * </p>
      *
-     * @param requestBuilder pre-configured request builder (method already set)
-     * @return the HTTP response
-     * @throws Exception if both attempts fail or on I/O errors
+     * @param requestBuilder   pre-configured request builder (method already set)
+     * @param handler          the body handler
+     * @param allowNotModified whether {@code 304} answers a conditional request
+     * @param onSuccess        applied to a successful response (may be {@code null})
      */
-    private HttpResponse<String> executeWithCsrfRetry(HttpRequest.Builder requestBuilder)
-            throws Exception {
-        HttpRequest request = requestBuilder.build();
-        HttpResponse<String> response = httpClient.send(request, HttpResponse.BodyHandlers.ofString());
+    private <T> CompletableFuture<HttpResponse<T>> sendAsync(HttpRequest.Builder requestBuilder,
+                                                            HttpResponse.BodyHandler<T> handler,
+                                                            boolean allowNotModified,
+                                                            UnaryOperator<HttpResponse<T>> onSuccess) {
+        CompletableFuture<HttpResponse<T>> result = new CompletableFuture<>();
+        AtomicReference<CompletableFuture<?>> inFlight = new AtomicReference<>();
+        result.whenComplete((response, error) -> {
+            CompletableFuture<?> current = inFlight.get();
+            if (result.isCancelled() && current != null) {
+                current.cancel(true);
+            }
+        });
 
-        if (response.statusCode() == 403) {
-            // CSRF token may have expired -- re-fetch and retry
-            refreshCsrfToken();
+        HttpRequest request = requestBuilder.build();
+        CompletableFuture<HttpResponse<T>> first = httpClient.sendAsync(request, handler);
+        inFlight.set(first);
 
-            // Rebuild the request with the new token.
+        first.thenCompose(response -> {
+            if (response.statusCode() != 403) {
+                return CompletableFuture.completedFuture(response);
+            }
+            // CSRF token may have expired -- re-fetch and retry.
             // HttpRequest is immutable so we must reconstruct from the builder.
-            requestBuilder.header(CSRF_TOKEN_HEADER, csrfToken);
-            HttpRequest retryRequest = requestBuilder.build();
-            response = httpClient.send(retryRequest, HttpResponse.BodyHandlers.ofString());
-        }
+            CompletableFuture<String> token = refreshCsrfTokenAsync();
+            inFlight.set(token);
+            return token.thenCompose(t -> {
+                requestBuilder.setHeader(CSRF_TOKEN_HEADER, csrfToken != null ? csrfToken : "");
+                CompletableFuture<HttpResponse<T>> retry =
+                        httpClient.sendAsync(requestBuilder.build(), handler);
+                inFlight.set(retry);
+                if (result.isCancelled()) {
+                    retry.cancel(true);
+                }
+                return retry;
+            });
+        }).whenComplete((response, error) -> {
+            if (error != null) {
+                result.completeExceptionally(error instanceof CompletionException && error.getCause() != null
+                        ? error.getCause() : error);
+                return;
+            }
+            int status = response.statusCode();
+            if ((status < 200 || status >= 300) && !(allowNotModified && status == 304)) {
+                Object body = response.body();
+                result.completeExceptionally(new IOException("HTTP " + status
+                        + " " + request.method() + " " + request.uri()
+                        + " -- " + (body instanceof String ? body : "")));
+                return;
+            }
+            try {
+                result.complete(onSuccess != null ? onSuccess.apply(response) : response);
+            } catch (RuntimeException e) {
+                result.completeExceptionally(e);
+            }
+        });
+        return result;
+    }
 
-        if (response.statusCode() < 200 || response.statusCode() >= 300) {
-            throw new IOException("HTTP " + response.statusCode()
-                    + " " + request.method() + " " + request.uri()
-                    + " -- " + response.body());
+    private static void addHeaders(HttpRequest.Builder builder, Map<String, String> headers) {
+        if (headers != null) {
+            for (Map.Entry<String, String> entry : headers.entrySet()) {
+                builder.header(entry.getKey(), entry.getValue());
+            }
         }
+    }
+
+    /**
+     * Drop the cached source of an object that was written. The object
+     * stays in the index.
+     */
+    private HttpResponse<String> forgetWrittenObject(String path, HttpResponse<String> response) {
+        sourceCache.invalidate(normalizeAdtPath(path));
+        return response;
+    }
 
+    /**
+     * Drop the cached source and index entry of an object that was deleted.
+     */
+    private HttpResponse<String> forgetDeletedObject(String path, HttpResponse<String> response) {
+        sourceCache.invalidate(normalizeAdtPath(path));
+        if (response.statusCode() < 300) {
+            objectIndex.remove(normalizeAdtPath(path));
+        }
         return response;
     }
 
+    /**
+     * Drop cached sources of every object listed in an activation request
+     * ({@code <adtcore:objectReference adtcore:uri="..."/>}).
+     */
+    private void invalidateActivatedObjects(String body) {
+        if (body == null) {
+            return;
+        }
+        Matcher m = ADTCORE_URI_PATTERN.matcher(body);
+        while (m.find()) {
+            sourceCache.invalidate(normalizeAdtPath(m.group(1)));
+        }
+    }
+
     /**
      * Re-fetch a fresh CSRF token from the discovery endpoint.
      */
     private void refreshCsrfToken() throws Exception {
+        await(refreshCsrfTokenAsync());
+    }
+
+    /**
+     * Re-fetch a fresh CSRF token from the discovery endpoint without
+     * blocking. The token is kept if the server returns none.
+     *
+     * @return the current token once the request has completed
+     */
+    private CompletableFuture<String> refreshCsrfTokenAsync() {
         String url = buildUrl(DISCOVERY_PATH);
 
         HttpRequest request = HttpRequest.newBuilder()
@@ -580,15 +913,16 @@ public class AdtRestClient {
                 .GET()
                 .build();
 
-        HttpResponse<String> response = httpClient.send(request, HttpResponse.BodyHandlers.ofString());
+        return httpClient.sendAsync(request, HttpResponse.BodyHandlers.ofString()).thenApply(response -> {
+            String newToken = response.headers()
+                    .firstValue(CSRF_TOKEN_HEADER)
+                    .orElse(null);
 
-        String newToken = response.headers()
-                .firstValue(CSRF_TOKEN_HEADER)
-                .orElse(null);
-
-        if (newToken != null && !newToken.isEmpty()) {
-            csrfToken = newToken;
-        }
+            if (newToken != null && !newToken.isEmpty()) {
+                csrfToken = newToken;
+            }
+            return csrfToken;
+        });
     }
 
     /**
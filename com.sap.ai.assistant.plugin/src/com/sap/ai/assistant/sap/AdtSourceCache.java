@@ -0,0 +1,547 @@
+package com.sap.ai.assistant.sap;
+
+import java.io.IOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpHeaders;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Optional;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.stream.Stream;
+
+import javax.net.ssl.SSLSession;
+
+import com.google.gson.Gson;
+import com.sap.ai.assistant.util.Hashes;
+
+/**
+ * Per-system cache of ABAP source code fetched through {@link AdtRestClient#get}.
+ * <p>
+ * Only plain-text source endpoints ({@code .../source/main},
+ * {@code .../includes/...}) are cached. Each entry keeps the body together
+ * with the {@code ETag} / {@code Last-Modified} validators returned by the
+ * server. Cached sources are never served blindly: every read is sent as a
+ * conditional request ({@code If-None-Match} / {@code If-Modified-Since}) and
+ * a {@code 304 Not Modified} answer is turned into a normal {@code 200}
+ * response carrying the cached body, so only the body transfer is saved.
+ * </p>
+ * <p>
+ * Entries are kept in a size-bounded in-memory LRU and mirrored to
+ * {@code ~/.sap-ai-assistant/cache/sources/<system>/} so that they survive
+ * across agent runs and Eclipse restarts. Entries of an object are dropped
+ * when the plugin writes, activates or deletes that object.
+ * </p>
+ * <p>
+ * One instance exists per SAP system and client; obtain it with
+ * {@link #forSystem(String, String)}. All methods are thread-safe.
+ * </p>
+ */
+public class AdtSourceCache {
+
+    /** Base directory for all persisted source caches. */
+    private static final Path CACHE_ROOT =
+            Path.of(System.getProperty("user.home"), ".sap-ai-assistant", "cache", "sources");
+
+    /** Upper bound for the characters held in memory per system. */
+    private static final long MAX_MEMORY_CHARS = 16L * 1024 * 1024;
+
+    /** Upper bound for the number of objects persisted on disk per system. */
+    private static final int MAX_DISK_OBJECTS = 2000;
+
+    /** How long a prefetched source counts as prefetched if it is not read. */
+    private static final long PREFETCH_FRESH_MS = 120_000L;
+
+    /** Upper bound for the number of unused prefetched sources. */
+    private static final int MAX_PREFETCHED = 64;
+
+    private static final Gson GSON = new Gson();
+
+    private static final Map<String, AdtSourceCache> INSTANCES = new ConcurrentHashMap<>();
+
+    private final Path directory;
+    private final LinkedHashMap<String, Entry> memory = new LinkedHashMap<>(64, 0.75f, true);
+    private long memoryChars;
+
+    private int hits;
+    private int misses;
+    private long bytesSaved;
+
+    /**
+     * Sources fetched ahead of time by
+     * {@link com.sap.ai.assistant.agent.SourcePrefetcher} and not read yet,
+     * by cache key. Their bodies are held as normal entries and revalidated
+     * like any other; this only counts the reads they served.
+     */
+    private final Map<String, Prefetched> prefetched = new HashMap<>();
+    private int prefetchHits;
+
+    /** Number of invalidations so far, see {@link #getInvalidationCount}. */
+    private long invalidations;
+
+    private static final class Prefetched {
+        final String objectPath;
+        final long fetchedAt;
+
+        Prefetched(String objectPath) {
+            this.objectPath = objectPath;
+            this.fetchedAt = System.currentTimeMillis();
+        }
+    }
+
+    /**
+     * A cached source body and the validators needed to revalidate it.
+     * Serialised as JSON to disk.
+     */
+    static class Entry {
+        String key;
+        String objectPath;
+        String body;
+        String etag;
+        String lastModified;
+        String contentType;
+    }
+
+    AdtSourceCache(Path directory) {
+        this.directory = directory;
+        pruneDisk();
+    }
+
+    /**
+     * Returns the shared cache for the given system.
+     *
+     * @param baseUrl   the system base URL, e.g. {@code https://host:44300}
+     * @param sapClient the SAP client number
+     * @return the cache instance (never {@code null})
+     */
+    public static AdtSourceCache forSystem(String baseUrl, String sapClient) {
+        String systemId = baseUrl.toLowerCase(Locale.ROOT) + "|" + sapClient;
+        return INSTANCES.computeIfAbsent(systemId,
+                id -> new AdtSourceCache(CACHE_ROOT.resolve(Hashes.shortHash(id))));
+    }
+
+    // ---------------------------------------------------------------
+    // Lookup / store
+    // ---------------------------------------------------------------
+
+    /**
+     * Returns whether a GET of {@code path} with the given Accept header
+     * returns source text that may be cached.
+     */
+    static boolean isCacheable(String path, String accept) {
+        if (path == null || accept == null || !accept.startsWith("text/plain")) {
+            return false;
+        }
+        String p = stripQuery(path);
+        return p.contains("/source/") || p.contains("/includes/");
+    }
+
+    /**
+     * Builds the cache key of a request. The key contains the full URL
+     * (including {@code version} and similar parameters) and the Accept header.
+     */
+    static String keyOf(String url, String accept) {
+        return url + "|" + accept;
+    }
+
+    /**
+     * Returns the cached entry for the key, loading it from disk if it is
+     * not held in memory.
+     *
+     * @param key        cache key built by {@link #keyOf}
+     * @param objectPath the object path the URL belongs to
+     * @return the entry, or {@code null} if nothing is cached
+     */
+    synchronized Entry lookup(String key, String objectPath) {
+        Entry entry = memory.get(key);
+        if (entry != null) {
+            return entry;
+        }
+        entry = readFromDisk(key, objectPath);
+        if (entry != null) {
+            putInMemory(entry);
+        }
+        return entry;
+    }
+
+    /**
+     * Stores a freshly downloaded source if the server sent a validator.
+     * Responses without {@code ETag} and {@code Last-Modified} cannot be
+     * revalidated and are not cached.
+     */
+    synchronized void store(String key, String objectPath, HttpResponse<String> response) {
+        String etag = response.headers().firstValue("ETag").orElse(null);
+        String lastModified = response.headers().firstValue("Last-Modified").orElse(null);
+        if (etag == null && lastModified == null) {
+            return;
+        }
+
+        Entry entry = new Entry();
+        entry.key = key;
+        entry.objectPath = objectPath;
+        entry.body = response.body();
+        entry.etag = etag;
+        entry.lastModified = lastModified;
+        entry.contentType = response.headers().firstValue("Content-Type").orElse(null);
+
+        Entry previous = memory.remove(key);
+        if (previous != null) {
+            memoryChars -= length(previous);
+        }
+        putInMemory(entry);
+        writeToDisk(entry);
+    }
+
+    /**
+     * Adds the conditional-request headers for a cached entry.
+     */
+    static void addValidators(HttpRequest.Builder builder, Entry entry) {
+        if (entry.etag != null) {
+            builder.header("If-None-Match", entry.etag);
+        } else if (entry.lastModified != null) {
+            builder.header("If-Modified-Since", entry.lastModified);
+        }
+    }
+
+    /**
+     * Records a cache hit (server answered 304) and wraps the cached body
+     * in a {@code 200} response.
+     *
+     * @param prefetched whether the body was fetched ahead of time
+     */
+    synchronized HttpResponse<String> hit(Entry entry, HttpResponse<String> notModified, boolean prefetched) {
+        hits++;
+        if (prefetched) {
+            prefetchHits++;
+        }
+        bytesSaved += entry.body != null ? entry.body.getBytes(StandardCharsets.UTF_8).length : 0;
+        return new CachedResponse(entry, notModified);
+    }
+
+    /** Records a cache miss (body had to be downloaded). */
+    synchronized void miss() {
+        misses++;
+    }
+
+    /**
+     * Marks the entry for the key as fetched ahead of time, so the next
+     * read only needs a conditional request. Nothing is marked if the
+     * object was invalidated since the fetch started, or if the response
+     * could not be cached.
+     *
+     * @param generation the {@link #getInvalidationCount()} when the fetch started
+     * @return whether the entry was marked
+     */
+    synchronized boolean putPrefetched(String key, String objectPath, long generation) {
+        if (generation != invalidations || !memory.containsKey(key)) {
+            return false;
+        }
+        if (prefetched.size() >= MAX_PREFETCHED) {
+            prefetched.clear();
+        }
+        prefetched.put(key, new Prefetched(objectPath));
+        return true;
+    }
+
+    /**
+     * Removes the prefetch mark of the key and returns whether it was set
+     * within the last {@link #PREFETCH_FRESH_MS}.
+     */
+    synchronized boolean takePrefetched(String key) {
+        Prefetched entry = prefetched.remove(key);
+        return entry != null && System.currentTimeMillis() - entry.fetchedAt <= PREFETCH_FRESH_MS;
+    }
+
+    /** Returns whether a response for the key is waiting to be used. */
+    synchronized boolean hasPrefetched(String key) {
+        return prefetched.containsKey(key);
+    }
+
+    // ---------------------------------------------------------------
+    // Invalidation
+    // ---------------------------------------------------------------
+
+    /**
+     * Drops all cached sources of the object addressed by {@code path}.
+     * Any ADT URL of the object may be given (object URL, source URL,
+     * include URL, with or without query string).
+     *
+     * @param path an ADT path of the changed object
+     */
+    public synchronized void invalidate(String path) {
+        if (path == null) {
+            return;
+        }
+        invalidations++;
+        String objectPath = objectPathOf(path);
+        prefetched.values().removeIf(p -> p.objectPath.equals(objectPath));
+        Iterator<Map.Entry<String, Entry>> it = memory.entrySet().iterator();
+        while (it.hasNext()) {
+            Entry entry = it.next().getValue();
+            if (entry.objectPath.equals(objectPath)) {
+                memoryChars -= length(entry);
+                it.remove();
+            }
+        }
+        deleteDirectory(directory.resolve(Hashes.shortHash(objectPath)));
+    }
+
+    /** Drops every cached source of this system, in memory and on disk. */
+    public synchronized void clear() {
+        memory.clear();
+        memoryChars = 0;
+        prefetched.clear();
+        invalidations++;
+        deleteDirectory(directory);
+    }
+
+    /**
+     * Returns the number of times objects of this system were invalidated,
+     * i.e. written, activated or deleted through the plugin. Results that
+     * depend on the state of the system can be reused as long as this
+     * number has not changed.
+     */
+    public synchronized long getInvalidationCount() {
+        return invalidations;
+    }
+
+    // ---------------------------------------------------------------
+    // Statistics
+    // ---------------------------------------------------------------
+
+    public synchronized int getHits() {
+        return hits;
+    }
+
+    public synchronized int getMisses() {
+        return misses;
+    }
+
+    /**
+     * Returns a one-line summary such as
+     * {@code "12 hits / 3 misses (80% hit ratio), 1.4 MB not re-downloaded"},
+     * or {@code null} if the cache has not been used yet.
+     */
+    public synchronized String getStatsSummary() {
+        int total = hits + misses;
+        if (total == 0) {
+            return null;
+        }
+        return hits + " hits / " + misses + " misses ("
+                + Math.round(hits * 100.0 / total) + "% hit ratio), "
+                + formatBytes(bytesSaved) + " not re-downloaded"
+                + (prefetchHits > 0 ? ", " + prefetchHits + " served from prefetch" : "");
+    }
+
+    // ---------------------------------------------------------------
+    // Private helpers
+    // ---------------------------------------------------------------
+
+    /**
+     * Returns the object part of an ADT path: everything before
+     * {@code /source/} or {@code /includes/}, without query string,
+     * lower-cased.
+     */
+    public static String objectPathOf(String path) {
+        String p = stripQuery(path);
+        int idx = p.indexOf("/source/");
+        if (idx < 0) {
+            idx = p.indexOf("/includes/");
+        }
+        if (idx >= 0) {
+            p = p.substring(0, idx);
+        }
+        if (p.endsWith("/")) {
+            p = p.substring(0, p.length() - 1);
+        }
+        return p.toLowerCase(Locale.ROOT);
+    }
+
+    private static String stripQuery(String path) {
+        int q = path.indexOf('?');
+        return q >= 0 ? path.substring(0, q) : path;
+    }
+
+    private void putInMemory(Entry entry) {
+        memory.put(entry.key, entry);
+        memoryChars += length(entry);
+        Iterator<Entry> it = memory.values().iterator();
+        while (memoryChars > MAX_MEMORY_CHARS && it.hasNext()) {
+            Entry eldest = it.next();
+            if (eldest == entry) {
+                break;
+            }
+            memoryChars -= length(eldest);
+            it.remove();
+        }
+    }
+
+    private static long length(Entry entry) {
+        return entry.body != null ? entry.body.length() : 0;
+    }
+
+    private Path fileOf(String key, String objectPath) {
+        return directory.resolve(Hashes.shortHash(objectPath)).resolve(Hashes.shortHash(key) + ".json");
+    }
+
+    private Entry readFromDisk(String key, String objectPath) {
+        Path file = fileOf(key, objectPath);
+        if (!Files.isRegularFile(file)) {
+            return null;
+        }
+        try {
+            Entry entry = GSON.fromJson(Files.readString(file, StandardCharsets.UTF_8), Entry.class);
+            if (entry == null || !key.equals(entry.key)) {
+                return null;
+            }
+            return entry;
+        } catch (Exception e) {
+            System.err.println("AdtSourceCache: failed to read " + file + ": " + e.getMessage());
+            return null;
+        }
+    }
+
+    private void writeToDisk(Entry entry) {
+        Path file = fileOf(entry.key, entry.objectPath);
+        try {
+            Files.createDirectories(file.getParent());
+            Files.writeString(file, GSON.toJson(entry), StandardCharsets.UTF_8);
+        } catch (IOException e) {
+            System.err.println("AdtSourceCache: failed to write " + file + ": " + e.getMessage());
+        }
+    }
+
+    /**
+     * Keeps at most {@link #MAX_DISK_OBJECTS} object directories on disk,
+     * removing the least recently written ones.
+     */
+    private void pruneDisk() {
+        if (!Files.isDirectory(directory)) {
+            return;
+        }
+        List<Path> objects = new ArrayList<>();
+        try (Stream<Path> stream = Files.list(directory)) {
+            stream.filter(Files::isDirectory).forEach(objects::add);
+        } catch (IOException e) {
+            return;
+        }
+        if (objects.size() <= MAX_DISK_OBJECTS) {
+            return;
+        }
+        Map<Path, Long> modified = new HashMap<>();
+        for (Path p : objects) {
+            try {
+                modified.put(p, Files.getLastModifiedTime(p).toMillis());
+            } catch (IOException e) {
+                modified.put(p, 0L);
+            }
+        }
+        objects.sort(Comparator.comparing(modified::get));
+        for (int i = 0; i < objects.size() - MAX_DISK_OBJECTS; i++) {
+            deleteDirectory(objects.get(i));
+        }
+    }
+
+    private static void deleteDirectory(Path dir) {
+        if (!Files.exists(dir)) {
+            return;
+        }
+        try (Stream<Path> walk = Files.walk(dir)) {
+            walk.sorted(Comparator.reverseOrder()).forEach(p -> {
+                try {
+                    Files.deleteIfExists(p);
+                } catch (IOException ignored) {
+                    // best effort
+                }
+            });
+        } catch (IOException e) {
+            System.err.println("AdtSourceCache: failed to delete " + dir + ": " + e.getMessage());
+        }
+    }
+
+    private static String formatBytes(long bytes) {
+        if (bytes < 1024) return bytes + " B";
+        if (bytes < 1024 * 1024) return String.format("%.1f KB", bytes / 1024.0);
+        return String.format("%.1f MB", bytes / (1024.0 * 1024.0));
+    }
+
+    /**
+     * A {@code 200} response assembled from a cache entry after the server
+     * confirmed with {@code 304} that the source is unchanged.
+     */
+    private static class CachedResponse implements HttpResponse<String> {
+
+        private final Entry entry;
+        private final HttpResponse<String> notModified;
+        private final HttpHeaders headers;
+
+        CachedResponse(Entry entry, HttpResponse<String> notModified) {
+            this.entry = entry;
+            this.notModified = notModified;
+            Map<String, List<String>> map = new TreeMap<>(String.CASE_INSENSITIVE_ORDER);
+            map.putAll(notModified.headers().map());
+            if (entry.etag != null) {
+                map.put("ETag", List.of(entry.etag));
+            }
+            if (entry.lastModified != null) {
+                map.put("Last-Modified", List.of(entry.lastModified));
+            }
+            if (entry.contentType != null) {
+                map.put("Content-Type", List.of(entry.contentType));
+            }
+            this.headers = HttpHeaders.of(map, (k, v) -> true);
+        }
+
+        @Override
+        public int statusCode() {
+            return 200;
+        }
+
+        @Override
+        public HttpRequest request() {
+            return notModified.request();
+        }
+
+        @Override
+        public Optional<HttpResponse<String>> previousResponse() {
+            return Optional.of(notModified);
+        }
+
+        @Override
+        public HttpHeaders headers() {
+            return headers;
+        }
+
+        @Override
+        public String body() {
+            return entry.body;
+        }
+
+        @Override
+        public Optional<SSLSession> sslSession() {
+            return notModified.sslSession();
+        }
+
+        @Override
+        public URI uri() {
+            return notModified.uri();
+        }
+
+        @Override
+        public HttpClient.Version version() {
+            return notModified.version();
+        }
+    }
+}
@@ -1,6 +1,15 @@
 package com.sap.ai.assistant.sap;
 
 import java.io.StringReader;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.TreeSet;
 
 import javax.xml.parsers.DocumentBuilder;
 import javax.xml.parsers.DocumentBuilderFactory;
@@ -15,6 +24,9 @@ import org.xml.sax.InputSource;
 
 import com.google.gson.JsonArray;
 import com.google.gson.JsonObject;
+import com.sap.ai.assistant.sap.AdtXmlStream.Fallback;
+import com.sap.ai.assistant.sap.AdtXmlStream.Tag;
+import com.sap.ai.assistant.sap.AdtXmlStream.XmlElement;
 
 /**
  * Static utility class for parsing XML responses returned by
@@ -28,6 +40,12 @@ import com.google.gson.JsonObject;
  * Methods handle null/empty input gracefully by returning empty
  * result objects.
  * </p>
+ * <p>
+ * Responses that can grow large (search results, check and ATC findings,
+ * unit test runs, data previews, inactive objects, transports) are read
+ * with a StAX pull parser via {@link AdtXmlStream}, so no DOM of the whole
+ * response is built. The small single-object responses still use DOM.
+ * </p>
  */
 public final class AdtXmlParser {
 
@@ -36,7 +54,17 @@ public final class AdtXmlParser {
     private static final String NS_ADT = "http://www.sap.com/adt/api";
     private static final String NS_ADT_CORE = "http://www.sap.com/adt/core";
     private static final String NS_ATC = "http://www.sap.com/adt/atc";
+    private static final String NS_ATC_WORKLIST = "http://www.sap.com/adt/atc/worklist";
+    private static final String NS_ATC_OBJECT = "http://www.sap.com/adt/atc/object";
+    private static final String NS_ATC_FINDING = "http://www.sap.com/adt/atc/finding";
     private static final String NS_CHKRUN = "http://www.sap.com/adt/checkrun";
+    private static final String NS_USAGE_REFERENCES = "http://www.sap.com/adt/ris/usageReferences";
+
+    /** Maximum number of sub-element names listed per usage references group. */
+    private static final int MAX_USAGES_PER_OBJECT = 20;
+
+    private static final ThreadLocal<DocumentBuilder> DOCUMENT_BUILDER =
+            ThreadLocal.withInitial(AdtXmlParser::newDocumentBuilder);
 
     private AdtXmlParser() {
         // utility class -- no instances
@@ -64,46 +92,47 @@ public final class AdtXmlParser {
         }
 
         try {
-            Document doc = parseDocument(xml);
-
-            // ADT search results use <objectReference> elements or Atom <entry> elements
-            // Try <objectReference> first (newer format)
-            NodeList refs = doc.getElementsByTagNameNS(NS_ADT, "objectReference");
-            if (refs.getLength() == 0) {
-                refs = doc.getElementsByTagName("objectReference");
-            }
-
-            if (refs.getLength() > 0) {
-                for (int i = 0; i < refs.getLength(); i++) {
-                    Element ref = (Element) refs.item(i);
-                    JsonObject entry = new JsonObject();
-                    entry.addProperty("name", attr(ref, "adtcore:name", attr(ref, "name", "")));
-                    entry.addProperty("type", attr(ref, "adtcore:type", attr(ref, "type", "")));
-                    entry.addProperty("uri", attr(ref, "uri", ""));
-                    entry.addProperty("description",
-                            attr(ref, "adtcore:description", attr(ref, "description", "")));
-                    entry.addProperty("packageName",
-                            attr(ref, "adtcore:packageName", attr(ref, "packageName", "")));
-                    results.add(entry);
+            // ADT search results use <objectReference> elements or Atom <entry> elements.
+            // <objectReference> (newer format) wins over the Atom feed format.
+            Tag[] refTags = { Tag.ns(NS_ADT_CORE, "objectReference"), Tag.ns(NS_ADT, "objectReference"),
+                    Tag.tag("objectReference") };
+            Tag[] entryTags = { Tag.ns(NS_ATOM, "entry").deep(), Tag.tag("entry").deep() };
+            Fallback<JsonObject> refs = new Fallback<>();
+            Fallback<JsonObject> entries = new Fallback<>();
+
+            AdtXmlStream.stream(xml, root -> {
+                for (int rank = 0; rank < refTags.length && refs.accepts(rank); rank++) {
+                    for (XmlElement ref : root.selfAndDescendants(refTags[rank])) {
+                        JsonObject entry = new JsonObject();
+                        entry.addProperty("name", ref.attr("adtcore:name", ref.attr("name", "")));
+                        entry.addProperty("type", ref.attr("adtcore:type", ref.attr("type", "")));
+                        entry.addProperty("uri", ref.attr("adtcore:uri", ref.attr("uri", "")));
+                        entry.addProperty("description",
+                                ref.attr("adtcore:description", ref.attr("description", "")));
+                        entry.addProperty("packageName",
+                                ref.attr("adtcore:packageName", ref.attr("packageName", "")));
+                        refs.add(rank, entry);
+                    }
                 }
-                return results;
-            }
-
-            // Fallback: Atom feed format with <entry> elements
-            NodeList entries = doc.getElementsByTagNameNS(NS_ATOM, "entry");
-            if (entries.getLength() == 0) {
-                entries = doc.getElementsByTagName("entry");
-            }
+                if (!refs.result().isEmpty()) {
+                    return;
+                }
+                for (int rank = 0; rank < entryTags.length && entries.accepts(rank); rank++) {
+                    for (XmlElement entry : root.selfAndDescendants(entryTags[rank])) {
+                        JsonObject obj = new JsonObject();
+                        obj.addProperty("name", entry.childText(Tag.tag("title"), ""));
+                        XmlElement link = entry.firstDescendant(Tag.tag("link"));
+                        obj.addProperty("uri", link != null ? link.attr("href", "") : "");
+                        obj.addProperty("type", entry.childText(Tag.tag("category"), ""));
+                        obj.addProperty("description", entry.childText(Tag.tag("summary"), ""));
+                        obj.addProperty("packageName", "");
+                        entries.add(rank, obj);
+                    }
+                }
+            }, refTags[0], refTags[1], refTags[2], entryTags[0], entryTags[1]);
 
-            for (int i = 0; i < entries.getLength(); i++) {
-                Element entry = (Element) entries.item(i);
-                JsonObject obj = new JsonObject();
-                obj.addProperty("name", childText(entry, "title", ""));
-                obj.addProperty("uri", childAttr(entry, "link", "href", ""));
-                obj.addProperty("type", childText(entry, "category", ""));
-                obj.addProperty("description", childText(entry, "summary", ""));
-                obj.addProperty("packageName", "");
-                results.add(obj);
+            for (JsonObject entry : refs.result().isEmpty() ? entries.result() : refs.result()) {
+                results.add(entry);
             }
 
         } catch (Exception e) {
@@ -499,97 +528,40 @@ public final class AdtXmlParser {
         }
 
         try {
-            Document doc = parseDocument(xml);
-
-            // Primary format: <chkrun:checkMessage> from /sap/bc/adt/checkruns
-            NodeList messages = doc.getElementsByTagNameNS(NS_CHKRUN, "checkMessage");
-            if (messages.getLength() == 0) {
-                messages = doc.getElementsByTagName("chkrun:checkMessage");
-            }
-
-            if (messages.getLength() > 0) {
-                for (int i = 0; i < messages.getLength(); i++) {
-                    Element msg = (Element) messages.item(i);
-                    JsonObject finding = new JsonObject();
-
-                    // URI contains #start=line,offset
-                    String uri = attr(msg, "chkrun:uri", attr(msg, "uri", ""));
-                    finding.addProperty("uri", uri);
-
-                    // Parse line and offset from URI fragment: #start=line,offset
-                    String line = "";
-                    String offset = "";
-                    int hashIdx = uri.indexOf("#start=");
-                    if (hashIdx >= 0) {
-                        String fragment = uri.substring(hashIdx + 7); // after "#start="
-                        String[] parts = fragment.split(",");
-                        if (parts.length >= 1) line = parts[0];
-                        if (parts.length >= 2) offset = parts[1];
-                    }
-                    finding.addProperty("line", line);
-                    finding.addProperty("offset", offset);
-
-                    // Severity: chkrun:type (E, W, I)
-                    String type = attr(msg, "chkrun:type", attr(msg, "type", ""));
-                    String severity;
-                    switch (type.toUpperCase()) {
-                        case "E": severity = "error"; break;
-                        case "W": severity = "warning"; break;
-                        case "I": severity = "info"; break;
-                        default: severity = type;
+            // Candidates in order of preference:
+            //   <chkrun:checkMessage> from /sap/bc/adt/checkruns (primary format),
+            //   <chkrun:message> or <message> (legacy format),
+            //   <alert> (alternative format)
+            Tag[] tags = {
+                    Tag.ns(NS_CHKRUN, "checkMessage").deep(),
+                    Tag.tag("chkrun:checkMessage").deep(),
+                    Tag.ns(NS_CHKRUN, "message").deep(),
+                    Tag.tag("chkrun:message").deep(),
+                    Tag.tag("message").deep(),
+                    Tag.tag("alert").deep()
+            };
+            Fallback<JsonObject> findings = new Fallback<>();
+
+            AdtXmlStream.stream(xml, root -> {
+                for (int rank = 0; rank < tags.length && findings.accepts(rank); rank++) {
+                    for (XmlElement msg : root.selfAndDescendants(tags[rank])) {
+                        JsonObject finding;
+                        if (rank < 2) {
+                            finding = checkMessageFinding(msg);
+                        } else if (rank < 5) {
+                            finding = legacyMessageFinding(msg);
+                        } else {
+                            finding = alertFinding(msg);
+                        }
+                        findings.add(rank, finding);
                     }
-                    finding.addProperty("severity", severity);
-
-                    // Text: chkrun:shortText
-                    finding.addProperty("text", attr(msg, "chkrun:shortText",
-                            attr(msg, "shortText", textContentOrChild(msg, "shortText", ""))));
-
-                    results.add(finding);
                 }
-                return results;
-            }
+            }, tags);
 
-            // Legacy format: <chkrun:message> or <message> elements
-            messages = doc.getElementsByTagNameNS(NS_CHKRUN, "message");
-            if (messages.getLength() == 0) {
-                messages = doc.getElementsByTagName("chkrun:message");
-            }
-            if (messages.getLength() == 0) {
-                messages = doc.getElementsByTagName("message");
-            }
-
-            for (int i = 0; i < messages.getLength(); i++) {
-                Element msg = (Element) messages.item(i);
-                JsonObject finding = new JsonObject();
-                finding.addProperty("uri", attr(msg, "uri",
-                        attr(msg, "chkrun:uri", childText(msg, "uri", ""))));
-                finding.addProperty("line", attr(msg, "line",
-                        attr(msg, "chkrun:line", childText(msg, "line", ""))));
-                finding.addProperty("offset", attr(msg, "offset",
-                        attr(msg, "chkrun:offset", childText(msg, "offset", ""))));
-                finding.addProperty("severity", attr(msg, "severity",
-                        attr(msg, "chkrun:severity", childText(msg, "severity", ""))));
-                finding.addProperty("text", attr(msg, "text",
-                        textContentOrChild(msg, "text", "")));
+            for (JsonObject finding : findings.result()) {
                 results.add(finding);
             }
 
-            // Alternative format: <alert> elements
-            if (results.size() == 0) {
-                NodeList alerts = doc.getElementsByTagName("alert");
-                for (int i = 0; i < alerts.getLength(); i++) {
-                    Element alert = (Element) alerts.item(i);
-                    JsonObject finding = new JsonObject();
-                    finding.addProperty("uri", childText(alert, "href", ""));
-                    finding.addProperty("line", childText(alert, "line", ""));
-                    finding.addProperty("offset", childText(alert, "column", ""));
-                    finding.addProperty("severity", childText(alert, "severity", ""));
-                    finding.addProperty("text", childText(alert, "title",
-                            childText(alert, "summary", "")));
-                    results.add(finding);
-                }
-            }
-
         } catch (Exception e) {
             System.err.println("AdtXmlParser.parseSyntaxCheckResults failed: " + e.getMessage());
         }
@@ -597,6 +569,69 @@ public final class AdtXmlParser {
         return results;
     }
 
+    private static JsonObject checkMessageFinding(XmlElement msg) {
+        JsonObject finding = new JsonObject();
+
+        // URI contains #start=line,offset
+        String uri = msg.attr("chkrun:uri", msg.attr("uri", ""));
+        finding.addProperty("uri", uri);
+
+        // Parse line and offset from URI fragment: #start=line,offset
+        String line = "";
+        String offset = "";
+        int hashIdx = uri.indexOf("#start=");
+        if (hashIdx >= 0) {
+            String fragment = uri.substring(hashIdx + 7); // after "#start="
+            String[] parts = fragment.split(",");
+            if (parts.length >= 1) line = parts[0];
+            if (parts.length >= 2) offset = parts[1];
+        }
+        finding.addProperty("line", line);
+        finding.addProperty("offset", offset);
+
+        // Severity: chkrun:type (E, W, I)
+        String type = msg.attr("chkrun:type", msg.attr("type", ""));
+        String severity;
+        switch (type.toUpperCase()) {
+            case "E": severity = "error"; break;
+            case "W": severity = "warning"; break;
+            case "I": severity = "info"; break;
+            default: severity = type;
+        }
+        finding.addProperty("severity", severity);
+
+        // Text: chkrun:shortText
+        finding.addProperty("text", msg.attr("chkrun:shortText",
+                msg.attr("shortText", textContentOrChild(msg, "shortText", ""))));
+        return finding;
+    }
+
+    private static JsonObject legacyMessageFinding(XmlElement msg) {
+        JsonObject finding = new JsonObject();
+        finding.addProperty("uri", msg.attr("uri",
+                msg.attr("chkrun:uri", msg.childText(Tag.tag("uri"), ""))));
+        finding.addProperty("line", msg.attr("line",
+                msg.attr("chkrun:line", msg.childText(Tag.tag("line"), ""))));
+        finding.addProperty("offset", msg.attr("offset",
+                msg.attr("chkrun:offset", msg.childText(Tag.tag("offset"), ""))));
+        finding.addProperty("severity", msg.attr("severity",
+                msg.attr("chkrun:severity", msg.childText(Tag.tag("severity"), ""))));
+        finding.addProperty("text", msg.attr("text",
+                textContentOrChild(msg, "text", "")));
+        return finding;
+    }
+
+    private static JsonObject alertFinding(XmlElement alert) {
+        JsonObject finding = new JsonObject();
+        finding.addProperty("uri", alert.childText(Tag.tag("href"), ""));
+        finding.addProperty("line", alert.childText(Tag.tag("line"), ""));
+        finding.addProperty("offset", alert.childText(Tag.tag("column"), ""));
+        finding.addProperty("severity", alert.childText(Tag.tag("severity"), ""));
+        finding.addProperty("text", alert.childText(Tag.tag("title"),
+                alert.childText(Tag.tag("summary"), "")));
+        return finding;
+    }
+
     // ---------------------------------------------------------------
     // ATC worklist
     // ---------------------------------------------------------------
@@ -607,7 +642,9 @@ public final class AdtXmlParser {
      * @param xml raw XML string
      * @return JsonObject with "objects" array. Each object has "name",
      *         "type", "uri", and "findings" array. Each finding has
-     *         priority, checkTitle, messageTitle, location.
+     *         priority, checkTitle, messageTitle, location. If the worklist
+     *         states whether its run has finished, "objectSetIsComplete"
+     *         (boolean) is set as well.
      */
     public static JsonObject parseAtcWorklist(String xml) {
         JsonObject result = new JsonObject();
@@ -619,54 +656,34 @@ public final class AdtXmlParser {
         }
 
         try {
-            Document doc = parseDocument(xml);
-
-            // ATC worklist has <atcobject> elements, each containing <atcfinding> children
-            NodeList objNodes = doc.getElementsByTagNameNS(NS_ATC, "object");
-            if (objNodes.getLength() == 0) {
-                objNodes = doc.getElementsByTagName("atcobject");
-            }
-            if (objNodes.getLength() == 0) {
-                // Try generic <object> elements under worklist namespace
-                objNodes = doc.getElementsByTagName("object");
-            }
-
-            for (int i = 0; i < objNodes.getLength(); i++) {
-                Element objEl = (Element) objNodes.item(i);
-                JsonObject obj = new JsonObject();
-                obj.addProperty("name", attr(objEl, "adtcore:name",
-                        attr(objEl, "name", "")));
-                obj.addProperty("type", attr(objEl, "adtcore:type",
-                        attr(objEl, "type", "")));
-                obj.addProperty("uri", attr(objEl, "adtcore:uri",
-                        attr(objEl, "uri", "")));
-
-                JsonArray findings = new JsonArray();
-
-                // Find finding child elements
-                NodeList findingNodes = objEl.getElementsByTagNameNS(NS_ATC, "finding");
-                if (findingNodes.getLength() == 0) {
-                    findingNodes = objEl.getElementsByTagName("atcfinding");
-                }
-                if (findingNodes.getLength() == 0) {
-                    findingNodes = objEl.getElementsByTagName("finding");
+            // ATC worklist has <atcobject> elements, each containing <atcfinding> children.
+            // Generic <object> elements under the worklist namespace are the last resort.
+            Tag[] objTags = {
+                    Tag.ns(NS_ATC, "object").deep(),
+                    Tag.ns(NS_ATC_OBJECT, "object").deep(),
+                    Tag.tag("atcobject").deep(),
+                    Tag.tag("object").deep()
+            };
+            Tag worklistTag = Tag.ns(NS_ATC_WORKLIST, "worklist");
+            Fallback<JsonObject> parsed = new Fallback<>();
+
+            AdtXmlStream.stream(xml, root -> {
+                if (worklistTag.matches(root)) {
+                    String complete = root.attr("atcworklist:objectSetIsComplete",
+                            root.attr("objectSetIsComplete", ""));
+                    if (!complete.isEmpty()) {
+                        result.addProperty("objectSetIsComplete", Boolean.parseBoolean(complete));
+                    }
+                    return;
                 }
-
-                for (int j = 0; j < findingNodes.getLength(); j++) {
-                    Element fEl = (Element) findingNodes.item(j);
-                    JsonObject finding = new JsonObject();
-                    finding.addProperty("priority", attr(fEl, "priority",
-                            childText(fEl, "priority", "")));
-                    finding.addProperty("checkTitle", attr(fEl, "checkTitle",
-                            childText(fEl, "checkTitle", "")));
-                    finding.addProperty("messageTitle", attr(fEl, "messageTitle",
-                            childText(fEl, "messageTitle", "")));
-                    finding.addProperty("location", attr(fEl, "location",
-                            attr(fEl, "uri", childText(fEl, "location", ""))));
-                    findings.add(finding);
+                for (int rank = 0; rank < objTags.length && parsed.accepts(rank); rank++) {
+                    for (XmlElement objEl : root.selfAndDescendants(objTags[rank])) {
+                        parsed.add(rank, atcObject(objEl));
+                    }
                 }
+            }, worklistTag, objTags[0], objTags[1], objTags[2], objTags[3]);
 
-                obj.add("findings", findings);
+            for (JsonObject obj : parsed.result()) {
                 objects.add(obj);
             }
 
@@ -677,6 +694,42 @@ public final class AdtXmlParser {
         return result;
     }
 
+    private static JsonObject atcObject(XmlElement objEl) {
+        JsonObject obj = new JsonObject();
+        obj.addProperty("name", objEl.attr("adtcore:name", objEl.attr("name", "")));
+        obj.addProperty("type", objEl.attr("adtcore:type", objEl.attr("type", "")));
+        obj.addProperty("uri", objEl.attr("adtcore:uri", objEl.attr("uri", "")));
+
+        // Find finding child elements
+        List<XmlElement> findingNodes = objEl.descendants(Tag.ns(NS_ATC, "finding"));
+        if (findingNodes.isEmpty()) {
+            findingNodes = objEl.descendants(Tag.ns(NS_ATC_FINDING, "finding"));
+        }
+        if (findingNodes.isEmpty()) {
+            findingNodes = objEl.descendants(Tag.tag("atcfinding"));
+        }
+        if (findingNodes.isEmpty()) {
+            findingNodes = objEl.descendants(Tag.tag("finding"));
+        }
+
+        JsonArray findings = new JsonArray();
+        for (XmlElement fEl : findingNodes) {
+            JsonObject finding = new JsonObject();
+            finding.addProperty("priority", fEl.attr("priority", fEl.attr("atcfinding:priority",
+                    fEl.childText(Tag.tag("priority"), ""))));
+            finding.addProperty("checkTitle", fEl.attr("checkTitle", fEl.attr("atcfinding:checkTitle",
+                    fEl.childText(Tag.tag("checkTitle"), ""))));
+            finding.addProperty("messageTitle", fEl.attr("messageTitle", fEl.attr("atcfinding:messageTitle",
+                    fEl.childText(Tag.tag("messageTitle"), ""))));
+            finding.addProperty("location", fEl.attr("location", fEl.attr("atcfinding:location",
+                    fEl.attr("uri", fEl.attr("adtcore:uri", fEl.childText(Tag.tag("location"), ""))))));
+            findings.add(finding);
+        }
+
+        obj.add("findings", findings);
+        return obj;
+    }
+
     // ---------------------------------------------------------------
     // Activation result
     // ---------------------------------------------------------------
@@ -809,6 +862,22 @@ public final class AdtXmlParser {
                 nodes.add(node);
             }
 
+            // nodestructure responses (asx:abap) carry the node fields as child elements
+            if (nodeEls.getLength() == 0) {
+                NodeList repoNodes = doc.getElementsByTagName("SEU_ADT_REPOSITORY_OBJ_NODE");
+                for (int i = 0; i < repoNodes.getLength(); i++) {
+                    Element el = (Element) repoNodes.item(i);
+                    JsonObject node = new JsonObject();
+                    node.addProperty("name", childElementText(el, "OBJECT_NAME", ""));
+                    node.addProperty("type", childElementText(el, "OBJECT_TYPE", ""));
+                    node.addProperty("uri", childElementText(el, "OBJECT_URI", ""));
+                    node.addProperty("description", childElementText(el, "DESCRIPTION", ""));
+                    node.addProperty("expandable",
+                            "X".equalsIgnoreCase(childElementText(el, "EXPANDABLE", "")));
+                    nodes.add(node);
+                }
+            }
+
         } catch (Exception e) {
             System.err.println("AdtXmlParser.parseNodeContents failed: " + e.getMessage());
         }
@@ -816,6 +885,222 @@ public final class AdtXmlParser {
         return result;
     }
 
+    // ---------------------------------------------------------------
+    // Usage references (where-used list)
+    // ---------------------------------------------------------------
+
+    /**
+     * Parse a usage references response and group the hits by the object
+     * they occur in.
+     *
+     * <p>Example input: the XML returned by
+     * {@code POST /sap/bc/adt/repository/informationsystem/usagereferences?uri=...}.
+     * The response is a flat list of {@code <usageReferences:referencedObject>}
+     * nodes linked by {@code parentUri} (package &rarr; object &rarr; method
+     * etc.); nodes with {@code isResult="true"} are the actual usages.</p>
+     *
+     * <p>Each usage is attributed to its top-most non-package ancestor, so
+     * all hits in the methods of one class form one group. Duplicate nodes
+     * are counted once. Groups are sorted by package and name, and only the
+     * page {@code [offset, offset + limit)} is returned.</p>
+     *
+     * @param xml    raw XML string
+     * @param offset index of the first object group to return
+     * @param limit  maximum number of object groups to return
+     * @return JsonObject with "totalObjects", "totalReferences", "offset",
+     *         "returned", "nextOffset" (if more), "byType" (object count per
+     *         type) and "objects" array. Each object has: name, type, uri,
+     *         packageName, references, and "usages" (names of the
+     *         sub-elements containing hits, if any)
+     */
+    public static JsonObject parseUsageReferences(String xml, int offset, int limit) {
+        JsonObject result = new JsonObject();
+        JsonArray objects = new JsonArray();
+
+        Map<String, UsageNode> nodes = new LinkedHashMap<>();
+        if (!isBlank(xml)) {
+            try {
+                Tag[] refTags = {
+                        Tag.ns(NS_USAGE_REFERENCES, "referencedObject").deep(),
+                        Tag.tag("referencedObject").deep()
+                };
+                Tag rootTag = Tag.ns(NS_USAGE_REFERENCES, "usageReferenceResult");
+                Fallback<UsageNode> parsed = new Fallback<>();
+
+                AdtXmlStream.stream(xml, root -> {
+                    if (rootTag.matches(root)) {
+                        String reported = root.attr("numberOfResults", "");
+                        if (!reported.isEmpty()) {
+                            result.addProperty("reportedResults", reported);
+                        }
+                        return;
+                    }
+                    for (int rank = 0; rank < refTags.length && parsed.accepts(rank); rank++) {
+                        for (XmlElement ref : root.selfAndDescendants(refTags[rank])) {
+                            parsed.add(rank, usageNode(ref));
+                        }
+                    }
+                }, rootTag, refTags[0], refTags[1]);
+
+                for (UsageNode node : parsed.result()) {
+                    nodes.putIfAbsent(node.uri, node);
+                }
+            } catch (Exception e) {
+                System.err.println("AdtXmlParser.parseUsageReferences failed: " + e.getMessage());
+            }
+        }
+
+        // Older releases do not flag results; then every leaf below a package counts
+        boolean flagged = nodes.values().stream().anyMatch(n -> n.isResult != null);
+        Set<String> parents = new HashSet<>();
+        for (UsageNode node : nodes.values()) {
+            parents.add(node.parentUri);
+        }
+
+        Map<String, UsageGroup> groups = new LinkedHashMap<>();
+        int totalReferences = 0;
+        for (UsageNode node : nodes.values()) {
+            boolean hit = flagged ? Boolean.TRUE.equals(node.isResult)
+                    : !node.isPackage() && !parents.contains(node.uri);
+            if (!hit) {
+                continue;
+            }
+            UsageNode top = node;
+            String packageName = "";
+            UsageNode parent = nodes.get(top.parentUri);
+            // parentUri links come from the server; stop at a cycle
+            Set<UsageNode> visited = new HashSet<>();
+            visited.add(top);
+            while (parent != null && !parent.isPackage() && visited.add(parent)) {
+                top = parent;
+                parent = nodes.get(top.parentUri);
+            }
+            if (parent != null && parent.isPackage()) {
+                packageName = parent.name;
+            }
+            String key = AdtSourceCache.objectPathOf(stripFragment(top.objectUri));
+            UsageGroup group = groups.get(key);
+            if (group == null) {
+                group = new UsageGroup(top, packageName.isEmpty() ? top.packageName : packageName);
+                groups.put(key, group);
+            }
+            group.references++;
+            if (node != top && !node.name.isEmpty()) {
+                group.usages.add(node.name);
+            }
+            totalReferences++;
+        }
+
+        List<UsageGroup> sorted = new ArrayList<>(groups.values());
+        sorted.sort(Comparator.comparing((UsageGroup g) -> g.packageName).thenComparing(g -> g.name));
+
+        JsonObject byType = new JsonObject();
+        Map<String, Integer> typeCounts = new TreeMap<>();
+        for (UsageGroup group : sorted) {
+            typeCounts.merge(group.type.isEmpty() ? "?" : group.type, 1, Integer::sum);
+        }
+        typeCounts.forEach(byType::addProperty);
+
+        int from = Math.max(0, Math.min(offset, sorted.size()));
+        int to = Math.min(sorted.size(), from + Math.max(0, limit));
+        for (UsageGroup group : sorted.subList(from, to)) {
+            objects.add(group.toJson());
+        }
+
+        result.addProperty("totalObjects", sorted.size());
+        result.addProperty("totalReferences", totalReferences);
+        result.addProperty("offset", from);
+        result.addProperty("returned", objects.size());
+        if (to < sorted.size()) {
+            result.addProperty("nextOffset", to);
+        }
+        result.add("byType", byType);
+        result.add("objects", objects);
+        return result;
+    }
+
+    /** One {@code referencedObject} node of a usage references response. */
+    private static final class UsageNode {
+        String uri;
+        String parentUri;
+        Boolean isResult;
+        String name;
+        String type;
+        String objectUri;
+        String packageName;
+
+        boolean isPackage() {
+            return type.startsWith("DEVC");
+        }
+    }
+
+    /** The usages found in one object. */
+    private static final class UsageGroup {
+        final String name;
+        final String type;
+        final String uri;
+        final String packageName;
+        final Set<String> usages = new TreeSet<>();
+        int references;
+
+        UsageGroup(UsageNode top, String packageName) {
+            this.name = top.name;
+            this.type = top.type;
+            this.uri = stripFragment(top.objectUri);
+            this.packageName = packageName;
+        }
+
+        JsonObject toJson() {
+            JsonObject obj = new JsonObject();
+            obj.addProperty("name", name);
+            obj.addProperty("type", type);
+            obj.addProperty("uri", uri);
+            obj.addProperty("packageName", packageName);
+            obj.addProperty("references", references);
+            if (!usages.isEmpty()) {
+                JsonArray list = new JsonArray();
+                int n = 0;
+                for (String usage : usages) {
+                    if (n++ == MAX_USAGES_PER_OBJECT) {
+                        break;
+                    }
+                    list.add(usage);
+                }
+                obj.add("usages", list);
+                if (usages.size() > MAX_USAGES_PER_OBJECT) {
+                    obj.addProperty("moreUsages", usages.size() - MAX_USAGES_PER_OBJECT);
+                }
+            }
+            return obj;
+        }
+    }
+
+    private static UsageNode usageNode(XmlElement ref) {
+        UsageNode node = new UsageNode();
+        node.uri = ref.attr("uri", ref.attr("usageReferences:uri", ""));
+        node.parentUri = ref.attr("parentUri", ref.attr("usageReferences:parentUri", ""));
+        String isResult = ref.attr("isResult", ref.attr("usageReferences:isResult", ""));
+        node.isResult = isResult.isEmpty() ? null : Boolean.valueOf(isResult);
+
+        XmlElement obj = ref.firstDescendant(Tag.ns(NS_USAGE_REFERENCES, "adtObject"));
+        if (obj == null) {
+            obj = ref.firstDescendant(Tag.tag("adtObject"));
+        }
+        XmlElement source = obj != null ? obj : ref;
+        node.name = source.attr("adtcore:name", source.attr("name", ""));
+        node.type = source.attr("adtcore:type", source.attr("type", ""));
+        node.objectUri = source.attr("adtcore:uri", node.uri);
+
+        XmlElement pkg = source.firstDescendant(Tag.ns(NS_ADT_CORE, "packageRef"));
+        node.packageName = pkg != null ? pkg.attr("adtcore:name", pkg.attr("name", "")) : "";
+        return node;
+    }
+
+    private static String stripFragment(String uri) {
+        int hash = uri.indexOf('#');
+        return hash >= 0 ? uri.substring(0, hash) : uri;
+    }
+
     // ---------------------------------------------------------------
     // Unit test results (AUnit)
     // ---------------------------------------------------------------
@@ -845,76 +1130,43 @@ public final class AdtXmlParser {
             return result;
         }
 
-        int totalTests = 0;
-        int failures = 0;
-        int errors = 0;
-
         try {
-            Document doc = parseDocument(xml);
-
             // Find <program> elements under the root runResult
-            NodeList programNodes = doc.getElementsByTagName("program");
-
-            for (int p = 0; p < programNodes.getLength(); p++) {
-                Element programEl = (Element) programNodes.item(p);
-
-                // Find <testClass> elements
-                NodeList classNodes = programEl.getElementsByTagName("testClass");
-
-                for (int c = 0; c < classNodes.getLength(); c++) {
-                    Element classEl = (Element) classNodes.item(c);
-                    JsonObject testClass = new JsonObject();
-                    testClass.addProperty("name", attr(classEl, "adtcore:name",
-                            attr(classEl, "name", "")));
-                    testClass.addProperty("uri", attr(classEl, "adtcore:uri",
-                            attr(classEl, "uri", "")));
-                    testClass.addProperty("type", attr(classEl, "adtcore:type",
-                            attr(classEl, "type", "")));
-                    testClass.addProperty("riskLevel", attr(classEl, "riskLevel", ""));
-                    testClass.addProperty("durationCategory", attr(classEl, "durationCategory", ""));
-
-                    // Class-level alerts
-                    JsonArray classAlerts = parseAlerts(classEl);
-                    testClass.add("alerts", classAlerts);
-                    if (classAlerts.size() > 0) {
-                        errors += countAlertsByKind(classAlerts, "exception");
-                        failures += countAlertsByKind(classAlerts, "failedAssertion");
-                    }
+            Tag programTag = Tag.tag("program").deep();
+            JsonArray parsed = new JsonArray();
 
-                    // Test methods
-                    JsonArray methods = new JsonArray();
-                    NodeList methodNodes = classEl.getElementsByTagName("testMethod");
-
-                    for (int m = 0; m < methodNodes.getLength(); m++) {
-                        Element methodEl = (Element) methodNodes.item(m);
-                        JsonObject method = new JsonObject();
-                        method.addProperty("name", attr(methodEl, "adtcore:name",
-                                attr(methodEl, "name", "")));
-                        method.addProperty("uri", attr(methodEl, "adtcore:uri",
-                                attr(methodEl, "uri", "")));
-                        method.addProperty("executionTime",
-                                attr(methodEl, "executionTime", "0"));
-                        method.addProperty("unit", attr(methodEl, "unit", "s"));
-
-                        JsonArray methodAlerts = parseAlerts(methodEl);
-                        method.add("alerts", methodAlerts);
-
-                        errors += countAlertsByKind(methodAlerts, "exception");
-                        failures += countAlertsByKind(methodAlerts, "failedAssertion");
-
-                        methods.add(method);
-                        totalTests++;
+            AdtXmlStream.stream(xml, root -> {
+                for (XmlElement programEl : root.selfAndDescendants(programTag)) {
+                    for (XmlElement classEl : programEl.descendants(Tag.tag("testClass"))) {
+                        parsed.add(testClass(classEl));
                     }
-
-                    testClass.add("testMethods", methods);
-                    testClasses.add(testClass);
                 }
-            }
+            }, programTag);
+
+            testClasses.addAll(parsed);
 
         } catch (Exception e) {
             System.err.println("AdtXmlParser.parseUnitTestResults failed: " + e.getMessage());
         }
 
+        int totalTests = 0;
+        int failures = 0;
+        int errors = 0;
+        for (int c = 0; c < testClasses.size(); c++) {
+            JsonObject testClass = testClasses.get(c).getAsJsonObject();
+            JsonArray classAlerts = testClass.getAsJsonArray("alerts");
+            errors += countAlertsByKind(classAlerts, "exception");
+            failures += countAlertsByKind(classAlerts, "failedAssertion");
+
+            JsonArray methods = testClass.getAsJsonArray("testMethods");
+            for (int m = 0; m < methods.size(); m++) {
+                JsonArray methodAlerts = methods.get(m).getAsJsonObject().getAsJsonArray("alerts");
+                errors += countAlertsByKind(methodAlerts, "exception");
+                failures += countAlertsByKind(methodAlerts, "failedAssertion");
+                totalTests++;
+            }
+        }
+
         result.addProperty("totalTests", totalTests);
         result.addProperty("failures", failures);
         result.addProperty("errors", errors);
@@ -922,33 +1174,56 @@ public final class AdtXmlParser {
         return result;
     }
 
+    private static JsonObject testClass(XmlElement classEl) {
+        JsonObject testClass = new JsonObject();
+        testClass.addProperty("name", classEl.attr("adtcore:name", classEl.attr("name", "")));
+        testClass.addProperty("uri", classEl.attr("adtcore:uri", classEl.attr("uri", "")));
+        testClass.addProperty("type", classEl.attr("adtcore:type", classEl.attr("type", "")));
+        testClass.addProperty("riskLevel", classEl.attr("riskLevel", ""));
+        testClass.addProperty("durationCategory", classEl.attr("durationCategory", ""));
+
+        // Class-level alerts
+        testClass.add("alerts", parseAlerts(classEl));
+
+        // Test methods
+        JsonArray methods = new JsonArray();
+        for (XmlElement methodEl : classEl.descendants(Tag.tag("testMethod"))) {
+            JsonObject method = new JsonObject();
+            method.addProperty("name", methodEl.attr("adtcore:name", methodEl.attr("name", "")));
+            method.addProperty("uri", methodEl.attr("adtcore:uri", methodEl.attr("uri", "")));
+            method.addProperty("executionTime", methodEl.attr("executionTime", "0"));
+            method.addProperty("unit", methodEl.attr("unit", "s"));
+            method.add("alerts", parseAlerts(methodEl));
+            methods.add(method);
+        }
+
+        testClass.add("testMethods", methods);
+        return testClass;
+    }
+
     /**
      * Parse {@code <alerts>} child elements of a test class or method element.
      */
-    private static JsonArray parseAlerts(Element parent) {
+    private static JsonArray parseAlerts(XmlElement parent) {
         JsonArray alerts = new JsonArray();
-        NodeList alertNodes = parent.getElementsByTagName("alert");
 
-        for (int i = 0; i < alertNodes.getLength(); i++) {
-            Element alertEl = (Element) alertNodes.item(i);
+        for (XmlElement alertEl : parent.descendants(Tag.tag("alert"))) {
             // Only parse direct alert children (not nested inside other testMethods)
-            if (!alertEl.getParentNode().getLocalName().equals("alerts")
-                    || !alertEl.getParentNode().getParentNode().equals(parent)) {
+            if (!alertEl.parent.localName.equals("alerts")
+                    || alertEl.parent.parent != parent) {
                 continue;
             }
 
             JsonObject alert = new JsonObject();
-            alert.addProperty("kind", attr(alertEl, "kind", ""));
-            alert.addProperty("severity", attr(alertEl, "severity", ""));
-            alert.addProperty("title", childText(alertEl, "title", ""));
+            alert.addProperty("kind", alertEl.attr("kind", ""));
+            alert.addProperty("severity", alertEl.attr("severity", ""));
+            alert.addProperty("title", alertEl.childText(Tag.tag("title"), ""));
 
             // Details
             JsonArray details = new JsonArray();
-            NodeList detailNodes = alertEl.getElementsByTagName("detail");
-            for (int d = 0; d < detailNodes.getLength(); d++) {
-                Element detailEl = (Element) detailNodes.item(d);
-                String text = attr(detailEl, "text", detailEl.getTextContent());
-                if (text != null && !text.trim().isEmpty()) {
+            for (XmlElement detailEl : alertEl.descendants(Tag.tag("detail"))) {
+                String text = detailEl.attr("text", detailEl.textContent());
+                if (!text.trim().isEmpty()) {
                     details.add(text.trim());
                 }
             }
@@ -956,11 +1231,9 @@ public final class AdtXmlParser {
 
             // Stack
             JsonArray stack = new JsonArray();
-            NodeList stackNodes = alertEl.getElementsByTagName("stackEntry");
-            for (int s = 0; s < stackNodes.getLength(); s++) {
-                Element stackEl = (Element) stackNodes.item(s);
-                String desc = attr(stackEl, "adtcore:description",
-                        attr(stackEl, "description", ""));
+            for (XmlElement stackEl : alertEl.descendants(Tag.tag("stackEntry"))) {
+                String desc = stackEl.attr("adtcore:description",
+                        stackEl.attr("description", ""));
                 if (!desc.isEmpty()) {
                     stack.add(desc);
                 }
@@ -1012,89 +1285,54 @@ public final class AdtXmlParser {
         }
 
         try {
-            Document doc = parseDocument(xml);
-            Element root = doc.getDocumentElement();
+            Tag[] totalRowsTags = {
+                    Tag.tag("dataPreview:totalRows").deep(), Tag.tag("totalRows").deep() };
+            Tag[] execTimeTags = {
+                    Tag.tag("dataPreview:queryExecutionTime").deep(), Tag.tag("queryExecutionTime").deep() };
+            Tag[] columnsTags = {
+                    Tag.tag("dataPreview:columns").deep(), Tag.tag("columns").deep() };
+            Fallback<String> totalRows = new Fallback<>();
+            Fallback<String> execTime = new Fallback<>();
+            Fallback<JsonArray> columnSets = new Fallback<>();
+
+            // Only the first element of the best rank is used
+            AdtXmlStream.stream(xml, root -> {
+                for (int rank = 0; rank < 2; rank++) {
+                    for (XmlElement el : root.selfAndDescendants(totalRowsTags[rank])) {
+                        if (rank < totalRows.rank()) {
+                            totalRows.add(rank, el.textContent());
+                        }
+                    }
+                    for (XmlElement el : root.selfAndDescendants(execTimeTags[rank])) {
+                        if (rank < execTime.rank()) {
+                            execTime.add(rank, el.textContent());
+                        }
+                    }
+                    for (XmlElement el : root.selfAndDescendants(columnsTags[rank])) {
+                        if (rank < columnSets.rank()) {
+                            columnSets.add(rank, dataPreviewColumns(el));
+                        }
+                    }
+                }
+            }, totalRowsTags[0], totalRowsTags[1], execTimeTags[0], execTimeTags[1],
+                    columnsTags[0], columnsTags[1]);
 
             // Total rows
-            NodeList totalRowsNodes = doc.getElementsByTagName("dataPreview:totalRows");
-            if (totalRowsNodes.getLength() == 0) {
-                totalRowsNodes = doc.getElementsByTagName("totalRows");
-            }
-            if (totalRowsNodes.getLength() > 0) {
+            if (totalRows.first() != null) {
                 try {
-                    result.addProperty("totalRows",
-                            Integer.parseInt(totalRowsNodes.item(0).getTextContent().trim()));
+                    result.addProperty("totalRows", Integer.parseInt(totalRows.first().trim()));
                 } catch (NumberFormatException e) {
                     // ignore
                 }
             }
 
             // Execution time
-            NodeList execTimeNodes = doc.getElementsByTagName("dataPreview:queryExecutionTime");
-            if (execTimeNodes.getLength() == 0) {
-                execTimeNodes = doc.getElementsByTagName("queryExecutionTime");
-            }
-            if (execTimeNodes.getLength() > 0) {
-                result.addProperty("executionTime",
-                        execTimeNodes.item(0).getTextContent().trim());
+            if (execTime.first() != null) {
+                result.addProperty("executionTime", execTime.first().trim());
             }
 
-            // Columns: each <column> contains <metadata> (attributes) and <dataSet>/<data> (values)
-            NodeList columnsNodes = doc.getElementsByTagName("dataPreview:columns");
-            if (columnsNodes.getLength() == 0) {
-                columnsNodes = doc.getElementsByTagName("columns");
-            }
-            if (columnsNodes.getLength() > 0) {
-                Element columnsEl = (Element) columnsNodes.item(0);
-                NodeList columnNodes = columnsEl.getElementsByTagName("dataPreview:column");
-                if (columnNodes.getLength() == 0) {
-                    columnNodes = columnsEl.getElementsByTagName("column");
-                }
-                for (int i = 0; i < columnNodes.getLength(); i++) {
-                    Element colEl = (Element) columnNodes.item(i);
-
-                    // Extract metadata attributes from <metadata> child
-                    String colName = "col_" + i;
-                    String colType = "";
-                    String colDescription = "";
-                    NodeList metaNodes = colEl.getElementsByTagName("dataPreview:metadata");
-                    if (metaNodes.getLength() == 0) {
-                        metaNodes = colEl.getElementsByTagName("metadata");
-                    }
-                    if (metaNodes.getLength() > 0) {
-                        Element meta = (Element) metaNodes.item(0);
-                        colName = attr(meta, "name", attr(meta, "dataPreview:name", colName));
-                        colType = attr(meta, "type", attr(meta, "dataPreview:type", ""));
-                        colDescription = attr(meta, "description",
-                                attr(meta, "dataPreview:description", ""));
-                    }
-
-                    JsonObject colObj = new JsonObject();
-                    colObj.addProperty("name", colName);
-                    colObj.addProperty("type", colType);
-                    if (!colDescription.isEmpty()) {
-                        colObj.addProperty("description", colDescription);
-                    }
-
-                    // Extract data values from <dataSet>/<data> children
-                    JsonArray values = new JsonArray();
-                    NodeList dataSetNodes = colEl.getElementsByTagName("dataPreview:dataSet");
-                    if (dataSetNodes.getLength() == 0) {
-                        dataSetNodes = colEl.getElementsByTagName("dataSet");
-                    }
-                    if (dataSetNodes.getLength() > 0) {
-                        Element dataSet = (Element) dataSetNodes.item(0);
-                        NodeList dataNodes = dataSet.getElementsByTagName("dataPreview:data");
-                        if (dataNodes.getLength() == 0) {
-                            dataNodes = dataSet.getElementsByTagName("data");
-                        }
-                        for (int j = 0; j < dataNodes.getLength(); j++) {
-                            values.add(dataNodes.item(j).getTextContent());
-                        }
-                    }
-                    colObj.add("values", values);
-                    columns.add(colObj);
-                }
+            if (columnSets.first() != null) {
+                columns.addAll(columnSets.first());
             }
 
         } catch (Exception e) {
@@ -1104,6 +1342,62 @@ public final class AdtXmlParser {
         return result;
     }
 
+    /**
+     * Columns: each {@code <column>} contains {@code <metadata>} (attributes)
+     * and {@code <dataSet>/<data>} (values).
+     */
+    private static JsonArray dataPreviewColumns(XmlElement columnsEl) {
+        JsonArray columns = new JsonArray();
+        List<XmlElement> columnNodes = columnsEl.descendants(Tag.tag("dataPreview:column"));
+        if (columnNodes.isEmpty()) {
+            columnNodes = columnsEl.descendants(Tag.tag("column"));
+        }
+        for (int i = 0; i < columnNodes.size(); i++) {
+            XmlElement colEl = columnNodes.get(i);
+
+            // Extract metadata attributes from <metadata> child
+            String colName = "col_" + i;
+            String colType = "";
+            String colDescription = "";
+            XmlElement meta = colEl.firstDescendant(Tag.tag("dataPreview:metadata"));
+            if (meta == null) {
+                meta = colEl.firstDescendant(Tag.tag("metadata"));
+            }
+            if (meta != null) {
+                colName = meta.attr("name", meta.attr("dataPreview:name", colName));
+                colType = meta.attr("type", meta.attr("dataPreview:type", ""));
+                colDescription = meta.attr("description",
+                        meta.attr("dataPreview:description", ""));
+            }
+
+            JsonObject colObj = new JsonObject();
+            colObj.addProperty("name", colName);
+            colObj.addProperty("type", colType);
+            if (!colDescription.isEmpty()) {
+                colObj.addProperty("description", colDescription);
+            }
+
+            // Extract data values from <dataSet>/<data> children
+            JsonArray values = new JsonArray();
+            XmlElement dataSet = colEl.firstDescendant(Tag.tag("dataPreview:dataSet"));
+            if (dataSet == null) {
+                dataSet = colEl.firstDescendant(Tag.tag("dataSet"));
+            }
+            if (dataSet != null) {
+                List<XmlElement> dataNodes = dataSet.descendants(Tag.tag("dataPreview:data"));
+                if (dataNodes.isEmpty()) {
+                    dataNodes = dataSet.descendants(Tag.tag("data"));
+                }
+                for (XmlElement data : dataNodes) {
+                    values.add(data.textContent());
+                }
+            }
+            colObj.add("values", values);
+            columns.add(colObj);
+        }
+        return columns;
+    }
+
     // ---------------------------------------------------------------
     // Inactive objects
     // ---------------------------------------------------------------
@@ -1125,62 +1419,31 @@ public final class AdtXmlParser {
         }
 
         try {
-            Document doc = parseDocument(xml);
-
-            // Try <ioc:entry> elements first
-            NodeList entries = doc.getElementsByTagName("ioc:entry");
-            if (entries.getLength() == 0) {
-                entries = doc.getElementsByTagName("entry");
-            }
-
-            for (int i = 0; i < entries.getLength(); i++) {
-                Element entry = (Element) entries.item(i);
-                JsonObject obj = new JsonObject();
-
-                // Look for objectReference inside entry
-                NodeList refs = entry.getElementsByTagName("ioc:objectReference");
-                if (refs.getLength() == 0) {
-                    refs = entry.getElementsByTagNameNS(NS_ADT_CORE, "objectReference");
-                }
-                if (refs.getLength() == 0) {
-                    refs = entry.getElementsByTagName("objectReference");
+            // Try <ioc:entry> elements first; standalone <objectReference>
+            // elements are only used when no entry yields a named object
+            Tag[] entryTags = { Tag.tag("ioc:entry").deep(), Tag.tag("entry").deep() };
+            Tag[] refTags = { Tag.ns(NS_ADT_CORE, "objectReference"), Tag.tag("objectReference") };
+            Fallback<JsonObject> entries = new Fallback<>();
+            Fallback<JsonObject> refs = new Fallback<>();
+
+            AdtXmlStream.stream(xml, root -> {
+                for (int rank = 0; rank < entryTags.length && entries.accepts(rank); rank++) {
+                    for (XmlElement entry : root.selfAndDescendants(entryTags[rank])) {
+                        entries.add(rank, inactiveEntry(entry));
+                    }
                 }
-
-                if (refs.getLength() > 0) {
-                    Element ref = (Element) refs.item(0);
-                    obj.addProperty("name", attr(ref, "adtcore:name", attr(ref, "name", "")));
-                    obj.addProperty("type", attr(ref, "adtcore:type", attr(ref, "type", "")));
-                    obj.addProperty("uri", attr(ref, "adtcore:uri", attr(ref, "uri", "")));
-                } else {
-                    // Fallback: attributes on entry itself
-                    obj.addProperty("name", attr(entry, "adtcore:name", attr(entry, "name", "")));
-                    obj.addProperty("type", attr(entry, "adtcore:type", attr(entry, "type", "")));
-                    obj.addProperty("uri", attr(entry, "adtcore:uri", attr(entry, "uri", "")));
+                for (int rank = 0; rank < refTags.length && refs.accepts(rank); rank++) {
+                    for (XmlElement ref : root.selfAndDescendants(refTags[rank])) {
+                        refs.add(rank, objectReference(ref));
+                    }
                 }
+            }, entryTags[0], entryTags[1], refTags[0], refTags[1]);
 
-                String name = obj.get("name").getAsString();
-                if (!name.isEmpty()) {
-                    objects.add(obj);
-                }
-            }
+            addNamed(objects, entries.result());
 
             // Also try standalone objectReference elements
             if (objects.size() == 0) {
-                NodeList refs = doc.getElementsByTagNameNS(NS_ADT_CORE, "objectReference");
-                if (refs.getLength() == 0) {
-                    refs = doc.getElementsByTagName("objectReference");
-                }
-                for (int i = 0; i < refs.getLength(); i++) {
-                    Element ref = (Element) refs.item(i);
-                    JsonObject obj = new JsonObject();
-                    obj.addProperty("name", attr(ref, "adtcore:name", attr(ref, "name", "")));
-                    obj.addProperty("type", attr(ref, "adtcore:type", attr(ref, "type", "")));
-                    obj.addProperty("uri", attr(ref, "adtcore:uri", attr(ref, "uri", "")));
-                    String name = obj.get("name").getAsString();
-                    if (!name.isEmpty()) {
-                        objects.add(obj);
-                    }
-                }
+                addNamed(objects, refs.result());
             }
 
         } catch (Exception e) {
@@ -1190,6 +1453,35 @@ public final class AdtXmlParser {
         return result;
     }
 
+    private static JsonObject inactiveEntry(XmlElement entry) {
+        // Look for objectReference inside entry
+        XmlElement ref = entry.firstDescendant(Tag.tag("ioc:objectReference"));
+        if (ref == null) {
+            ref = entry.firstDescendant(Tag.ns(NS_ADT_CORE, "objectReference"));
+        }
+        if (ref == null) {
+            ref = entry.firstDescendant(Tag.tag("objectReference"));
+        }
+        // Fallback: attributes on entry itself
+        return objectReference(ref != null ? ref : entry);
+    }
+
+    private static JsonObject objectReference(XmlElement ref) {
+        JsonObject obj = new JsonObject();
+        obj.addProperty("name", ref.attr("adtcore:name", ref.attr("name", "")));
+        obj.addProperty("type", ref.attr("adtcore:type", ref.attr("type", "")));
+        obj.addProperty("uri", ref.attr("adtcore:uri", ref.attr("uri", "")));
+        return obj;
+    }
+
+    private static void addNamed(JsonArray objects, List<JsonObject> candidates) {
+        for (JsonObject obj : candidates) {
+            if (!obj.get("name").getAsString().isEmpty()) {
+                objects.add(obj);
+            }
+        }
+    }
+
     // ---------------------------------------------------------------
     // Transport request list
     // ---------------------------------------------------------------
@@ -1212,19 +1504,22 @@ public final class AdtXmlParser {
         }
 
         try {
-            Document doc = parseDocument(xml);
-
             // Look for <tm:request> elements
-            NodeList requests = doc.getElementsByTagName("tm:request");
-            if (requests.getLength() == 0) {
-                requests = doc.getElementsByTagName("request");
-            }
+            Tag[] requestTags = { Tag.tag("tm:request"), Tag.tag("request") };
+            Fallback<XmlElement> requests = new Fallback<>();
+
+            AdtXmlStream.stream(xml, req -> {
+                for (int rank = 0; rank < requestTags.length; rank++) {
+                    if (requestTags[rank].matches(req)) {
+                        requests.add(rank, req);
+                    }
+                }
+            }, requestTags);
 
-            for (int i = 0; i < requests.getLength(); i++) {
-                Element req = (Element) requests.item(i);
-                String number = attr(req, "tm:number", attr(req, "number", ""));
-                String desc = attr(req, "tm:desc", attr(req, "desc",
-                        attr(req, "description", "")));
+            for (XmlElement req : requests.result()) {
+                String number = req.attr("tm:number", req.attr("number", ""));
+                String desc = req.attr("tm:desc", req.attr("desc",
+                        req.attr("description", "")));
 
                 if (!number.isEmpty()) {
                     entries.add(new com.sap.ai.assistant.model.TransportSelectionRequest.TransportEntry(
@@ -1245,21 +1540,30 @@ public final class AdtXmlParser {
 
     /**
      * Parse an XML string into a DOM Document. The parser is configured
-     * to be namespace-aware and to ignore DTDs.
+     * to be namespace-aware and to ignore DTDs. Builders are reused per
+     * thread instead of creating a new factory for every response.
      */
     private static Document parseDocument(String xml) throws Exception {
-        DocumentBuilderFactory factory = DocumentBuilderFactory.newInstance();
-        factory.setNamespaceAware(true);
-        // Disable external entities for security
-        factory.setFeature("http://apache.org/xml/features/disallow-doctype-decl", false);
-        factory.setFeature("http://xml.org/sax/features/external-general-entities", false);
-        factory.setFeature("http://xml.org/sax/features/external-parameter-entities", false);
-
-        DocumentBuilder builder = factory.newDocumentBuilder();
+        DocumentBuilder builder = DOCUMENT_BUILDER.get();
+        builder.reset();
         InputSource source = new InputSource(new StringReader(xml));
         return builder.parse(source);
     }
 
+    private static DocumentBuilder newDocumentBuilder() {
+        try {
+            DocumentBuilderFactory factory = DocumentBuilderFactory.newInstance();
+            factory.setNamespaceAware(true);
+            // Disable external entities for security
+            factory.setFeature("http://apache.org/xml/features/disallow-doctype-decl", false);
+            factory.setFeature("http://xml.org/sax/features/external-general-entities", false);
+            factory.setFeature("http://xml.org/sax/features/external-parameter-entities", false);
+            return factory.newDocumentBuilder();
+        } catch (Exception e) {
+            throw new IllegalStateException("Cannot create XML document builder", e);
+        }
+    }
+
     /**
      * Get an attribute value from an element, or a default if absent.
      */
@@ -1272,57 +1576,32 @@ public final class AdtXmlParser {
     }
 
     /**
-     * Get the text content of the first child element with the given
-     * tag name, or a default value.
+     * Get the trimmed text of the first direct child element with the
+     * given name, or a default if there is none or it is blank.
      */
-    private static String childText(Element parent, String tagName, String defaultValue) {
-        if (parent == null) {
-            return defaultValue;
-        }
-        NodeList children = parent.getElementsByTagName(tagName);
-        if (children.getLength() > 0) {
-            String text = children.item(0).getTextContent();
-            return (text != null && !text.trim().isEmpty()) ? text.trim() : defaultValue;
-        }
-        return defaultValue;
-    }
-
-    /**
-     * Get an attribute of the first child element with the given tag name.
-     */
-    private static String childAttr(Element parent, String tagName,
-                                    String attrName, String defaultValue) {
-        if (parent == null) {
-            return defaultValue;
-        }
-        NodeList children = parent.getElementsByTagName(tagName);
-        if (children.getLength() > 0) {
-            Element child = (Element) children.item(0);
-            return attr(child, attrName, defaultValue);
+    private static String childElementText(Element el, String childName, String defaultValue) {
+        for (Node child = el.getFirstChild(); child != null; child = child.getNextSibling()) {
+            if (child.getNodeType() == Node.ELEMENT_NODE && childName.equals(child.getNodeName())) {
+                String text = child.getTextContent().trim();
+                return text.isEmpty() ? defaultValue : text;
+            }
         }
         return defaultValue;
     }
 
     /**
-     * If the element has a "text" attribute, return it; otherwise
-     * try the text content of a "text" child; otherwise use default.
+     * If the element has an attribute with the given name, return it;
+     * otherwise use the trimmed text content of the element itself, or
+     * the default if it is blank.
      */
-    private static String textContentOrChild(Element el, String tagName,
+    private static String textContentOrChild(XmlElement el, String tagName,
                                              String defaultValue) {
-        if (el == null) {
-            return defaultValue;
-        }
-        // First try as attribute
-        String attrVal = el.getAttribute(tagName);
-        if (attrVal != null && !attrVal.isEmpty()) {
+        String attrVal = el.attr(tagName, null);
+        if (attrVal != null) {
             return attrVal;
         }
-        // Then try text content of the element itself
-        String text = el.getTextContent();
-        if (text != null && !text.trim().isEmpty()) {
-            return text.trim();
-        }
-        return defaultValue;
+        String text = el.textContent().trim();
+        return text.isEmpty() ? defaultValue : text;
     }
 
     /**
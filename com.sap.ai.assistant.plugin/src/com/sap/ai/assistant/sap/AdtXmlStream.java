@@ -0,0 +1,396 @@
+package com.sap.ai.assistant.sap;
+
+import java.io.StringReader;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Deque;
+import java.util.List;
+import java.util.function.Consumer;
+
+import javax.xml.stream.XMLInputFactory;
+import javax.xml.stream.XMLStreamConstants;
+import javax.xml.stream.XMLStreamException;
+import javax.xml.stream.XMLStreamReader;
+
+/**
+ * Pull-parser support for {@link AdtXmlParser}.
+ * <p>
+ * Instead of building a DOM for the whole response, {@link #stream} reads the
+ * XML with StAX and only materialises the elements the caller asks for: each
+ * element matching one of the given {@link Tag}s is handed to a consumer as
+ * a small {@link XmlElement}, after which it can be garbage collected. A
+ * {@link Tag#deep() deep} tag captures the complete subtree of the matching
+ * element; a shallow tag captures only the element and its attributes.
+ * </p>
+ * <p>
+ * The DOM code tried several element names in turn ("use {@code tm:request},
+ * or {@code request} if there are none"). Since a stream is read only once,
+ * all candidates are collected together in a {@link Fallback}, which keeps
+ * only the matches of the most preferred name seen so far.
+ * </p>
+ * <p>
+ * The matching rules and helper methods mirror the DOM calls they replace:
+ * {@link Tag#tag(String)} behaves like {@code getElementsByTagName} (qualified
+ * name), {@link Tag#ns(String, String)} like {@code getElementsByTagNameNS},
+ * {@link XmlElement#attr} like {@code getAttribute} and
+ * {@link XmlElement#textContent()} like {@code getTextContent}.
+ * </p>
+ */
+final class AdtXmlStream {
+
+    private static final XMLInputFactory FACTORY = createFactory();
+
+    private AdtXmlStream() {
+        // utility class -- no instances
+    }
+
+    // ---------------------------------------------------------------
+    // Element name patterns
+    // ---------------------------------------------------------------
+
+    /**
+     * Element name pattern, matched either by qualified name or by
+     * namespace URI + local name.
+     */
+    static final class Tag {
+        private final String namespace;
+        private final String name;
+        private final boolean deep;
+
+        private Tag(String namespace, String name, boolean deep) {
+            this.namespace = namespace;
+            this.name = name;
+            this.deep = deep;
+        }
+
+        /** Matches elements by qualified name, e.g. {@code "tm:request"}. */
+        static Tag tag(String qName) {
+            return new Tag(null, qName, false);
+        }
+
+        /** Matches elements by namespace URI and local name. */
+        static Tag ns(String namespace, String localName) {
+            return new Tag(namespace, localName, false);
+        }
+
+        /** Returns a copy of this pattern that captures the whole subtree. */
+        Tag deep() {
+            return new Tag(namespace, name, true);
+        }
+
+        boolean matches(XmlElement node) {
+            return namespace != null
+                    ? namespace.equals(node.namespace) && name.equals(node.localName)
+                    : isQName(name, node.prefix, node.localName);
+        }
+    }
+
+    // ---------------------------------------------------------------
+    // Captured elements
+    // ---------------------------------------------------------------
+
+    /**
+     * A captured element: name, attributes and (for deep captures) the
+     * child elements and text in document order.
+     */
+    static final class XmlElement {
+        final String namespace;
+        final String prefix;
+        final String localName;
+        final XmlElement parent;
+        private final String[] attrPrefixes;
+        private final String[] attrNames;
+        private final String[] attrValues;
+        /** Child {@link XmlElement}s and text segments ({@link String}) in document order. */
+        private List<Object> content;
+
+        private XmlElement(XMLStreamReader reader, XmlElement parent) {
+            String uri = reader.getNamespaceURI();
+            this.namespace = (uri != null && !uri.isEmpty()) ? uri : null;
+            this.prefix = reader.getPrefix();
+            this.localName = reader.getLocalName();
+            this.parent = parent;
+
+            int count = reader.getAttributeCount();
+            this.attrPrefixes = new String[count];
+            this.attrNames = new String[count];
+            this.attrValues = new String[count];
+            for (int i = 0; i < count; i++) {
+                attrPrefixes[i] = reader.getAttributePrefix(i);
+                attrNames[i] = reader.getAttributeLocalName(i);
+                attrValues[i] = reader.getAttributeValue(i);
+            }
+        }
+
+        private void add(Object child) {
+            if (content == null) {
+                content = new ArrayList<>(4);
+            }
+            content.add(child);
+        }
+
+        /**
+         * Returns the attribute with the given qualified name, or the
+         * default if it is absent or empty.
+         */
+        String attr(String attrQName, String defaultValue) {
+            for (int i = 0; i < attrNames.length; i++) {
+                if (isQName(attrQName, attrPrefixes[i], attrNames[i])) {
+                    String value = attrValues[i];
+                    return (value != null && !value.isEmpty()) ? value : defaultValue;
+                }
+            }
+            return defaultValue;
+        }
+
+        /** Concatenated text of this element and all its descendants. */
+        String textContent() {
+            if (content == null) {
+                return "";
+            }
+            if (content.size() == 1 && content.get(0) instanceof String) {
+                return (String) content.get(0);
+            }
+            StringBuilder sb = new StringBuilder();
+            appendText(sb);
+            return sb.toString();
+        }
+
+        private void appendText(StringBuilder sb) {
+            if (content == null) {
+                return;
+            }
+            for (Object child : content) {
+                if (child instanceof String) {
+                    sb.append((String) child);
+                } else {
+                    ((XmlElement) child).appendText(sb);
+                }
+            }
+        }
+
+        /** Returns all descendants (excluding this node) matching the tag, in document order. */
+        List<XmlElement> descendants(Tag tag) {
+            List<XmlElement> result = new ArrayList<>();
+            collect(tag, result);
+            return result.isEmpty() ? Collections.emptyList() : result;
+        }
+
+        /** Returns this node (if it matches) followed by all matching descendants. */
+        List<XmlElement> selfAndDescendants(Tag tag) {
+            List<XmlElement> result = new ArrayList<>();
+            if (tag.matches(this)) {
+                result.add(this);
+            }
+            collect(tag, result);
+            return result.isEmpty() ? Collections.emptyList() : result;
+        }
+
+        /** Returns the first matching descendant, or {@code null}. */
+        XmlElement firstDescendant(Tag tag) {
+            if (content == null) {
+                return null;
+            }
+            for (Object child : content) {
+                if (child instanceof XmlElement) {
+                    XmlElement node = (XmlElement) child;
+                    if (tag.matches(node)) {
+                        return node;
+                    }
+                    XmlElement found = node.firstDescendant(tag);
+                    if (found != null) {
+                        return found;
+                    }
+                }
+            }
+            return null;
+        }
+
+        /**
+         * Text of the first matching descendant, trimmed, or the default if
+         * there is none or it is blank.
+         */
+        String childText(Tag tag, String defaultValue) {
+            XmlElement child = firstDescendant(tag);
+            if (child == null) {
+                return defaultValue;
+            }
+            String text = child.textContent().trim();
+            return text.isEmpty() ? defaultValue : text;
+        }
+
+        private void collect(Tag tag, List<XmlElement> result) {
+            if (content == null) {
+                return;
+            }
+            for (Object child : content) {
+                if (child instanceof XmlElement) {
+                    XmlElement node = (XmlElement) child;
+                    if (tag.matches(node)) {
+                        result.add(node);
+                    }
+                    node.collect(tag, result);
+                }
+            }
+        }
+    }
+
+    // ---------------------------------------------------------------
+    // Fallback candidates
+    // ---------------------------------------------------------------
+
+    /**
+     * Collects items for a list of alternative element names, ranked by
+     * preference (0 = most preferred). The result holds the items of the
+     * best rank that matched at all, in the order they were added.
+     */
+    static final class Fallback<T> {
+        private final List<T> items = new ArrayList<>();
+        private int best = Integer.MAX_VALUE;
+
+        /** Returns whether items of the given rank would still be kept. */
+        boolean accepts(int rank) {
+            return rank <= best;
+        }
+
+        /** Returns the best rank seen so far, or {@link Integer#MAX_VALUE}. */
+        int rank() {
+            return best;
+        }
+
+        void add(int rank, T item) {
+            if (rank > best) {
+                return;
+            }
+            if (rank < best) {
+                items.clear();
+                best = rank;
+            }
+            items.add(item);
+        }
+
+        /** Returns the matches of the best rank, or an empty list. */
+        List<T> result() {
+            return items;
+        }
+
+        /** Returns the first match of the best rank, or {@code null}. */
+        T first() {
+            return items.isEmpty() ? null : items.get(0);
+        }
+    }
+
+    // ---------------------------------------------------------------
+    // Streaming
+    // ---------------------------------------------------------------
+
+    /**
+     * Streams through {@code xml} and passes every element that matches one
+     * of the tags to {@code consumer}, in document order.
+     * <p>
+     * Elements inside a deep capture are not reported separately; the
+     * consumer finds them with {@link XmlElement#selfAndDescendants}. Callers
+     * should therefore always search each received node with all tags they
+     * are interested in.
+     * </p>
+     *
+     * @param xml      the XML document
+     * @param consumer receives the captured elements
+     * @param tags     the element patterns to capture
+     * @throws XMLStreamException if the document is not well-formed
+     */
+    static void stream(String xml, Consumer<XmlElement> consumer, Tag... tags) throws XMLStreamException {
+        XMLStreamReader reader = FACTORY.createXMLStreamReader(new StringReader(xml));
+        try {
+            Deque<XmlElement> capture = new ArrayDeque<>();
+            while (reader.hasNext()) {
+                switch (reader.next()) {
+                    case XMLStreamConstants.START_ELEMENT:
+                        if (!capture.isEmpty()) {
+                            XmlElement node = new XmlElement(reader, capture.peek());
+                            capture.peek().add(node);
+                            capture.push(node);
+                            break;
+                        }
+                        Tag match = null;
+                        for (Tag tag : tags) {
+                            if (matches(tag, reader)) {
+                                if (tag.deep) {
+                                    match = tag;
+                                    break;
+                                }
+                                if (match == null) {
+                                    match = tag;
+                                }
+                            }
+                        }
+                        if (match == null) {
+                            break;
+                        }
+                        XmlElement node = new XmlElement(reader, null);
+                        if (match.deep) {
+                            capture.push(node);
+                        } else {
+                            consumer.accept(node);
+                        }
+                        break;
+
+                    case XMLStreamConstants.END_ELEMENT:
+                        if (!capture.isEmpty()) {
+                            XmlElement done = capture.pop();
+                            if (capture.isEmpty()) {
+                                consumer.accept(done);
+                            }
+                        }
+                        break;
+
+                    case XMLStreamConstants.CHARACTERS:
+                    case XMLStreamConstants.CDATA:
+                    case XMLStreamConstants.SPACE:
+                        if (!capture.isEmpty()) {
+                            capture.peek().add(reader.getText());
+                        }
+                        break;
+
+                    default:
+                        break;
+                }
+            }
+        } finally {
+            reader.close();
+        }
+    }
+
+    private static boolean matches(Tag tag, XMLStreamReader reader) {
+        if (tag.namespace != null) {
+            return tag.namespace.equals(reader.getNamespaceURI())
+                    && tag.name.equals(reader.getLocalName());
+        }
+        return isQName(tag.name, reader.getPrefix(), reader.getLocalName());
+    }
+
+    /**
+     * Returns whether {@code qName} equals {@code prefix:localName} (or just
+     * {@code localName} without a prefix), without building the string.
+     */
+    private static boolean isQName(String qName, String prefix, String localName) {
+        if (prefix == null || prefix.isEmpty()) {
+            return qName.equals(localName);
+        }
+        int plen = prefix.length();
+        return qName.length() == plen + 1 + localName.length()
+                && qName.startsWith(prefix)
+                && qName.charAt(plen) == ':'
+                && qName.endsWith(localName);
+    }
+
+    private static XMLInputFactory createFactory() {
+        XMLInputFactory factory = XMLInputFactory.newFactory();
+        factory.setProperty(XMLInputFactory.IS_NAMESPACE_AWARE, Boolean.TRUE);
+        // Disable DTD processing and external entities for security
+        factory.setProperty(XMLInputFactory.SUPPORT_DTD, Boolean.FALSE);
+        factory.setProperty(XMLInputFactory.IS_SUPPORTING_EXTERNAL_ENTITIES, Boolean.FALSE);
+        return factory;
+    }
+}
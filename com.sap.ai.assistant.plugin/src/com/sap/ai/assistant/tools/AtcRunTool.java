@@ -1,7 +1,25 @@
 package com.sap.ai.assistant.tools;
 
 import java.net.http.HttpResponse;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
 
+import com.google.gson.JsonArray;
+import com.google.gson.JsonElement;
 import com.google.gson.JsonObject;
 import com.sap.ai.assistant.model.ToolDefinition;
 import com.sap.ai.assistant.model.ToolResult;
@@ -10,13 +28,81 @@ import com.sap.ai.assistant.sap.AdtXmlParser;
 
 /**
  * Tool: <b>sap_atc_run</b> -- Run the ABAP Test Cockpit (ATC) on an
- * object and return the worklist of findings (code-quality checks,
- * security findings, performance warnings, etc.).
+ * object, a list of objects, a package or a transport request and return
+ * the worklist of findings (code-quality checks, security findings,
+ * performance warnings, etc.).
+ * <p>
+ * All requested objects are submitted as one object set in a single ATC
+ * run. The run is executed on a background thread while this tool polls
+ * with exponential backoff; if it does not finish within the wait time,
+ * the tool returns the worklist ID and a later call with that ID picks up
+ * the result. Findings are sorted by priority and returned in pages; the
+ * findings of recent runs are kept so that further pages need no new
+ * request to the system.
+ * </p>
+ * <p>
+ * If the agent run is cancelled while the tool waits, the run request is
+ * cancelled as well. Runs that were left running are given up after
+ * {@link #PENDING_RUN_EXPIRY_MS}.
+ * </p>
  */
 public class AtcRunTool extends AbstractSapTool {
 
     public static final String NAME = "sap_atc_run";
 
+    /** Default maximum number of verdicts for a single object. */
+    private static final int DEFAULT_MAX_VERDICTS = 100;
+
+    /** Default maximum number of verdicts for packages, transports and object lists. */
+    private static final int DEFAULT_BATCH_MAX_VERDICTS = 1000;
+
+    private static final int DEFAULT_PAGE_SIZE = 50;
+    private static final int MAX_PAGE_SIZE = 500;
+
+    private static final int DEFAULT_WAIT_SECONDS = 120;
+    private static final int MAX_WAIT_SECONDS = 600;
+
+    /** First polling interval; doubled after every poll up to {@link #MAX_POLL_MS}. */
+    private static final long INITIAL_POLL_MS = 500;
+    private static final long MAX_POLL_MS = 8_000;
+
+    /** Number of finished runs whose findings are kept for paging. */
+    private static final int MAX_FINISHED_RUNS = 4;
+
+    /** Time after which a run that nobody picked up again is cancelled and forgotten. */
+    private static final long PENDING_RUN_EXPIRY_MS = 30 * 60_000L;
+
+    private static final AtomicInteger THREAD_COUNT = new AtomicInteger();
+
+    /** Executes the (blocking) ATC run requests. */
+    private static final ExecutorService RUN_EXECUTOR = Executors.newCachedThreadPool(runnable -> {
+        Thread thread = new Thread(runnable, "AtcRunTool-run-" + THREAD_COUNT.incrementAndGet());
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    /** ATC run request that has not been picked up yet. */
+    private static class PendingRun {
+        final Future<HttpResponse<String>> request;
+        final long submittedAt = System.currentTimeMillis();
+
+        PendingRun(Future<HttpResponse<String>> request) {
+            this.request = request;
+        }
+    }
+
+    /** ATC runs still executing on the server, by worklist ID. */
+    private final Map<String, PendingRun> pendingRuns = new ConcurrentHashMap<>();
+
+    /** Sorted findings of recently finished runs, by worklist ID (LRU). */
+    private final Map<String, JsonArray> finishedRuns = Collections.synchronizedMap(
+            new LinkedHashMap<String, JsonArray>(8, 0.75f, true) {
+                @Override
+                protected boolean removeEldestEntry(Map.Entry<String, JsonArray> eldest) {
+                    return size() > MAX_FINISHED_RUNS;
+                }
+            });
+
     public AtcRunTool(AdtRestClient client) {
         super(client);
     }
@@ -33,6 +119,40 @@ public class AtcRunTool extends AbstractSapTool {
         urlProp.addProperty("description",
                 "The ADT object URL to check (e.g. '/sap/bc/adt/programs/programs/ztest')");
 
+        JsonObject itemProps = new JsonObject();
+        JsonObject itemTypeProp = new JsonObject();
+        itemTypeProp.addProperty("type", "string");
+        itemTypeProp.addProperty("description", "Object type (e.g. 'CLAS', 'PROG')");
+        JsonObject itemNameProp = new JsonObject();
+        itemNameProp.addProperty("type", "string");
+        itemNameProp.addProperty("description", "Object name");
+        JsonObject itemUrlProp = new JsonObject();
+        itemUrlProp.addProperty("type", "string");
+        itemUrlProp.addProperty("description", "ADT object URL (instead of type + name)");
+        itemProps.add("type", itemTypeProp);
+        itemProps.add("name", itemNameProp);
+        itemProps.add("url", itemUrlProp);
+
+        JsonObject itemSchema = new JsonObject();
+        itemSchema.addProperty("type", "object");
+        itemSchema.add("properties", itemProps);
+
+        JsonObject objectsProp = new JsonObject();
+        objectsProp.addProperty("type", "array");
+        objectsProp.addProperty("description",
+                "Objects to check together in one ATC run. Each item has 'type' + 'name', or 'url'.");
+        objectsProp.add("items", itemSchema);
+
+        JsonObject packageProp = new JsonObject();
+        packageProp.addProperty("type", "string");
+        packageProp.addProperty("description",
+                "Check all objects of this package (e.g. 'ZMY_PACKAGE')");
+
+        JsonObject transportProp = new JsonObject();
+        transportProp.addProperty("type", "string");
+        transportProp.addProperty("description",
+                "Check all objects of this transport request (e.g. 'DEVK900123')");
+
         JsonObject variantProp = new JsonObject();
         variantProp.addProperty("type", "string");
         variantProp.addProperty("description",
@@ -41,36 +161,92 @@ public class AtcRunTool extends AbstractSapTool {
         JsonObject maxProp = new JsonObject();
         maxProp.addProperty("type", "integer");
         maxProp.addProperty("description",
-                "Maximum number of findings to return");
+                "Maximum number of findings the ATC run reports (default 100, "
+                + "1000 for packages, transports and object lists)");
+
+        JsonObject worklistProp = new JsonObject();
+        worklistProp.addProperty("type", "string");
+        worklistProp.addProperty("description",
+                "Worklist ID of an earlier run: returns its findings (or its status if "
+                + "it is still running) without starting a new run");
+
+        JsonObject offsetProp = new JsonObject();
+        offsetProp.addProperty("type", "integer");
+        offsetProp.addProperty("description",
+                "Index of the first finding to return (default 0; use 'nextOffset' of the previous page)");
+
+        JsonObject pageSizeProp = new JsonObject();
+        pageSizeProp.addProperty("type", "integer");
+        pageSizeProp.addProperty("description",
+                "Number of findings per page (default " + DEFAULT_PAGE_SIZE + ")");
+
+        JsonObject waitProp = new JsonObject();
+        waitProp.addProperty("type", "integer");
+        waitProp.addProperty("description",
+                "Seconds to wait for the run to finish (default " + DEFAULT_WAIT_SECONDS
+                + ", max " + MAX_WAIT_SECONDS + ")");
 
         JsonObject properties = new JsonObject();
         properties.add("objectType", AdtUrlResolver.buildTypeProperty());
         properties.add("objectName", AdtUrlResolver.buildNameProperty());
         properties.add("objectUrl", urlProp);
+        properties.add("objects", objectsProp);
+        properties.add("packageName", packageProp);
+        properties.add("transport", transportProp);
         properties.add("variant", variantProp);
         properties.add("maxResults", maxProp);
+        properties.add("worklistId", worklistProp);
+        properties.add("offset", offsetProp);
+        properties.add("pageSize", pageSizeProp);
+        properties.add("waitSeconds", waitProp);
 
         JsonObject schema = new JsonObject();
         schema.addProperty("type", "object");
         schema.add("properties", properties);
 
         return new ToolDefinition(NAME,
-                "Run ATC quality checks. Provide objectType + objectName, or objectUrl. "
-                + "Returns findings with priority and messages.",
+                "Run ATC quality checks on one object (objectType + objectName, or objectUrl), "
+                + "a list of objects, a package or a transport request -- all in one run. "
+                + "Returns findings sorted by priority, one page at a time; "
+                + "pass worklistId + offset to get further pages.",
                 schema);
     }
 
     @Override
     public ToolResult execute(JsonObject arguments) throws Exception {
-        String objectUrl = resolveObjectUrlArg(arguments, "objectUrl");
-        if (objectUrl == null) {
-            return ToolResult.error(null, "Provide either objectType + objectName, or objectUrl.");
+        int offset = Math.max(0, optInt(arguments, "offset", 0));
+        int pageSize = Math.max(1, Math.min(MAX_PAGE_SIZE,
+                optInt(arguments, "pageSize", DEFAULT_PAGE_SIZE)));
+        int waitSeconds = Math.max(0, Math.min(MAX_WAIT_SECONDS,
+                optInt(arguments, "waitSeconds", DEFAULT_WAIT_SECONDS)));
+        long deadline = System.currentTimeMillis() + waitSeconds * 1000L;
+        expirePendingRuns();
+
+        Set<String> objectUris = new LinkedHashSet<>();
+        String error = collectObjectUris(arguments, objectUris);
+        if (error != null) {
+            return ToolResult.error(null, error);
+        }
+
+        if (objectUris.isEmpty()) {
+            String worklistId = optString(arguments, "worklistId");
+            if (worklistId == null || worklistId.isEmpty()) {
+                return ToolResult.error(null,
+                        "Provide objectType + objectName, objectUrl, objects, packageName or transport "
+                        + "(or worklistId to read the findings of an earlier run).");
+            }
+            return awaitFindings(worklistId, offset, pageSize, deadline);
         }
+
         String variant = optString(arguments, "variant");
         if (variant == null || variant.isEmpty()) {
             variant = "DEFAULT";
         }
-        int maxResults = optInt(arguments, "maxResults", 100);
+        boolean batch = objectUris.size() > 1
+                || optString(arguments, "packageName") != null
+                || optString(arguments, "transport") != null;
+        int maxResults = optInt(arguments, "maxResults",
+                batch ? DEFAULT_BATCH_MAX_VERDICTS : DEFAULT_MAX_VERDICTS);
 
         // Step 1: Create a worklist for the check variant
         // POST /sap/bc/adt/atc/worklists?checkVariant=DEFAULT returns the worklist ID
@@ -89,40 +265,270 @@ public class AtcRunTool extends AbstractSapTool {
             worklistId = variant;
         }
 
-        // Step 2: Create the ATC run with correct XML format
+        // Step 2: Submit one ATC run for the whole object set
         // Uses <objectSets> with <adtcore:objectReferences> per SAP ADT API spec
-        String runXml = "<?xml version=\"1.0\" encoding=\"UTF-8\"?>"
-                + "<atc:run maximumVerdicts=\"" + maxResults
-                + "\" xmlns:atc=\"http://www.sap.com/adt/atc\">"
-                + "<objectSets xmlns:adtcore=\"http://www.sap.com/adt/core\">"
-                + "<objectSet kind=\"inclusive\">"
-                + "<adtcore:objectReferences>"
-                + "<adtcore:objectReference adtcore:uri=\"" + escapeXml(objectUrl) + "\"/>"
-                + "</adtcore:objectReferences>"
-                + "</objectSet>"
-                + "</objectSets>"
-                + "</atc:run>";
-
-        HttpResponse<String> runResponse = client.post(
-                "/sap/bc/adt/atc/runs?worklistId=" + urlEncode(worklistId),
-                runXml,
-                "application/xml",
-                "application/xml");
-
-        // Extract the worklist ID from the run response (may differ from the one we created)
-        String runWorklistId = extractWorklistId(runResponse);
-        if (runWorklistId != null && !runWorklistId.isEmpty()) {
-            worklistId = runWorklistId;
-        }
-
-        // Step 3: Fetch the worklist results
-        HttpResponse<String> worklistResponse = client.get(
-                "/sap/bc/adt/atc/worklists/" + urlEncode(worklistId),
-                "application/atc.worklist.v1+xml");
-
-        JsonObject worklist = AdtXmlParser.parseAtcWorklist(worklistResponse.body());
-        worklist.addProperty("worklistId", worklistId);
-        return ToolResult.success(null, worklist.toString());
+        StringBuilder runXml = new StringBuilder();
+        runXml.append("<?xml version=\"1.0\" encoding=\"UTF-8\"?>")
+                .append("<atc:run maximumVerdicts=\"").append(maxResults)
+                .append("\" xmlns:atc=\"http://www.sap.com/adt/atc\">")
+                .append("<objectSets xmlns:adtcore=\"http://www.sap.com/adt/core\">")
+                .append("<objectSet kind=\"inclusive\">")
+                .append("<adtcore:objectReferences>");
+        for (String uri : objectUris) {
+            runXml.append("<adtcore:objectReference adtcore:uri=\"")
+                    .append(escapeXml(uri)).append("\"/>");
+        }
+        runXml.append("</adtcore:objectReferences>")
+                .append("</objectSet>")
+                .append("</objectSets>")
+                .append("</atc:run>");
+
+        String runPath = "/sap/bc/adt/atc/runs?worklistId=" + urlEncode(worklistId);
+        String body = runXml.toString();
+        Future<HttpResponse<String>> run = RUN_EXECUTOR.submit(
+                () -> client.post(runPath, body, "application/xml", "application/xml"));
+        PendingRun replaced = pendingRuns.put(worklistId, new PendingRun(run));
+        if (replaced != null) {
+            replaced.request.cancel(true);
+        }
+
+        // Step 3: Wait for the run and fetch the worklist results
+        return awaitFindings(worklistId, offset, pageSize, deadline);
+    }
+
+    // ---------------------------------------------------------------
+    // Run tracking and polling
+    // ---------------------------------------------------------------
+
+    /**
+     * Waits (with exponential backoff, until {@code deadline}) for the run
+     * of the given worklist to finish and returns one page of its findings,
+     * or a "running" status if the deadline passes first. If the waiting
+     * thread is interrupted, the run request is cancelled.
+     */
+    private ToolResult awaitFindings(String worklistId, int offset, int pageSize, long deadline)
+            throws Exception {
+        JsonArray findings = finishedRuns.get(worklistId);
+        if (findings != null) {
+            return ToolResult.success(null, buildPage(worklistId, findings, offset, pageSize).toString());
+        }
+
+        long delay = INITIAL_POLL_MS;
+        String resultWorklistId = worklistId;
+
+        // Wait for the run request itself (if this tool instance started it)
+        PendingRun pending = pendingRuns.get(worklistId);
+        if (pending != null) {
+            HttpResponse<String> runResponse;
+            while (true) {
+                try {
+                    long remaining = deadline - System.currentTimeMillis();
+                    runResponse = pending.request.get(
+                            Math.max(1, Math.min(delay, remaining)), TimeUnit.MILLISECONDS);
+                    break;
+                } catch (TimeoutException e) {
+                    if (System.currentTimeMillis() >= deadline) {
+                        return ToolResult.success(null, runningStatus(worklistId).toString());
+                    }
+                    delay = Math.min(delay * 2, MAX_POLL_MS);
+                } catch (ExecutionException e) {
+                    pendingRuns.remove(worklistId, pending);
+                    return ToolResult.error(null, "ATC run failed: " + e.getCause().getMessage());
+                } catch (InterruptedException e) {
+                    // The agent run was cancelled; nobody will pick up this run
+                    pendingRuns.remove(worklistId, pending);
+                    pending.request.cancel(true);
+                    throw e;
+                }
+            }
+            pendingRuns.remove(worklistId, pending);
+            if (runResponse.statusCode() >= 400) {
+                return ToolResult.error(null, "ATC run failed (HTTP " + runResponse.statusCode()
+                        + "): " + runResponse.body());
+            }
+
+            // Extract the worklist ID from the run response (may differ from the one we created)
+            String runWorklistId = extractWorklistId(runResponse);
+            if (runWorklistId != null && !runWorklistId.isEmpty()) {
+                resultWorklistId = runWorklistId;
+            }
+        }
+
+        // Poll the worklist until the server reports the object set as complete
+        JsonObject worklist;
+        while (true) {
+            HttpResponse<String> worklistResponse = client.get(
+                    "/sap/bc/adt/atc/worklists/" + urlEncode(resultWorklistId),
+                    "application/atc.worklist.v1+xml");
+            worklist = AdtXmlParser.parseAtcWorklist(worklistResponse.body());
+            boolean complete = !worklist.has("objectSetIsComplete")
+                    || worklist.get("objectSetIsComplete").getAsBoolean();
+            if (complete) {
+                break;
+            }
+            if (System.currentTimeMillis() + delay > deadline) {
+                return ToolResult.success(null, runningStatus(resultWorklistId).toString());
+            }
+            Thread.sleep(delay);
+            delay = Math.min(delay * 2, MAX_POLL_MS);
+        }
+
+        findings = sortedFindings(worklist);
+        finishedRuns.put(resultWorklistId, findings);
+        if (!resultWorklistId.equals(worklistId)) {
+            finishedRuns.put(worklistId, findings);
+        }
+        return ToolResult.success(null, buildPage(resultWorklistId, findings, offset, pageSize).toString());
+    }
+
+    /**
+     * Cancels and forgets the runs that were submitted longer than
+     * {@link #PENDING_RUN_EXPIRY_MS} ago and were not picked up since.
+     */
+    private void expirePendingRuns() {
+        long cutoff = System.currentTimeMillis() - PENDING_RUN_EXPIRY_MS;
+        pendingRuns.entrySet().removeIf(e -> {
+            if (e.getValue().submittedAt >= cutoff) {
+                return false;
+            }
+            e.getValue().request.cancel(true);
+            return true;
+        });
+    }
+
+    private static JsonObject runningStatus(String worklistId) {
+        JsonObject status = new JsonObject();
+        status.addProperty("worklistId", worklistId);
+        status.addProperty("status", "running");
+        status.addProperty("message", "The ATC run has not finished yet. Call " + NAME
+                + " again with worklistId='" + worklistId + "' to get the findings.");
+        return status;
+    }
+
+    // ---------------------------------------------------------------
+    // Object set
+    // ---------------------------------------------------------------
+
+    /**
+     * Adds the ADT URIs of all requested objects to {@code uris}.
+     *
+     * @return an error message, or {@code null} if all arguments were valid
+     */
+    private String collectObjectUris(JsonObject arguments, Set<String> uris) {
+        String objectUrl = resolveObjectUrlArg(arguments, "objectUrl");
+        if (objectUrl != null && !objectUrl.isEmpty()) {
+            uris.add(objectUrl);
+        }
+
+        String packageName = optString(arguments, "packageName");
+        if (packageName != null && !packageName.isEmpty()) {
+            uris.add("/sap/bc/adt/packages/" + urlEncode(packageName.toLowerCase()));
+        }
+
+        String transport = optString(arguments, "transport");
+        if (transport != null && !transport.isEmpty()) {
+            uris.add("/sap/bc/adt/cts/transportrequests/" + urlEncode(transport.toUpperCase()));
+        }
+
+        if (arguments.has("objects") && arguments.get("objects").isJsonArray()) {
+            for (JsonElement elem : arguments.getAsJsonArray("objects")) {
+                if (elem.isJsonPrimitive()) {
+                    uris.add(elem.getAsString());
+                    continue;
+                }
+                if (!elem.isJsonObject()) {
+                    continue;
+                }
+                JsonObject obj = elem.getAsJsonObject();
+                String url = optString(obj, "url");
+                if (url == null || url.isEmpty()) {
+                    String type = optString(obj, "type");
+                    String name = optString(obj, "name");
+                    url = AdtUrlResolver.resolveObjectUrl(type, name);
+                    if (url == null) {
+                        return "Cannot resolve object '" + name + "' of type '" + type
+                                + "'. Provide its 'url' instead.";
+                    }
+                }
+                uris.add(url);
+            }
+        }
+        return null;
+    }
+
+    // ---------------------------------------------------------------
+    // Findings and paging
+    // ---------------------------------------------------------------
+
+    /**
+     * Flattens the per-object findings of a parsed worklist into one list,
+     * sorted by priority (1 = most important), keeping the worklist order
+     * within a priority.
+     */
+    private static JsonArray sortedFindings(JsonObject worklist) {
+        List<JsonObject> list = new ArrayList<>();
+        for (JsonElement objEl : worklist.getAsJsonArray("objects")) {
+            JsonObject obj = objEl.getAsJsonObject();
+            for (JsonElement fEl : obj.getAsJsonArray("findings")) {
+                JsonObject finding = new JsonObject();
+                finding.addProperty("object", obj.get("name").getAsString());
+                finding.addProperty("type", obj.get("type").getAsString());
+                for (Map.Entry<String, JsonElement> e : fEl.getAsJsonObject().entrySet()) {
+                    finding.add(e.getKey(), e.getValue());
+                }
+                list.add(finding);
+            }
+        }
+        list.sort(Comparator.comparingInt(AtcRunTool::priorityOf));
+
+        JsonArray sorted = new JsonArray();
+        for (JsonObject finding : list) {
+            sorted.add(finding);
+        }
+        return sorted;
+    }
+
+    private static int priorityOf(JsonObject finding) {
+        try {
+            return Integer.parseInt(finding.get("priority").getAsString().trim());
+        } catch (RuntimeException e) {
+            return Integer.MAX_VALUE;
+        }
+    }
+
+    private static JsonObject buildPage(String worklistId, JsonArray findings, int offset, int pageSize) {
+        JsonObject result = new JsonObject();
+        result.addProperty("worklistId", worklistId);
+        result.addProperty("status", "complete");
+        result.addProperty("totalFindings", findings.size());
+
+        // Summary over all findings, so the first page already shows the overall picture
+        Map<String, Integer> byPriority = new LinkedHashMap<>();
+        Set<String> objects = new LinkedHashSet<>();
+        for (JsonElement el : findings) {
+            JsonObject finding = el.getAsJsonObject();
+            byPriority.merge(finding.get("priority").getAsString(), 1, Integer::sum);
+            objects.add(finding.get("type").getAsString() + " " + finding.get("object").getAsString());
+        }
+        JsonObject priorities = new JsonObject();
+        for (Map.Entry<String, Integer> e : byPriority.entrySet()) {
+            priorities.addProperty(e.getKey().isEmpty() ? "unknown" : e.getKey(), e.getValue());
+        }
+        result.add("findingsByPriority", priorities);
+        result.addProperty("objectsWithFindings", objects.size());
+
+        int from = Math.min(offset, findings.size());
+        int to = Math.min(from + pageSize, findings.size());
+        JsonArray page = new JsonArray();
+        for (int i = from; i < to; i++) {
+            page.add(findings.get(i));
+        }
+        result.addProperty("offset", from);
+        result.add("findings", page);
+        if (to < findings.size()) {
+            result.addProperty("nextOffset", to);
+        }
+        return result;
     }
 
     /**
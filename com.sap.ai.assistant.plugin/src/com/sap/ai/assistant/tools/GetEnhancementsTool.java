@@ -35,6 +35,11 @@ public class GetEnhancementsTool extends AbstractSapTool {
         return NAME;
     }
 
+    @Override
+    public boolean isReadOnly() {
+        return true;
+    }
+
     @Override
     public ToolDefinition getDefinition() {
         JsonObject spotNameProp = new JsonObject();
@@ -28,6 +28,11 @@ public class GetIncludesTool extends AbstractSapTool {
         return NAME;
     }
 
+    @Override
+    public boolean isReadOnly() {
+        return true;
+    }
+
     @Override
     public ToolDefinition getDefinition() {
         JsonObject urlProp = new JsonObject();
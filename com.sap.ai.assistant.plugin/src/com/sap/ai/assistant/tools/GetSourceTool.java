@@ -31,6 +31,11 @@ public class GetSourceTool extends AbstractSapTool {
         return NAME;
     }
 
+    @Override
+    public boolean isReadOnly() {
+        return true;
+    }
+
     @Override
     public ToolDefinition getDefinition() {
         JsonObject urlProp = new JsonObject();
@@ -36,6 +36,11 @@ public class GetTransactionTool extends AbstractSapTool {
         return NAME;
     }
 
+    @Override
+    public boolean isReadOnly() {
+        return true;
+    }
+
     @Override
     public ToolDefinition getDefinition() {
         JsonObject tcodeProp = new JsonObject();
@@ -26,6 +26,11 @@ public class NodeContentsTool extends AbstractSapTool {
         return NAME;
     }
 
+    @Override
+    public boolean isReadOnly() {
+        return true;
+    }
+
     @Override
     public ToolDefinition getDefinition() {
         JsonObject parentTypeProp = new JsonObject();
@@ -26,6 +26,11 @@ public class ObjectStructureTool extends AbstractSapTool {
         return NAME;
     }
 
+    @Override
+    public boolean isReadOnly() {
+        return true;
+    }
+
     @Override
     public ToolDefinition getDefinition() {
         JsonObject urlProp = new JsonObject();
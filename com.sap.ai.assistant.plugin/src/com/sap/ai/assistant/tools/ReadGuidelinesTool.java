@@ -28,6 +28,11 @@ public class ReadGuidelinesTool implements SapTool {
         return NAME;
     }
 
+    @Override
+    public boolean isReadOnly() {
+        return true;
+    }
+
     @Override
     public ToolDefinition getDefinition() {
         JsonObject typeProp = AdtUrlResolver.buildTypeProperty();
@@ -4,6 +4,8 @@ import com.google.gson.JsonArray;
 import com.google.gson.JsonObject;
 import com.sap.ai.assistant.agent.AgentCallback;
 import com.sap.ai.assistant.agent.AgentLoop;
+import com.sap.ai.assistant.agent.ContextBudget;
+import com.sap.ai.assistant.agent.SourcePrefetcher;
 import com.sap.ai.assistant.llm.LlmProvider;
 import com.sap.ai.assistant.model.ChatConversation;
 import com.sap.ai.assistant.model.ChatMessage;
@@ -69,6 +71,9 @@ public class ResearchTool implements SapTool {
     private final int maxInputTokens;
     private final ToolDefinition definition;
     private AgentCallback parentCallback;
+    private int maxParallelToolCalls = 1;
+    private SourcePrefetcher prefetcher;
+    private int contextTokenBudget = ContextBudget.DEFAULT_TARGET_TOKENS;
 
     /**
      * Creates a new research tool.
@@ -105,6 +110,27 @@ public class ResearchTool implements SapTool {
         this.parentCallback = callback;
     }
 
+    /**
+     * Sets how many read-only tool calls the sub-agent may run concurrently.
+     */
+    public void setMaxParallelToolCalls(int maxParallelToolCalls) {
+        this.maxParallelToolCalls = maxParallelToolCalls;
+    }
+
+    /**
+     * Sets the prefetcher the sub-agent passes the sources it reads to.
+     */
+    public void setPrefetcher(SourcePrefetcher prefetcher) {
+        this.prefetcher = prefetcher;
+    }
+
+    /**
+     * Sets the target size of each sub-agent request in input tokens.
+     */
+    public void setContextTokenBudget(int contextTokenBudget) {
+        this.contextTokenBudget = contextTokenBudget;
+    }
+
     @Override
     public String getName() {
         return NAME;
@@ -133,6 +159,9 @@ public class ResearchTool implements SapTool {
         AgentLoop subLoop = new AgentLoop(
                 llmProvider, toolRegistry, null, null,
                 maxRounds, maxInputTokens);
+        subLoop.setMaxParallelToolCalls(maxParallelToolCalls);
+        subLoop.setPrefetcher(prefetcher);
+        subLoop.setContextTokenBudget(contextTokenBudget);
 
         CollectingCallback callback = new CollectingCallback(parentCallback);
         subLoop.run(conversation, callback);
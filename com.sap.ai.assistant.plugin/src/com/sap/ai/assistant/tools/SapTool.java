@@ -29,6 +29,17 @@ public interface SapTool {
      */
     ToolDefinition getDefinition();
 
+    /**
+     * Returns whether this tool only reads from the system and holds no
+     * lock or session state. Read-only calls issued in the same agent round
+     * may be executed concurrently; all other tools run one at a time.
+     *
+     * @return {@code true} if the tool is safe to run in parallel
+     */
+    default boolean isReadOnly() {
+        return false;
+    }
+
     /**
      * Execute this tool with the given arguments.
      *
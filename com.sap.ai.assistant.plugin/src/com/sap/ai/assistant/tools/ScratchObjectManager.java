@@ -38,7 +38,7 @@ public class ScratchObjectManager {
     private static final String PACKAGE_NAME = "$TMP";
     private static final String PACKAGE_PATH = "/sap/bc/adt/packages/%24tmp";
 
-    private final AdtRestClient client;
+    private volatile AdtRestClient client;
 
     private boolean progCreated;
     private boolean clasCreated;
@@ -48,6 +48,14 @@ public class ScratchObjectManager {
         this.client = client;
     }
 
+    /**
+     * Switches to another client of the same system, e.g. after the session
+     * was re-established. Scratch objects already created are kept.
+     */
+    void setClient(AdtRestClient client) {
+        this.client = client;
+    }
+
     /**
      * Detect the object type from the given ADT source URL and return the
      * corresponding scratch object's source URL. Creates the scratch object
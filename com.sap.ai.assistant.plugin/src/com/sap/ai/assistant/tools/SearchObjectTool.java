@@ -1,17 +1,27 @@
 package com.sap.ai.assistant.tools;
 
 import java.net.http.HttpResponse;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
 
 import com.google.gson.JsonArray;
 import com.google.gson.JsonObject;
 import com.sap.ai.assistant.model.ToolDefinition;
 import com.sap.ai.assistant.model.ToolResult;
+import com.sap.ai.assistant.sap.AdtObjectIndex;
 import com.sap.ai.assistant.sap.AdtRestClient;
 import com.sap.ai.assistant.sap.AdtXmlParser;
 
 /**
  * Tool: <b>sap_search_object</b> -- Search for ABAP repository objects
  * by name pattern or type using the ADT quick-search API.
+ *
+ * <p>The per-system {@link AdtObjectIndex} is asked first. It answers
+ * when it knows the exact object asked for, or at least {@code max}
+ * matches of a pattern; otherwise the server is searched and its results
+ * are added to the index, and the packages they belong to are crawled in
+ * the background.</p>
  */
 public class SearchObjectTool extends AbstractSapTool {
 
@@ -26,6 +36,11 @@ public class SearchObjectTool extends AbstractSapTool {
         return NAME;
     }
 
+    @Override
+    public boolean isReadOnly() {
+        return true;
+    }
+
     @Override
     public ToolDefinition getDefinition() {
         JsonObject queryProp = new JsonObject();
@@ -67,6 +82,16 @@ public class SearchObjectTool extends AbstractSapTool {
         String objType = optString(arguments, "objType");
         int max = optInt(arguments, "max", 100);
 
+        AdtObjectIndex index = client.getObjectIndex();
+        List<AdtObjectIndex.Entry> known = index.search(query, objType, max);
+        if (!known.isEmpty() && (known.size() >= max || !isPattern(query))) {
+            JsonArray results = new JsonArray();
+            for (AdtObjectIndex.Entry entry : known) {
+                results.add(entry.toJson());
+            }
+            return ToolResult.success(null, output(results, "index").toString());
+        }
+
         StringBuilder path = new StringBuilder();
         path.append("/sap/bc/adt/repository/informationsystem/search")
             .append("?operation=quickSearch")
@@ -80,9 +105,28 @@ public class SearchObjectTool extends AbstractSapTool {
         HttpResponse<String> response = client.get(path.toString(), "application/*");
         JsonArray results = AdtXmlParser.parseSearchResults(response.body());
 
+        index.addAll(results);
+        Set<String> packages = new LinkedHashSet<>();
+        for (int i = 0; i < results.size(); i++) {
+            JsonObject result = results.get(i).getAsJsonObject();
+            if (result.has("packageName")) {
+                packages.add(result.get("packageName").getAsString());
+            }
+        }
+        index.crawlInBackground(client, packages);
+
+        return ToolResult.success(null, output(results, "server").toString());
+    }
+
+    private static JsonObject output(JsonArray results, String source) {
         JsonObject output = new JsonObject();
         output.addProperty("totalResults", results.size());
+        output.addProperty("source", source);
         output.add("results", results);
-        return ToolResult.success(null, output.toString());
+        return output;
+    }
+
+    private static boolean isPattern(String query) {
+        return query.indexOf('*') >= 0 || query.indexOf('?') >= 0;
     }
 }
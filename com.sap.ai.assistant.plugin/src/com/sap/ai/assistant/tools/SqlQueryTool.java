@@ -1,8 +1,16 @@
 package com.sap.ai.assistant.tools;
 
 import java.net.http.HttpResponse;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Set;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
 
 import com.google.gson.JsonArray;
+import com.google.gson.JsonElement;
 import com.google.gson.JsonObject;
 import com.sap.ai.assistant.model.ToolDefinition;
 import com.sap.ai.assistant.model.ToolResult;
@@ -13,12 +21,47 @@ import com.sap.ai.assistant.sap.AdtXmlParser;
  * Tool: <b>sap_sql_query</b> -- Execute an ABAP SQL query via the
  * ADT data preview freestyle endpoint.
  *
- * <p>Endpoint: {@code POST /sap/bc/adt/datapreview/freestyle?rowNumber={maxRows}}</p>
+ * <p>Endpoint: {@code POST /sap/bc/adt/datapreview/freestyle?rowNumber={n}}</p>
+ *
+ * <p>Results are returned one page at a time as CSV (or as JSON rows on
+ * request). The endpoint has no offset parameter, so the tool fetches the
+ * rows up to the end of the requested page and keeps the last result, so
+ * that paging through it with {@code offset} does not run the query again.
+ * With {@code countOnly} the query is rewritten to {@code SELECT COUNT(*)}
+ * and only the number of matching rows is returned.</p>
  */
 public class SqlQueryTool extends AbstractSapTool {
 
     public static final String NAME = "sap_sql_query";
 
+    /** Default number of rows per page. */
+    private static final int DEFAULT_PAGE_ROWS = 100;
+
+    /** Upper bound for the rows of one page. */
+    private static final int MAX_PAGE_ROWS = 1000;
+
+    /** Upper bound for the rows fetched for one query (offset + page). */
+    private static final int MAX_FETCH_ROWS = 5000;
+
+    /** Longer cell values are cut off in the output. */
+    private static final int MAX_CELL_LENGTH = 200;
+
+    /** Results with more columns get a hint to select fewer. */
+    private static final int WIDE_RESULT_COLUMNS = 12;
+
+    private static final Pattern SELECT_FROM = Pattern.compile(
+            "^\\s*SELECT\\s+(?:SINGLE\\s+)?(?:DISTINCT\\s+)?(.+?)\\s+FROM\\s+(.+)$",
+            Pattern.CASE_INSENSITIVE | Pattern.DOTALL);
+    private static final Pattern UP_TO_ROWS = Pattern.compile(
+            "\\s+UP\\s+TO\\s+\\d+\\s+ROWS\\b", Pattern.CASE_INSENSITIVE);
+    private static final Pattern ORDER_BY = Pattern.compile(
+            "\\s+ORDER\\s+BY\\s+.*$", Pattern.CASE_INSENSITIVE | Pattern.DOTALL);
+
+    /** The result of the last query, kept for paging. */
+    private String lastQuery;
+    private JsonObject lastResult;
+    private int lastFetchLimit;
+
     public SqlQueryTool(AdtRestClient client) {
         super(client);
     }
@@ -28,21 +71,58 @@ public class SqlQueryTool extends AbstractSapTool {
         return NAME;
     }
 
+    @Override
+    public boolean isReadOnly() {
+        return true;
+    }
+
     @Override
     public ToolDefinition getDefinition() {
         JsonObject queryProp = new JsonObject();
         queryProp.addProperty("type", "string");
         queryProp.addProperty("description",
-                "The ABAP SQL query to execute (e.g. 'SELECT * FROM mara UP TO 10 ROWS')");
+                "The ABAP SQL query to execute (e.g. 'SELECT matnr, mtart FROM mara WHERE mtart = 'FERT'')");
 
         JsonObject maxRowsProp = new JsonObject();
         maxRowsProp.addProperty("type", "integer");
         maxRowsProp.addProperty("description",
-                "Maximum number of rows to return (default: 100)");
+                "Rows per page (default: " + DEFAULT_PAGE_ROWS + ", max: " + MAX_PAGE_ROWS + ")");
+
+        JsonObject offsetProp = new JsonObject();
+        offsetProp.addProperty("type", "integer");
+        offsetProp.addProperty("description",
+                "Number of rows to skip, for paging (default: 0). Use 'nextOffset' of the "
+                + "previous page with the same query.");
+
+        JsonObject columnsProp = new JsonObject();
+        columnsProp.addProperty("type", "array");
+        JsonObject columnItem = new JsonObject();
+        columnItem.addProperty("type", "string");
+        columnsProp.add("items", columnItem);
+        columnsProp.addProperty("description",
+                "Optional: only return these columns of the result");
+
+        JsonObject formatProp = new JsonObject();
+        formatProp.addProperty("type", "string");
+        JsonArray formats = new JsonArray();
+        formats.add("csv");
+        formats.add("json");
+        formatProp.add("enum", formats);
+        formatProp.addProperty("description",
+                "Output format: 'csv' (default, compact) or 'json' (one object per row)");
+
+        JsonObject countOnlyProp = new JsonObject();
+        countOnlyProp.addProperty("type", "boolean");
+        countOnlyProp.addProperty("description",
+                "If true, only return the number of rows matching the query");
 
         JsonObject properties = new JsonObject();
         properties.add("query", queryProp);
         properties.add("maxRows", maxRowsProp);
+        properties.add("offset", offsetProp);
+        properties.add("columns", columnsProp);
+        properties.add("format", formatProp);
+        properties.add("countOnly", countOnlyProp);
 
         JsonArray required = new JsonArray();
         required.add("query");
@@ -54,8 +134,10 @@ public class SqlQueryTool extends AbstractSapTool {
 
         return new ToolDefinition(NAME,
                 "Execute an ABAP SQL SELECT query against SAP database tables and return "
-                + "actual DATA ROWS. Use this to read real data from tables (e.g. "
-                + "'SELECT matnr, mtart, matkl FROM mara UP TO 10 ROWS'). "
+                + "actual DATA ROWS as CSV, one page at a time (e.g. "
+                + "'SELECT matnr, mtart, matkl FROM mara'). Select only the fields you need. "
+                + "Use countOnly to learn the size of a result before reading it, and offset "
+                + "to read further pages. "
                 + "This returns row values, NOT table structure or field definitions. "
                 + "For table structure/fields, use sap_get_source or sap_type_info instead.",
                 schema);
@@ -63,15 +145,285 @@ public class SqlQueryTool extends AbstractSapTool {
 
     @Override
     public ToolResult execute(JsonObject arguments) throws Exception {
-        String query = arguments.get("query").getAsString();
-        int maxRows = optInt(arguments, "maxRows", 100);
+        String query = arguments.get("query").getAsString().trim();
+        if (query.endsWith(".")) {
+            query = query.substring(0, query.length() - 1).trim();
+        }
+
+        if (arguments.has("countOnly") && arguments.get("countOnly").getAsBoolean()) {
+            return countRows(query);
+        }
+
+        int pageRows = Math.max(1, Math.min(optInt(arguments, "maxRows", DEFAULT_PAGE_ROWS), MAX_PAGE_ROWS));
+        int offset = Math.max(0, optInt(arguments, "offset", 0));
+        if (offset >= MAX_FETCH_ROWS) {
+            return ToolResult.error(null, "offset must be below " + MAX_FETCH_ROWS
+                    + ". Narrow the query with a WHERE clause instead.");
+        }
+        // One row more than the page tells whether there is a next page
+        int fetchLimit = Math.min(offset + pageRows + 1, MAX_FETCH_ROWS);
+        JsonObject result = fetch(query, fetchLimit);
+        JsonArray columns = result.getAsJsonArray("columns");
+        int fetchedRows = rowCount(columns);
+
+        List<Integer> selected = new ArrayList<>();
+        List<String> hints = new ArrayList<>();
+        String error = selectColumns(columns, arguments, offset, offset + pageRows, query, selected, hints);
+        if (error != null) {
+            return ToolResult.error(null, error);
+        }
+
+        int end = Math.min(fetchedRows, offset + pageRows);
+        boolean hasMore = fetchedRows > end;
+        boolean truncated = !hasMore && fetchedRows >= MAX_FETCH_ROWS;
+
+        JsonObject output = new JsonObject();
+        output.addProperty("offset", offset);
+        output.addProperty("rowCount", Math.max(0, end - offset));
+        output.addProperty("hasMore", hasMore);
+        if (hasMore) {
+            output.addProperty("nextOffset", end);
+        }
+        if (truncated) {
+            hints.add("Paging stops after " + MAX_FETCH_ROWS + " rows; narrow the query to see the rest.");
+        }
+        JsonArray columnNames = new JsonArray();
+        for (int c : selected) {
+            columnNames.add(columns.get(c).getAsJsonObject().get("name").getAsString());
+        }
+        output.add("columns", columnNames);
+
+        if ("json".equalsIgnoreCase(optString(arguments, "format"))) {
+            output.add("rows", toJsonRows(columns, selected, offset, end));
+        } else {
+            output.addProperty("csv", toCsv(columns, selected, offset, end));
+        }
+        if (result.has("executionTime") && !result.get("executionTime").getAsString().isEmpty()) {
+            output.addProperty("executionTime", result.get("executionTime").getAsString());
+        }
+        if (!hints.isEmpty()) {
+            JsonArray hintArray = new JsonArray();
+            hints.forEach(hintArray::add);
+            output.add("hints", hintArray);
+        }
+        return ToolResult.success(null, output.toString());
+    }
+
+    // ------------------------------------------------------------------
+    // Query execution
+    // ------------------------------------------------------------------
+
+    /**
+     * Returns the parsed result of the query with at least {@code fetchLimit}
+     * rows (or all rows, if there are fewer), reusing the last result if it
+     * covers them.
+     */
+    private JsonObject fetch(String query, int fetchLimit) throws Exception {
+        synchronized (this) {
+            if (query.equals(lastQuery) && lastResult != null
+                    && (lastFetchLimit >= fetchLimit
+                        || rowCount(lastResult.getAsJsonArray("columns")) < lastFetchLimit)) {
+                return lastResult;
+            }
+        }
+        JsonObject result = runQuery(query, fetchLimit);
+        synchronized (this) {
+            lastQuery = query;
+            lastResult = result;
+            lastFetchLimit = fetchLimit;
+        }
+        return result;
+    }
 
-        String path = "/sap/bc/adt/datapreview/freestyle?rowNumber=" + maxRows;
+    private JsonObject runQuery(String query, int rowNumber) throws Exception {
+        String path = "/sap/bc/adt/datapreview/freestyle?rowNumber=" + rowNumber;
         HttpResponse<String> resp = client.post(path, query,
                 "text/plain; charset=utf-8",
                 "application/vnd.sap.adt.datapreview.table.v1+xml");
+        return AdtXmlParser.parseDataPreview(resp.body());
+    }
+
+    private ToolResult countRows(String query) throws Exception {
+        String countQuery = toCountQuery(query);
+        if (countQuery == null) {
+            return ToolResult.error(null, "countOnly needs a query of the form "
+                    + "'SELECT ... FROM ...'. Run 'SELECT COUNT(*) FROM ...' instead.");
+        }
+        JsonArray columns = runQuery(countQuery, 1).getAsJsonArray("columns");
+        JsonObject output = new JsonObject();
+        output.addProperty("query", countQuery);
+        if (columns.size() > 0 && rowCount(columns) > 0) {
+            String value = columns.get(0).getAsJsonObject().getAsJsonArray("values").get(0).getAsString().trim();
+            try {
+                output.addProperty("count", Long.parseLong(value));
+            } catch (NumberFormatException e) {
+                output.addProperty("count", value);
+            }
+        } else {
+            output.addProperty("count", 0);
+        }
+        return ToolResult.success(null, output.toString());
+    }
+
+    /**
+     * Rewrites {@code SELECT <fields> FROM <rest>} to count the matching rows:
+     * the field list becomes {@code COUNT(*)}, and {@code UP TO n ROWS} and
+     * {@code ORDER BY} are dropped. Returns {@code null} for other queries
+     * and for queries with {@code GROUP BY} or {@code UNION}, whose row count
+     * a plain {@code COUNT(*)} would not give.
+     */
+    static String toCountQuery(String query) {
+        Matcher m = SELECT_FROM.matcher(query);
+        if (!m.matches()) {
+            return null;
+        }
+        String rest = m.group(2);
+        String upper = rest.toUpperCase(Locale.ROOT);
+        if (upper.contains("GROUP BY") || upper.contains("UNION") || upper.contains(" FIELDS ")
+                || m.group(1).toUpperCase(Locale.ROOT).startsWith("FROM ")) {
+            return null;
+        }
+        rest = UP_TO_ROWS.matcher(rest).replaceAll("");
+        rest = ORDER_BY.matcher(rest).replaceAll("");
+        return "SELECT COUNT(*) FROM " + rest.trim();
+    }
+
+    // ------------------------------------------------------------------
+    // Output encoding
+    // ------------------------------------------------------------------
+
+    /**
+     * Fills {@code selected} with the indexes of the columns to return:
+     * the requested ones, or else all columns except those that are initial
+     * (empty or zero) in every row of the page when the query selects {@code *}.
+     *
+     * @return an error message, or {@code null}
+     */
+    private String selectColumns(JsonArray columns, JsonObject arguments, int from, int to,
+                                 String query, List<Integer> selected, List<String> hints) {
+        JsonElement requested = arguments.get("columns");
+        if (requested != null && requested.isJsonArray() && requested.getAsJsonArray().size() > 0) {
+            Set<String> unknown = new HashSet<>();
+            for (JsonElement name : requested.getAsJsonArray()) {
+                int index = columnIndex(columns, name.getAsString());
+                if (index < 0) {
+                    unknown.add(name.getAsString());
+                } else if (!selected.contains(index)) {
+                    selected.add(index);
+                }
+            }
+            if (!unknown.isEmpty()) {
+                return "Unknown columns " + unknown + ". Available columns: " + columnNames(columns);
+            }
+            return null;
+        }
+
+        boolean selectAll = query.toUpperCase(Locale.ROOT).matches("(?s)^SELECT\\s+(SINGLE\\s+)?\\*.*");
+        List<String> empty = new ArrayList<>();
+        for (int c = 0; c < columns.size(); c++) {
+            if (selectAll && to > from && isInitial(columns.get(c).getAsJsonObject(), from, to)) {
+                empty.add(columns.get(c).getAsJsonObject().get("name").getAsString());
+            } else {
+                selected.add(c);
+            }
+        }
+        if (!empty.isEmpty() && !selected.isEmpty()) {
+            hints.add("Omitted columns that are empty or zero in all rows of this page: " + String.join(", ", empty));
+        } else {
+            selected.clear();
+            for (int c = 0; c < columns.size(); c++) {
+                selected.add(c);
+            }
+        }
+        if (selected.size() > WIDE_RESULT_COLUMNS) {
+            hints.add(selected.size() + " columns returned; list only the fields you need in the "
+                    + "SELECT or pass 'columns' to keep the result small.");
+        }
+        return null;
+    }
+
+    private static String toCsv(JsonArray columns, List<Integer> selected, int from, int to) {
+        StringBuilder sb = new StringBuilder();
+        for (int i = 0; i < selected.size(); i++) {
+            if (i > 0) sb.append(',');
+            sb.append(csvValue(columns.get(selected.get(i)).getAsJsonObject().get("name").getAsString()));
+        }
+        for (int row = from; row < to; row++) {
+            sb.append('\n');
+            for (int i = 0; i < selected.size(); i++) {
+                if (i > 0) sb.append(',');
+                sb.append(csvValue(cell(columns, selected.get(i), row)));
+            }
+        }
+        return sb.toString();
+    }
+
+    private static JsonArray toJsonRows(JsonArray columns, List<Integer> selected, int from, int to) {
+        JsonArray rows = new JsonArray();
+        for (int row = from; row < to; row++) {
+            JsonObject obj = new JsonObject();
+            for (int c : selected) {
+                obj.addProperty(columns.get(c).getAsJsonObject().get("name").getAsString(),
+                        cell(columns, c, row));
+            }
+            rows.add(obj);
+        }
+        return rows;
+    }
+
+    // ------------------------------------------------------------------
+    // Private helpers
+    // ------------------------------------------------------------------
+
+    private static int rowCount(JsonArray columns) {
+        if (columns == null || columns.size() == 0) {
+            return 0;
+        }
+        return columns.get(0).getAsJsonObject().getAsJsonArray("values").size();
+    }
+
+    private static String cell(JsonArray columns, int column, int row) {
+        JsonArray values = columns.get(column).getAsJsonObject().getAsJsonArray("values");
+        String value = row < values.size() ? values.get(row).getAsString() : "";
+        if (value.length() > MAX_CELL_LENGTH) {
+            value = value.substring(0, MAX_CELL_LENGTH) + "...";
+        }
+        return value;
+    }
+
+    private static boolean isInitial(JsonObject column, int from, int to) {
+        JsonArray values = column.getAsJsonArray("values");
+        for (int row = from; row < Math.min(to, values.size()); row++) {
+            String value = values.get(row).getAsString().trim();
+            if (!value.isEmpty() && !value.matches("[0.:-]+")) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static int columnIndex(JsonArray columns, String name) {
+        for (int c = 0; c < columns.size(); c++) {
+            if (columns.get(c).getAsJsonObject().get("name").getAsString().equalsIgnoreCase(name.trim())) {
+                return c;
+            }
+        }
+        return -1;
+    }
+
+    private static String columnNames(JsonArray columns) {
+        List<String> names = new ArrayList<>();
+        for (int c = 0; c < columns.size(); c++) {
+            names.add(columns.get(c).getAsJsonObject().get("name").getAsString());
+        }
+        return String.join(", ", names);
+    }
 
-        JsonObject result = AdtXmlParser.parseDataPreview(resp.body());
-        return ToolResult.success(null, result.toString());
+    private static String csvValue(String value) {
+        if (value.indexOf(',') < 0 && value.indexOf('"') < 0
+                && value.indexOf('\n') < 0 && value.indexOf('\r') < 0) {
+            return value;
+        }
+        return "\"" + value.replace("\"", "\"\"") + "\"";
     }
 }
@@ -0,0 +1,341 @@
+package com.sap.ai.assistant.tools;
+
+import java.net.URLEncoder;
+import java.net.http.HttpResponse;
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.regex.Pattern;
+
+import com.google.gson.JsonArray;
+import com.google.gson.JsonElement;
+import com.google.gson.JsonObject;
+import com.sap.ai.assistant.sap.AdtRestClient;
+import com.sap.ai.assistant.sap.AdtXmlParser;
+import com.sap.ai.assistant.util.Hashes;
+
+/**
+ * Runs ABAP syntax checks for one SAP system and remembers their results.
+ * <p>
+ * Results of checks with inline content are cached by a hash of the
+ * checked URL and content, so checking the same code again costs no
+ * {@code /checkruns} request. Cached results are dropped when any object of
+ * the system is written, activated or deleted through the plugin (see
+ * {@link com.sap.ai.assistant.sap.AdtSourceCache#getInvalidationCount}),
+ * since the result may depend on other objects. Checks of the saved
+ * version are never cached.
+ * </p>
+ * <p>
+ * Given the messages of the caller's previous check of the object, each
+ * {@link Result} tells which messages are new, which were resolved and
+ * which are unchanged. The scratch objects used to check code of objects
+ * that do not exist yet are created once per system, not per tool.
+ * </p>
+ * <p>
+ * One instance exists per SAP system and client; obtain it with
+ * {@link #forSystem(AdtRestClient)}. All methods are thread-safe.
+ * </p>
+ */
+public class SyntaxCheckService {
+
+    /** The ADT endpoint for check runs (syntax check). */
+    private static final String CHECKRUN_ENDPOINT = "/sap/bc/adt/checkruns?reporters=abapCheckRun";
+
+    /** Upper bound for the number of cached results. */
+    private static final int MAX_CACHED_RESULTS = 100;
+
+    private static final Map<String, SyntaxCheckService> INSTANCES = new ConcurrentHashMap<>();
+
+    private volatile AdtRestClient client;
+    private final ScratchObjectManager scratchManager;
+
+    /** Messages by hash of URL and content, most recently used last. */
+    private final LinkedHashMap<String, JsonArray> results = new LinkedHashMap<>(32, 0.75f, true);
+    /** Invalidation count of the source cache the cached results belong to. */
+    private long resultsGeneration = -1;
+
+    private int cacheHits;
+    private int checkRuns;
+
+    /**
+     * The outcome of a syntax check, compared to the previous check of the
+     * same object.
+     */
+    public static final class Result {
+        private final JsonArray messages;
+        private final JsonArray newMessages;
+        private final JsonArray resolvedMessages;
+        private final JsonArray unchangedMessages;
+        private final boolean cached;
+        private final boolean firstCheck;
+
+        Result(JsonArray messages, JsonArray previous, boolean cached) {
+            this.messages = messages;
+            this.cached = cached;
+            this.firstCheck = previous == null;
+            this.newMessages = new JsonArray();
+            this.unchangedMessages = new JsonArray();
+            this.resolvedMessages = new JsonArray();
+
+            // Compare by severity and text only: editing code above a message
+            // moves its line without changing the finding
+            Map<String, Integer> before = new HashMap<>();
+            if (previous != null) {
+                for (JsonElement msg : previous) {
+                    before.merge(signature(msg.getAsJsonObject()), 1, Integer::sum);
+                }
+            }
+            for (JsonElement msg : messages) {
+                String sig = signature(msg.getAsJsonObject());
+                Integer count = before.get(sig);
+                if (count != null && count > 0) {
+                    before.put(sig, count - 1);
+                    unchangedMessages.add(msg);
+                } else {
+                    newMessages.add(msg);
+                }
+            }
+            if (previous != null) {
+                for (JsonElement msg : previous) {
+                    String sig = signature(msg.getAsJsonObject());
+                    Integer count = before.get(sig);
+                    if (count != null && count > 0) {
+                        before.put(sig, count - 1);
+                        resolvedMessages.add(msg);
+                    }
+                }
+            }
+        }
+
+        /** Returns all messages of this check. */
+        public JsonArray getMessages() { return messages; }
+
+        /** Returns the messages the previous check of the object did not report. */
+        public JsonArray getNewMessages() { return newMessages; }
+
+        /** Returns the messages of the previous check that are gone. */
+        public JsonArray getResolvedMessages() { return resolvedMessages; }
+
+        /** Returns the messages the previous check reported as well. */
+        public JsonArray getUnchangedMessages() { return unchangedMessages; }
+
+        /** Returns whether the result was taken from the cache. */
+        public boolean isCached() { return cached; }
+
+        /** Returns whether no previous check of the object was given. */
+        public boolean isFirstCheck() { return firstCheck; }
+
+        /** Returns whether any message has error severity. */
+        public boolean hasErrors() { return countBySeverity("error", "E") > 0; }
+
+        /**
+         * Returns the number of messages with the given severity.
+         *
+         * @param name the severity name, e.g. {@code "error"}
+         * @param code the severity code, e.g. {@code "E"}
+         */
+        public int countBySeverity(String name, String code) {
+            int count = 0;
+            for (JsonElement el : messages) {
+                JsonObject msg = el.getAsJsonObject();
+                String severity = msg.has("severity") ? msg.get("severity").getAsString() : "";
+                if (severity.equalsIgnoreCase(name) || severity.equalsIgnoreCase(code)) {
+                    count++;
+                }
+            }
+            return count;
+        }
+
+        private static String signature(JsonObject msg) {
+            String severity = msg.has("severity") ? msg.get("severity").getAsString() : "";
+            String text = msg.has("text") ? msg.get("text").getAsString() : "";
+            return severity.toUpperCase(Locale.ROOT) + "|" + text;
+        }
+    }
+
+    private SyntaxCheckService(AdtRestClient client) {
+        this.client = client;
+        this.scratchManager = new ScratchObjectManager(client);
+    }
+
+    /**
+     * Returns the service of the client's system, switching it to the given
+     * client (e.g. after the session was re-established).
+     *
+     * @param client a logged-in client of the system
+     * @return the service of the system
+     */
+    public static SyntaxCheckService forSystem(AdtRestClient client) {
+        String systemId = client.getBaseUrl().toLowerCase(Locale.ROOT) + "|" + client.getSapClient();
+        SyntaxCheckService service = INSTANCES.computeIfAbsent(systemId, id -> new SyntaxCheckService(client));
+        if (service.client != client) {
+            service.client = client;
+            service.scratchManager.setClient(client);
+        }
+        return service;
+    }
+
+    /**
+     * Checks the syntax of an object.
+     *
+     * @param url         the ADT source URL of the object
+     * @param content     the source to check, or {@code null} to check the saved version
+     * @param mainUrl     optional URL of the main program (for includes)
+     * @param mainProgram optional name of the main program (for includes)
+     * @param previous    the messages of the caller's previous check of the
+     *                    object, or {@code null}
+     * @return the check result
+     * @throws Exception if the check could not be run
+     */
+    public Result check(String url, String content, String mainUrl, String mainProgram,
+                        JsonArray previous) throws Exception {
+        boolean inline = content != null && !content.isEmpty();
+        String key = inline
+                ? Hashes.shortHash(url + "|" + mainUrl + "|" + mainProgram + "|" + content) : null;
+
+        JsonArray messages = null;
+        long generation = client.getSourceCache().getInvalidationCount();
+        if (key != null) {
+            synchronized (this) {
+                if (resultsGeneration != generation) {
+                    results.clear();
+                    resultsGeneration = generation;
+                }
+                messages = results.get(key);
+                if (messages != null) {
+                    cacheHits++;
+                }
+            }
+        }
+
+        boolean cached = messages != null;
+        if (!cached) {
+            messages = runCheck(url, content, mainUrl, mainProgram);
+            synchronized (this) {
+                checkRuns++;
+                if (key != null && resultsGeneration == generation) {
+                    if (results.size() >= MAX_CACHED_RESULTS) {
+                        results.remove(results.keySet().iterator().next());
+                    }
+                    results.put(key, messages);
+                }
+            }
+        }
+
+        return new Result(messages, previous, cached);
+    }
+
+    /** Returns the number of checks answered from the cache. */
+    public synchronized int getCacheHits() {
+        return cacheHits;
+    }
+
+    /** Returns the number of checks sent to the server. */
+    public synchronized int getCheckRuns() {
+        return checkRuns;
+    }
+
+    // ------------------------------------------------------------------
+    // Check runs
+    // ------------------------------------------------------------------
+
+    private JsonArray runCheck(String url, String content, String mainUrl, String mainProgram)
+            throws Exception {
+        AdtRestClient client = this.client;
+        try {
+            HttpResponse<String> response = client.post(CHECKRUN_ENDPOINT,
+                    buildCheckRunXml(url, content, mainUrl, mainProgram),
+                    "application/*", "application/*");
+            return AdtXmlParser.parseSyntaxCheckResults(response.body());
+        } catch (Exception e) {
+            // If content was provided, try the scratch fallback for new (non-existent) objects
+            if (content == null || content.isEmpty()) {
+                throw e;
+            }
+            String originalName = SyntaxCheckTool.extractObjectNameFromUrl(url);
+            String scratchUrl;
+            synchronized (scratchManager) {
+                scratchUrl = scratchManager.getScratchSourceUrl(url);
+            }
+            String scratchName = SyntaxCheckTool.extractObjectNameFromUrl(scratchUrl);
+            if (originalName == null || scratchName == null) {
+                throw e; // no fallback available — propagate original error
+            }
+            // Replace the original object name in source with the scratch name
+            // so SAP's validation passes (it checks that the name in source
+            // matches the object URL). Case-insensitive replacement.
+            String adjustedContent = content.replaceAll(
+                    "(?i)" + Pattern.quote(originalName), scratchName);
+            HttpResponse<String> response = client.post(CHECKRUN_ENDPOINT,
+                    buildCheckRunXml(scratchUrl, adjustedContent, mainUrl, mainProgram),
+                    "application/*", "application/*");
+            return AdtXmlParser.parseSyntaxCheckResults(response.body());
+        }
+    }
+
+    /**
+     * Build the XML body for the check run request, following the format
+     * used by the abap-adt-api reference implementation.
+     * <p>
+     * When {@code content} is provided, the source code is Base64-encoded
+     * and placed inside {@code <chkrun:artifacts>/<chkrun:artifact>/<chkrun:content>}.
+     * When {@code content} is null/empty, only the object URI is sent and
+     * SAP checks the saved (active) version.
+     * </p>
+     */
+    private static String buildCheckRunXml(String url, String content,
+                                           String mainUrl, String mainProgram) {
+        // The source URL on the checkObject; add ?context=mainProgram if specified
+        String sourceUri = url;
+        if (mainProgram != null && !mainProgram.isEmpty()) {
+            sourceUri = url + "?context=" + URLEncoder.encode(mainProgram, StandardCharsets.UTF_8);
+        }
+
+        // The include URL (for the artifact); defaults to url itself
+        String inclUrl = (mainUrl != null && !mainUrl.isEmpty()) ? mainUrl : url;
+
+        StringBuilder xml = new StringBuilder();
+        xml.append("<?xml version=\"1.0\" encoding=\"UTF-8\"?>");
+        xml.append("<chkrun:checkObjectList xmlns:chkrun=\"http://www.sap.com/adt/checkrun\" ");
+        xml.append("xmlns:adtcore=\"http://www.sap.com/adt/core\">");
+        xml.append("<chkrun:checkObject adtcore:uri=\"").append(escapeXml(sourceUri)).append("\"");
+        xml.append(" chkrun:version=\"active\">");
+
+        if (content != null && !content.isEmpty()) {
+            // Base64-encode the content as per the reference implementation
+            String b64 = Base64.getEncoder().encodeToString(
+                    content.getBytes(StandardCharsets.UTF_8));
+
+            xml.append("<chkrun:artifacts>");
+            xml.append("<chkrun:artifact chkrun:contentType=\"text/plain; charset=utf-8\" ");
+            xml.append("chkrun:uri=\"").append(escapeXml(inclUrl)).append("\">");
+            xml.append("<chkrun:content>").append(b64).append("</chkrun:content>");
+            xml.append("</chkrun:artifact>");
+            xml.append("</chkrun:artifacts>");
+        }
+
+        xml.append("</chkrun:checkObject>");
+        xml.append("</chkrun:checkObjectList>");
+        return xml.toString();
+    }
+
+    // ------------------------------------------------------------------
+    // Private helpers
+    // ------------------------------------------------------------------
+
+    private static String escapeXml(String value) {
+        if (value == null) {
+            return "";
+        }
+        return value
+                .replace("&", "&amp;")
+                .replace("<", "&lt;")
+                .replace(">", "&gt;")
+                .replace("\"", "&quot;")
+                .replace("'", "&apos;");
+    }
+}
@@ -1,15 +1,14 @@
 package com.sap.ai.assistant.tools;
 
-import java.net.http.HttpResponse;
-import java.util.Base64;
-import java.util.regex.Pattern;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
 
 import com.google.gson.JsonArray;
 import com.google.gson.JsonObject;
 import com.sap.ai.assistant.model.ToolDefinition;
 import com.sap.ai.assistant.model.ToolResult;
 import com.sap.ai.assistant.sap.AdtRestClient;
-import com.sap.ai.assistant.sap.AdtXmlParser;
 
 /**
  * Tool: <b>sap_syntax_check</b> -- Run an ABAP syntax check on the
@@ -18,19 +17,21 @@ import com.sap.ai.assistant.sap.AdtXmlParser;
  * <p>When checking code for objects that do not yet exist in the SAP system,
  * this tool transparently falls back to a scratch placeholder object so
  * that the syntax check API has a valid URL to work against.</p>
+ *
+ * <p>Checks run through the system's {@link SyntaxCheckService}, so unchanged
+ * code is not sent again. After the first check of an object, the result
+ * lists what changed since the previous check by this tool and the errors
+ * that are still present; unchanged warnings are reduced to their lines.</p>
  */
 public class SyntaxCheckTool extends AbstractSapTool {
 
     public static final String NAME = "sap_syntax_check";
 
-    /** The correct ADT endpoint for check runs (syntax check). */
-    private static final String CHECKRUN_ENDPOINT = "/sap/bc/adt/checkruns?reporters=abapCheckRun";
-
-    private final ScratchObjectManager scratchManager;
+    /** Messages of the last check of each object, by lower-case source URL. */
+    private final Map<String, JsonArray> previousByUrl = new ConcurrentHashMap<>();
 
     public SyntaxCheckTool(AdtRestClient client) {
         super(client);
-        this.scratchManager = new ScratchObjectManager(client);
     }
 
     @Override
@@ -89,47 +90,11 @@ public class SyntaxCheckTool extends AbstractSapTool {
         String mainUrl = optString(arguments, "mainUrl");
         String mainProgram = optString(arguments, "mainProgram");
 
-        String xmlBody = buildCheckRunXml(url, content, mainUrl, mainProgram);
-
-        try {
-            HttpResponse<String> response = client.post(
-                    CHECKRUN_ENDPOINT,
-                    xmlBody,
-                    "application/*",
-                    "application/*");
-
-            return buildResult(response);
-
-        } catch (Exception e) {
-            // If content was provided, try scratch fallback for new (non-existent) objects
-            if (content != null && !content.isEmpty()) {
-                String originalName = extractObjectNameFromUrl(url);
-                String scratchUrl = scratchManager.getScratchSourceUrl(url);
-
-                if (scratchUrl != null && originalName != null) {
-                    String scratchName = extractObjectNameFromUrl(scratchUrl);
-                    if (scratchName != null) {
-                        // Replace the original object name in source with the scratch name
-                        // so SAP's validation passes (it checks that the name in source
-                        // matches the object URL). Case-insensitive replacement.
-                        String adjustedContent = content.replaceAll(
-                                "(?i)" + Pattern.quote(originalName), scratchName);
-
-                        String retryXml = buildCheckRunXml(
-                                scratchUrl, adjustedContent, mainUrl, mainProgram);
-
-                        HttpResponse<String> retryResp = client.post(
-                                CHECKRUN_ENDPOINT,
-                                retryXml,
-                                "application/*",
-                                "application/*");
-
-                        return buildResult(retryResp);
-                    }
-                }
-            }
-            throw e; // no fallback available — propagate original error
-        }
+        String objectKey = url.toLowerCase(Locale.ROOT);
+        SyntaxCheckService.Result result = SyntaxCheckService.forSystem(client)
+                .check(url, content, mainUrl, mainProgram, previousByUrl.get(objectKey));
+        previousByUrl.put(objectKey, result.getMessages());
+        return buildResult(result);
     }
 
     // ------------------------------------------------------------------
@@ -137,65 +102,48 @@ public class SyntaxCheckTool extends AbstractSapTool {
     // ------------------------------------------------------------------
 
     /**
-     * Build the XML body for the check run request, following the format
-     * used by the abap-adt-api reference implementation.
-     * <p>
-     * When {@code content} is provided, the source code is Base64-encoded
-     * and placed inside {@code <chkrun:artifacts>/<chkrun:artifact>/<chkrun:content>}.
-     * When {@code content} is null/empty, only the object URI is sent and
-     * SAP checks the saved (active) version.
-     * </p>
+     * Build the {@link ToolResult} of a check. The first check of an object
+     * lists all messages; later checks list the new ones, the resolved ones,
+     * the unchanged errors in full and only the lines of the other
+     * unchanged messages. Errors are always repeated because older tool
+     * results may have been truncated or omitted from the context.
      */
-    private String buildCheckRunXml(String url, String content,
-                                     String mainUrl, String mainProgram) {
-        // The source URL on the checkObject; add ?context=mainProgram if specified
-        String sourceUri = url;
-        if (mainProgram != null && !mainProgram.isEmpty()) {
-            sourceUri = url + "?context=" + urlEncode(mainProgram);
+    private ToolResult buildResult(SyntaxCheckService.Result result) {
+        JsonObject output = new JsonObject();
+        output.addProperty("hasErrors", result.hasErrors());
+        output.addProperty("hasWarnings", result.countBySeverity("warning", "W") > 0);
+        output.addProperty("errorCount", result.countBySeverity("error", "E"));
+        output.addProperty("warningCount", result.countBySeverity("warning", "W"));
+        output.addProperty("messageCount", result.getMessages().size());
+        if (result.isFirstCheck()) {
+            output.add("messages", result.getMessages());
+        } else {
+            output.addProperty("delta", true);
+            output.add("messages", result.getNewMessages());
+            output.add("resolvedMessages", result.getResolvedMessages());
+            JsonArray unchangedErrors = new JsonArray();
+            JsonArray unchangedLines = new JsonArray();
+            for (int i = 0; i < result.getUnchangedMessages().size(); i++) {
+                JsonObject msg = result.getUnchangedMessages().get(i).getAsJsonObject();
+                if (isError(msg)) {
+                    unchangedErrors.add(msg);
+                } else {
+                    unchangedLines.add(msg.has("line") ? msg.get("line").getAsString() : "?");
+                }
+            }
+            output.addProperty("unchangedCount", result.getUnchangedMessages().size());
+            output.add("unchangedErrors", unchangedErrors);
+            output.add("unchangedWarningLines", unchangedLines);
         }
-
-        // The include URL (for the artifact); defaults to url itself
-        String inclUrl = (mainUrl != null && !mainUrl.isEmpty()) ? mainUrl : url;
-
-        StringBuilder xml = new StringBuilder();
-        xml.append("<?xml version=\"1.0\" encoding=\"UTF-8\"?>");
-        xml.append("<chkrun:checkObjectList xmlns:chkrun=\"http://www.sap.com/adt/checkrun\" ");
-        xml.append("xmlns:adtcore=\"http://www.sap.com/adt/core\">");
-        xml.append("<chkrun:checkObject adtcore:uri=\"").append(escapeXml(sourceUri)).append("\"");
-        xml.append(" chkrun:version=\"active\">");
-
-        if (content != null && !content.isEmpty()) {
-            // Base64-encode the content as per the reference implementation
-            String b64 = Base64.getEncoder().encodeToString(
-                    content.getBytes(java.nio.charset.StandardCharsets.UTF_8));
-
-            xml.append("<chkrun:artifacts>");
-            xml.append("<chkrun:artifact chkrun:contentType=\"text/plain; charset=utf-8\" ");
-            xml.append("chkrun:uri=\"").append(escapeXml(inclUrl)).append("\">");
-            xml.append("<chkrun:content>").append(b64).append("</chkrun:content>");
-            xml.append("</chkrun:artifact>");
-            xml.append("</chkrun:artifacts>");
+        if (result.isCached()) {
+            output.addProperty("cached", true);
         }
-
-        xml.append("</chkrun:checkObject>");
-        xml.append("</chkrun:checkObjectList>");
-        return xml.toString();
+        return ToolResult.success(null, output.toString());
     }
 
-    /**
-     * Parse the syntax check response and build a {@link ToolResult}.
-     */
-    private ToolResult buildResult(HttpResponse<String> response) {
-        JsonArray results = AdtXmlParser.parseSyntaxCheckResults(response.body());
-
-        JsonObject output = new JsonObject();
-        output.addProperty("hasErrors", hasErrors(results));
-        output.addProperty("hasWarnings", hasSeverity(results, "warning", "W"));
-        output.addProperty("errorCount", countBySeverity(results, "error", "E"));
-        output.addProperty("warningCount", countBySeverity(results, "warning", "W"));
-        output.addProperty("messageCount", results.size());
-        output.add("messages", results);
-        return ToolResult.success(null, output.toString());
+    private static boolean isError(JsonObject msg) {
+        String severity = msg.has("severity") ? msg.get("severity").getAsString() : "";
+        return severity.equalsIgnoreCase("error") || severity.equalsIgnoreCase("E");
     }
 
     /**
@@ -231,43 +179,4 @@ public class SyntaxCheckTool extends AbstractSapTool {
         }
         return null;
     }
-
-    private boolean hasErrors(JsonArray messages) {
-        return hasSeverity(messages, "error", "E");
-    }
-
-    private boolean hasSeverity(JsonArray messages, String name, String code) {
-        for (int i = 0; i < messages.size(); i++) {
-            JsonObject msg = messages.get(i).getAsJsonObject();
-            String severity = msg.has("severity") ? msg.get("severity").getAsString() : "";
-            if (severity.equalsIgnoreCase(name) || severity.equalsIgnoreCase(code)) {
-                return true;
-            }
-        }
-        return false;
-    }
-
-    private int countBySeverity(JsonArray messages, String name, String code) {
-        int count = 0;
-        for (int i = 0; i < messages.size(); i++) {
-            JsonObject msg = messages.get(i).getAsJsonObject();
-            String severity = msg.has("severity") ? msg.get("severity").getAsString() : "";
-            if (severity.equalsIgnoreCase(name) || severity.equalsIgnoreCase(code)) {
-                count++;
-            }
-        }
-        return count;
-    }
-
-    private String escapeXml(String value) {
-        if (value == null) {
-            return "";
-        }
-        return value
-                .replace("&", "&amp;")
-                .replace("<", "&lt;")
-                .replace(">", "&gt;")
-                .replace("\"", "&quot;")
-                .replace("'", "&apos;");
-    }
 }
@@ -1,20 +1,46 @@
 package com.sap.ai.assistant.tools;
 
+import java.io.IOException;
 import java.net.http.HttpResponse;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.Map;
 
 import com.google.gson.JsonObject;
 import com.sap.ai.assistant.model.ToolDefinition;
 import com.sap.ai.assistant.model.ToolResult;
 import com.sap.ai.assistant.sap.AdtRestClient;
+import com.sap.ai.assistant.sap.AdtXmlParser;
 
 /**
  * Tool: <b>sap_usage_references</b> -- Find all usages (where-used list)
  * of an ABAP element across the entire system.
+ *
+ * <p>The result is grouped by the object containing the usages (see
+ * {@link AdtXmlParser#parseUsageReferences}) and paged. Further pages of
+ * the last few lists are served from memory instead of running the
+ * where-used query again.</p>
  */
 public class UsageReferencesTool extends AbstractSapTool {
 
     public static final String NAME = "sap_usage_references";
 
+    private static final int DEFAULT_LIMIT = 50;
+    private static final int MAX_LIMIT = 500;
+    private static final int MAX_CACHED_LISTS = 4;
+
+    /** Characters of an unparseable response passed on to the LLM. */
+    private static final int RAW_EXCERPT_CHARS = 4000;
+
+    /** Raw responses of recent where-used queries, by request path. */
+    private final Map<String, String> recentResponses = Collections.synchronizedMap(
+            new LinkedHashMap<String, String>(8, 0.75f, true) {
+                @Override
+                protected boolean removeEldestEntry(Map.Entry<String, String> eldest) {
+                    return size() > MAX_CACHED_LISTS;
+                }
+            });
+
     public UsageReferencesTool(AdtRestClient client) {
         super(client);
     }
@@ -24,6 +50,11 @@ public class UsageReferencesTool extends AbstractSapTool {
         return NAME;
     }
 
+    @Override
+    public boolean isReadOnly() {
+        return true;
+    }
+
     @Override
     public ToolDefinition getDefinition() {
         JsonObject urlProp = new JsonObject();
@@ -41,12 +72,24 @@ public class UsageReferencesTool extends AbstractSapTool {
         colProp.addProperty("description",
                 "Optional 0-based column of the element");
 
+        JsonObject offsetProp = new JsonObject();
+        offsetProp.addProperty("type", "integer");
+        offsetProp.addProperty("description",
+                "Index of the first using object to return (default 0); use nextOffset from the previous page");
+
+        JsonObject limitProp = new JsonObject();
+        limitProp.addProperty("type", "integer");
+        limitProp.addProperty("description",
+                "Number of using objects per page (default " + DEFAULT_LIMIT + ", max " + MAX_LIMIT + ")");
+
         JsonObject properties = new JsonObject();
         properties.add("objectType", AdtUrlResolver.buildTypeProperty());
         properties.add("objectName", AdtUrlResolver.buildNameProperty());
         properties.add("url", urlProp);
         properties.add("line", lineProp);
         properties.add("column", colProp);
+        properties.add("offset", offsetProp);
+        properties.add("limit", limitProp);
 
         JsonObject schema = new JsonObject();
         schema.addProperty("type", "object");
@@ -54,7 +97,9 @@ public class UsageReferencesTool extends AbstractSapTool {
 
         return new ToolDefinition(NAME,
                 "Find all usages (where-used) of an ABAP element. "
-                + "Provide objectType + objectName, or url.",
+                + "Provide objectType + objectName, or url. Returns the using objects grouped "
+                + "(with the methods/includes containing the usages), counts per type, and "
+                + "totalObjects; page with offset + limit.",
                 schema);
     }
 
@@ -66,6 +111,8 @@ public class UsageReferencesTool extends AbstractSapTool {
         }
         String line = optString(arguments, "line");
         String column = optString(arguments, "column");
+        int offset = Math.max(0, optInt(arguments, "offset", 0));
+        int limit = Math.max(1, Math.min(MAX_LIMIT, optInt(arguments, "limit", DEFAULT_LIMIT)));
 
         StringBuilder path = new StringBuilder();
         path.append("/sap/bc/adt/repository/informationsystem/usagereferences");
@@ -78,17 +125,35 @@ public class UsageReferencesTool extends AbstractSapTool {
             path.append("&column=").append(urlEncode(column));
         }
 
-        HttpResponse<String> response = client.post(
-                path.toString(),
-                "",
-                "application/*",
-                "application/*");
-
-        // Return the raw response; usage reference results vary by
-        // SAP release and the LLM can interpret the XML
-        JsonObject output = new JsonObject();
-        output.addProperty("statusCode", response.statusCode());
-        output.addProperty("response", response.body());
+        // A first page always queries the system; later pages reuse its response
+        String key = path.toString();
+        String body = offset > 0 ? recentResponses.get(key) : null;
+        if (body == null) {
+            HttpResponse<String> response;
+            try {
+                response = client.post(
+                        key,
+                        "",
+                        "application/*",
+                        "application/*");
+            } catch (IOException e) {
+                // HTTP errors arrive here with status and body; not cached,
+                // so a later page asks the system again
+                return ToolResult.error(null, "Where-used query failed: " + e.getMessage());
+            }
+            body = response.body();
+            recentResponses.put(key, body != null ? body : "");
+        }
+
+        JsonObject output = AdtXmlParser.parseUsageReferences(body, offset, limit);
+
+        // Unknown response layout: pass on the beginning of the raw XML
+        if (output.get("totalObjects").getAsInt() == 0 && body != null
+                && body.contains("<") && !body.contains("referencedObject")) {
+            output.addProperty("rawResponse", body.length() > RAW_EXCERPT_CHARS
+                    ? body.substring(0, RAW_EXCERPT_CHARS) + "\n... (truncated, " + body.length() + " chars)"
+                    : body);
+        }
         return ToolResult.success(null, output.toString());
     }
 }
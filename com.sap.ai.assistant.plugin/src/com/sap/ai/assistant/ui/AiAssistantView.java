@@ -18,20 +18,31 @@ import org.eclipse.ui.dialogs.PreferencesUtil;
 import org.eclipse.ui.part.ViewPart;
 
 import java.util.ArrayList;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
 
 import com.google.gson.JsonObject;
 import com.sap.ai.assistant.Activator;
 import com.sap.ai.assistant.agent.AgentCallback;
 import com.sap.ai.assistant.agent.AgentLoop;
+import com.sap.ai.assistant.agent.ContextBudget;
 import com.sap.ai.assistant.agent.ContextBuilder;
 import com.sap.ai.assistant.agent.ConversationManager;
+import com.sap.ai.assistant.agent.ConversationStore;
+import com.sap.ai.assistant.agent.SessionPool;
+import com.sap.ai.assistant.agent.SourcePrefetcher;
 import com.sap.ai.assistant.context.EditorContextTracker;
 import com.sap.ai.assistant.llm.LlmProvider;
 import com.sap.ai.assistant.llm.LlmProviderFactory;
 import com.sap.ai.assistant.mcp.McpClient;
 import com.sap.ai.assistant.mcp.McpServerConfig;
 import com.sap.ai.assistant.mcp.McpToolAdapter;
+import com.sap.ai.assistant.mcp.McpToolCatalog;
 import com.sap.ai.assistant.mcp.McpToolDefinitionParser;
 import com.sap.ai.assistant.model.AdtContext;
 import com.sap.ai.assistant.model.AgentMode;
@@ -49,6 +60,7 @@ import com.sap.ai.assistant.model.TransportSelection;
 import com.sap.ai.assistant.model.TransportSelectionRequest;
 import com.sap.ai.assistant.preferences.PreferenceConstants;
 import com.sap.ai.assistant.sap.AdtCredentialProvider;
+import com.sap.ai.assistant.sap.AdtObjectIndex;
 import com.sap.ai.assistant.sap.AdtRestClient;
 import com.sap.ai.assistant.tools.AtcRunTool;
 import com.sap.ai.assistant.tools.FindDefinitionTool;
@@ -77,6 +89,9 @@ public class AiAssistantView extends ViewPart {
     /** View ID as declared in {@code plugin.xml}. */
     public static final String VIEW_ID = "com.sap.ai.assistant.ui.AiAssistantView";
 
+    /** How long a run waits for MCP servers whose tools are not in the catalogue. */
+    private static final long MCP_DISCOVERY_DEADLINE_MS = 5_000;
+
     // ---- Widgets ----
     private SystemSelectorComposite systemSelector;
     private Combo agentSelector;
@@ -87,6 +102,10 @@ public class AiAssistantView extends ViewPart {
     // ---- State ----
     private EditorContextTracker contextTracker;
     private ConversationManager conversationManager;
+    private final ConversationStore conversationStore = new ConversationStore();
+    /** Key of the conversation shown in the chat, or {@code null} before the first message. */
+    private String activeConversationKey;
+    private final SessionPool sessionPool = new SessionPool();
     private Job currentJob;
     private UsageTracker usageTracker;
     /** Session-level transport selection; {@code null} until first write op. */
@@ -105,10 +124,12 @@ public class AiAssistantView extends ViewPart {
         createDevLog(parent);
         registerEditorContextTracker();
 
-        conversationManager = new ConversationManager();
+        conversationManager = new ConversationManager(conversationStore);
         usageTracker = new UsageTracker();
+        usageTracker.enableSpill();
         devLog.setTracker(usageTracker);
         updateModelLabel();
+        offerStoredConversation();
     }
 
     @Override
@@ -139,6 +160,10 @@ public class AiAssistantView extends ViewPart {
             }
             contextTracker = null;
         }
+        // Log out of pooled ADT and MCP sessions
+        sessionPool.closeAll();
+        // Let pending journal writes finish before the workbench exits
+        conversationStore.flush(2000);
         super.dispose();
     }
 
@@ -158,6 +183,7 @@ public class AiAssistantView extends ViewPart {
         // SAP system selector
         systemSelector = new SystemSelectorComposite(toolbar, SWT.NONE);
         systemSelector.setLayoutData(new GridData(SWT.FILL, SWT.CENTER, true, false));
+        systemSelector.setSelectionHandler(this::offerStoredConversation);
 
         // Agent mode selector
         agentSelector = new Combo(toolbar, SWT.DROP_DOWN | SWT.READ_ONLY);
@@ -166,6 +192,7 @@ public class AiAssistantView extends ViewPart {
         }
         agentSelector.select(0);
         agentSelector.setToolTipText("Select which agent to chat with");
+        agentSelector.addListener(SWT.Selection, e -> offerStoredConversation());
 
         // Model label
         modelLabel = new Label(toolbar, SWT.NONE);
@@ -195,6 +222,10 @@ public class AiAssistantView extends ViewPart {
         chatComposite.setSendHandler(this::handleSend);
         chatComposite.setStopHandler(this::handleStop);
         chatComposite.setNewChatHandler(this::handleNewChat);
+        chatComposite.setObjectIndexSupplier(() -> {
+            SapSystemConnection system = systemSelector.getSelectedSystem();
+            return system != null ? AdtObjectIndex.forSystem(system.getBaseUrl(), system.getClient()) : null;
+        });
     }
 
     private void createDevLog(Composite parent) {
@@ -258,7 +289,8 @@ public class AiAssistantView extends ViewPart {
     private void handleSend(String userText) {
         Display display = Display.getDefault();
 
-        // Show user message immediately
+        // Show user message immediately; a pending resume offer is declined
+        chatComposite.hideResumeOffer();
         chatComposite.addUserMessage(userText);
         chatComposite.setRunning(true);
 
@@ -274,6 +306,8 @@ public class AiAssistantView extends ViewPart {
         int maxTokens          = store.getInt(PreferenceConstants.LLM_MAX_TOKENS);
         int maxInputTokens     = store.getInt(PreferenceConstants.LLM_MAX_INPUT_TOKENS);
         if (maxInputTokens <= 0) maxInputTokens = 100000; // Default if not set
+        int contextTokens      = store.getInt(PreferenceConstants.LLM_CONTEXT_TOKENS);
+        if (contextTokens <= 0) contextTokens = ContextBudget.DEFAULT_TARGET_TOKENS;
 
         // Validate API key
         if (apiKey == null || apiKey.trim().isEmpty()) {
@@ -300,9 +334,7 @@ public class AiAssistantView extends ViewPart {
                 provider, apiKey, effectiveResearchModel, baseUrl, maxTokens > 0 ? maxTokens : 8192);
 
         // Agent mode
-        int agentIdx = agentSelector.getSelectionIndex();
-        AgentMode selectedAgentMode = (agentIdx >= 0 && agentIdx < AgentMode.values().length)
-                ? AgentMode.values()[agentIdx] : AgentMode.MAIN;
+        AgentMode selectedAgentMode = getSelectedAgentMode();
 
         // Editor contexts from the dropdown selector
         List<AdtContext> selectedContexts = chatComposite.getSelectedContexts();
@@ -339,8 +371,9 @@ public class AiAssistantView extends ViewPart {
                 }
             }
 
-            // Strategy 3: Fall back to password prompt
-            if (!credentialsResolved) {
+            // Strategy 3: Fall back to password prompt, unless a logged-in
+            // client for this system is still pooled from an earlier message
+            if (!credentialsResolved && !sessionPool.hasAdtClient(selectedSystem)) {
                 org.eclipse.jface.dialogs.InputDialog passDialog =
                         new org.eclipse.jface.dialogs.InputDialog(
                                 getSite().getShell(),
@@ -363,10 +396,8 @@ public class AiAssistantView extends ViewPart {
         }
 
         // Determine conversation key from selected system + agent mode
-        String systemKey = (selectedSystem != null
-                ? selectedSystem.getProjectName()
-                : "_default_")
-                + "_" + selectedAgentMode.name();
+        String systemKey = conversationKey(selectedSystem, selectedAgentMode);
+        activeConversationKey = systemKey;
 
         // Build system prompt with selected editor contexts
         String systemPrompt = (selectedContexts != null && !selectedContexts.isEmpty())
@@ -393,6 +424,9 @@ public class AiAssistantView extends ViewPart {
         final AdtCredentialProvider.AdtSessionData finalAdtSession = adtSessionData;
         final AgentMode finalAgentMode = selectedAgentMode;
         final int finalMaxInputTokens = maxInputTokens;
+        final int finalContextTokens = contextTokens;
+        final int finalMaxParallelToolCalls = selectedSystem != null
+                ? selectedSystem.getMaxParallelRequests() : 1;
 
         // Read MCP server configs
         String mcpServersJson = store.getString(PreferenceConstants.MCP_SERVERS);
@@ -404,65 +438,61 @@ public class AiAssistantView extends ViewPart {
 
         // Run agent loop in background
         currentJob = new Job("SAP AI Assistant") {
+            /** The thread running the job, interrupted on cancel to abort pending SAP requests. */
+            private volatile Thread runner;
+
+            @Override
+            protected void canceling() {
+                Thread thread = runner;
+                if (thread != null) {
+                    thread.interrupt();
+                }
+            }
+
             @Override
             protected IStatus run(IProgressMonitor monitor) {
+                runner = Thread.currentThread();
                 AdtRestClient restClient = null;
-                List<McpClient> mcpClients = new ArrayList<>();
+                SourcePrefetcher prefetcher = null;
                 try {
                     // Create LLM provider
                     LlmProvider llmProvider = LlmProviderFactory.create(finalConfig);
+                    // Omitted history is summarized with the cheaper research model
+                    LlmProvider summaryLlm = LlmProviderFactory.create(finalResearchConfig);
 
-                    // Connect to MCP servers and discover tools
-                    // Only include ABAP-relevant tools (exclude CAP, UI5, OpenUI5, etc.)
-                    List<SapTool> mcpTools = new ArrayList<>();
-                    for (McpServerConfig mcpConfig : mcpConfigs) {
-                        if (!mcpConfig.isEnabled()) continue;
-                        try {
-                            McpClient mcpClient = new McpClient(mcpConfig.getUrl());
-                            mcpClient.connect();
-                            mcpClients.add(mcpClient);
-
-                            List<JsonObject> rawTools = mcpClient.listTools();
-                            List<ToolDefinition> defs = McpToolDefinitionParser.parse(rawTools);
-
-                            int loadedCount = 0;
-                            for (int i = 0; i < rawTools.size(); i++) {
-                                String originalName = rawTools.get(i).get("name").getAsString();
-                                // Filter: only include ABAP-related tools
-                                if (isAbapRelevantMcpTool(originalName)) {
-                                    mcpTools.add(new McpToolAdapter(mcpClient, originalName, defs.get(i)));
-                                    loadedCount++;
-                                }
-                            }
-                            System.out.println("MCP: Loaded " + loadedCount + " ABAP tools from "
-                                    + mcpConfig.getName() + " (filtered from " + rawTools.size() + " total)");
-                        } catch (Exception e) {
-                            System.err.println("MCP: Failed to connect to "
-                                    + mcpConfig.getName() + ": " + e.getMessage());
-                        }
-                    }
+                    // Discover MCP tools (sessions are pooled across messages)
+                    List<SapTool> mcpTools = discoverMcpTools(mcpConfigs);
 
-                    // Create SAP REST client
+                    // Get SAP REST client (reused across messages while the session is alive)
                     if (finalSystem != null) {
-                        if (finalAdtSession != null) {
-                            restClient = new AdtRestClient(
-                                    finalSystem.getBaseUrl(),
-                                    finalSystem.getUser(),
-                                    finalSystem.getClient(),
-                                    "EN",
-                                    false,
-                                    finalAdtSession.getCookieManager(),
-                                    finalAdtSession.getCsrfToken());
-                        } else {
-                            restClient = new AdtRestClient(
-                                    finalSystem.getBaseUrl(),
-                                    finalSystem.getUser(),
-                                    finalSystem.getPassword(),
-                                    finalSystem.getClient(),
-                                    "EN",
-                                    false);
-                        }
-                        restClient.login();
+                        restClient = sessionPool.acquireAdtClient(finalSystem, () -> {
+                            AdtRestClient client;
+                            if (finalAdtSession != null) {
+                                client = new AdtRestClient(
+                                        finalSystem.getBaseUrl(),
+                                        finalSystem.getUser(),
+                                        finalSystem.getClient(),
+                                        "EN",
+                                        false,
+                                        finalAdtSession.getCookieManager(),
+                                        finalAdtSession.getCsrfToken());
+                            } else {
+                                client = new AdtRestClient(
+                                        finalSystem.getBaseUrl(),
+                                        finalSystem.getUser(),
+                                        finalSystem.getPassword(),
+                                        finalSystem.getClient(),
+                                        "EN",
+                                        false);
+                            }
+                            client.login();
+                            return client;
+                        });
+
+                        // Start fetching objects referenced by the editor code
+                        // while the first request is sent
+                        prefetcher = new SourcePrefetcher(restClient);
+                        prefetcher.prefetchContexts(finalEditorContexts);
                     }
 
                     // Build research sub-agent (SAP read tools + MCP tools)
@@ -490,7 +520,7 @@ public class AiAssistantView extends ViewPart {
                         @Override
                         public void onTextToken(String token) {
                             if (monitor.isCanceled()) return;
-                            display.asyncExec(() -> chatComposite.appendStreamToken(token));
+                            chatComposite.queueStreamToken(token);
                         }
 
                         @Override
@@ -499,6 +529,14 @@ public class AiAssistantView extends ViewPart {
                             display.asyncExec(() -> chatComposite.addToolCallWidget(toolCall));
                         }
 
+                        @Override
+                        public void onToolProgress(ToolCall toolCall, double progress,
+                                Double total, String message) {
+                            if (monitor.isCanceled()) return;
+                            display.asyncExec(() -> chatComposite.updateToolCallProgress(
+                                    toolCall, progress, total, message));
+                        }
+
                         @Override
                         public void onToolCallEnd(ToolResult result) {
                             if (monitor.isCanceled()) return;
@@ -589,6 +627,10 @@ public class AiAssistantView extends ViewPart {
                         AgentLoop researchAgent = new AgentLoop(
                                 researchLlm, researchRegistry, restClient, finalResearchConfig,
                                 AgentLoop.DEFAULT_MAX_TOOL_ROUNDS, finalMaxInputTokens);
+                        researchAgent.setMaxParallelToolCalls(finalMaxParallelToolCalls);
+                        researchAgent.setPrefetcher(prefetcher);
+                        researchAgent.setContextTokenBudget(finalContextTokens);
+                        researchAgent.setHistorySummaryProvider(summaryLlm);
                         researchAgent.run(finalConversation, agentCallback);
                         return Status.OK_STATUS;
                     }
@@ -615,6 +657,10 @@ public class AiAssistantView extends ViewPart {
                         AgentLoop reviewAgent = new AgentLoop(
                                 reviewLlm, reviewRegistry, restClient, finalResearchConfig,
                                 AgentLoop.DEFAULT_MAX_TOOL_ROUNDS, finalMaxInputTokens);
+                        reviewAgent.setMaxParallelToolCalls(finalMaxParallelToolCalls);
+                        reviewAgent.setPrefetcher(prefetcher);
+                        reviewAgent.setContextTokenBudget(finalContextTokens);
+                        reviewAgent.setHistorySummaryProvider(summaryLlm);
                         reviewAgent.run(finalConversation, agentCallback);
                         return Status.OK_STATUS;
                     }
@@ -624,6 +670,9 @@ public class AiAssistantView extends ViewPart {
                         LlmProvider researchLlmProvider = LlmProviderFactory.create(finalResearchConfig);
                         SapToolRegistry researchRegistry = SapToolRegistry.withToolsOnly(researchTools);
                         ResearchTool researchTool = new ResearchTool(researchLlmProvider, researchRegistry);
+                        researchTool.setMaxParallelToolCalls(finalMaxParallelToolCalls);
+                        researchTool.setPrefetcher(prefetcher);
+                        researchTool.setContextTokenBudget(finalContextTokens);
                         mainAdditionalTools.add(researchTool);
                         hasResearchTool = true;
                     }
@@ -643,6 +692,10 @@ public class AiAssistantView extends ViewPart {
                     AgentLoop agent = new AgentLoop(llmProvider, toolRegistry, restClient, finalConfig,
                             AgentLoop.DEFAULT_MAX_TOOL_ROUNDS, finalMaxInputTokens);
                     agent.setSessionTransport(sessionTransport);
+                    agent.setMaxParallelToolCalls(finalMaxParallelToolCalls);
+                    agent.setPrefetcher(prefetcher);
+                    agent.setContextTokenBudget(finalContextTokens);
+                    agent.setHistorySummaryProvider(summaryLlm);
                     agent.run(finalConversation, agentCallback);
 
                     // Persist transport selection for subsequent messages
@@ -654,6 +707,10 @@ public class AiAssistantView extends ViewPart {
                     return Status.OK_STATUS;
 
                 } catch (Exception e) {
+                    if (monitor.isCanceled()) {
+                        // Interrupted by canceling(); the view was already reset by handleStop
+                        return Status.CANCEL_STATUS;
+                    }
                     String errorDetail = e.getMessage();
                     if (errorDetail == null || errorDetail.isEmpty()) {
                         errorDetail = e.getClass().getSimpleName();
@@ -673,21 +730,15 @@ public class AiAssistantView extends ViewPart {
                     return new Status(IStatus.ERROR, Activator.PLUGIN_ID,
                             "Agent loop failed: " + msg, e);
                 } finally {
-                    if (restClient != null) {
-                        try {
-                            restClient.logout();
-                        } catch (Exception ignored) {
-                            // Best-effort logout
-                        }
-                    }
-                    for (McpClient mc : mcpClients) {
-                        try {
-                            mc.disconnect();
-                        } catch (Exception ignored) {
-                            // Best-effort disconnect
-                        }
+                    if (prefetcher != null) {
+                        prefetcher.close();
                     }
+                    runner = null;
+                    // Job threads are pooled; do not leave the interrupt flag behind
+                    Thread.interrupted();
                 }
+                // ADT and MCP sessions stay in the pool for the next message;
+                // they are closed on idle timeout or when the view is disposed.
             }
         };
         currentJob.setUser(false);
@@ -724,13 +775,66 @@ public class AiAssistantView extends ViewPart {
             devLog.clearLog();
         }
 
+        // Only the conversation of this chat is deleted; the stored ones of
+        // other systems stay available for resuming
         if (conversationManager != null) {
-            conversationManager = new ConversationManager();
+            if (activeConversationKey != null) {
+                conversationManager.clear(activeConversationKey);
+            }
+            conversationManager.releaseAll();
         }
+        activeConversationKey = null;
 
         // Re-populate available contexts and auto-select active editor
         refreshAvailableContexts();
         autoSelectActiveEditor();
+        offerStoredConversation();
+    }
+
+    // ==================================================================
+    // Stored conversations
+    // ==================================================================
+
+    private AgentMode getSelectedAgentMode() {
+        int agentIdx = agentSelector.getSelectionIndex();
+        return (agentIdx >= 0 && agentIdx < AgentMode.values().length)
+                ? AgentMode.values()[agentIdx] : AgentMode.MAIN;
+    }
+
+    private static String conversationKey(SapSystemConnection system, AgentMode mode) {
+        return (system != null ? system.getProjectName() : "_default_") + "_" + mode.name();
+    }
+
+    /**
+     * While the chat is empty, offer to resume the stored conversation of
+     * the selected system and agent, if there is one. Sending a message
+     * instead starts a new conversation, which replaces the stored one.
+     */
+    private void offerStoredConversation() {
+        if (conversationManager == null || chatComposite == null || chatComposite.isDisposed()
+                || chatComposite.hasMessages()) {
+            return;
+        }
+        String key = conversationKey(systemSelector.getSelectedSystem(), getSelectedAgentMode());
+        if (!conversationManager.hasStored(key)) {
+            chatComposite.hideResumeOffer();
+            return;
+        }
+        int count = conversationManager.getStoredMessageCount(key);
+        chatComposite.showResumeOffer("A saved conversation with " + count
+                + " messages exists for this system. Resume it, or send a message to start a new one.",
+                () -> resumeConversation(key),
+                () -> conversationManager.clear(key));
+    }
+
+    private void resumeConversation(String key) {
+        ChatConversation conversation = conversationManager.resume(key);
+        if (conversation == null) {
+            return;
+        }
+        activeConversationKey = key;
+        chatComposite.showConversation(conversation.getMessages());
+        systemSelector.setEnabled(false);
     }
 
     // ==================================================================
@@ -798,6 +902,83 @@ public class AiAssistantView extends ViewPart {
         modelLabel.requestLayout();
     }
 
+    /**
+     * Connects to all enabled MCP servers in parallel and returns their
+     * ABAP-relevant tools. Only ABAP-related tools are kept (CAP, UI5,
+     * OpenUI5 etc. are excluded).
+     * <p>
+     * Servers with a tool list in the catalogue are not waited for: their
+     * tools are offered immediately and the first call waits for the
+     * session. Other servers get until {@link #MCP_DISCOVERY_DEADLINE_MS};
+     * a server that answers later still completes in the background, so its
+     * tools are part of the next message. Servers that failed recently are
+     * skipped by the session pool.
+     * </p>
+     */
+    private List<SapTool> discoverMcpTools(List<McpServerConfig> configs) throws InterruptedException {
+        Map<McpServerConfig, CompletableFuture<SessionPool.McpSession>> sessions = new LinkedHashMap<>();
+        for (McpServerConfig mcpConfig : configs) {
+            if (mcpConfig.isEnabled()) {
+                sessions.put(mcpConfig, sessionPool.acquireMcpSessionAsync(mcpConfig.getUrl()));
+            }
+        }
+
+        long deadline = System.currentTimeMillis() + MCP_DISCOVERY_DEADLINE_MS;
+        List<SapTool> mcpTools = new ArrayList<>();
+        for (Map.Entry<McpServerConfig, CompletableFuture<SessionPool.McpSession>> e : sessions.entrySet()) {
+            McpServerConfig mcpConfig = e.getKey();
+            String serverUrl = mcpConfig.getUrl();
+            McpToolCatalog.Entry cached = sessionPool.getToolCatalog().get(serverUrl);
+
+            SessionPool.McpSession mcpSession = null;
+            try {
+                if (cached == null) {
+                    long remaining = Math.max(0, deadline - System.currentTimeMillis());
+                    mcpSession = e.getValue().get(remaining, TimeUnit.MILLISECONDS);
+                } else if (e.getValue().isDone()) {
+                    mcpSession = e.getValue().get();
+                }
+            } catch (ExecutionException ex) {
+                Throwable cause = ex.getCause() != null ? ex.getCause() : ex;
+                System.err.println("MCP: Failed to connect to "
+                        + mcpConfig.getName() + ": " + cause.getMessage());
+                continue;
+            } catch (TimeoutException ex) {
+                System.err.println("MCP: " + mcpConfig.getName() + " is still connecting;"
+                        + " its tools will be available with the next message");
+                continue;
+            }
+
+            List<JsonObject> rawTools;
+            List<ToolDefinition> defs;
+            McpToolAdapter.ClientSource clientSource;
+            if (mcpSession != null) {
+                rawTools = mcpSession.getRawTools();
+                defs = mcpSession.getDefinitions();
+                McpClient client = mcpSession.getClient();
+                clientSource = () -> client;
+            } else {
+                rawTools = cached.getTools();
+                defs = McpToolDefinitionParser.parse(rawTools);
+                clientSource = () -> sessionPool.acquireMcpSession(serverUrl).getClient();
+            }
+
+            int loadedCount = 0;
+            for (int i = 0; i < rawTools.size(); i++) {
+                String originalName = rawTools.get(i).get("name").getAsString();
+                if (isAbapRelevantMcpTool(originalName)) {
+                    mcpTools.add(new McpToolAdapter(
+                            serverUrl, clientSource, originalName, defs.get(i)));
+                    loadedCount++;
+                }
+            }
+            System.out.println("MCP: Loaded " + loadedCount + " ABAP tools from "
+                    + mcpConfig.getName() + " (filtered from " + rawTools.size() + " total"
+                    + (mcpSession == null ? ", from catalogue" : "") + ")");
+        }
+        return mcpTools;
+    }
+
     /**
      * Returns true if the MCP tool is relevant for ABAP development.
      * Filters out CAP, UI5, OpenUI5, and other non-ABAP tools.
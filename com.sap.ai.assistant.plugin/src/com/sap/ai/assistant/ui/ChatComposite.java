@@ -1,7 +1,10 @@
 package com.sap.ai.assistant.ui;
 
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.function.Consumer;
+import java.util.function.Supplier;
 import java.util.regex.Matcher;
 import java.util.regex.Pattern;
 
@@ -20,9 +23,11 @@ import org.eclipse.swt.widgets.Label;
 
 import com.sap.ai.assistant.context.AdtEditorHelper;
 import com.sap.ai.assistant.model.AdtContext;
+import com.sap.ai.assistant.model.ChatMessage;
 import com.sap.ai.assistant.model.DiffRequest;
 import com.sap.ai.assistant.model.ToolCall;
 import com.sap.ai.assistant.model.ToolResult;
+import com.sap.ai.assistant.sap.AdtObjectIndex;
 
 /**
  * The main chat composite that houses the scrollable message area, context
@@ -37,6 +42,7 @@ public class ChatComposite extends Composite {
     // ---- Children ----
     private ScrolledComposite scrolledComposite;
     private Composite messagesContainer;
+    private ChatTranscript transcript;
     private ContextSelectorComposite contextSelector;
     private StyledText inputText;
     private Button sendButton;
@@ -45,14 +51,23 @@ public class ChatComposite extends Composite {
 
     // ---- State ----
     private MessageRenderer messageRenderer;
-    private StyledText currentStreamingText;
-    private ToolCallWidget lastToolCallWidget;
+    private AssistantItem currentAssistant;
+    private MarkdownStreamScanner streamScanner;
+    /** Tokens received but not yet shown; guarded by itself. */
+    private final StringBuilder pendingTokens = new StringBuilder();
+    private boolean tokenFlushScheduled;
+    private boolean scrollScheduled;
+    private ToolCallItem lastToolCallItem;
+    /** The offer to resume a stored conversation, or {@code null}. */
+    private ChatTranscript.Item resumeOfferItem;
+    private final Map<String, ToolCallItem> pendingToolCallItems = new HashMap<>();
     private MentionPopup mentionPopup;
 
     // ---- Callbacks ----
     private Consumer<String> sendHandler;
     private Runnable stopHandler;
     private Runnable newChatHandler;
+    private Supplier<AdtObjectIndex> objectIndexSupplier = () -> null;
 
     /**
      * Create the chat composite.
@@ -101,6 +116,16 @@ public class ChatComposite extends Composite {
         this.newChatHandler = handler;
     }
 
+    /**
+     * Set the source of the object index used to complete {@code @} mentions
+     * with SAP object names.
+     *
+     * @param supplier returns the index of the selected system, or {@code null}
+     */
+    public void setObjectIndexSupplier(Supplier<AdtObjectIndex> supplier) {
+        this.objectIndexSupplier = supplier != null ? supplier : () -> null;
+    }
+
     // ==================================================================
     // Public API -- message management
     // ==================================================================
@@ -112,7 +137,7 @@ public class ChatComposite extends Composite {
      */
     public void addUserMessage(String text) {
         if (isDisposed()) return;
-        messageRenderer.createUserMessage(messagesContainer, text);
+        transcript.add(ChatTranscript.Item.of(parent -> messageRenderer.createUserMessage(parent, text)));
         layoutAndScroll();
     }
 
@@ -122,10 +147,55 @@ public class ChatComposite extends Composite {
      */
     public void beginStreamingMessage() {
         if (isDisposed()) return;
-        currentStreamingText = messageRenderer.createAssistantMessage(messagesContainer);
+        finishStreamStyling();
+        currentAssistant = transcript.add(new AssistantItem());
+        streamScanner = new MarkdownStreamScanner();
         layoutAndScroll();
     }
 
+    /**
+     * Queue a token for the current streaming assistant message. May be
+     * called from any thread.
+     * <p>
+     * Tokens arriving while the UI thread is busy are collected and shown
+     * with one {@link #appendStreamToken(String)} call, so a fast stream
+     * costs one append, styling pass and layout per UI update rather than
+     * per token.
+     * </p>
+     *
+     * @param token the text token to append
+     */
+    public void queueStreamToken(String token) {
+        if (token == null || token.isEmpty() || isDisposed()) return;
+        boolean schedule;
+        synchronized (pendingTokens) {
+            pendingTokens.append(token);
+            schedule = !tokenFlushScheduled;
+            tokenFlushScheduled = true;
+        }
+        if (schedule) {
+            Display display = getDisplay();
+            if (!display.isDisposed()) {
+                display.asyncExec(this::flushStreamTokens);
+            }
+        }
+    }
+
+    /**
+     * Show the tokens queued by {@link #queueStreamToken(String)}.
+     */
+    private void flushStreamTokens() {
+        String batch;
+        synchronized (pendingTokens) {
+            batch = pendingTokens.toString();
+            pendingTokens.setLength(0);
+            tokenFlushScheduled = false;
+        }
+        if (!batch.isEmpty()) {
+            appendStreamToken(batch);
+        }
+    }
+
     /**
      * Append a token to the current streaming assistant message.
      * <p>
@@ -133,48 +203,61 @@ public class ChatComposite extends Composite {
      * a new streaming widget is created at the bottom so that the text appears
      * below the tool calls (not hidden above them).
      * </p>
+     * <p>
+     * Markdown styling is applied to the lines the token completes; an open
+     * code fence is styled as code line by line until it closes.
+     * </p>
      *
      * @param token the text token to append
      */
     public void appendStreamToken(String token) {
         if (isDisposed()) return;
 
-        // If no streaming widget, or it's been disposed, or tool call widgets
-        // were added after it — create a fresh one at the end
-        if (currentStreamingText == null || currentStreamingText.isDisposed()
-                || !isLastMessageWidget(currentStreamingText)) {
+        // If no streaming message, or tool call widgets were added after
+        // it — start a fresh one at the end
+        if (currentAssistant == null || currentAssistant.body == null || currentAssistant.body.isDisposed()
+                || transcript.getLast() != currentAssistant) {
             // Finish the old one if it had content
-            if (currentStreamingText != null && !currentStreamingText.isDisposed()
-                    && currentStreamingText.getCharCount() > 0) {
-                MarkdownRenderer.applyMarkdownStyling(currentStreamingText);
-            }
-            currentStreamingText = messageRenderer.createAssistantMessage(messagesContainer);
-            layoutAndScroll();
+            finishStreamStyling();
+            currentAssistant = transcript.add(new AssistantItem());
+            streamScanner = new MarkdownStreamScanner();
         }
 
-        currentStreamingText.append(token);
+        StyledText body = currentAssistant.body;
+        body.append(token);
+        MarkdownRenderer.applyIncrementalStyling(body, streamScanner.append(token));
+        transcript.invalidate(currentAssistant);
         scrollToBottom();
     }
 
     /**
-     * Returns true if the given widget is the last child in the messages container.
+     * Finalise the current streaming message: show any queued tokens and
+     * style its last line.
      */
-    private boolean isLastMessageWidget(Control widget) {
-        if (messagesContainer == null || messagesContainer.isDisposed()) return false;
-        Control[] children = messagesContainer.getChildren();
-        if (children.length == 0) return false;
-        return children[children.length - 1] == widget;
+    public void finishStreamingMessage() {
+        if (isDisposed()) return;
+        flushStreamTokens();
+        finishStreamStyling();
+        currentAssistant = null;
+        streamScanner = null;
+        layoutAndScroll();
     }
 
     /**
-     * Finalise the current streaming message by applying Markdown styling.
+     * Style the text of the streaming message that has not been styled yet,
+     * i.e. the line without a trailing newline, and unpin it so its widget
+     * can be recycled.
      */
-    public void finishStreamingMessage() {
-        if (currentStreamingText != null && !currentStreamingText.isDisposed()) {
-            MarkdownRenderer.applyMarkdownStyling(currentStreamingText);
+    private void finishStreamStyling() {
+        if (currentAssistant == null) {
+            return;
         }
-        currentStreamingText = null;
-        layoutAndScroll();
+        currentAssistant.streaming = false;
+        StyledText body = currentAssistant.body;
+        if (body != null && !body.isDisposed() && streamScanner != null) {
+            MarkdownRenderer.applyIncrementalStyling(body, streamScanner.finish());
+        }
+        streamScanner = null;
     }
 
     /**
@@ -184,12 +267,12 @@ public class ChatComposite extends Composite {
      */
     public void showTokenUsage(String text) {
         if (isDisposed() || messagesContainer == null || messagesContainer.isDisposed()) return;
-        Label usageLabel = new Label(messagesContainer, SWT.NONE);
-        usageLabel.setText(text);
-        usageLabel.setForeground(getDisplay().getSystemColor(SWT.COLOR_WIDGET_NORMAL_SHADOW));
-        GridData gd = new GridData(SWT.END, SWT.CENTER, true, false);
-        gd.horizontalIndent = 8;
-        usageLabel.setLayoutData(gd);
+        transcript.add(ChatTranscript.Item.of(parent -> {
+            Label usageLabel = new Label(parent, SWT.RIGHT);
+            usageLabel.setText(text);
+            usageLabel.setForeground(getDisplay().getSystemColor(SWT.COLOR_WIDGET_NORMAL_SHADOW));
+            return usageLabel;
+        }));
         layoutAndScroll();
     }
 
@@ -200,18 +283,46 @@ public class ChatComposite extends Composite {
      */
     public void addToolCallWidget(ToolCall call) {
         if (isDisposed()) return;
-        lastToolCallWidget = new ToolCallWidget(messagesContainer, SWT.NONE, call);
+        lastToolCallItem = transcript.add(new ToolCallItem(call));
+        if (call.getId() != null) {
+            pendingToolCallItems.put(call.getId(), lastToolCallItem);
+        }
         layoutAndScroll();
     }
 
     /**
-     * Update the most recently added tool-call widget with its result.
+     * Show progress on the widget of a tool call that is still running.
+     * Ignored if the call has already finished.
+     *
+     * @param call     the running tool call
+     * @param progress the progress so far
+     * @param total    the total, or {@code null} if unknown
+     * @param message  a status text, or {@code null}
+     */
+    public void updateToolCallProgress(ToolCall call, double progress, Double total, String message) {
+        ToolCallItem item = call.getId() != null ? pendingToolCallItems.get(call.getId()) : null;
+        if (item != null && item.widget != null && !item.widget.isDisposed()) {
+            item.widget.setProgress(progress, total, message);
+        }
+    }
+
+    /**
+     * Update the tool-call widget that belongs to the given result. Results
+     * are matched by tool call id, since several calls of one round may be
+     * shown before any of them finishes; without an id the most recently
+     * added widget is updated.
      *
      * @param result the tool execution result
      */
     public void updateToolCallResult(ToolResult result) {
-        if (lastToolCallWidget != null && !lastToolCallWidget.isDisposed()) {
-            lastToolCallWidget.setResult(result);
+        ToolCallItem item = result.getToolCallId() != null
+                ? pendingToolCallItems.remove(result.getToolCallId())
+                : null;
+        if (item == null) {
+            item = lastToolCallItem;
+        }
+        if (item != null) {
+            item.setResult(result);
         }
     }
 
@@ -223,7 +334,7 @@ public class ChatComposite extends Composite {
      */
     public void addDiffPreview(DiffRequest diffRequest) {
         if (isDisposed()) return;
-        new DiffPreviewWidget(messagesContainer, SWT.NONE, diffRequest);
+        transcript.add(new DiffItem(diffRequest));
         layoutAndScroll();
     }
 
@@ -265,6 +376,115 @@ public class ChatComposite extends Composite {
         }
     }
 
+    /**
+     * Show the messages of a restored conversation: user and assistant
+     * text, and tool calls with their results. Tool results are matched
+     * to their calls by id.
+     *
+     * @param messages the messages of the conversation
+     */
+    public void showConversation(List<ChatMessage> messages) {
+        if (isDisposed()) return;
+        finishStreamingMessage();
+        Map<String, ToolCallItem> callItems = new HashMap<>();
+        for (ChatMessage message : messages) {
+            String text = message.getTextContent();
+            switch (message.getRole()) {
+                case USER:
+                    if (text != null && !text.isEmpty()) {
+                        transcript.add(ChatTranscript.Item.of(
+                                parent -> messageRenderer.createUserMessage(parent, text)));
+                    }
+                    break;
+                case ASSISTANT:
+                    if (text != null && !text.isEmpty()) {
+                        AssistantItem item = new AssistantItem();
+                        item.text = text;
+                        item.streaming = false;
+                        transcript.add(item);
+                    }
+                    for (ToolCall call : message.getToolCalls()) {
+                        ToolCallItem item = transcript.add(new ToolCallItem(call));
+                        if (call.getId() != null) {
+                            callItems.put(call.getId(), item);
+                        }
+                    }
+                    break;
+                case TOOL:
+                    for (ToolResult result : message.getToolResults()) {
+                        ToolCallItem item = result.getToolCallId() != null
+                                ? callItems.remove(result.getToolCallId()) : null;
+                        if (item != null) {
+                            item.setResult(result);
+                        }
+                    }
+                    break;
+            }
+        }
+        // Calls without a stored result must not stay pinned
+        for (ToolCallItem item : callItems.values()) {
+            item.setResult(ToolResult.error(null, "(no result was recorded)"));
+        }
+        layoutAndScroll();
+    }
+
+    /**
+     * Show an offer to resume a stored conversation, replacing any earlier
+     * offer. The offer is removed when one of its buttons is pressed.
+     *
+     * @param text      describes the stored conversation
+     * @param onResume  called when the user resumes it
+     * @param onDiscard called when the user discards it
+     */
+    public void showResumeOffer(String text, Runnable onResume, Runnable onDiscard) {
+        if (isDisposed()) return;
+        hideResumeOffer();
+        resumeOfferItem = transcript.add(ChatTranscript.Item.of(parent -> {
+            Composite row = new Composite(parent, SWT.NONE);
+            GridLayout layout = new GridLayout(3, false);
+            layout.marginWidth = 4;
+            row.setLayout(layout);
+
+            Label label = new Label(row, SWT.WRAP);
+            label.setText(text);
+            label.setLayoutData(new GridData(SWT.FILL, SWT.CENTER, true, false));
+
+            Button resume = new Button(row, SWT.PUSH);
+            resume.setText("Resume");
+            resume.addListener(SWT.Selection, e -> {
+                hideResumeOffer();
+                onResume.run();
+            });
+
+            Button discard = new Button(row, SWT.PUSH);
+            discard.setText("Discard");
+            discard.addListener(SWT.Selection, e -> {
+                hideResumeOffer();
+                onDiscard.run();
+            });
+            return row;
+        }));
+        layoutAndScroll();
+    }
+
+    /**
+     * Remove the offer shown by {@link #showResumeOffer}, if any.
+     */
+    public void hideResumeOffer() {
+        if (resumeOfferItem != null) {
+            transcript.remove(resumeOfferItem);
+            resumeOfferItem = null;
+        }
+    }
+
+    /**
+     * Returns {@code true} if the transcript shows anything besides a
+     * resume offer.
+     */
+    public boolean hasMessages() {
+        return transcript.size() > (resumeOfferItem != null ? 1 : 0);
+    }
+
     /**
      * Remove all message widgets from the messages area.
      */
@@ -272,11 +492,15 @@ public class ChatComposite extends Composite {
         if (messagesContainer == null || messagesContainer.isDisposed()) {
             return;
         }
-        for (Control child : messagesContainer.getChildren()) {
-            child.dispose();
+        transcript.clear();
+        resumeOfferItem = null;
+        currentAssistant = null;
+        streamScanner = null;
+        synchronized (pendingTokens) {
+            pendingTokens.setLength(0);
         }
-        currentStreamingText = null;
-        lastToolCallWidget = null;
+        lastToolCallItem = null;
+        pendingToolCallItems.clear();
         layoutAndScroll();
     }
 
@@ -289,25 +513,21 @@ public class ChatComposite extends Composite {
     }
 
     /**
-     * Scroll the messages area to the bottom.
+     * Scroll the messages area to the bottom. Requests made before the
+     * pending scroll has run are merged into it.
      */
     public void scrollToBottom() {
-        if (scrolledComposite == null || scrolledComposite.isDisposed()) {
+        if (scrolledComposite == null || scrolledComposite.isDisposed() || scrollScheduled) {
             return;
         }
+        scrollScheduled = true;
         getDisplay().asyncExec(() -> {
+            scrollScheduled = false;
             if (scrolledComposite.isDisposed() || messagesContainer.isDisposed()) {
                 return;
             }
-            scrolledComposite.setMinSize(messagesContainer.computeSize(
-                    scrolledComposite.getClientArea().width, SWT.DEFAULT));
-            messagesContainer.layout(true, true);
-            scrolledComposite.layout(true, true);
-
-            int maxScroll = messagesContainer.getSize().y - scrolledComposite.getClientArea().height;
-            if (maxScroll > 0) {
-                scrolledComposite.setOrigin(0, maxScroll);
-            }
+            transcript.layout();
+            transcript.scrollToBottom();
         });
     }
 
@@ -333,12 +553,9 @@ public class ChatComposite extends Composite {
         scrolledComposite.setExpandHorizontal(true);
         scrolledComposite.setExpandVertical(true);
 
+        // Only the messages near the viewport have widgets, see ChatTranscript
         messagesContainer = new Composite(scrolledComposite, SWT.NONE);
-        GridLayout ml = new GridLayout(1, false);
-        ml.marginWidth = 4;
-        ml.marginHeight = 4;
-        ml.verticalSpacing = 6;
-        messagesContainer.setLayout(ml);
+        transcript = new ChatTranscript(scrolledComposite, messagesContainer);
 
         // Set explicit background so chat area looks consistent on any theme
         Color sysBg = getDisplay().getSystemColor(SWT.COLOR_LIST_BACKGROUND);
@@ -346,13 +563,9 @@ public class ChatComposite extends Composite {
         messagesContainer.setBackground(sysBg);
 
         scrolledComposite.setContent(messagesContainer);
-        scrolledComposite.setMinSize(messagesContainer.computeSize(SWT.DEFAULT, SWT.DEFAULT));
 
-        // Re-compute scrolled size on resize
-        scrolledComposite.addListener(SWT.Resize, e -> {
-            int width = scrolledComposite.getClientArea().width;
-            scrolledComposite.setMinSize(messagesContainer.computeSize(width, SWT.DEFAULT));
-        });
+        // Re-measure the visible messages on resize
+        scrolledComposite.addListener(SWT.Resize, e -> transcript.layout());
     }
 
     private void createContextBar() {
@@ -497,7 +710,8 @@ public class ChatComposite extends Composite {
 
         // Show/update popup
         if (mentionPopup == null) {
-            mentionPopup = new MentionPopup(inputText, this::insertMention);
+            mentionPopup = new MentionPopup(inputText, this::insertMention,
+                    () -> objectIndexSupplier.get());
         }
         mentionPopup.show(afterAt);
     }
@@ -615,12 +829,111 @@ public class ChatComposite extends Composite {
     }
 
     private void layoutAndScroll() {
-        if (messagesContainer != null && !messagesContainer.isDisposed()) {
-            messagesContainer.layout(true, true);
+        if (transcript != null) {
+            transcript.layout();
         }
         scrollToBottom();
     }
 
+    // ==================================================================
+    // Transcript items
+    // ==================================================================
+
+    /**
+     * An assistant message. Its text is kept while the widget is recycled.
+     */
+    private class AssistantItem extends ChatTranscript.Item {
+        private StyledText body;
+        private String text = "";
+        /** Pinned while tokens are appended to the widget. */
+        private boolean streaming = true;
+
+        @Override
+        protected Control create(Composite parent) {
+            body = messageRenderer.createAssistantMessage(parent);
+            if (!text.isEmpty()) {
+                body.setText(text);
+                MarkdownRenderer.applyMarkdownStyling(body);
+            }
+            return body.getParent();
+        }
+
+        @Override
+        protected void release(Control control) {
+            text = body.getText();
+            body = null;
+        }
+
+        @Override
+        protected boolean isPinned() {
+            return streaming;
+        }
+    }
+
+    /**
+     * A tool call with its result and expanded state. Pinned until the
+     * result arrives, since progress is only shown in the widget.
+     */
+    private static class ToolCallItem extends ChatTranscript.Item {
+        private final ToolCall call;
+        private ToolResult result;
+        private boolean expanded;
+        private ToolCallWidget widget;
+
+        ToolCallItem(ToolCall call) {
+            this.call = call;
+        }
+
+        void setResult(ToolResult result) {
+            this.result = result;
+            if (widget != null && !widget.isDisposed()) {
+                widget.setResult(result);
+            }
+        }
+
+        @Override
+        protected Control create(Composite parent) {
+            widget = new ToolCallWidget(parent, SWT.NONE, call);
+            widget.setExpanded(expanded);
+            if (result != null) {
+                widget.setResult(result);
+            }
+            return widget;
+        }
+
+        @Override
+        protected void release(Control control) {
+            expanded = widget.isExpanded();
+            widget = null;
+        }
+
+        @Override
+        protected boolean isPinned() {
+            return result == null;
+        }
+    }
+
+    /**
+     * A proposed change. Pinned while the agent waits for the decision.
+     */
+    private static class DiffItem extends ChatTranscript.Item {
+        private final DiffRequest request;
+
+        DiffItem(DiffRequest request) {
+            this.request = request;
+        }
+
+        @Override
+        protected Control create(Composite parent) {
+            return new DiffPreviewWidget(parent, SWT.NONE, request);
+        }
+
+        @Override
+        protected boolean isPinned() {
+            return request.getDecision() == DiffRequest.Decision.PENDING;
+        }
+    }
+
     @Override
     public void dispose() {
         if (messageRenderer != null) {
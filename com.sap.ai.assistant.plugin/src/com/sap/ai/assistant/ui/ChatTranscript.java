@@ -0,0 +1,333 @@
+package com.sap.ai.assistant.ui;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Function;
+
+import org.eclipse.swt.SWT;
+import org.eclipse.swt.custom.ScrolledComposite;
+import org.eclipse.swt.graphics.Point;
+import org.eclipse.swt.widgets.Composite;
+import org.eclipse.swt.widgets.Control;
+import org.eclipse.swt.widgets.Layout;
+
+/**
+ * The virtualized list of messages, tool calls and diff previews shown in
+ * the chat area.
+ * <p>
+ * Each {@link Item} keeps the state needed to build its widget, and only
+ * the items in or near the visible part of the {@link ScrolledComposite}
+ * have widgets. Items that scroll out of range are disposed and built
+ * again when they come back; until then their last measured height holds
+ * their place. Layout therefore only measures and positions the widgets
+ * that exist, and a long session does not accumulate SWT handles.
+ * </p>
+ * <p>
+ * Items that must keep their widget, e.g. a message that is still being
+ * streamed or a diff waiting for a decision, report themselves as
+ * {@linkplain Item#isPinned() pinned}. All methods must be called on the
+ * UI thread.
+ * </p>
+ */
+public class ChatTranscript {
+
+    /** Pixels above and below the viewport whose items keep their widgets. */
+    private static final int OVERSCAN = 800;
+    private static final int MARGIN = 4;
+    private static final int SPACING = 6;
+    /** Height assumed for items that have never been measured. */
+    private static final int DEFAULT_HEIGHT = 40;
+
+    private static final String ITEM_KEY = ChatTranscript.class.getName() + ".item";
+
+    /**
+     * One entry of the transcript. Subclasses build the widget from their
+     * state and save whatever the user may have changed in it before it is
+     * disposed.
+     */
+    public abstract static class Item {
+        private Control control;
+        private int y;
+        private int height = -1;
+        private int measuredWidth = -1;
+
+        /**
+         * Create the widget of this item as a direct child of the parent.
+         */
+        protected abstract Control create(Composite parent);
+
+        /**
+         * Called before the widget is disposed because it scrolled out of
+         * range. The default does nothing.
+         */
+        protected void release(Control control) {
+        }
+
+        /**
+         * Returns {@code true} if the widget must not be disposed while off
+         * screen. The default is {@code false}.
+         */
+        protected boolean isPinned() {
+            return false;
+        }
+
+        /**
+         * Returns the widget of this item, or {@code null} if it is not
+         * materialized.
+         */
+        public Control getControl() {
+            return control != null && !control.isDisposed() ? control : null;
+        }
+
+        /**
+         * Returns an item without state of its own.
+         *
+         * @param factory creates the widget in the given parent
+         */
+        public static Item of(Function<Composite, Control> factory) {
+            return new Item() {
+                @Override
+                protected Control create(Composite parent) {
+                    return factory.apply(parent);
+                }
+            };
+        }
+    }
+
+    private final ScrolledComposite scrolled;
+    private final Composite container;
+    private final List<Item> items = new ArrayList<>();
+    private int totalHeight;
+    private boolean updateScheduled;
+
+    /**
+     * Install the transcript in the given scrolled composite.
+     *
+     * @param scrolled  the scrolled composite
+     * @param container its content; the transcript takes over its layout
+     */
+    public ChatTranscript(ScrolledComposite scrolled, Composite container) {
+        this.scrolled = scrolled;
+        this.container = container;
+        container.setLayout(new TranscriptLayout());
+        // The content moves whenever the user scrolls
+        container.addListener(SWT.Move, e -> scheduleUpdate());
+        container.addListener(SWT.Resize, e -> scheduleUpdate());
+    }
+
+    // ==================================================================
+    // Items
+    // ==================================================================
+
+    /**
+     * Append an item and build its widget.
+     *
+     * @param item the item to append
+     * @return the item
+     */
+    public <T extends Item> T add(T item) {
+        items.add(item);
+        materialize(item);
+        return item;
+    }
+
+    /**
+     * Remove an item and dispose its widget.
+     *
+     * @param item the item to remove
+     */
+    public void remove(Item item) {
+        if (!items.remove(item)) {
+            return;
+        }
+        Control control = item.getControl();
+        if (control != null) {
+            control.dispose();
+        }
+        item.control = null;
+        layout();
+    }
+
+    /**
+     * Returns the last item, or {@code null} if the transcript is empty.
+     */
+    public Item getLast() {
+        return items.isEmpty() ? null : items.get(items.size() - 1);
+    }
+
+    /**
+     * Returns the number of items.
+     */
+    public int size() {
+        return items.size();
+    }
+
+    /**
+     * Dispose all widgets and remove all items.
+     */
+    public void clear() {
+        for (Item item : items) {
+            Control control = item.getControl();
+            if (control != null) {
+                control.dispose();
+            }
+            item.control = null;
+        }
+        items.clear();
+        layout();
+    }
+
+    /**
+     * Remeasure the widget of the item, e.g. after its content changed.
+     *
+     * @param item the changed item
+     */
+    public void invalidate(Item item) {
+        item.measuredWidth = -1;
+        layout();
+    }
+
+    // ==================================================================
+    // Layout and scrolling
+    // ==================================================================
+
+    /**
+     * Position the widgets and update the scrollable size.
+     */
+    public void layout() {
+        if (!container.isDisposed()) {
+            container.layout(false);
+        }
+    }
+
+    /**
+     * Scroll to the end of the transcript.
+     */
+    public void scrollToBottom() {
+        if (scrolled.isDisposed() || container.isDisposed()) {
+            return;
+        }
+        int maxScroll = totalHeight - scrolled.getClientArea().height;
+        if (maxScroll > 0) {
+            scrolled.setOrigin(0, maxScroll);
+        }
+        update();
+    }
+
+    private void scheduleUpdate() {
+        if (updateScheduled || container.isDisposed()) {
+            return;
+        }
+        updateScheduled = true;
+        container.getDisplay().asyncExec(() -> {
+            updateScheduled = false;
+            update();
+        });
+    }
+
+    /**
+     * Build the widgets of the items in range and dispose the others.
+     */
+    private void update() {
+        if (scrolled.isDisposed() || container.isDisposed()) {
+            return;
+        }
+        int top = -container.getLocation().y - OVERSCAN;
+        int bottom = -container.getLocation().y + scrolled.getClientArea().height + OVERSCAN;
+        boolean changed = false;
+        for (Item item : items) {
+            boolean inRange = item.y + Math.max(item.height, 0) >= top && item.y <= bottom;
+            Control control = item.getControl();
+            if (control == null && (inRange || item.isPinned())) {
+                item.control = item.create(container);
+                item.control.setData(ITEM_KEY, item);
+                item.measuredWidth = -1;
+                changed = true;
+            } else if (control != null && !inRange && !item.isPinned()) {
+                item.release(control);
+                control.dispose();
+                item.control = null;
+                changed = true;
+            }
+        }
+        if (changed) {
+            layout();
+        }
+    }
+
+    private void materialize(Item item) {
+        item.control = item.create(container);
+        item.control.setData(ITEM_KEY, item);
+        item.measuredWidth = -1;
+        layout();
+    }
+
+    /**
+     * Measure the widgets that exist, recompute all offsets and return the
+     * total height.
+     */
+    private int measure(int width, boolean flushCache) {
+        int childWidth = Math.max(width - 2 * MARGIN, 0);
+        int y = MARGIN;
+        for (Item item : items) {
+            Control control = item.getControl();
+            if (control != null && (flushCache || item.measuredWidth != width)) {
+                item.height = control.computeSize(childWidth, SWT.DEFAULT, flushCache).y;
+                item.measuredWidth = width;
+            } else if (item.height < 0) {
+                item.height = DEFAULT_HEIGHT;
+            }
+            item.y = y;
+            y += item.height + SPACING;
+        }
+        return items.isEmpty() ? 2 * MARGIN : y - SPACING + MARGIN;
+    }
+
+    private void place(int width) {
+        int childWidth = Math.max(width - 2 * MARGIN, 0);
+        for (Item item : items) {
+            Control control = item.getControl();
+            if (control != null) {
+                control.setBounds(MARGIN, item.y, childWidth, item.height);
+            }
+        }
+    }
+
+    private int viewportWidth() {
+        return scrolled.isDisposed() ? 0 : scrolled.getClientArea().width;
+    }
+
+    /**
+     * Lays out only the items that have widgets; the others contribute
+     * their last known height.
+     */
+    private class TranscriptLayout extends Layout {
+
+        @Override
+        protected Point computeSize(Composite composite, int wHint, int hHint, boolean flushCache) {
+            int width = wHint != SWT.DEFAULT ? wHint : viewportWidth();
+            return new Point(width, measure(width, flushCache));
+        }
+
+        @Override
+        protected void layout(Composite composite, boolean flushCache) {
+            int width = composite.getClientArea().width;
+            int height = measure(width, flushCache);
+            place(width);
+            if (height != totalHeight) {
+                totalHeight = height;
+                scrolled.setMinSize(0, height);
+            }
+            scheduleUpdate();
+        }
+
+        @Override
+        protected boolean flushCache(Control control) {
+            Object item = control.getData(ITEM_KEY);
+            if (item instanceof Item) {
+                ((Item) item).measuredWidth = -1;
+            }
+            return false;
+        }
+    }
+}
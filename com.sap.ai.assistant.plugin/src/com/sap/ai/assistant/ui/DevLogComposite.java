@@ -28,7 +28,8 @@ import com.sap.ai.assistant.model.UsageTracker;
  * <p>
  * The table shows a summary row per LLM request. Selecting a row displays
  * the full detail (LLM text, tool arguments, tool results) in a text pane
- * below the table.
+ * below the table. The detail is rendered only while the panel is
+ * expanded, and the table keeps as many rows as the tracker keeps entries.
  * </p>
  */
 public class DevLogComposite extends Composite {
@@ -92,6 +93,7 @@ public class DevLogComposite extends Composite {
         addColumn("Model", 120);
         addColumn("Tokens In", 70);
         addColumn("Tokens Out", 70);
+        addColumn("Cached", 65);
         addColumn("Duration", 65);
         addColumn("Tools", 150);
         addColumn("Status", 60);
@@ -125,6 +127,11 @@ public class DevLogComposite extends Composite {
         if (isDisposed() || logTable.isDisposed()) return;
 
         entries.add(entry);
+        int capacity = tracker != null ? tracker.getCapacity() : UsageTracker.DEFAULT_CAPACITY;
+        while (entries.size() > capacity) {
+            entries.remove(0);
+            logTable.remove(0);
+        }
 
         TableItem item = new TableItem(logTable, SWT.NONE);
         item.setText(0, String.valueOf(entry.getRoundNumber()));
@@ -134,9 +141,10 @@ public class DevLogComposite extends Composite {
         LlmUsage usage = entry.getUsage();
         item.setText(3, usage != null ? formatNumber(usage.getInputTokens()) : "-");
         item.setText(4, usage != null ? formatNumber(usage.getOutputTokens()) : "-");
-        item.setText(5, entry.getFormattedDuration());
-        item.setText(6, entry.getToolNamesString());
-        item.setText(7, entry.isError() ? "ERROR" : "OK");
+        item.setText(5, usage != null ? formatNumber(usage.getCacheReadTokens()) : "-");
+        item.setText(6, entry.getFormattedDuration());
+        item.setText(7, entry.getToolNamesString());
+        item.setText(8, entry.isError() ? "ERROR" : "OK");
 
         if (entry.isError()) {
             item.setForeground(Display.getCurrent().getSystemColor(SWT.COLOR_RED));
@@ -158,14 +166,18 @@ public class DevLogComposite extends Composite {
         int requests = tracker.getRequestCount();
         int totalIn = tracker.getTotalInputTokens();
         int totalOut = tracker.getTotalOutputTokens();
+        int totalCached = tracker.getTotalCacheReadTokens();
         summaryLabel.setText(requests + " req | "
                 + formatNumber(totalIn) + " in / "
-                + formatNumber(totalOut) + " out");
+                + formatNumber(totalOut) + " out"
+                + (totalCached > 0 ? " | " + formatNumber(totalCached) + " cached" : ""));
         summaryLabel.getParent().layout(true);
     }
 
     private void showSelectedDetail() {
         if (detailText == null || detailText.isDisposed()) return;
+        // Rendering the conversation snapshot is not free; skip it while hidden
+        if (!expanded) return;
         int idx = logTable.getSelectionIndex();
         if (idx >= 0 && idx < entries.size()) {
             detailText.setText(entries.get(idx).toDetailString());
@@ -181,6 +193,9 @@ public class DevLogComposite extends Composite {
         gd.heightHint = expanded ? 260 : 0;
         tableContainer.setVisible(expanded);
         toggleButton.setText(expanded ? "Dev Log [-]" : "Dev Log");
+        if (expanded) {
+            showSelectedDetail();
+        }
         getParent().layout(true, true);
     }
 
@@ -1,14 +1,30 @@
 package com.sap.ai.assistant.ui;
 
 import java.util.ArrayList;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
 
 /**
- * Computes a unified diff between two texts using a simple LCS-based algorithm.
- * Suitable for ABAP source sizes (typically hundreds to low thousands of lines).
+ * Computes a unified diff between two texts using Myers' O((N+M)D) diff
+ * algorithm in its linear-space variant.
+ * <p>
+ * Lines are compared by interned integer ids. The common prefix and suffix
+ * are trimmed before the search, so a typical edit of a large class only
+ * diffs the changed region, and memory stays linear in the number of lines
+ * even when the whole source was rewritten.
+ * </p>
  */
 public final class DiffComputer {
 
+    /**
+     * Number of edit steps after which the middle snake search gives up on
+     * a minimal result and splits at the furthest point reached so far.
+     * Keeps heavily rewritten sources fast at the cost of a slightly longer
+     * (still correct) diff.
+     */
+    private static final int MAX_SEARCH_COST = 1024;
+
     public enum LineType { CONTEXT, ADDED, REMOVED }
 
     public static class DiffLine {
@@ -29,40 +45,23 @@ public final class DiffComputer {
     public static List<DiffLine> computeDiff(String oldText, String newText, int contextLines) {
         String[] oldLines = splitLines(oldText);
         String[] newLines = splitLines(newText);
-
-        // Compute LCS table
         int m = oldLines.length;
         int n = newLines.length;
-        int[][] lcs = new int[m + 1][n + 1];
-        for (int i = m - 1; i >= 0; i--) {
-            for (int j = n - 1; j >= 0; j--) {
-                if (oldLines[i].equals(newLines[j])) {
-                    lcs[i][j] = 1 + lcs[i + 1][j + 1];
-                } else {
-                    lcs[i][j] = Math.max(lcs[i + 1][j], lcs[i][j + 1]);
-                }
-            }
-        }
 
-        // Backtrack to produce raw diff
-        List<DiffLine> raw = new ArrayList<>();
-        int i = 0, j = 0;
-        while (i < m || j < n) {
-            if (i < m && j < n && oldLines[i].equals(newLines[j])) {
-                raw.add(new DiffLine(LineType.CONTEXT, oldLines[i]));
-                i++;
-                j++;
-            } else if (j < n && (i >= m || lcs[i][j + 1] >= lcs[i + 1][j])) {
-                raw.add(new DiffLine(LineType.ADDED, newLines[j]));
-                j++;
-            } else {
-                raw.add(new DiffLine(LineType.REMOVED, oldLines[i]));
-                i++;
-            }
-        }
+        // Map lines to ids so the search compares ints instead of strings
+        Map<String, Integer> ids = new HashMap<>();
+        int[] a = toIds(oldLines, ids);
+        int[] b = toIds(newLines, ids);
 
-        // Filter to show only changed lines with surrounding context
-        return filterWithContext(raw, contextLines);
+        boolean[] removed = new boolean[m];
+        boolean[] added = new boolean[n];
+        // Diagonals range over -(m + n) .. m + n, shifted by delta for the backward search
+        int offset = 2 * (m + n) + 2;
+        int[] forward = new int[2 * offset + 1];
+        int[] backward = new int[2 * offset + 1];
+        compareSeq(a, 0, m, b, 0, n, removed, added, forward, backward, offset);
+
+        return buildHunks(oldLines, newLines, removed, added, contextLines);
     }
 
     /**
@@ -102,40 +101,208 @@ public final class DiffComputer {
         return text.split("\\r?\\n", -1);
     }
 
+    private static int[] toIds(String[] lines, Map<String, Integer> ids) {
+        int[] result = new int[lines.length];
+        for (int i = 0; i < lines.length; i++) {
+            Integer id = ids.get(lines[i]);
+            if (id == null) {
+                id = ids.size();
+                ids.put(lines[i], id);
+            }
+            result[i] = id;
+        }
+        return result;
+    }
+
     /**
-     * Keep only changed lines and their surrounding context lines.
-     * Insert a separator marker between non-adjacent hunks.
+     * Marks the lines of {@code a[aLo..aHi)} that were removed and the lines
+     * of {@code b[bLo..bHi)} that were added, by splitting the range at the
+     * middle snake of a shortest edit script and recursing into both halves.
+     */
+    private static void compareSeq(int[] a, int aLo, int aHi, int[] b, int bLo, int bHi,
+                                   boolean[] removed, boolean[] added,
+                                   int[] forward, int[] backward, int offset) {
+        // Trim the common prefix and suffix
+        while (aLo < aHi && bLo < bHi && a[aLo] == b[bLo]) {
+            aLo++;
+            bLo++;
+        }
+        while (aLo < aHi && bLo < bHi && a[aHi - 1] == b[bHi - 1]) {
+            aHi--;
+            bHi--;
+        }
+
+        if (aLo == aHi) {
+            for (int j = bLo; j < bHi; j++) {
+                added[j] = true;
+            }
+            return;
+        }
+        if (bLo == bHi) {
+            for (int i = aLo; i < aHi; i++) {
+                removed[i] = true;
+            }
+            return;
+        }
+
+        int[] snake = middleSnake(a, aLo, aHi, b, bLo, bHi, forward, backward, offset);
+        compareSeq(a, aLo, snake[0], b, bLo, snake[1], removed, added, forward, backward, offset);
+        compareSeq(a, snake[2], aHi, b, snake[3], bHi, removed, added, forward, backward, offset);
+    }
+
+    /**
+     * Finds the middle snake of a shortest edit script between the two
+     * ranges by searching forward from the start and backward from the end
+     * until the paths overlap (Myers 1986, section 4b).
+     *
+     * @return absolute {x, y} of the snake start followed by {x, y} of its end
      */
-    private static List<DiffLine> filterWithContext(List<DiffLine> raw, int contextLines) {
-        int size = raw.size();
-        boolean[] include = new boolean[size];
-
-        // Mark changed lines and their context
-        for (int k = 0; k < size; k++) {
-            if (raw.get(k).type != LineType.CONTEXT) {
-                int start = Math.max(0, k - contextLines);
-                int end = Math.min(size - 1, k + contextLines);
-                for (int c = start; c <= end; c++) {
-                    include[c] = true;
+    private static int[] middleSnake(int[] a, int aLo, int aHi, int[] b, int bLo, int bHi,
+                                     int[] forward, int[] backward, int offset) {
+        int n = aHi - aLo;
+        int m = bHi - bLo;
+        int delta = n - m;
+        boolean odd = (delta & 1) != 0;
+        int maxD = (n + m + 1) / 2;
+
+        // forward[k] is the furthest x on diagonal k = x - y reached from (0, 0);
+        // backward[k] is the smallest x on diagonal k reached from (n, m)
+        forward[offset + 1] = 0;
+        backward[offset + delta - 1] = n;
+
+        for (int d = 0; d <= maxD; d++) {
+            for (int k = -d; k <= d; k += 2) {
+                int x;
+                if (k == -d || (k != d && forward[offset + k - 1] < forward[offset + k + 1])) {
+                    x = forward[offset + k + 1];
+                } else {
+                    x = forward[offset + k - 1] + 1;
+                }
+                int y = x - k;
+                int startX = x;
+                int startY = y;
+                while (x < n && y < m && a[aLo + x] == b[bLo + y]) {
+                    x++;
+                    y++;
+                }
+                forward[offset + k] = x;
+                if (odd && k >= delta - (d - 1) && k <= delta + (d - 1)
+                        && backward[offset + k] <= x) {
+                    return new int[] { aLo + startX, bLo + startY, aLo + x, bLo + y };
+                }
+            }
+
+            if (d >= MAX_SEARCH_COST) {
+                return furthestForwardPoint(aLo, bLo, n, m, d, forward, offset);
+            }
+
+            for (int k = -d; k <= d; k += 2) {
+                int kk = k + delta;
+                int x;
+                if (k == d || (k != -d && backward[offset + kk - 1] < backward[offset + kk + 1])) {
+                    x = backward[offset + kk - 1];
+                } else {
+                    x = backward[offset + kk + 1] - 1;
+                }
+                int y = x - kk;
+                int endX = x;
+                int endY = y;
+                while (x > 0 && y > 0 && a[aLo + x - 1] == b[bLo + y - 1]) {
+                    x--;
+                    y--;
+                }
+                backward[offset + kk] = x;
+                if (!odd && kk >= -d && kk <= d && x <= forward[offset + kk]) {
+                    return new int[] { aLo + x, bLo + y, aLo + endX, bLo + endY };
                 }
             }
         }
 
+        // Unreachable: the paths always meet within (n + m + 1) / 2 steps
+        throw new IllegalStateException("No middle snake found");
+    }
+
+    /**
+     * Returns an empty snake at the point of the last forward pass that
+     * got furthest along the diagonal of the edit graph.
+     */
+    private static int[] furthestForwardPoint(int aLo, int bLo, int n, int m, int d,
+                                              int[] forward, int offset) {
+        int bestX = 0;
+        int bestY = 0;
+        for (int k = -d; k <= d; k += 2) {
+            int x = Math.min(forward[offset + k], n);
+            int y = x - k;
+            if (y >= 0 && y <= m && x + y > bestX + bestY) {
+                bestX = x;
+                bestY = y;
+            }
+        }
+        return new int[] { aLo + bestX, bLo + bestY, aLo + bestX, bLo + bestY };
+    }
+
+    /**
+     * Walk the edit script and keep only changed lines and their surrounding
+     * context lines. Within a change, added lines come before removed lines.
+     * Insert a separator marker between non-adjacent hunks.
+     */
+    private static List<DiffLine> buildHunks(String[] oldLines, String[] newLines,
+                                             boolean[] removed, boolean[] added,
+                                             int contextLines) {
         List<DiffLine> result = new ArrayList<>();
-        boolean lastIncluded = false;
-        for (int k = 0; k < size; k++) {
-            if (include[k]) {
-                if (!lastIncluded && !result.isEmpty()) {
+        int m = oldLines.length;
+        int n = newLines.length;
+        int context = Math.max(0, contextLines);
+        boolean seenChange = false;
+        int i = 0;
+        int j = 0;
+
+        while (i < m || j < n) {
+            if (i < m && j < n && !removed[i] && !added[j]) {
+                // Unchanged run
+                int runStart = i;
+                while (i < m && j < n && !removed[i] && !added[j]) {
+                    i++;
+                    j++;
+                }
+                int runEnd = i;
+                boolean atEnd = i == m && j == n;
+
+                if (!seenChange) {
+                    // Leading context of the first hunk
+                    if (!atEnd) {
+                        addContext(result, oldLines, Math.max(runStart, runEnd - context), runEnd);
+                    }
+                } else if (atEnd || runEnd - runStart <= 2 * context) {
+                    // Trailing context of the last hunk, or a run that joins two hunks
+                    addContext(result, oldLines, runStart,
+                            atEnd ? Math.min(runEnd, runStart + context) : runEnd);
+                } else {
+                    addContext(result, oldLines, runStart, runStart + context);
                     // Gap between hunks
                     result.add(new DiffLine(LineType.CONTEXT, "..."));
+                    addContext(result, oldLines, runEnd - context, runEnd);
                 }
-                result.add(raw.get(k));
-                lastIncluded = true;
-            } else {
-                lastIncluded = false;
+                continue;
+            }
+
+            seenChange = true;
+            while (j < n && added[j]) {
+                result.add(new DiffLine(LineType.ADDED, newLines[j]));
+                j++;
+            }
+            while (i < m && removed[i]) {
+                result.add(new DiffLine(LineType.REMOVED, oldLines[i]));
+                i++;
             }
         }
 
         return result;
     }
+
+    private static void addContext(List<DiffLine> result, String[] lines, int from, int to) {
+        for (int k = from; k < to; k++) {
+            result.add(new DiffLine(LineType.CONTEXT, lines[k]));
+        }
+    }
 }
@@ -20,6 +20,8 @@ import com.sap.ai.assistant.model.DiffRequest;
 /**
  * SWT widget that shows a unified diff with Accept / Reject / Edit buttons.
  * Inserted into the chat message area when a write tool is intercepted.
+ * A widget created for a request that has already been decided shows the
+ * decision instead of active buttons.
  */
 public class DiffPreviewWidget extends Composite {
 
@@ -54,6 +56,9 @@ public class DiffPreviewWidget extends Composite {
         createHeader();
         createDiffDisplay();
         createButtonBar();
+        if (diffRequest.getDecision() != DiffRequest.Decision.PENDING) {
+            showDecision();
+        }
     }
 
     private void createHeader() {
@@ -125,18 +130,12 @@ public class DiffPreviewWidget extends Composite {
 
     private void handleAccept() {
         diffRequest.setDecision(DiffRequest.Decision.ACCEPTED);
-        disableButtons();
-        statusLabel.setText("Accepted - applying...");
-        statusLabel.setForeground(new Color(getDisplay(), 0, 140, 0));
-        statusLabel.requestLayout();
+        showDecision();
     }
 
     private void handleReject() {
         diffRequest.setDecision(DiffRequest.Decision.REJECTED);
-        disableButtons();
-        statusLabel.setText("Rejected");
-        statusLabel.setForeground(new Color(getDisplay(), 200, 0, 0));
-        statusLabel.requestLayout();
+        showDecision();
     }
 
     private void handleEdit() {
@@ -145,13 +144,31 @@ public class DiffPreviewWidget extends Composite {
         String edited = dialog.open();
         if (edited != null) {
             diffRequest.setDecision(DiffRequest.Decision.EDITED, edited);
-            disableButtons();
-            statusLabel.setText("Edited - applying...");
-            statusLabel.setForeground(new Color(getDisplay(), 0, 100, 180));
-            statusLabel.requestLayout();
+            showDecision();
         }
     }
 
+    private void showDecision() {
+        disableButtons();
+        switch (diffRequest.getDecision()) {
+            case ACCEPTED:
+                statusLabel.setText("Accepted - applying...");
+                statusLabel.setForeground(new Color(getDisplay(), 0, 140, 0));
+                break;
+            case REJECTED:
+                statusLabel.setText("Rejected");
+                statusLabel.setForeground(new Color(getDisplay(), 200, 0, 0));
+                break;
+            case EDITED:
+                statusLabel.setText("Edited - applying...");
+                statusLabel.setForeground(new Color(getDisplay(), 0, 100, 180));
+                break;
+            default:
+                return;
+        }
+        statusLabel.requestLayout();
+    }
+
     private void disableButtons() {
         acceptButton.setEnabled(false);
         rejectButton.setEnabled(false);
@@ -1,17 +1,14 @@
 package com.sap.ai.assistant.ui;
 
-import java.util.ArrayList;
+import java.util.HashMap;
 import java.util.List;
-import java.util.regex.Matcher;
-import java.util.regex.Pattern;
+import java.util.Map;
 
 import org.eclipse.swt.SWT;
 import org.eclipse.swt.custom.StyleRange;
 import org.eclipse.swt.custom.StyledText;
-import org.eclipse.swt.graphics.Color;
 import org.eclipse.swt.graphics.Font;
 import org.eclipse.swt.graphics.FontData;
-import org.eclipse.swt.graphics.TextStyle;
 import org.eclipse.swt.widgets.Display;
 
 /**
@@ -28,11 +25,8 @@ import org.eclipse.swt.widgets.Display;
  */
 public final class MarkdownRenderer {
 
-    // Patterns applied in order.  Fenced blocks first so inner backticks
-    // are not mis-detected as inline code.
-    private static final Pattern CODE_BLOCK = Pattern.compile("```[^\\n]*\\n(.*?)```", Pattern.DOTALL);
-    private static final Pattern BOLD       = Pattern.compile("\\*\\*(.+?)\\*\\*");
-    private static final Pattern INLINE_CODE = Pattern.compile("`([^`]+)`");
+    /** Monospace fonts by height; only used on the UI thread. */
+    private static final Map<Integer, Font> CODE_FONTS = new HashMap<>();
 
     private MarkdownRenderer() {
         // Utility class
@@ -54,97 +48,73 @@ public final class MarkdownRenderer {
             return;
         }
 
-        Display display = widget.getDisplay();
-        List<StyleRange> ranges = new ArrayList<>();
-
-        // ---- Fenced code blocks ----
-        applyCodeBlocks(text, ranges, display, widget);
-
-        // ---- Bold (**text**) ----
-        applyBold(text, ranges);
-
-        // ---- Inline code (`code`) ----
-        applyInlineCode(text, ranges, display, widget);
-
-        // ---- Bullet indent (lines starting with "- ") ----
-        applyBulletIndent(text, widget);
+        applySpans(widget, MarkdownScanner.scan(text));
+        applyBulletIndent(widget, MarkdownScanner.bulletLineOffsets(text));
+    }
 
-        // Merge and apply
-        if (!ranges.isEmpty()) {
-            // Sort by start offset to avoid SWT exceptions
-            ranges.sort((a, b) -> Integer.compare(a.start, b.start));
-            for (StyleRange range : ranges) {
-                try {
-                    widget.setStyleRange(range);
-                } catch (Exception e) {
-                    // Range may overlap or exceed bounds -- skip silently
-                }
-            }
+    /**
+     * Apply the ranges found by a {@link MarkdownStreamScanner} for text
+     * just appended to the widget. Existing styles are left alone, so the
+     * cost depends only on the size of the update.
+     *
+     * @param widget the StyledText to style (must not be disposed)
+     * @param update the ranges of the appended text
+     */
+    public static void applyIncrementalStyling(StyledText widget, MarkdownStreamScanner.Update update) {
+        if (widget == null || widget.isDisposed() || update == null || update.isEmpty()) {
+            return;
         }
+        applySpans(widget, update.getSpans());
+        applyBulletIndent(widget, update.getBulletLineOffsets());
     }
 
     // ------------------------------------------------------------------
     // Pattern-specific styling
     // ------------------------------------------------------------------
 
-    private static void applyCodeBlocks(String text, List<StyleRange> ranges,
-                                         Display display, StyledText widget) {
-        Font codeFont = getMonospaceFont(display, widget);
-        Color bgColor = display.getSystemColor(SWT.COLOR_WIDGET_BACKGROUND);
-
-        Matcher m = CODE_BLOCK.matcher(text);
-        while (m.find()) {
-            StyleRange range = new StyleRange();
-            range.start = m.start();
-            range.length = m.end() - m.start();
-            range.font = codeFont;
-            range.background = bgColor;
-            ranges.add(range);
-        }
-    }
+    /** Spans must be sorted by start offset to avoid SWT exceptions. */
+    private static void applySpans(StyledText widget, List<MarkdownScanner.Span> spans) {
+        Display display = widget.getDisplay();
+        Font codeFont = null;
 
-    private static void applyBold(String text, List<StyleRange> ranges) {
-        Matcher m = BOLD.matcher(text);
-        while (m.find()) {
+        for (MarkdownScanner.Span span : spans) {
             StyleRange range = new StyleRange();
-            range.start = m.start();
-            range.length = m.end() - m.start();
-            range.fontStyle = SWT.BOLD;
-            ranges.add(range);
-        }
-    }
-
-    private static void applyInlineCode(String text, List<StyleRange> ranges,
-                                          Display display, StyledText widget) {
-        Font codeFont = getMonospaceFont(display, widget);
-
-        Matcher m = INLINE_CODE.matcher(text);
-        while (m.find()) {
-            // Skip matches that fall inside a fenced code block
-            if (isInsideCodeBlock(text, m.start())) {
-                continue;
+            range.start = span.start;
+            range.length = span.length;
+            switch (span.kind) {
+                case CODE_BLOCK:
+                    if (codeFont == null) {
+                        codeFont = getMonospaceFont(display, widget);
+                    }
+                    range.font = codeFont;
+                    range.background = display.getSystemColor(SWT.COLOR_WIDGET_BACKGROUND);
+                    break;
+                case BOLD:
+                    range.fontStyle = SWT.BOLD;
+                    break;
+                case INLINE_CODE:
+                    if (codeFont == null) {
+                        codeFont = getMonospaceFont(display, widget);
+                    }
+                    range.font = codeFont;
+                    break;
+            }
+            try {
+                widget.setStyleRange(range);
+            } catch (Exception e) {
+                // Range may overlap or exceed bounds -- skip silently
             }
-            StyleRange range = new StyleRange();
-            range.start = m.start();
-            range.length = m.end() - m.start();
-            range.font = codeFont;
-            ranges.add(range);
         }
     }
 
-    private static void applyBulletIndent(String text, StyledText widget) {
-        String[] lines = text.split("\\n", -1);
-        int offset = 0;
-        for (String line : lines) {
-            if (line.startsWith("- ")) {
-                try {
-                    int lineIndex = widget.getLineAtOffset(offset);
-                    widget.setLineIndent(lineIndex, 1, 20);
-                } catch (Exception e) {
-                    // Offset out of range -- skip
-                }
+    private static void applyBulletIndent(StyledText widget, List<Integer> offsets) {
+        for (int offset : offsets) {
+            try {
+                int lineIndex = widget.getLineAtOffset(offset);
+                widget.setLineIndent(lineIndex, 1, 20);
+            } catch (Exception e) {
+                // Offset out of range -- skip
             }
-            offset += line.length() + 1; // +1 for the newline
         }
     }
 
@@ -153,21 +123,9 @@ public final class MarkdownRenderer {
     // ------------------------------------------------------------------
 
     /**
-     * Returns true if the given offset falls inside a fenced code block.
-     */
-    private static boolean isInsideCodeBlock(String text, int offset) {
-        Matcher m = CODE_BLOCK.matcher(text);
-        while (m.find()) {
-            if (offset >= m.start() && offset < m.end()) {
-                return true;
-            }
-        }
-        return false;
-    }
-
-    /**
-     * Create a monospace font matching the widget's current font size.
+     * Return a monospace font matching the widget's current font size.
      * Tries Menlo (macOS) then Consolas (Windows) then falls back to Courier.
+     * Fonts are created once per size and disposed with the display.
      */
     private static Font getMonospaceFont(Display display, StyledText widget) {
         int size = 11;
@@ -180,6 +138,19 @@ public final class MarkdownRenderer {
             // Use default size
         }
 
+        Font cached = CODE_FONTS.get(size);
+        if (cached != null && !cached.isDisposed()) {
+            return cached;
+        }
+        if (CODE_FONTS.isEmpty()) {
+            display.disposeExec(() -> {
+                for (Font font : CODE_FONTS.values()) {
+                    font.dispose();
+                }
+                CODE_FONTS.clear();
+            });
+        }
+
         // Try platform-appropriate monospace fonts
         String[] candidates = { "Menlo", "Consolas", "Courier New", "Courier" };
         for (String name : candidates) {
@@ -187,8 +158,10 @@ public final class MarkdownRenderer {
                 Font font = new Font(display, name, size, SWT.NORMAL);
                 // Verify the font was actually created with the right name
                 if (font.getFontData().length > 0) {
+                    CODE_FONTS.put(size, font);
                     return font;
                 }
+                font.dispose();
             } catch (Exception e) {
                 // Font not available -- try next
             }
@@ -0,0 +1,111 @@
+package com.sap.ai.assistant.ui;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Finds the Markdown constructs that {@link MarkdownRenderer} styles.
+ * <p>
+ * This is the widget-independent half of the renderer: it only works on
+ * the text and reports character ranges, so it can be used (and measured)
+ * without a display.
+ * </p>
+ */
+public final class MarkdownScanner {
+
+    // Fenced blocks are found first so inner backticks are not mis-detected
+    // as inline code.
+    private static final Pattern CODE_BLOCK = Pattern.compile("```[^\\n]*\\n(.*?)```", Pattern.DOTALL);
+    private static final Pattern BOLD       = Pattern.compile("\\*\\*(.+?)\\*\\*");
+    private static final Pattern INLINE_CODE = Pattern.compile("`([^`]+)`");
+
+    /** The kind of a styled range. */
+    public enum Kind { CODE_BLOCK, BOLD, INLINE_CODE }
+
+    /** A styled range of the text. */
+    public static final class Span {
+        public final Kind kind;
+        public final int start;
+        public final int length;
+
+        Span(Kind kind, int start, int length) {
+            this.kind = kind;
+            this.start = start;
+            this.length = length;
+        }
+    }
+
+    private MarkdownScanner() {
+        // Utility class
+    }
+
+    /**
+     * Returns the code block, bold and inline code ranges of the text,
+     * sorted by start offset. Inline code inside a code block is ignored.
+     *
+     * @param text the text to scan (must not be {@code null})
+     * @return the ranges, possibly empty
+     */
+    public static List<Span> scan(String text) {
+        List<Span> spans = new ArrayList<>();
+
+        List<Span> codeBlocks = new ArrayList<>();
+        Matcher m = CODE_BLOCK.matcher(text);
+        while (m.find()) {
+            codeBlocks.add(new Span(Kind.CODE_BLOCK, m.start(), m.end() - m.start()));
+        }
+        spans.addAll(codeBlocks);
+
+        m = BOLD.matcher(text);
+        while (m.find()) {
+            spans.add(new Span(Kind.BOLD, m.start(), m.end() - m.start()));
+        }
+
+        // Both lists are ordered by offset, so one pass over the code blocks
+        // is enough to skip inline code inside them
+        int block = 0;
+        m = INLINE_CODE.matcher(text);
+        while (m.find()) {
+            int start = m.start();
+            while (block < codeBlocks.size() && end(codeBlocks.get(block)) <= start) {
+                block++;
+            }
+            if (block < codeBlocks.size() && start >= codeBlocks.get(block).start) {
+                continue;
+            }
+            spans.add(new Span(Kind.INLINE_CODE, start, m.end() - start));
+        }
+
+        // Stable sort: code blocks stay before bold ranges at the same offset
+        spans.sort((a, b) -> Integer.compare(a.start, b.start));
+        return spans;
+    }
+
+    /**
+     * Returns the start offsets of all lines that begin with {@code "- "}.
+     *
+     * @param text the text to scan (must not be {@code null})
+     * @return the line start offsets in ascending order
+     */
+    public static List<Integer> bulletLineOffsets(String text) {
+        List<Integer> offsets = new ArrayList<>();
+        int offset = 0;
+        while (offset <= text.length()) {
+            if (text.startsWith("- ", offset)) {
+                offsets.add(offset);
+            }
+            int newline = text.indexOf('\n', offset);
+            if (newline < 0) {
+                break;
+            }
+            offset = newline + 1;
+        }
+        return offsets;
+    }
+
+    private static int end(Span span) {
+        return span.start + span.length;
+    }
+}
@@ -0,0 +1,150 @@
+package com.sap.ai.assistant.ui;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Incremental counterpart of {@link MarkdownScanner} for text that arrives
+ * in pieces, such as a streamed assistant reply.
+ * <p>
+ * Text is fed with {@link #append}; each call reports the ranges of the
+ * lines completed by it, so styling a reply costs time proportional to its
+ * length instead of rescanning it on every token. An open code fence is
+ * remembered across calls and its lines are reported as code as they
+ * complete. The last, incomplete line is reported once its newline arrives
+ * or when {@link #finish} is called.
+ * </p>
+ * <p>
+ * Unlike the full scan, bold and inline code are only found within a line.
+ * Like {@link MarkdownScanner}, this class does not touch any widget.
+ * </p>
+ */
+public final class MarkdownStreamScanner {
+
+    private static final String FENCE = "```";
+    private static final Pattern BOLD = Pattern.compile("\\*\\*(.+?)\\*\\*");
+    private static final Pattern INLINE_CODE = Pattern.compile("`([^`]+)`");
+
+    /** The ranges found by one {@link #append} or {@link #finish} call. */
+    public static final class Update {
+        private final List<MarkdownScanner.Span> spans = new ArrayList<>();
+        private final List<Integer> bulletLineOffsets = new ArrayList<>();
+
+        /** Returns the new ranges, sorted by start offset. */
+        public List<MarkdownScanner.Span> getSpans() { return spans; }
+
+        /** Returns the start offsets of new lines beginning with {@code "- "}. */
+        public List<Integer> getBulletLineOffsets() { return bulletLineOffsets; }
+
+        public boolean isEmpty() { return spans.isEmpty() && bulletLineOffsets.isEmpty(); }
+    }
+
+    /** Text not yet reported: the incomplete last line. */
+    private final StringBuilder pending = new StringBuilder();
+    /** Offset of {@link #pending} in the whole text. */
+    private int pendingOffset;
+    /** Whether a code fence is open at {@link #pendingOffset}. */
+    private boolean inFence;
+
+    /**
+     * Adds text to the end and returns the ranges of the lines it completes.
+     *
+     * @param chunk the appended text (must not be {@code null})
+     * @return the new ranges
+     */
+    public Update append(String chunk) {
+        Update update = new Update();
+        pending.append(chunk);
+        int lineStart = 0;
+        int newline;
+        while ((newline = pending.indexOf("\n", lineStart)) >= 0) {
+            scanLine(pending.substring(lineStart, newline), pendingOffset + lineStart, true, update);
+            lineStart = newline + 1;
+        }
+        pending.delete(0, lineStart);
+        pendingOffset += lineStart;
+        return update;
+    }
+
+    /**
+     * Reports the incomplete last line, if any, e.g. when the stream ends.
+     *
+     * @return the new ranges
+     */
+    public Update finish() {
+        Update update = new Update();
+        if (pending.length() > 0) {
+            scanLine(pending.toString(), pendingOffset, false, update);
+            pendingOffset += pending.length();
+            pending.setLength(0);
+        }
+        return update;
+    }
+
+    /** Returns whether a code fence is open at the end of the reported text. */
+    public boolean isInCodeBlock() {
+        return inFence;
+    }
+
+    // ------------------------------------------------------------------
+    // Line scanning
+    // ------------------------------------------------------------------
+
+    /**
+     * Scans one line starting at {@code offset}. Lines inside a fence are
+     * code, including the newline; the fence closes at the next
+     * {@code ```}, wherever it is on the line.
+     */
+    private void scanLine(String line, int offset, boolean complete, Update update) {
+        int lineEnd = line.length() + (complete ? 1 : 0);
+        if (inFence) {
+            int close = line.indexOf(FENCE);
+            if (close < 0) {
+                addSpan(update, MarkdownScanner.Kind.CODE_BLOCK, offset, lineEnd);
+                return;
+            }
+            inFence = false;
+            addSpan(update, MarkdownScanner.Kind.CODE_BLOCK, offset, close + FENCE.length());
+            scanInline(line, close + FENCE.length(), offset, update);
+            return;
+        }
+
+        if (line.startsWith("- ")) {
+            update.bulletLineOffsets.add(offset);
+        }
+        int open = line.indexOf(FENCE);
+        if (open >= 0) {
+            // The opening fence takes the rest of its line (the language tag)
+            scanInline(line.substring(0, open), 0, offset, update);
+            addSpan(update, MarkdownScanner.Kind.CODE_BLOCK, offset + open, lineEnd - open);
+            inFence = true;
+            return;
+        }
+        scanInline(line, 0, offset, update);
+    }
+
+    private static void scanInline(String line, int from, int offset, Update update) {
+        List<MarkdownScanner.Span> spans = new ArrayList<>();
+        Matcher m = BOLD.matcher(line);
+        m.region(from, line.length());
+        while (m.find()) {
+            spans.add(new MarkdownScanner.Span(MarkdownScanner.Kind.BOLD, offset + m.start(), m.end() - m.start()));
+        }
+        m = INLINE_CODE.matcher(line);
+        m.region(from, line.length());
+        while (m.find()) {
+            spans.add(new MarkdownScanner.Span(MarkdownScanner.Kind.INLINE_CODE, offset + m.start(),
+                    m.end() - m.start()));
+        }
+        spans.sort((a, b) -> Integer.compare(a.start, b.start));
+        update.spans.addAll(spans);
+    }
+
+    private static void addSpan(Update update, MarkdownScanner.Kind kind, int start, int length) {
+        if (length > 0) {
+            update.spans.add(new MarkdownScanner.Span(kind, start, length));
+        }
+    }
+}
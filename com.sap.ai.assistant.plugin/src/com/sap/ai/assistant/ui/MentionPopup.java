@@ -1,6 +1,7 @@
 package com.sap.ai.assistant.ui;
 
 import java.util.function.Consumer;
+import java.util.function.Supplier;
 
 import org.eclipse.swt.SWT;
 import org.eclipse.swt.custom.StyledText;
@@ -9,10 +10,14 @@ import org.eclipse.swt.layout.FillLayout;
 import org.eclipse.swt.widgets.List;
 import org.eclipse.swt.widgets.Shell;
 
+import com.sap.ai.assistant.sap.AdtObjectIndex;
+
 /**
  * A lightweight popup that appears when the user types {@code @} in the
  * chat input, offering mention completions like {@code @errors},
  * {@code @selection}, {@code @source}, or a typed SAP object name.
+ * Object names are completed from the selected system's
+ * {@link AdtObjectIndex} when one is available.
  */
 public class MentionPopup {
 
@@ -20,6 +25,10 @@ public class MentionPopup {
     private List list;
     private final StyledText inputText;
     private final Consumer<String> onSelect;
+    private final Supplier<AdtObjectIndex> objectIndex;
+
+    /** Maximum number of object names offered from the index. */
+    private static final int MAX_OBJECT_COMPLETIONS = 8;
 
     private static final String[] CATEGORIES = {
         "@errors — current editor errors",
@@ -30,9 +39,11 @@ public class MentionPopup {
         "@errors", "@selection", "@source"
     };
 
-    public MentionPopup(StyledText inputText, Consumer<String> onSelect) {
+    public MentionPopup(StyledText inputText, Consumer<String> onSelect,
+                        Supplier<AdtObjectIndex> objectIndex) {
         this.inputText = inputText;
         this.onSelect = onSelect;
+        this.objectIndex = objectIndex;
     }
 
     /**
@@ -61,6 +72,7 @@ public class MentionPopup {
         }
 
         // If user typed something that doesn't match categories, offer as object name
+        boolean objectItems = false;
         if (filter.length() > 0) {
             boolean matchesCategory = false;
             for (String cv : CATEGORY_VALUES) {
@@ -70,9 +82,13 @@ public class MentionPopup {
                 }
             }
             if (!matchesCategory) {
-                String objectEntry = "@" + filter.toUpperCase() + " (SAP object)";
-                list.add(objectEntry);
-                list.setData(objectEntry, "@" + filter.toUpperCase());
+                objectItems = true;
+                boolean exactMatch = addObjectCompletions(filter);
+                if (!exactMatch) {
+                    String objectEntry = "@" + filter.toUpperCase() + " (SAP object)";
+                    list.add(objectEntry);
+                    list.setData(objectEntry, "@" + filter.toUpperCase());
+                }
             }
         }
 
@@ -84,17 +100,45 @@ public class MentionPopup {
         list.select(0);
         list.addListener(SWT.DefaultSelection, e -> acceptSelection());
 
+        // Object completions carry type and package and need more room
+        int width = objectItems ? 400 : 250;
+        int height = Math.max(80, Math.min(list.getItemCount(), 10) * list.getItemHeight() + 6);
+
         // Position below caret
         try {
             Point caretLoc = inputText.getLocationAtOffset(inputText.getCaretOffset());
             Point displayPt = inputText.toDisplay(caretLoc);
-            popup.setBounds(displayPt.x, displayPt.y + 20, 250, 80);
+            popup.setBounds(displayPt.x, displayPt.y + 20, width, height);
         } catch (Exception e) {
-            popup.setBounds(100, 100, 250, 80);
+            popup.setBounds(100, 100, width, height);
         }
         popup.setVisible(true);
     }
 
+    /**
+     * Adds the indexed objects matching the typed text.
+     *
+     * @return {@code true} if one of them is named exactly like the text
+     */
+    private boolean addObjectCompletions(String filter) {
+        AdtObjectIndex index = objectIndex != null ? objectIndex.get() : null;
+        if (index == null) {
+            return false;
+        }
+        boolean exactMatch = false;
+        for (AdtObjectIndex.Entry entry : index.complete(filter, MAX_OBJECT_COMPLETIONS)) {
+            String item = "@" + entry.getName() + " — " + entry.getType()
+                    + (entry.getPackageName().isEmpty() ? "" : " (" + entry.getPackageName() + ")");
+            if (list.indexOf(item) >= 0) {
+                continue;
+            }
+            list.add(item);
+            list.setData(item, "@" + entry.getName());
+            exactMatch |= entry.getName().equalsIgnoreCase(filter);
+        }
+        return exactMatch;
+    }
+
     /**
      * Accepts the currently selected item and notifies the callback.
      */
@@ -21,6 +21,7 @@ public class MessageRenderer {
 
     private final Display display;
     private Font codeFont;
+    private Font boldFont;
 
     public MessageRenderer(Composite parent, Display display) {
         this.display = display;
@@ -121,6 +122,10 @@ public class MessageRenderer {
             codeFont.dispose();
             codeFont = null;
         }
+        if (boldFont != null && !boldFont.isDisposed()) {
+            boldFont.dispose();
+            boldFont = null;
+        }
     }
 
     // ------------------------------------------------------------------
@@ -139,11 +144,16 @@ public class MessageRenderer {
         }
     }
 
+    /** Shared by all role labels, which use the same default font. */
     private Font getBoldFont(Font base) {
+        if (boldFont != null && !boldFont.isDisposed()) {
+            return boldFont;
+        }
         try {
             FontData[] fd = base.getFontData();
             if (fd.length > 0) {
-                return new Font(display, fd[0].getName(), fd[0].getHeight(), SWT.BOLD);
+                boldFont = new Font(display, fd[0].getName(), fd[0].getHeight(), SWT.BOLD);
+                return boldFont;
             }
         } catch (Exception e) {
             // ignore
@@ -48,6 +48,8 @@ public class SystemSelectorComposite extends Composite {
     /** Number of ADT-discovered systems (these cannot be removed). */
     private int discoveredCount;
 
+    private Runnable selectionHandler;
+
     /**
      * Create the system selector.
      *
@@ -90,9 +92,19 @@ public class SystemSelectorComposite extends Composite {
                 handleAddManual();
             }
             updateRemoveButton();
+            if (selectionHandler != null) {
+                selectionHandler.run();
+            }
         });
     }
 
+    /**
+     * Set the handler called after the user selected a system.
+     */
+    public void setSelectionHandler(Runnable handler) {
+        this.selectionHandler = handler;
+    }
+
     /**
      * Returns the currently selected SAP system connection.
      *
@@ -1,7 +1,6 @@
 package com.sap.ai.assistant.ui;
 
 import org.eclipse.swt.SWT;
-import org.eclipse.swt.custom.ScrolledComposite;
 import org.eclipse.swt.custom.StyledText;
 import org.eclipse.swt.graphics.Color;
 import org.eclipse.swt.graphics.Font;
@@ -102,6 +101,49 @@ public class ToolCallWidget extends Composite {
         });
     }
 
+    /**
+     * Show the progress reported by a running tool next to its header.
+     *
+     * @param progress the progress so far
+     * @param total    the total, or {@code null} if unknown
+     * @param message  a status text from the tool, or {@code null}
+     */
+    public void setProgress(double progress, Double total, String message) {
+        if (isDisposed() || resultStatusLabel == null || resultStatusLabel.isDisposed()) {
+            return;
+        }
+        StringBuilder status = new StringBuilder("  [running");
+        if (total != null && total > 0) {
+            status.append(' ').append(Math.round(Math.min(progress, total) * 100 / total)).append('%');
+        }
+        if (message != null && !message.isEmpty()) {
+            status.append(": ").append(message.length() > 60 ? message.substring(0, 60) + "..." : message);
+        }
+        status.append(total == null && message == null ? "...]" : "]");
+        resultStatusLabel.setText(status.toString());
+        requestLayout();
+    }
+
+    /**
+     * Returns whether the details are shown.
+     */
+    public boolean isExpanded() {
+        return expanded;
+    }
+
+    /**
+     * Show or hide the details, e.g. when the widget is rebuilt with the
+     * state of an earlier one.
+     *
+     * @param expanded {@code true} to show the details
+     */
+    public void setExpanded(boolean expanded) {
+        if (isDisposed() || this.expanded == expanded) return;
+        this.expanded = expanded;
+        applyExpanded();
+        requestLayout();
+    }
+
     // ------------------------------------------------------------------
     // Widget creation
     // ------------------------------------------------------------------
@@ -189,7 +231,12 @@ public class ToolCallWidget extends Composite {
     private void toggleExpanded() {
         if (isDisposed()) return;
         expanded = !expanded;
+        applyExpanded();
+        // The chat transcript remeasures this widget and updates the scroll range
+        requestLayout();
+    }
 
+    private void applyExpanded() {
         String arrow = expanded ? ARROW_EXPANDED : ARROW_COLLAPSED;
         String currentText = headerLabel.getText();
         // Preserve any status suffix after the tool name
@@ -205,35 +252,6 @@ public class ToolCallWidget extends Composite {
         detailsComposite.setVisible(expanded);
         GridData gd = (GridData) detailsComposite.getLayoutData();
         gd.exclude = !expanded;
-
-        requestLayout();
-        // Trigger parent layout up the chain and update ScrolledComposite bounds
-        Composite parent = getParent();
-        ScrolledComposite sc = null;
-        while (parent != null) {
-            parent.layout(true, true);
-            if (parent instanceof ScrolledComposite) {
-                sc = (ScrolledComposite) parent;
-            }
-            parent = parent.getParent();
-        }
-        if (sc != null) {
-            ScrolledComposite scrolled = sc;
-            Composite content = (Composite) scrolled.getContent();
-            if (content != null && !content.isDisposed()) {
-                getDisplay().asyncExec(() -> {
-                    if (scrolled.isDisposed() || content.isDisposed()) return;
-                    scrolled.setMinSize(content.computeSize(
-                            scrolled.getClientArea().width, SWT.DEFAULT));
-                    content.layout(true, true);
-                    scrolled.layout(true, true);
-                    int maxScroll = content.getSize().y - scrolled.getClientArea().height;
-                    if (maxScroll > 0) {
-                        scrolled.setOrigin(0, maxScroll);
-                    }
-                });
-            }
-        }
     }
 
     // ------------------------------------------------------------------
@@ -0,0 +1,37 @@
+package com.sap.ai.assistant.util;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+
+/**
+ * Short content hashes used as cache keys and file names.
+ */
+public final class Hashes {
+
+    private Hashes() {
+        // utility class
+    }
+
+    /**
+     * Returns the first 10 bytes of the SHA-1 digest of the UTF-8 encoded
+     * value as 20 lowercase hex characters. Falls back to the hex string
+     * of {@link String#hashCode()} if SHA-1 is not available.
+     *
+     * @param value the value to hash
+     * @return the hash, safe for use in file names
+     */
+    public static String shortHash(String value) {
+        try {
+            MessageDigest md = MessageDigest.getInstance("SHA-1");
+            byte[] digest = md.digest(value.getBytes(StandardCharsets.UTF_8));
+            StringBuilder sb = new StringBuilder();
+            for (int i = 0; i < 10; i++) {
+                sb.append(String.format("%02x", digest[i]));
+            }
+            return sb.toString();
+        } catch (NoSuchAlgorithmException e) {
+            return Integer.toHexString(value.hashCode());
+        }
+    }
+}